@@ -0,0 +1,299 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import de.mrapp.android.bottomsheet.layout.DividableGridLayout;
+import de.mrapp.android.bottomsheet.layout.ItemSequence;
+
+/**
+ * Measures the operations, which are performed on the items of a bottom sheet and their layout:
+ * Computing the padded layout, adding, replacing and removing items, looking up items by their
+ * position, index or id, as well as computing the total height of all rows. The items are kept
+ * track of by an {@link ItemSequence}, which is also used by the adapter of a bottom sheet. Each operation is
+ * measured for different numbers of items and columns. The allocations of each operation are
+ * reported, if the benchmarks are run with the GC profiler, which is enabled by the
+ * <code>jmh</code> task.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DividableGridLayoutBenchmark {
+
+    /**
+     * The interval, at which dividers are added to the items.
+     */
+    private static final int DIVIDER_INTERVAL = 10;
+
+    /**
+     * The step, by which the cursor, which selects the items, which are accessed, is advanced.
+     * As it is prime, all items are eventually accessed in a non-sequential order.
+     */
+    private static final int CURSOR_STEP = 7919;
+
+    /**
+     * The height of rows, which contain items, in pixels.
+     */
+    private static final int ITEM_ROW_HEIGHT = 144;
+
+    /**
+     * The height of rows, which contain a divider without a title, in pixels.
+     */
+    private static final int DIVIDER_ROW_HEIGHT = 27;
+
+    /**
+     * The height of rows, which contain a divider with a title, in pixels.
+     */
+    private static final int TITLED_DIVIDER_ROW_HEIGHT = 102;
+
+    /**
+     * The number of items.
+     */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int itemCount;
+
+    /**
+     * The number of columns.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int columnCount;
+
+    /**
+     * The items, which are laid out.
+     */
+    private ItemSequence items;
+
+    /**
+     * The id, which is assigned to the next item, which is added.
+     */
+    private int nextId;
+
+    /**
+     * The layout, which is measured.
+     */
+    private DividableGridLayout layout;
+
+    /**
+     * The cursor, which selects the items, which are accessed.
+     */
+    private int cursor;
+
+    /**
+     * Advances the cursor and returns its new value.
+     *
+     * @param bound
+     *         The exclusive upper bound of the cursor as an {@link Integer} value
+     * @return The new value of the cursor as an {@link Integer} value
+     */
+    private int nextCursor(final int bound) {
+        cursor = (int) ((cursor + (long) CURSOR_STEP) % bound);
+        return cursor;
+    }
+
+    /**
+     * Creates and returns a source, which provides all items of the sequence, which is measured,
+     * to the layout.
+     *
+     * @return The source, which has been created, as an instance of the type {@link
+     * DividableGridLayout.Source}
+     */
+    private DividableGridLayout.Source createSource() {
+        return new DividableGridLayout.Source() {
+
+            @Override
+            public int getItemCount() {
+                return items.size();
+            }
+
+            @Override
+            public int getDividerCount() {
+                return items.getDividerCount();
+            }
+
+            @Override
+            public int getVisibleItemCount() {
+                return items.size();
+            }
+
+            @Override
+            public int getVisibleItemIndex(final int visibleIndex) {
+                return visibleIndex;
+            }
+
+            @Override
+            public boolean isDivider(final int index) {
+                return items.isDivider(index);
+            }
+
+            @Override
+            public boolean hasTitle(final int index) {
+                return items.getType(index) == ItemSequence.TITLED_DIVIDER;
+            }
+
+        };
+    }
+
+    /**
+     * Invalidates and recomputes the layout, as it is done after the items have been changed.
+     *
+     * @return The number of positions, including placeholders and fillers, as an {@link Integer}
+     * value
+     */
+    private int relayout() {
+        layout.invalidate();
+        layout.compute();
+        return layout.getCount();
+    }
+
+    /**
+     * Creates the items and computes their layout.
+     */
+    @Setup
+    public void setUp() {
+        items = new ItemSequence();
+        nextId = 0;
+
+        for (int i = 0; i < itemCount; i++) {
+            if (i % DIVIDER_INTERVAL == DIVIDER_INTERVAL - 1) {
+                items.add(nextId++, i / DIVIDER_INTERVAL % 2 == 0 ? ItemSequence.DIVIDER :
+                        ItemSequence.TITLED_DIVIDER);
+            } else {
+                items.add(nextId++, ItemSequence.ITEM);
+            }
+        }
+
+        layout = new DividableGridLayout(createSource());
+        layout.setColumnCount(columnCount);
+        layout.setRowHeights(ITEM_ROW_HEIGHT, DIVIDER_ROW_HEIGHT, TITLED_DIVIDER_ROW_HEIGHT);
+        layout.compute();
+        cursor = 0;
+    }
+
+    /**
+     * Measures computing the padded layout from scratch.
+     *
+     * @return The number of positions as an {@link Integer} value
+     */
+    @Benchmark
+    public int layout() {
+        return relayout();
+    }
+
+    /**
+     * Measures adding a divider to the end of the items and removing it again, including the
+     * layout, which is computed after each change.
+     *
+     * @return The number of positions as an {@link Integer} value
+     */
+    @Benchmark
+    public int addThenRemove() {
+        items.add(nextId++, ItemSequence.DIVIDER);
+        int count = relayout();
+        items.remove(items.size() - 1);
+        return count + relayout();
+    }
+
+    /**
+     * Measures replacing an item with a divider and restoring it again, including the layout,
+     * which is computed after each change.
+     *
+     * @return The number of positions as an {@link Integer} value
+     */
+    @Benchmark
+    public int setThenRestore() {
+        int index = nextCursor(itemCount);
+        int id = items.getId(index);
+        byte type = items.set(index, id, ItemSequence.TITLED_DIVIDER);
+        int count = relayout();
+        items.set(index, id, type);
+        return count + relayout();
+    }
+
+    /**
+     * Measures removing an item and inserting it again at the same index, including the layout,
+     * which is computed after each change.
+     *
+     * @return The number of positions as an {@link Integer} value
+     */
+    @Benchmark
+    public int removeThenAdd() {
+        int index = nextCursor(itemCount);
+        int id = items.getId(index);
+        byte type = items.remove(index);
+        int count = relayout();
+        items.add(index, id, type);
+        return count + relayout();
+    }
+
+    /**
+     * Measures looking up the index of the item, which is displayed at a specific position.
+     *
+     * @return The index of the item as an {@link Integer} value
+     */
+    @Benchmark
+    public int positionToIndex() {
+        return layout.getIndex(nextCursor(layout.getCount()));
+    }
+
+    /**
+     * Measures looking up the position, at which the item with a specific index is displayed.
+     *
+     * @return The position of the item as an {@link Integer} value
+     */
+    @Benchmark
+    public int indexToPosition() {
+        return layout.getPosition(nextCursor(itemCount));
+    }
+
+    /**
+     * Measures looking up the index of the item with a specific id.
+     *
+     * @return The index of the item as an {@link Integer} value
+     */
+    @Benchmark
+    public int idToIndex() {
+        return items.indexOf(items.getId(nextCursor(itemCount)));
+    }
+
+    /**
+     * Measures computing the total height of all rows, as it is done when adapting the height of
+     * a bottom sheet's grid view to its children.
+     *
+     * @return The total height of all rows in pixels as an {@link Integer} value
+     */
+    @Benchmark
+    public int height() {
+        return layout.getHeight();
+    }
+
+}
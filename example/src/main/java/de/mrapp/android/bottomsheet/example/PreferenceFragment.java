@@ -26,6 +26,9 @@ import android.view.View;
 import android.widget.AdapterView;
 import android.widget.Toast;
 
+import java.io.File;
+import java.io.IOException;
+
 import de.mrapp.android.bottomsheet.BottomSheet;
 import de.mrapp.android.bottomsheet.BottomSheet.Style;
 
@@ -72,6 +75,12 @@ public class PreferenceFragment extends android.preference.PreferenceFragment {
      */
     private BottomSheet intentBottomSheet;
 
+    /**
+     * The runner, which runs scripted scenarios, which measure the latency of showing and
+     * dismissing bottom sheets, or null, if the scenarios have not been run yet.
+     */
+    private ShowLatencyScenarioRunner showLatencyScenarioRunner;
+
     /**
      * The toast, which is used to indicate, when a bottom sheet's item has been clicked.
      */
@@ -201,6 +210,70 @@ public class PreferenceFragment extends android.preference.PreferenceFragment {
                 });
     }
 
+    /**
+     * Initializes the preference, which allows to run scripted scenarios, which measure the
+     * latency of showing and dismissing bottom sheets.
+     */
+    private void initializeRunShowLatencyScenariosPreference() {
+        Preference runShowLatencyScenariosPreference =
+                findPreference(getString(R.string.run_show_latency_scenarios_preference_key));
+        runShowLatencyScenariosPreference
+                .setOnPreferenceClickListener(new OnPreferenceClickListener() {
+
+                    @Override
+                    public boolean onPreferenceClick(final Preference preference) {
+                        if (showLatencyScenarioRunner != null) {
+                            showLatencyScenarioRunner.stop();
+                        }
+
+                        showLatencyScenarioRunner = new ShowLatencyScenarioRunner(getActivity());
+                        showLatencyScenarioRunner.run(createShowLatencyScenariosCallback());
+                        return true;
+                    }
+
+                });
+    }
+
+    /**
+     * Creates and returns a callback, which allows to show a toast, when the scripted scenarios,
+     * which measure the latency of showing and dismissing bottom sheets, have been run.
+     *
+     * @return The callback, which has been created, as an instance of the type {@link
+     * ShowLatencyScenarioRunner.Callback}
+     */
+    private ShowLatencyScenarioRunner.Callback createShowLatencyScenariosCallback() {
+        return new ShowLatencyScenarioRunner.Callback() {
+
+            @Override
+            public void onFinished(@NonNull final File file) {
+                showToast(getString(R.string.show_latency_scenarios_finished_toast,
+                        file.getAbsolutePath()));
+            }
+
+            @Override
+            public void onFailed(@NonNull final IOException exception) {
+                showToast(getString(R.string.show_latency_scenarios_failed_toast));
+            }
+
+        };
+    }
+
+    /**
+     * Shows a toast, which displays a specific text. A toast, which is currently shown, is
+     * canceled.
+     *
+     * @param text
+     *         The text, which should be displayed, as a {@link String}. The text may not be null
+     */
+    private void showToast(@NonNull final String text) {
+        if (toast != null) {
+            toast.cancel();
+        }
+
+        toast = Toast.makeText(getActivity(), text, Toast.LENGTH_LONG);
+        toast.show();
+    }
+
     /**
      * Creates and returns a builder, which allows to create bottom sheets, depending on the app's
      * settings.
@@ -452,6 +525,7 @@ public class PreferenceFragment extends android.preference.PreferenceFragment {
         initializeShowBottomSheetPreference();
         initializeShowCustomBottomSheetPreference();
         initializeShowIntentBottmSheetPreference();
+        initializeRunShowLatencyScenariosPreference();
 
         if (savedInstanceState != null) {
             Bundle bottomSheetState = savedInstanceState.getBundle(BOTTOM_SHEET_STATE_EXTRA);
@@ -484,4 +558,14 @@ public class PreferenceFragment extends android.preference.PreferenceFragment {
                 intentBottomSheet.onSaveInstanceState());
     }
 
+    @Override
+    public final void onDestroy() {
+        super.onDestroy();
+
+        if (showLatencyScenarioRunner != null) {
+            showLatencyScenarioRunner.stop();
+            showLatencyScenarioRunner = null;
+        }
+    }
+
 }
\ No newline at end of file
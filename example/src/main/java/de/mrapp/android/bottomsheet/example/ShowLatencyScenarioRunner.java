@@ -0,0 +1,457 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.example;
+
+import android.app.Activity;
+import android.content.DialogInterface;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.mrapp.android.bottomsheet.BottomSheet;
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+import de.mrapp.android.bottomsheet.metrics.ShowMetrics;
+
+/**
+ * Runs scripted scenarios, which show and dismiss bottom sheets with different styles and numbers
+ * of items, as well as bottom sheets, which display the applications, which are suited for
+ * handling an intent. Each bottom sheet is shown twice: Once after it has been created (cold) and
+ * once again after it has been dismissed (warm). The time between calling <code>show()</code> and
+ * the first frame being drawn, as well as the time between calling <code>dismiss()</code> and the
+ * window being removed, is appended to a CSV file in the app's storage.
+ *
+ * The runner only relies on the main looper of the activity, it is started from. Therefore, it can
+ * also be run under Robolectric by advancing the main looper. The runner must be stopped, when
+ * the activity is destroyed, in order to prevent further bottom sheets from being shown.
+ *
+ * @author Michael Rapp
+ */
+public class ShowLatencyScenarioRunner {
+
+    /**
+     * Defines the interface, a class, which should be notified, when all scenarios have been run,
+     * must implement.
+     */
+    public interface Callback {
+
+        /**
+         * The method, which is invoked, when all scenarios have been run and the results have been
+         * written.
+         *
+         * @param file
+         *         The file, the results have been written to, as an instance of the class {@link
+         *         File}
+         */
+        void onFinished(@NonNull File file);
+
+        /**
+         * The method, which is invoked, when the results could not be written.
+         *
+         * @param exception
+         *         The exception, which has been thrown while writing the results, as an instance of
+         *         the class {@link IOException}
+         */
+        void onFailed(@NonNull IOException exception);
+
+    }
+
+    /**
+     * A single scenario.
+     */
+    private static class Scenario {
+
+        /**
+         * The style of the bottom sheet, or null, if the bottom sheet displays the applications,
+         * which are suited for handling an intent.
+         */
+        private final Style style;
+
+        /**
+         * The number of items of the bottom sheet.
+         */
+        private final int itemCount;
+
+        /**
+         * True, if the bottom sheet of the previous scenario is shown again, false, if a new
+         * bottom sheet is created.
+         */
+        private final boolean warm;
+
+        /**
+         * The time between calling <code>show()</code> and the first frame being drawn in
+         * nanoseconds, or -1, if the time has not been measured yet.
+         */
+        private long showDuration = -1;
+
+        /**
+         * The time between calling <code>dismiss()</code> and the window being removed in
+         * nanoseconds, or -1, if the time has not been measured yet.
+         */
+        private long dismissDuration = -1;
+
+        /**
+         * Creates a new scenario.
+         *
+         * @param style
+         *         The style of the bottom sheet as a value of the enum {@link Style} or null, if
+         *         the bottom sheet should display the applications, which are suited for handling
+         *         an intent
+         * @param itemCount
+         *         The number of items of the bottom sheet as an {@link Integer} value
+         * @param warm
+         *         True, if the bottom sheet of the previous scenario should be shown again, false,
+         *         if a new bottom sheet should be created
+         */
+        Scenario(@Nullable final Style style, final int itemCount, final boolean warm) {
+            this.style = style;
+            this.itemCount = itemCount;
+            this.warm = warm;
+        }
+
+    }
+
+    /**
+     * The name of the CSV file, the results are appended to.
+     */
+    private static final String FILE_NAME = "show_latency.csv";
+
+    /**
+     * The header of the CSV file.
+     */
+    private static final String CSV_HEADER =
+            "run,style,item_count,start,show_to_first_frame_ns,dismiss_to_window_removed_ns\n";
+
+    /**
+     * The numbers of items, bottom sheets are shown with.
+     */
+    private static final int[] ITEM_COUNTS = {10, 100, 1000};
+
+    /**
+     * The time in milliseconds, which passes between the first frame of a bottom sheet being
+     * drawn and the bottom sheet being dismissed. This allows the animation, which is used to show
+     * the bottom sheet, to finish.
+     */
+    private static final long DISMISS_DELAY = 500;
+
+    /**
+     * The activity, the bottom sheets are shown by.
+     */
+    private final Activity activity;
+
+    /**
+     * The handler, which is used to run the scenarios one after another.
+     */
+    private final Handler handler;
+
+    /**
+     * A list, which contains the scenarios, which are run.
+     */
+    private final List<Scenario> scenarios;
+
+    /**
+     * The callback, which is notified, when all scenarios have been run.
+     */
+    private Callback callback;
+
+    /**
+     * True, if the scenarios are currently run, false otherwise.
+     */
+    private boolean running;
+
+    /**
+     * The index of the scenario, which is currently run.
+     */
+    private int currentIndex;
+
+    /**
+     * The bottom sheet, which is currently shown.
+     */
+    private BottomSheet bottomSheet;
+
+    /**
+     * The time in nanoseconds, when the bottom sheet, which is currently shown, has been
+     * dismissed.
+     */
+    private long dismissTime;
+
+    /**
+     * The time in milliseconds, when the scenarios have been started.
+     */
+    private long runTime;
+
+    /**
+     * Creates and returns the scenarios, which are run.
+     *
+     * @return A list, which contains the scenarios, as an instance of the type {@link List}
+     */
+    private static List<Scenario> createScenarios() {
+        List<Scenario> scenarios = new ArrayList<>();
+
+        for (Style style : Style.values()) {
+            for (int itemCount : ITEM_COUNTS) {
+                scenarios.add(new Scenario(style, itemCount, false));
+                scenarios.add(new Scenario(style, itemCount, true));
+            }
+        }
+
+        scenarios.add(new Scenario(null, 0, false));
+        scenarios.add(new Scenario(null, 0, true));
+        return scenarios;
+    }
+
+    /**
+     * Creates and returns the bottom sheet, which corresponds to a specific scenario.
+     *
+     * @param scenario
+     *         The scenario as an instance of the class {@link Scenario}. The scenario may not be
+     *         null
+     * @return The bottom sheet, which has been created, as an instance of the class {@link
+     * BottomSheet}
+     */
+    private BottomSheet createBottomSheet(@NonNull final Scenario scenario) {
+        BottomSheet.Builder builder = new BottomSheet.Builder(activity);
+        builder.setTitle(R.string.bottom_sheet_title_preference_default_value);
+
+        if (scenario.style != null) {
+            builder.setStyle(scenario.style);
+
+            for (int i = 0; i < scenario.itemCount; i++) {
+                builder.addItem(i, activity.getString(R.string.item_title, i + 1));
+            }
+        } else {
+            Intent intent = new Intent();
+            intent.setAction(Intent.ACTION_SEND);
+            intent.putExtra(Intent.EXTRA_TEXT, "This is my text to send.");
+            intent.setType("text/plain");
+            builder.setIntent(activity, intent);
+        }
+
+        builder.setMetrics(createMetrics());
+        builder.setOnDismissListener(createDismissListener());
+        return builder.create();
+    }
+
+    /**
+     * Runs the scenario at a specific index. If all scenarios have been run, the results are
+     * written instead.
+     *
+     * @param index
+     *         The index of the scenario, which should be run, as an {@link Integer} value
+     */
+    private void runScenario(final int index) {
+        if (!running) {
+            return;
+        }
+
+        currentIndex = index;
+
+        if (index < scenarios.size()) {
+            Scenario scenario = scenarios.get(index);
+
+            if (!scenario.warm || bottomSheet == null) {
+                bottomSheet = createBottomSheet(scenario);
+            }
+
+            bottomSheet.show();
+        } else {
+            running = false;
+            bottomSheet = null;
+            writeResults();
+        }
+    }
+
+    /**
+     * Creates and returns a callback, which allows to record the time between showing a bottom
+     * sheet and its first frame being drawn and to dismiss the bottom sheet afterwards.
+     *
+     * @return The callback, which has been created, as an instance of the type {@link
+     * BottomSheet.Metrics}
+     */
+    private BottomSheet.Metrics createMetrics() {
+        return new BottomSheet.Metrics() {
+
+            @Override
+            public void onShown(@NonNull final BottomSheet bottomSheet,
+                                @NonNull final ShowMetrics metrics) {
+                if (running) {
+                    scenarios.get(currentIndex).showDuration = metrics.getFirstFrameDuration();
+                    handler.postDelayed(createDismissRunnable(bottomSheet), DISMISS_DELAY);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a runnable, which allows to dismiss a specific bottom sheet.
+     *
+     * @param bottomSheet
+     *         The bottom sheet, which should be dismissed, as an instance of the class {@link
+     *         BottomSheet}. The bottom sheet may not be null
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}
+     */
+    private Runnable createDismissRunnable(@NonNull final BottomSheet bottomSheet) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                dismissTime = System.nanoTime();
+                bottomSheet.dismiss();
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a listener, which allows to record the time between dismissing a bottom
+     * sheet and its window being removed and to run the next scenario afterwards. The listener is
+     * notified after the window has been removed.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * DialogInterface.OnDismissListener}
+     */
+    private DialogInterface.OnDismissListener createDismissListener() {
+        return new DialogInterface.OnDismissListener() {
+
+            @Override
+            public void onDismiss(final DialogInterface dialog) {
+                if (!running) {
+                    return;
+                }
+
+                scenarios.get(currentIndex).dismissDuration = System.nanoTime() - dismissTime;
+                final int nextIndex = currentIndex + 1;
+                handler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        runScenario(nextIndex);
+                    }
+
+                });
+            }
+
+        };
+    }
+
+    /**
+     * Appends the results of all scenarios to the CSV file and notifies the callback.
+     */
+    private void writeResults() {
+        File file = new File(activity.getFilesDir(), FILE_NAME);
+        boolean writeHeader = !file.exists() || file.length() == 0;
+        Writer writer = null;
+
+        try {
+            writer = new FileWriter(file, true);
+
+            if (writeHeader) {
+                writer.write(CSV_HEADER);
+            }
+
+            for (Scenario scenario : scenarios) {
+                writer.write(runTime + "," +
+                        (scenario.style != null ? scenario.style.name() : "INTENT") + "," +
+                        scenario.itemCount + "," + (scenario.warm ? "warm" : "cold") + "," +
+                        scenario.showDuration + "," + scenario.dismissDuration + "\n");
+            }
+
+            writer.close();
+            writer = null;
+            callback.onFinished(file);
+        } catch (IOException e) {
+            callback.onFailed(e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // The results have already been reported as failed
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new runner, which runs scripted scenarios, which show and dismiss bottom sheets.
+     *
+     * @param activity
+     *         The activity, the bottom sheets should be shown by, as an instance of the class
+     *         {@link Activity}. The activity may not be null
+     */
+    public ShowLatencyScenarioRunner(@NonNull final Activity activity) {
+        this.activity = activity;
+        this.handler = new Handler(Looper.getMainLooper());
+        this.scenarios = createScenarios();
+    }
+
+    /**
+     * Runs all scenarios one after another. This method must be called on the UI thread.
+     *
+     * @param callback
+     *         The callback, which should be notified, when all scenarios have been run, as an
+     *         instance of the type {@link Callback}. The callback may not be null
+     */
+    public final void run(@NonNull final Callback callback) {
+        stop();
+        this.callback = callback;
+        this.running = true;
+        this.runTime = System.currentTimeMillis();
+
+        for (Scenario scenario : scenarios) {
+            scenario.showDuration = -1;
+            scenario.dismissDuration = -1;
+        }
+
+        runScenario(0);
+    }
+
+    /**
+     * Stops running the scenarios. Runnables, which have been posted in order to dismiss the
+     * current bottom sheet or to run the next scenario, are removed and the bottom sheet, which
+     * is currently shown, is dismissed. The callback is not notified and no results are written.
+     * This method must be called on the UI thread, e.g. when the activity is destroyed.
+     */
+    public final void stop() {
+        if (running) {
+            running = false;
+            handler.removeCallbacksAndMessages(null);
+
+            if (bottomSheet != null && bottomSheet.isShowing()) {
+                bottomSheet.dismiss();
+            }
+
+            bottomSheet = null;
+        }
+    }
+
+    /**
+     * Returns, whether the scenarios are currently run, or not.
+     *
+     * @return True, if the scenarios are currently run, false otherwise
+     */
+    public final boolean isRunning() {
+        return running;
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.example;
+
+import android.app.Activity;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link ShowLatencyScenarioRunner}. The main looper is
+ * paused and advanced frame by frame, until all scenarios have been run.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.M)
+public class ShowLatencyScenarioRunnerTest {
+
+    /**
+     * The header of the CSV file, the results are written to.
+     */
+    private static final String CSV_HEADER =
+            "run,style,item_count,start,show_to_first_frame_ns,dismiss_to_window_removed_ns";
+
+    /**
+     * The number of scenarios, which are run. For each style and number of items, as well as for
+     * a bottom sheet, which displays the applications, which are suited for handling an intent,
+     * a cold and a warm scenario is run.
+     */
+    private static final int SCENARIO_COUNT = (Style.values().length * 3 + 1) * 2;
+
+    /**
+     * The interval in milliseconds, the main looper is advanced by at once.
+     */
+    private static final long FRAME_INTERVAL = 16;
+
+    /**
+     * The maximum number of frames, the main looper is advanced by, until all scenarios must
+     * have been run.
+     */
+    private static final int MAX_FRAMES = 10000;
+
+    /**
+     * A callback, which records, whether the scenarios have been run.
+     */
+    private static class RecordingCallback implements ShowLatencyScenarioRunner.Callback {
+
+        /**
+         * The file, the results have been written to, or null, if the results have not been
+         * written yet.
+         */
+        private File file;
+
+        /**
+         * The exception, which has been thrown while writing the results, or null, if no
+         * exception has been thrown.
+         */
+        private IOException exception;
+
+        /**
+         * Returns, whether the callback has been notified, or not.
+         *
+         * @return True, if the callback has been notified, false otherwise
+         */
+        boolean isNotified() {
+            return file != null || exception != null;
+        }
+
+        @Override
+        public void onFinished(@NonNull final File file) {
+            this.file = file;
+        }
+
+        @Override
+        public void onFailed(@NonNull final IOException exception) {
+            this.exception = exception;
+        }
+
+    }
+
+    /**
+     * The activity, the bottom sheets are shown by.
+     */
+    private Activity activity;
+
+    /**
+     * Advances the main looper frame by frame, until a specific callback has been notified or
+     * the maximum number of frames has been reached.
+     *
+     * @param callback
+     *         The callback as an instance of the class {@link RecordingCallback}. The callback may
+     *         not be null
+     */
+    private static void advanceUntilNotified(@NonNull final RecordingCallback callback) {
+        for (int i = 0; i < MAX_FRAMES && !callback.isNotified(); i++) {
+            ShadowLooper.idleMainLooper(FRAME_INTERVAL);
+        }
+    }
+
+    /**
+     * Reads the lines of a specific file.
+     *
+     * @param file
+     *         The file as an instance of the class {@link File}. The file may not be null
+     * @return A list, which contains the lines of the file, as an instance of the type {@link
+     * List}
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be read
+     */
+    private static List<String> readLines(@NonNull final File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+
+        try {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+
+        return lines;
+    }
+
+    /**
+     * Initializes the activity and pauses the main looper.
+     */
+    @Before
+    public final void setUp() {
+        activity = Robolectric.setupActivity(Activity.class);
+        ShadowLooper.pauseMainLooper();
+    }
+
+    /**
+     * Unpauses the main looper.
+     */
+    @After
+    public final void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    /**
+     * Tests, that all scenarios are run to completion and that the CSV file, the results are
+     * written to, contains a row with non-negative durations for each scenario.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the CSV file could not be read
+     */
+    @Test
+    public final void testRun() throws IOException {
+        ShowLatencyScenarioRunner runner = new ShowLatencyScenarioRunner(activity);
+        RecordingCallback callback = new RecordingCallback();
+        runner.run(callback);
+        assertTrue(runner.isRunning());
+        advanceUntilNotified(callback);
+        assertNull(callback.exception);
+        assertNotNull("The scenarios have not been run to completion", callback.file);
+        assertFalse(runner.isRunning());
+        List<String> lines = readLines(callback.file);
+        assertEquals(SCENARIO_COUNT + 1, lines.size());
+        assertEquals(CSV_HEADER, lines.get(0));
+
+        for (String row : lines.subList(1, lines.size())) {
+            String[] columns = row.split(",");
+            assertEquals(row, 6, columns.length);
+            assertTrue(row, Long.parseLong(columns[4]) >= 0);
+            assertTrue(row, Long.parseLong(columns[5]) >= 0);
+        }
+    }
+
+    /**
+     * Tests, that no further scenarios are run and no results are written, once the runner has
+     * been stopped.
+     */
+    @Test
+    public final void testStop() {
+        ShowLatencyScenarioRunner runner = new ShowLatencyScenarioRunner(activity);
+        RecordingCallback callback = new RecordingCallback();
+        runner.run(callback);
+
+        for (int i = 0; i < 10; i++) {
+            ShadowLooper.idleMainLooper(FRAME_INTERVAL);
+        }
+
+        runner.stop();
+        assertFalse(runner.isRunning());
+        advanceUntilNotified(callback);
+        assertFalse(callback.isNotified());
+    }
+
+}
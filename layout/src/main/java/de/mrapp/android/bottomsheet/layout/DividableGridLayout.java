@@ -0,0 +1,452 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.layout;
+
+import java.util.Arrays;
+
+/**
+ * Computes the layout of items and dividers, which are displayed in a grid with a specific number
+ * of columns. Each divider occupies an entire row. Therefore, the remaining columns of the row,
+ * which precedes a divider, are padded with placeholders and the remaining columns of a divider's
+ * row are padded with fillers. The layout is computed lazily in a single pass, when it is queried
+ * for the first time after it has been invalidated.
+ *
+ * The layout does not depend on any Android classes, which allows to use it in JVM tests and
+ * benchmarks. The items are obtained from a {@link Source}.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class DividableGridLayout {
+
+    /**
+     * Defines the interface, a class, which provides the items, which are laid out by a {@link
+     * DividableGridLayout}, must implement.
+     */
+    public interface Source {
+
+        /**
+         * Returns the total number of items, regardless of whether they are visible, or not.
+         *
+         * @return The total number of items as an {@link Integer} value
+         */
+        int getItemCount();
+
+        /**
+         * Returns the total number of dividers, regardless of whether they are visible, or not.
+         *
+         * @return The total number of dividers as an {@link Integer} value
+         */
+        int getDividerCount();
+
+        /**
+         * Returns the number of items, which are currently visible.
+         *
+         * @return The number of items, which are currently visible, as an {@link Integer} value
+         */
+        int getVisibleItemCount();
+
+        /**
+         * Returns the index of the item, which corresponds to a specific position among the items,
+         * which are currently visible.
+         *
+         * @param visibleIndex
+         *         The position of the item among the visible items as an {@link Integer} value
+         * @return The index of the item as an {@link Integer} value
+         */
+        int getVisibleItemIndex(int visibleIndex);
+
+        /**
+         * Returns, whether the item at a specific index is a divider, or not.
+         *
+         * @param index
+         *         The index of the item as an {@link Integer} value
+         * @return True, if the item is a divider, false otherwise
+         */
+        boolean isDivider(int index);
+
+        /**
+         * Returns, whether the item at a specific index has a non-empty title, or not.
+         *
+         * @param index
+         *         The index of the item as an {@link Integer} value
+         * @return True, if the item has a non-empty title, false otherwise
+         */
+        boolean hasTitle(int index);
+
+    }
+
+    /**
+     * The index, which is returned for positions, at which placeholders are displayed.
+     */
+    public static final int PLACEHOLDER_INDEX = -1;
+
+    /**
+     * The index, which is returned for positions, at which dividers are displayed, which fill up
+     * the remaining columns of a divider's row.
+     */
+    public static final int FILLER_INDEX = -2;
+
+    /**
+     * The view type, which is used to visualize placeholders.
+     */
+    public static final int PLACEHOLDER_VIEW_TYPE = 0;
+
+    /**
+     * The view type, which is used to visualize items.
+     */
+    public static final int ITEM_VIEW_TYPE = 1;
+
+    /**
+     * The view type, which is used to visualize dividers.
+     */
+    public static final int SEPARATOR_VIEW_TYPE = 2;
+
+    /**
+     * The number of different view types.
+     */
+    public static final int VIEW_TYPE_COUNT = 3;
+
+    /**
+     * The source, which provides the items, which are laid out.
+     */
+    private final Source source;
+
+    /**
+     * The number of columns.
+     */
+    private int columnCount;
+
+    /**
+     * The height of rows, which contain items, in pixels.
+     */
+    private int itemRowHeight;
+
+    /**
+     * The height of rows, which contain a divider without a title, in pixels.
+     */
+    private int dividerRowHeight;
+
+    /**
+     * The height of rows, which contain a divider with a title, in pixels.
+     */
+    private int titledDividerRowHeight;
+
+    /**
+     * True, if the layout has been computed and is up to date, false otherwise.
+     */
+    private boolean valid;
+
+    /**
+     * An array, which contains the index of the item, which is displayed at each position,
+     * including placeholders and fillers.
+     */
+    private int[] indices;
+
+    /**
+     * The number of positions, which are contained by the array <code>indices</code>.
+     */
+    private int count;
+
+    /**
+     * An array, which contains the position of each item within the array <code>indices</code>
+     * or -1, if the item is currently not visible.
+     */
+    private int[] positions;
+
+    /**
+     * Computes the layout in a single pass. The arrays, which have been allocated by previous
+     * passes, are reused, if they are large enough.
+     */
+    private void layout() {
+        int itemCount = source.getItemCount();
+        int visibleItemCount = source.getVisibleItemCount();
+        int capacity = visibleItemCount + 2 * source.getDividerCount() * (columnCount - 1);
+
+        if (indices == null || indices.length < capacity) {
+            indices = new int[capacity];
+        }
+
+        if (positions == null || positions.length < itemCount) {
+            positions = new int[itemCount];
+        }
+
+        Arrays.fill(positions, 0, itemCount, -1);
+        int position = 0;
+
+        for (int i = 0; i < visibleItemCount; i++) {
+            int index = source.getVisibleItemIndex(i);
+
+            if (columnCount > 1 && source.isDivider(index)) {
+                while (position % columnCount != 0) {
+                    indices[position++] = PLACEHOLDER_INDEX;
+                }
+
+                positions[index] = position;
+                indices[position++] = index;
+
+                for (int j = 0; j < columnCount - 1; j++) {
+                    indices[position++] = FILLER_INDEX;
+                }
+            } else {
+                positions[index] = position;
+                indices[position++] = index;
+            }
+        }
+
+        count = position;
+        valid = true;
+    }
+
+    /**
+     * Creates a new layout, which computes the layout of items and dividers, which are displayed
+     * in a grid.
+     *
+     * @param source
+     *         The source, which provides the items, which should be laid out, as an instance of
+     *         the type {@link Source}. The source may not be null
+     */
+    public DividableGridLayout(final Source source) {
+        if (source == null) {
+            throw new NullPointerException("The source may not be null");
+        }
+
+        this.source = source;
+        this.columnCount = 1;
+        this.valid = false;
+    }
+
+    /**
+     * Returns the number of columns, which fit into a specific width, if each column has a
+     * specific width. At least one column is returned, even if the width is too small.
+     *
+     * @param availableWidth
+     *         The width in pixels, which is available for the columns, as an {@link Integer}
+     *         value
+     * @param columnWidth
+     *         The width of each column in pixels as an {@link Integer} value. The width must be at
+     *         least 1
+     * @return The number of columns, which fit into the given width, as an {@link Integer} value
+     */
+    public static int computeColumnCount(final int availableWidth, final int columnWidth) {
+        if (columnWidth < 1) {
+            throw new IllegalArgumentException("The column width must be at least 1");
+        }
+
+        return Math.max(availableWidth / columnWidth, 1);
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return The number of columns as an {@link Integer} value
+     */
+    public final int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Sets the number of columns. The layout is invalidated, if the number of columns changes.
+     *
+     * @param columnCount
+     *         The number of columns, which should be set, as an {@link Integer} value. The number
+     *         of columns must be at least 1
+     */
+    public final void setColumnCount(final int columnCount) {
+        if (columnCount < 1) {
+            throw new IllegalArgumentException("The column count must be at least 1");
+        }
+
+        if (this.columnCount != columnCount) {
+            this.columnCount = columnCount;
+            invalidate();
+        }
+    }
+
+    /**
+     * Sets the heights of the rows.
+     *
+     * @param itemRowHeight
+     *         The height of rows, which contain items, in pixels as an {@link Integer} value
+     * @param dividerRowHeight
+     *         The height of rows, which contain a divider without a title, in pixels as an {@link
+     *         Integer} value
+     * @param titledDividerRowHeight
+     *         The height of rows, which contain a divider with a title, in pixels as an {@link
+     *         Integer} value
+     */
+    public final void setRowHeights(final int itemRowHeight, final int dividerRowHeight,
+                                    final int titledDividerRowHeight) {
+        this.itemRowHeight = itemRowHeight;
+        this.dividerRowHeight = dividerRowHeight;
+        this.titledDividerRowHeight = titledDividerRowHeight;
+    }
+
+    /**
+     * Invalidates the layout. It is recomputed, when it is queried the next time.
+     */
+    public final void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Returns, whether the layout has been computed and is up to date, or not.
+     *
+     * @return True, if the layout has been computed and is up to date, false otherwise
+     */
+    public final boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Computes the layout, if it has been invalidated.
+     */
+    public final void compute() {
+        if (!valid) {
+            layout();
+        }
+    }
+
+    /**
+     * Returns the number of positions, including placeholders and fillers.
+     *
+     * @return The number of positions as an {@link Integer} value
+     */
+    public final int getCount() {
+        compute();
+        return count;
+    }
+
+    /**
+     * Returns the index of the item, which is displayed at a specific position.
+     *
+     * @param position
+     *         The position as an {@link Integer} value
+     * @return The index of the item, which is displayed at the given position, as an {@link
+     * Integer} value or <code>PLACEHOLDER_INDEX</code>, respectively <code>FILLER_INDEX</code>,
+     * if a placeholder or a divider, which fills up a row, is displayed
+     */
+    public final int getIndex(final int position) {
+        if (position < 0 || position >= getCount()) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Count: " + count);
+        }
+
+        return indices[position];
+    }
+
+    /**
+     * Returns the position, at which the item with a specific index is displayed.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The position, at which the item is displayed, as an {@link Integer} value or -1, if
+     * the item is currently not visible
+     */
+    public final int getPosition(final int index) {
+        compute();
+        int itemCount = source.getItemCount();
+
+        if (index < 0 || index >= itemCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + itemCount);
+        }
+
+        return positions[index];
+    }
+
+    /**
+     * Returns the view type, which is used to visualize a specific position.
+     *
+     * @param position
+     *         The position as an {@link Integer} value
+     * @return The view type as an {@link Integer} value. The view type may either be
+     * <code>PLACEHOLDER_VIEW_TYPE</code>, <code>ITEM_VIEW_TYPE</code> or
+     * <code>SEPARATOR_VIEW_TYPE</code>
+     */
+    public final int getViewType(final int position) {
+        int index = getIndex(position);
+
+        if (index == PLACEHOLDER_INDEX) {
+            return PLACEHOLDER_VIEW_TYPE;
+        } else if (index == FILLER_INDEX || source.isDivider(index)) {
+            return SEPARATOR_VIEW_TYPE;
+        } else {
+            return ITEM_VIEW_TYPE;
+        }
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of rows as an {@link Integer} value
+     */
+    public final int getRowCount() {
+        return (getCount() + columnCount - 1) / columnCount;
+    }
+
+    /**
+     * Returns the row, which contains a specific position.
+     *
+     * @param position
+     *         The position as an {@link Integer} value
+     * @return The row, which contains the given position, as an {@link Integer} value
+     */
+    public final int getRow(final int position) {
+        if (position < 0 || position >= getCount()) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Count: " + count);
+        }
+
+        return position / columnCount;
+    }
+
+    /**
+     * Returns the height of a specific row. The height of a row is determined by its first
+     * position.
+     *
+     * @param row
+     *         The row as an {@link Integer} value
+     * @return The height of the given row in pixels as an {@link Integer} value
+     */
+    public final int getRowHeight(final int row) {
+        int rowCount = getRowCount();
+
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Count: " + rowCount);
+        }
+
+        int index = indices[row * columnCount];
+
+        if (index >= 0 && source.isDivider(index)) {
+            return source.hasTitle(index) ? titledDividerRowHeight : dividerRowHeight;
+        }
+
+        return itemRowHeight;
+    }
+
+    /**
+     * Returns the total height of all rows.
+     *
+     * @return The total height of all rows in pixels as an {@link Integer} value
+     */
+    public final int getHeight() {
+        int rowCount = getRowCount();
+        int height = 0;
+
+        for (int i = 0; i < rowCount; i++) {
+            height += getRowHeight(i);
+        }
+
+        return height;
+    }
+
+}
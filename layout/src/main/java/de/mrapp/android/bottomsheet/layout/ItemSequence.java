@@ -0,0 +1,288 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.layout;
+
+import java.util.Arrays;
+
+/**
+ * A sequence, which keeps track of the ids and types of items and dividers, which are laid out by
+ * a {@link DividableGridLayout}. It maintains the number of dividers, while items are added,
+ * replaced or removed, and allows to look up the index of an item by its id without accessing the
+ * items themselves. The ids and types are stored in primitive arrays, which are only enlarged if
+ * necessary.
+ *
+ * The sequence does not depend on any Android classes, which allows to use it in JVM tests and
+ * benchmarks.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class ItemSequence {
+
+    /**
+     * The type of regular items.
+     */
+    public static final byte ITEM = 0;
+
+    /**
+     * The type of dividers without a title.
+     */
+    public static final byte DIVIDER = 1;
+
+    /**
+     * The type of dividers with a title.
+     */
+    public static final byte TITLED_DIVIDER = 2;
+
+    /**
+     * The initial capacity of the sequence's arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * An array, which contains the ids of the items.
+     */
+    private int[] ids;
+
+    /**
+     * An array, which contains the types of the items.
+     */
+    private byte[] types;
+
+    /**
+     * The number of items.
+     */
+    private int size;
+
+    /**
+     * The number of dividers.
+     */
+    private int dividerCount;
+
+    /**
+     * Ensures, that the arrays, which contain the items, are able to store a specific number of
+     * items.
+     *
+     * @param capacity
+     *         The number of items, which must be able to be stored, as an {@link Integer} value
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > ids.length) {
+            int newCapacity = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newCapacity);
+            types = Arrays.copyOf(types, newCapacity);
+        }
+    }
+
+    /**
+     * Checks, whether a specific index is valid, and throws an exception, if not.
+     *
+     * @param index
+     *         The index, which should be checked, as an {@link Integer} value
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Checks, whether a specific type is valid, and throws an exception, if not.
+     *
+     * @param type
+     *         The type, which should be checked, as a {@link Byte} value
+     */
+    private static void checkType(final byte type) {
+        if (type != ITEM && type != DIVIDER && type != TITLED_DIVIDER) {
+            throw new IllegalArgumentException("Invalid type: " + type);
+        }
+    }
+
+    /**
+     * Creates a new, empty sequence of items and dividers.
+     */
+    public ItemSequence() {
+        this.ids = new int[INITIAL_CAPACITY];
+        this.types = new byte[INITIAL_CAPACITY];
+        this.size = 0;
+        this.dividerCount = 0;
+    }
+
+    /**
+     * Adds an item to the end of the sequence.
+     *
+     * @param id
+     *         The id of the item, which should be added, as an {@link Integer} value
+     * @param type
+     *         The type of the item, which should be added, as a {@link Byte} value. The type must
+     *         either be <code>ITEM</code>, <code>DIVIDER</code> or <code>TITLED_DIVIDER</code>
+     */
+    public final void add(final int id, final byte type) {
+        add(size, id, type);
+    }
+
+    /**
+     * Inserts an item at a specific index.
+     *
+     * @param index
+     *         The index, the item should be inserted at, as an {@link Integer} value
+     * @param id
+     *         The id of the item, which should be inserted, as an {@link Integer} value
+     * @param type
+     *         The type of the item, which should be inserted, as a {@link Byte} value. The type
+     *         must either be <code>ITEM</code>, <code>DIVIDER</code> or <code>TITLED_DIVIDER</code>
+     */
+    public final void add(final int index, final int id, final byte type) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        checkType(type);
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(types, index, types, index + 1, size - index);
+        ids[index] = id;
+        types[index] = type;
+        size++;
+
+        if (type != ITEM) {
+            dividerCount++;
+        }
+    }
+
+    /**
+     * Replaces the item at a specific index.
+     *
+     * @param index
+     *         The index of the item, which should be replaced, as an {@link Integer} value
+     * @param id
+     *         The id of the item, which should be set, as an {@link Integer} value
+     * @param type
+     *         The type of the item, which should be set, as a {@link Byte} value. The type must
+     *         either be <code>ITEM</code>, <code>DIVIDER</code> or <code>TITLED_DIVIDER</code>
+     * @return The type of the item, which has been replaced, as a {@link Byte} value
+     */
+    public final byte set(final int index, final int id, final byte type) {
+        checkIndex(index);
+        checkType(type);
+        byte replacedType = types[index];
+        ids[index] = id;
+        types[index] = type;
+        dividerCount += (type != ITEM ? 1 : 0) - (replacedType != ITEM ? 1 : 0);
+        return replacedType;
+    }
+
+    /**
+     * Removes the item at a specific index.
+     *
+     * @param index
+     *         The index of the item, which should be removed, as an {@link Integer} value
+     * @return The type of the item, which has been removed, as a {@link Byte} value
+     */
+    public final byte remove(final int index) {
+        checkIndex(index);
+        byte type = types[index];
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(types, index + 1, types, index, size - index - 1);
+        size--;
+
+        if (type != ITEM) {
+            dividerCount--;
+        }
+
+        return type;
+    }
+
+    /**
+     * Removes all items from the sequence.
+     */
+    public final void clear() {
+        size = 0;
+        dividerCount = 0;
+    }
+
+    /**
+     * Returns the number of items, including dividers.
+     *
+     * @return The number of items as an {@link Integer} value
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of dividers.
+     *
+     * @return The number of dividers as an {@link Integer} value
+     */
+    public final int getDividerCount() {
+        return dividerCount;
+    }
+
+    /**
+     * Returns the id of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The id of the item as an {@link Integer} value
+     */
+    public final int getId(final int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * Returns the type of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The type of the item as a {@link Byte} value. The type may either be
+     * <code>ITEM</code>, <code>DIVIDER</code> or <code>TITLED_DIVIDER</code>
+     */
+    public final byte getType(final int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    /**
+     * Returns, whether the item at a specific index is a divider, or not.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return True, if the item is a divider, false otherwise
+     */
+    public final boolean isDivider(final int index) {
+        return getType(index) != ITEM;
+    }
+
+    /**
+     * Returns the index of the first item with a specific id. The ids are searched linearly, but
+     * without accessing the items themselves.
+     *
+     * @param id
+     *         The id of the item as an {@link Integer} value
+     * @return The index of the item as an {@link Integer} value or -1, if the sequence does not
+     * contain an item with the given id
+     */
+    public final int indexOf(final int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+}
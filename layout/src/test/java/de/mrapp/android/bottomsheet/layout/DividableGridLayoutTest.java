@@ -0,0 +1,537 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.layout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.mrapp.android.bottomsheet.layout.DividableGridLayout.FILLER_INDEX;
+import static de.mrapp.android.bottomsheet.layout.DividableGridLayout.ITEM_VIEW_TYPE;
+import static de.mrapp.android.bottomsheet.layout.DividableGridLayout.PLACEHOLDER_INDEX;
+import static de.mrapp.android.bottomsheet.layout.DividableGridLayout.PLACEHOLDER_VIEW_TYPE;
+import static de.mrapp.android.bottomsheet.layout.DividableGridLayout.SEPARATOR_VIEW_TYPE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link DividableGridLayout}.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class DividableGridLayoutTest {
+
+    /**
+     * A source, which provides items, dividers and dividers with a title, which may be hidden.
+     */
+    private static class TestSource implements DividableGridLayout.Source {
+
+        /**
+         * A list, which contains, whether the item at each index is a divider, or not.
+         */
+        private final List<Boolean> dividers = new ArrayList<>();
+
+        /**
+         * A list, which contains, whether the item at each index has a title, or not.
+         */
+        private final List<Boolean> titles = new ArrayList<>();
+
+        /**
+         * A list, which contains the indices of the items, which are visible.
+         */
+        private final List<Integer> visibleIndices = new ArrayList<>();
+
+        /**
+         * Adds an item to the source.
+         *
+         * @param divider
+         *         True, if the item is a divider, false otherwise
+         * @param title
+         *         True, if the item has a title, false otherwise
+         * @param visible
+         *         True, if the item is visible, false otherwise
+         * @return The source as an instance of the class {@link TestSource}
+         */
+        private TestSource add(final boolean divider, final boolean title,
+                               final boolean visible) {
+            if (visible) {
+                visibleIndices.add(dividers.size());
+            }
+
+            dividers.add(divider);
+            titles.add(title);
+            return this;
+        }
+
+        /**
+         * Adds a visible item to the source.
+         *
+         * @return The source as an instance of the class {@link TestSource}
+         */
+        TestSource item() {
+            return add(false, true, true);
+        }
+
+        /**
+         * Adds a hidden item to the source.
+         *
+         * @return The source as an instance of the class {@link TestSource}
+         */
+        TestSource hiddenItem() {
+            return add(false, true, false);
+        }
+
+        /**
+         * Adds a visible divider without a title to the source.
+         *
+         * @return The source as an instance of the class {@link TestSource}
+         */
+        TestSource divider() {
+            return add(true, false, true);
+        }
+
+        /**
+         * Adds a visible divider with a title to the source.
+         *
+         * @return The source as an instance of the class {@link TestSource}
+         */
+        TestSource titledDivider() {
+            return add(true, true, true);
+        }
+
+        /**
+         * Adds a hidden divider to the source.
+         *
+         * @return The source as an instance of the class {@link TestSource}
+         */
+        TestSource hiddenDivider() {
+            return add(true, false, false);
+        }
+
+        @Override
+        public int getItemCount() {
+            return dividers.size();
+        }
+
+        @Override
+        public int getDividerCount() {
+            int count = 0;
+
+            for (boolean divider : dividers) {
+                if (divider) {
+                    count++;
+                }
+            }
+
+            return count;
+        }
+
+        @Override
+        public int getVisibleItemCount() {
+            return visibleIndices.size();
+        }
+
+        @Override
+        public int getVisibleItemIndex(final int visibleIndex) {
+            return visibleIndices.get(visibleIndex);
+        }
+
+        @Override
+        public boolean isDivider(final int index) {
+            return dividers.get(index);
+        }
+
+        @Override
+        public boolean hasTitle(final int index) {
+            return titles.get(index);
+        }
+
+    }
+
+    /**
+     * The height of rows, which contain items, which is used by the tests.
+     */
+    private static final int ITEM_ROW_HEIGHT = 48;
+
+    /**
+     * The height of rows, which contain a divider without a title, which is used by the tests.
+     */
+    private static final int DIVIDER_ROW_HEIGHT = 8;
+
+    /**
+     * The height of rows, which contain a divider with a title, which is used by the tests.
+     */
+    private static final int TITLED_DIVIDER_ROW_HEIGHT = 32;
+
+    /**
+     * Creates and returns a layout, which lays out the items of a specific source in a specific
+     * number of columns.
+     *
+     * @param source
+     *         The source, which provides the items, as an instance of the class {@link
+     *         TestSource}
+     * @param columnCount
+     *         The number of columns as an {@link Integer} value
+     * @return The layout, which has been created, as an instance of the class {@link
+     * DividableGridLayout}
+     */
+    private static DividableGridLayout createLayout(final TestSource source,
+                                                    final int columnCount) {
+        DividableGridLayout layout = new DividableGridLayout(source);
+        layout.setColumnCount(columnCount);
+        layout.setRowHeights(ITEM_ROW_HEIGHT, DIVIDER_ROW_HEIGHT, TITLED_DIVIDER_ROW_HEIGHT);
+        return layout;
+    }
+
+    /**
+     * Asserts, that a layout displays specific indices at its positions.
+     *
+     * @param layout
+     *         The layout, which should be tested, as an instance of the class {@link
+     *         DividableGridLayout}
+     * @param expectedIndices
+     *         An array, which contains the indices, which are expected at each position, as an
+     *         {@link Integer} array
+     */
+    private static void assertIndices(final DividableGridLayout layout,
+                                      final int... expectedIndices) {
+        assertEquals(expectedIndices.length, layout.getCount());
+
+        for (int i = 0; i < expectedIndices.length; i++) {
+            assertEquals("Position " + i, expectedIndices[i], layout.getIndex(i));
+        }
+    }
+
+    /**
+     * Tests, that neither placeholders, nor fillers are inserted, if only one column is used.
+     */
+    @Test
+    public final void testLayoutWithOneColumn() {
+        TestSource source = new TestSource().item().divider().item().item().titledDivider();
+        DividableGridLayout layout = createLayout(source, 1);
+        assertIndices(layout, 0, 1, 2, 3, 4);
+        assertEquals(5, layout.getRowCount());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, layout.getPosition(i));
+            assertEquals(i, layout.getRow(i));
+        }
+    }
+
+    /**
+     * Tests, that placeholders and fillers are inserted, if two columns are used.
+     */
+    @Test
+    public final void testLayoutWithTwoColumns() {
+        TestSource source = new TestSource().item().divider().item().item().item()
+                .titledDivider().item();
+        DividableGridLayout layout = createLayout(source, 2);
+        assertIndices(layout, 0, PLACEHOLDER_INDEX, 1, FILLER_INDEX, 2, 3, 4, PLACEHOLDER_INDEX,
+                5, FILLER_INDEX, 6);
+        assertEquals(6, layout.getRowCount());
+        assertEquals(2, layout.getPosition(1));
+        assertEquals(8, layout.getPosition(5));
+        assertEquals(10, layout.getPosition(6));
+        assertEquals(5, layout.getRow(10));
+    }
+
+    /**
+     * Tests, that placeholders and fillers are inserted, if more than two columns are used.
+     */
+    @Test
+    public final void testLayoutWithMultipleColumns() {
+        TestSource source = new TestSource().item().item().item().item().item().divider()
+                .item();
+        DividableGridLayout layout = createLayout(source, 4);
+        assertIndices(layout, 0, 1, 2, 3, 4, PLACEHOLDER_INDEX, PLACEHOLDER_INDEX,
+                PLACEHOLDER_INDEX, 5, FILLER_INDEX, FILLER_INDEX, FILLER_INDEX, 6);
+        assertEquals(4, layout.getRowCount());
+        assertEquals(8, layout.getPosition(5));
+        assertEquals(12, layout.getPosition(6));
+    }
+
+    /**
+     * Tests, that no placeholders are inserted, if a row is completely filled by items.
+     */
+    @Test
+    public final void testLayoutWithCompleteRow() {
+        TestSource source = new TestSource().item().item().item().divider().item();
+        DividableGridLayout layout = createLayout(source, 3);
+        assertIndices(layout, 0, 1, 2, 3, FILLER_INDEX, FILLER_INDEX, 4);
+    }
+
+    /**
+     * Tests, that no placeholders are inserted, if a divider is the first item.
+     */
+    @Test
+    public final void testLayoutWithDividerAsFirstItem() {
+        TestSource source = new TestSource().titledDivider().item().item();
+        DividableGridLayout layout = createLayout(source, 3);
+        assertIndices(layout, 0, FILLER_INDEX, FILLER_INDEX, 1, 2);
+        assertEquals(2, layout.getRowCount());
+        assertEquals(0, layout.getPosition(0));
+    }
+
+    /**
+     * Tests, that the row of a divider, which is the last item, is filled up by fillers.
+     */
+    @Test
+    public final void testLayoutWithDividerAsLastItem() {
+        TestSource source = new TestSource().item().divider();
+        DividableGridLayout layout = createLayout(source, 3);
+        assertIndices(layout, 0, PLACEHOLDER_INDEX, PLACEHOLDER_INDEX, 1, FILLER_INDEX,
+                FILLER_INDEX);
+        assertEquals(2, layout.getRowCount());
+        assertEquals(3, layout.getPosition(1));
+    }
+
+    /**
+     * Tests, that subsequent dividers are displayed in separate rows.
+     */
+    @Test
+    public final void testLayoutWithSubsequentDividers() {
+        TestSource source = new TestSource().divider().titledDivider();
+        DividableGridLayout layout = createLayout(source, 2);
+        assertIndices(layout, 0, FILLER_INDEX, 1, FILLER_INDEX);
+    }
+
+    /**
+     * Tests, that hidden items and dividers are not laid out and have the position -1.
+     */
+    @Test
+    public final void testLayoutWithHiddenItems() {
+        TestSource source = new TestSource().item().hiddenItem().hiddenDivider().item()
+                .divider().hiddenItem();
+        DividableGridLayout layout = createLayout(source, 2);
+        assertIndices(layout, 0, 3, 4, FILLER_INDEX);
+        assertEquals(0, layout.getPosition(0));
+        assertEquals(-1, layout.getPosition(1));
+        assertEquals(-1, layout.getPosition(2));
+        assertEquals(1, layout.getPosition(3));
+        assertEquals(2, layout.getPosition(4));
+        assertEquals(-1, layout.getPosition(5));
+    }
+
+    /**
+     * Tests, that a layout without any visible items is empty.
+     */
+    @Test
+    public final void testLayoutWithoutVisibleItems() {
+        TestSource source = new TestSource().hiddenItem().hiddenDivider();
+        DividableGridLayout layout = createLayout(source, 3);
+        assertEquals(0, layout.getCount());
+        assertEquals(0, layout.getRowCount());
+        assertEquals(0, layout.getHeight());
+        assertEquals(-1, layout.getPosition(0));
+        assertEquals(-1, layout.getPosition(1));
+    }
+
+    /**
+     * Tests the functionality of the method, which allows to retrieve the view type of a
+     * position.
+     */
+    @Test
+    public final void testGetViewType() {
+        TestSource source = new TestSource().item().divider();
+        DividableGridLayout layout = createLayout(source, 2);
+        assertEquals(ITEM_VIEW_TYPE, layout.getViewType(0));
+        assertEquals(PLACEHOLDER_VIEW_TYPE, layout.getViewType(1));
+        assertEquals(SEPARATOR_VIEW_TYPE, layout.getViewType(2));
+        assertEquals(SEPARATOR_VIEW_TYPE, layout.getViewType(3));
+    }
+
+    /**
+     * Tests the functionality of the method, which allows to retrieve the height of a row, for
+     * rows, which contain items, dividers without a title and dividers with a title.
+     */
+    @Test
+    public final void testGetRowHeight() {
+        TestSource source = new TestSource().item().item().item().divider().titledDivider()
+                .item();
+        DividableGridLayout layout = createLayout(source, 2);
+        assertEquals(5, layout.getRowCount());
+        assertEquals(ITEM_ROW_HEIGHT, layout.getRowHeight(0));
+        assertEquals(ITEM_ROW_HEIGHT, layout.getRowHeight(1));
+        assertEquals(DIVIDER_ROW_HEIGHT, layout.getRowHeight(2));
+        assertEquals(TITLED_DIVIDER_ROW_HEIGHT, layout.getRowHeight(3));
+        assertEquals(ITEM_ROW_HEIGHT, layout.getRowHeight(4));
+        assertEquals(3 * ITEM_ROW_HEIGHT + DIVIDER_ROW_HEIGHT + TITLED_DIVIDER_ROW_HEIGHT,
+                layout.getHeight());
+    }
+
+    /**
+     * Tests the functionality of the method, which allows to retrieve the height of a row, if
+     * only one column is used.
+     */
+    @Test
+    public final void testGetRowHeightWithOneColumn() {
+        TestSource source = new TestSource().divider().item().titledDivider();
+        DividableGridLayout layout = createLayout(source, 1);
+        assertEquals(DIVIDER_ROW_HEIGHT, layout.getRowHeight(0));
+        assertEquals(ITEM_ROW_HEIGHT, layout.getRowHeight(1));
+        assertEquals(TITLED_DIVIDER_ROW_HEIGHT, layout.getRowHeight(2));
+    }
+
+    /**
+     * Tests the functionality of the method, which allows to compute the number of columns, which
+     * fit into a specific width.
+     */
+    @Test
+    public final void testComputeColumnCount() {
+        assertEquals(3, DividableGridLayout.computeColumnCount(100, 30));
+        assertEquals(4, DividableGridLayout.computeColumnCount(120, 30));
+        assertEquals(1, DividableGridLayout.computeColumnCount(29, 30));
+        assertEquals(1, DividableGridLayout.computeColumnCount(0, 30));
+        assertEquals(1, DividableGridLayout.computeColumnCount(-10, 30));
+        assertEquals(100, DividableGridLayout.computeColumnCount(100, 1));
+    }
+
+    /**
+     * Ensures, that an {@link IllegalArgumentException} is thrown, if the number of columns is
+     * computed for a column width, which is less than 1.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testComputeColumnCountThrowsExceptionWhenColumnWidthIsLessThanOne() {
+        DividableGridLayout.computeColumnCount(100, 0);
+    }
+
+    /**
+     * Tests, that the layout is only invalidated, if the number of columns changes.
+     */
+    @Test
+    public final void testSetColumnCountInvalidatesLayout() {
+        TestSource source = new TestSource().item().divider();
+        DividableGridLayout layout = createLayout(source, 2);
+        assertFalse(layout.isValid());
+        layout.compute();
+        assertTrue(layout.isValid());
+        layout.setColumnCount(2);
+        assertTrue(layout.isValid());
+        layout.setColumnCount(3);
+        assertFalse(layout.isValid());
+        assertIndices(layout, 0, PLACEHOLDER_INDEX, PLACEHOLDER_INDEX, 1, FILLER_INDEX,
+                FILLER_INDEX);
+        layout.setColumnCount(1);
+        assertIndices(layout, 0, 1);
+    }
+
+    /**
+     * Tests, that the layout is recomputed, if items are added, after it has been invalidated.
+     */
+    @Test
+    public final void testInvalidate() {
+        TestSource source = new TestSource().item();
+        DividableGridLayout layout = createLayout(source, 2);
+        assertIndices(layout, 0);
+        source.divider().item();
+        layout.invalidate();
+        assertFalse(layout.isValid());
+        assertIndices(layout, 0, PLACEHOLDER_INDEX, 1, FILLER_INDEX, 2);
+        assertTrue(layout.isValid());
+    }
+
+    /**
+     * Ensures, that a {@link NullPointerException} is thrown by the constructor, if the source is
+     * null.
+     */
+    @Test(expected = NullPointerException.class)
+    public final void testConstructorThrowsExceptionWhenSourceIsNull() {
+        new DividableGridLayout(null);
+    }
+
+    /**
+     * Ensures, that an {@link IllegalArgumentException} is thrown, if the number of columns is set
+     * to a value less than 1.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testSetColumnCountThrowsExceptionWhenColumnCountIsLessThanOne() {
+        createLayout(new TestSource(), 0);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the index at a negative
+     * position is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetIndexThrowsExceptionWhenPositionIsNegative() {
+        createLayout(new TestSource().item(), 1).getIndex(-1);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the index at a position,
+     * which is greater than the last position, is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetIndexThrowsExceptionWhenPositionIsTooLarge() {
+        createLayout(new TestSource().item().divider(), 2).getIndex(4);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the position of a negative
+     * index is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetPositionThrowsExceptionWhenIndexIsNegative() {
+        createLayout(new TestSource().item(), 1).getPosition(-1);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the position of an index,
+     * which is not less than the number of items, is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetPositionThrowsExceptionWhenIndexIsTooLarge() {
+        createLayout(new TestSource().item().hiddenItem(), 1).getPosition(2);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the row of a position,
+     * which is greater than the last position, is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetRowThrowsExceptionWhenPositionIsTooLarge() {
+        createLayout(new TestSource().item().item(), 2).getRow(2);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the row of a negative
+     * position is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetRowThrowsExceptionWhenPositionIsNegative() {
+        createLayout(new TestSource().item(), 1).getRow(-1);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the height of a row, which
+     * is not less than the number of rows, is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetRowHeightThrowsExceptionWhenRowIsTooLarge() {
+        createLayout(new TestSource().item().item().item(), 2).getRowHeight(2);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if the height of a negative
+     * row is retrieved.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetRowHeightThrowsExceptionWhenRowIsNegative() {
+        createLayout(new TestSource().item(), 1).getRowHeight(-1);
+    }
+
+}
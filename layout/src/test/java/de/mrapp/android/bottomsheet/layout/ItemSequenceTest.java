@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.layout;
+
+import org.junit.Test;
+
+import static de.mrapp.android.bottomsheet.layout.ItemSequence.DIVIDER;
+import static de.mrapp.android.bottomsheet.layout.ItemSequence.ITEM;
+import static de.mrapp.android.bottomsheet.layout.ItemSequence.TITLED_DIVIDER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link ItemSequence}.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class ItemSequenceTest {
+
+    /**
+     * Tests, that the number of dividers is maintained, while items are added, replaced and
+     * removed.
+     */
+    @Test
+    public final void testDividerCount() {
+        ItemSequence sequence = new ItemSequence();
+        sequence.add(0, ITEM);
+        sequence.add(-1, DIVIDER);
+        sequence.add(1, ITEM);
+        assertEquals(3, sequence.size());
+        assertEquals(1, sequence.getDividerCount());
+        assertEquals(ITEM, sequence.set(2, -1, TITLED_DIVIDER));
+        assertEquals(2, sequence.getDividerCount());
+        assertEquals(DIVIDER, sequence.set(1, 2, ITEM));
+        assertEquals(1, sequence.getDividerCount());
+        assertEquals(TITLED_DIVIDER, sequence.remove(2));
+        assertEquals(0, sequence.getDividerCount());
+        sequence.add(0, -1, DIVIDER);
+        assertEquals(1, sequence.getDividerCount());
+        sequence.clear();
+        assertEquals(0, sequence.size());
+        assertEquals(0, sequence.getDividerCount());
+    }
+
+    /**
+     * Tests, that items are shifted, when items are inserted or removed, and that the arrays are
+     * enlarged, if necessary.
+     */
+    @Test
+    public final void testAddAndRemove() {
+        ItemSequence sequence = new ItemSequence();
+
+        for (int i = 0; i < 100; i++) {
+            sequence.add(i, i % 10 == 9 ? DIVIDER : ITEM);
+        }
+
+        sequence.add(0, 1000, TITLED_DIVIDER);
+        assertEquals(101, sequence.size());
+        assertEquals(11, sequence.getDividerCount());
+        assertEquals(1000, sequence.getId(0));
+        assertEquals(TITLED_DIVIDER, sequence.getType(0));
+        assertEquals(99, sequence.getId(100));
+        assertTrue(sequence.isDivider(10));
+        assertFalse(sequence.isDivider(11));
+        sequence.remove(0);
+        assertEquals(0, sequence.getId(0));
+        assertEquals(100, sequence.size());
+    }
+
+    /**
+     * Tests the functionality of the method, which allows to look up the index of an item by its
+     * id.
+     */
+    @Test
+    public final void testIndexOf() {
+        ItemSequence sequence = new ItemSequence();
+        sequence.add(5, ITEM);
+        sequence.add(-1, DIVIDER);
+        sequence.add(7, ITEM);
+        sequence.add(-1, TITLED_DIVIDER);
+        assertEquals(0, sequence.indexOf(5));
+        assertEquals(2, sequence.indexOf(7));
+        assertEquals(1, sequence.indexOf(-1));
+        assertEquals(-1, sequence.indexOf(8));
+        sequence.remove(0);
+        assertEquals(1, sequence.indexOf(7));
+        assertEquals(-1, sequence.indexOf(5));
+    }
+
+    /**
+     * Ensures, that an {@link IllegalArgumentException} is thrown, if an item with an invalid
+     * type is added.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testAddThrowsExceptionWhenTypeIsInvalid() {
+        new ItemSequence().add(0, (byte) 3);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if an item is inserted at an
+     * index, which is greater than the number of items.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testAddThrowsExceptionWhenIndexIsTooLarge() {
+        new ItemSequence().add(1, 0, ITEM);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if an item at an index, which
+     * is not less than the number of items, is replaced.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testSetThrowsExceptionWhenIndexIsTooLarge() {
+        ItemSequence sequence = new ItemSequence();
+        sequence.add(0, ITEM);
+        sequence.set(1, 0, ITEM);
+    }
+
+    /**
+     * Ensures, that an {@link IndexOutOfBoundsException} is thrown, if an item at a negative index
+     * is removed.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testRemoveThrowsExceptionWhenIndexIsNegative() {
+        ItemSequence sequence = new ItemSequence();
+        sequence.add(0, ITEM);
+        sequence.remove(-1);
+    }
+
+}
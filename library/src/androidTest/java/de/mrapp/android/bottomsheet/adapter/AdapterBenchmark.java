@@ -0,0 +1,522 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.adapter;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.StateListDrawable;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+import de.mrapp.android.bottomsheet.R;
+import de.mrapp.android.bottomsheet.layout.DividableGridLayout;
+import de.mrapp.android.bottomsheet.model.AbstractItem;
+import de.mrapp.android.bottomsheet.model.Divider;
+import de.mrapp.android.bottomsheet.model.Item;
+import de.mrapp.android.bottomsheet.view.DividableGridView;
+
+import static de.mrapp.android.util.Condition.ensureAtLeast;
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * An instrumentation test, which measures the throughput of the <code>getView</code>-method of a
+ * {@link DividableGridAdapter}. The throughput is measured separately for each cell, i.e. for each
+ * combination of the adapter's style, the items' icons and titles, the interval, at which dividers
+ * are added, and whether views are inflated or recycled. Within each cell, the results are
+ * reported per view type. The result of each cell is written to the log and reported as a status
+ * of the instrumentation, e.g. when running <code>adb shell am instrument -r -w</code>.
+ *
+ * The views are obtained from the adapter on the UI thread.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@RunWith(AndroidJUnit4.class)
+public class AdapterBenchmark {
+
+    /**
+     * Contains all modes, views can be obtained from the adapter in.
+     */
+    private enum Mode {
+
+        /**
+         * Each view is inflated, because no view, which could be recycled, is passed to the
+         * adapter.
+         */
+        COLD,
+
+        /**
+         * Each view is bound to a view of the same type, which has previously been bound to
+         * another position and is passed to the adapter in order to be recycled.
+         */
+        RECYCLED
+
+    }
+
+    /**
+     * A cell of the benchmark, which specifies the configuration of the adapter and its items.
+     */
+    private static class Cell {
+
+        /**
+         * The style of the adapter.
+         */
+        private final Style style;
+
+        /**
+         * True, if the items have icons, which are instances of the class {@link
+         * StateListDrawable}, false, if the items do not have icons.
+         */
+        private final boolean stateListIcons;
+
+        /**
+         * True, if the items have long titles, false otherwise.
+         */
+        private final boolean longTitles;
+
+        /**
+         * The interval, at which dividers are added to the items, or 0, if no dividers are added.
+         */
+        private final int dividerInterval;
+
+        /**
+         * The mode, views are obtained from the adapter in.
+         */
+        private final Mode mode;
+
+        /**
+         * Creates a new cell of the benchmark.
+         *
+         * @param style
+         *         The style of the adapter as a value of the enum {@link Style}. The style may not
+         *         be null
+         * @param stateListIcons
+         *         True, if the items should have icons, which are instances of the class {@link
+         *         StateListDrawable}, false, if the items should not have icons
+         * @param longTitles
+         *         True, if the items should have long titles, false otherwise
+         * @param dividerInterval
+         *         The interval, at which dividers should be added to the items, as an {@link
+         *         Integer} value or 0, if no dividers should be added. The interval must be at
+         *         least 0
+         * @param mode
+         *         The mode, views should be obtained from the adapter in, as a value of the enum
+         *         {@link Mode}. The mode may not be null
+         */
+        Cell(@NonNull final Style style, final boolean stateListIcons,
+             final boolean longTitles, final int dividerInterval, @NonNull final Mode mode) {
+            ensureNotNull(style, "The style may not be null");
+            ensureAtLeast(dividerInterval, 0, "The divider interval must be at least 0");
+            ensureNotNull(mode, "The mode may not be null");
+            this.style = style;
+            this.stateListIcons = stateListIcons;
+            this.longTitles = longTitles;
+            this.dividerInterval = dividerInterval;
+            this.mode = mode;
+        }
+
+        /**
+         * Returns the style of the adapter.
+         *
+         * @return The style of the adapter as a value of the enum {@link Style}
+         */
+        public final Style getStyle() {
+            return style;
+        }
+
+        /**
+         * Returns, whether the items have icons, which are instances of the class {@link
+         * StateListDrawable}, or not.
+         *
+         * @return True, if the items have icons, false otherwise
+         */
+        public final boolean hasStateListIcons() {
+            return stateListIcons;
+        }
+
+        /**
+         * Returns, whether the items have long titles, or not.
+         *
+         * @return True, if the items have long titles, false otherwise
+         */
+        public final boolean hasLongTitles() {
+            return longTitles;
+        }
+
+        /**
+         * Returns the interval, at which dividers are added to the items.
+         *
+         * @return The interval, at which dividers are added to the items, as an {@link Integer}
+         * value or 0, if no dividers are added
+         */
+        public final int getDividerInterval() {
+            return dividerInterval;
+        }
+
+        /**
+         * Returns the mode, views are obtained from the adapter in.
+         *
+         * @return The mode, views are obtained from the adapter in, as a value of the enum {@link
+         * Mode}
+         */
+        public final Mode getMode() {
+            return mode;
+        }
+
+        @Override
+        public final String toString() {
+            return "Cell [style=" + style + ", stateListIcons=" + stateListIcons +
+                    ", longTitles=" + longTitles + ", dividerInterval=" + dividerInterval +
+                    ", mode=" + mode + "]";
+        }
+
+    }
+
+    /**
+     * The result of a benchmark run for a single cell.
+     */
+    private static class Result {
+
+        /**
+         * The cell, the result corresponds to.
+         */
+        private final Cell cell;
+
+        /**
+         * An array, which contains the number of views, which have been obtained, per view type.
+         */
+        private final int[] counts;
+
+        /**
+         * An array, which contains the total time in nanoseconds, which has been spent obtaining
+         * views, per view type.
+         */
+        private final long[] durations;
+
+        /**
+         * Creates a new result of a benchmark run.
+         *
+         * @param cell
+         *         The cell, the result corresponds to, as an instance of the class {@link Cell}.
+         *         The cell may not be null
+         * @param counts
+         *         An array, which contains the number of views, which have been obtained, per view
+         *         type, as an {@link Integer} array. The array may not be null
+         * @param durations
+         *         An array, which contains the total time in nanoseconds, which has been spent
+         *         obtaining views, per view type, as a {@link Long} array. The array may not be
+         *         null
+         */
+        Result(@NonNull final Cell cell, @NonNull final int[] counts,
+               @NonNull final long[] durations) {
+            ensureNotNull(cell, "The cell may not be null");
+            ensureNotNull(counts, "The array may not be null");
+            ensureNotNull(durations, "The array may not be null");
+            this.cell = cell;
+            this.counts = counts.clone();
+            this.durations = durations.clone();
+        }
+
+        /**
+         * Returns the cell, the result corresponds to.
+         *
+         * @return The cell, the result corresponds to, as an instance of the class {@link Cell}
+         */
+        public final Cell getCell() {
+            return cell;
+        }
+
+        /**
+         * Returns the number of views of a specific type, which have been obtained.
+         *
+         * @param viewType
+         *         The view type as an {@link Integer} value. The view type must be one of the
+         *         view types, which are defined by the class {@link DividableGridLayout}
+         * @return The number of views of the given type, which have been obtained, as an {@link
+         * Integer} value
+         */
+        public final int getCount(final int viewType) {
+            return counts[viewType];
+        }
+
+        /**
+         * Returns the total time, which has been spent obtaining views of a specific type.
+         *
+         * @param viewType
+         *         The view type as an {@link Integer} value. The view type must be one of the
+         *         view types, which are defined by the class {@link DividableGridLayout}
+         * @return The total time, which has been spent obtaining views of the given type, in
+         * nanoseconds as a {@link Long} value
+         */
+        public final long getDuration(final int viewType) {
+            return durations[viewType];
+        }
+
+        /**
+         * Returns the average time, which has been spent obtaining a single view of a specific
+         * type.
+         *
+         * @param viewType
+         *         The view type as an {@link Integer} value. The view type must be one of the
+         *         view types, which are defined by the class {@link DividableGridLayout}
+         * @return The average time, which has been spent obtaining a single view of the given
+         * type, in nanoseconds as a {@link Double} value or 0, if no such views have been obtained
+         */
+        public final double getNanosPerView(final int viewType) {
+            return counts[viewType] > 0 ? (double) durations[viewType] / counts[viewType] : 0;
+        }
+
+        @Override
+        public final String toString() {
+            return "Result [cell=" + cell + ", items=" +
+                    getNanosPerView(DividableGridLayout.ITEM_VIEW_TYPE) + " ns, dividers=" +
+                    getNanosPerView(DividableGridLayout.SEPARATOR_VIEW_TYPE) +
+                    " ns, placeholders=" +
+                    getNanosPerView(DividableGridLayout.PLACEHOLDER_VIEW_TYPE) + " ns]";
+        }
+
+    }
+
+    /**
+     * The title of items, which have short titles.
+     */
+    private static final String SHORT_TITLE = "Item";
+
+    /**
+     * The title of items, which have long titles.
+     */
+    private static final String LONG_TITLE =
+            "An item with a very long title, which does not fit into a single line and must " +
+                    "therefore be wrapped or ellipsized";
+
+    /**
+     * The tag, which is used to write the results to the log.
+     */
+    private static final String TAG = AdapterBenchmark.class.getSimpleName();
+
+    /**
+     * The number of items, which are added to the adapter.
+     */
+    private static final int ITEM_COUNT = 100;
+
+    /**
+     * The number of times, all views are obtained from the adapter.
+     */
+    private static final int ITERATIONS = 10;
+
+    /**
+     * The intervals, at which dividers are added to the items, or 0, if no dividers are added.
+     */
+    private static final int[] DIVIDER_INTERVALS = {0, 5};
+
+    /**
+     * Creates and returns an icon, which is an instance of the class {@link StateListDrawable}.
+     *
+     * @return The icon, which has been created, as an instance of the class {@link Drawable}
+     */
+    private static Drawable createStateListIcon() {
+        StateListDrawable icon = new StateListDrawable();
+        icon.addState(new int[]{android.R.attr.state_pressed}, new ColorDrawable(Color.DKGRAY));
+        icon.addState(new int[]{-android.R.attr.state_enabled},
+                new ColorDrawable(Color.LTGRAY));
+        icon.addState(new int[]{}, new ColorDrawable(Color.GRAY));
+        return icon;
+    }
+
+    /**
+     * Creates and returns the items, which correspond to a specific cell.
+     *
+     * @param cell
+     *         The cell as an instance of the class {@link Cell}. The cell may not be null
+     * @return A list, which contains the items, which have been created, as an instance of the
+     * type {@link List}
+     */
+    private static List<AbstractItem> createItems(@NonNull final Cell cell) {
+        List<AbstractItem> items = new ArrayList<>(ITEM_COUNT);
+        int interval = cell.getDividerInterval();
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            if (interval > 0 && i % interval == interval - 1) {
+                Divider divider = new Divider();
+
+                if (i / interval % 2 == 1) {
+                    divider.setTitle(cell.hasLongTitles() ? LONG_TITLE : SHORT_TITLE);
+                }
+
+                items.add(divider);
+            } else {
+                Item item = new Item(i, cell.hasLongTitles() ? LONG_TITLE : SHORT_TITLE);
+
+                if (cell.hasStateListIcons()) {
+                    item.setIcon(createStateListIcon());
+                }
+
+                items.add(item);
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Creates and returns the views, which are recycled, when views are obtained from a specific
+     * adapter in the mode {@link Mode#RECYCLED}. A view is inflated for each position and the
+     * views are grouped by their type. Each group is rotated by one position, so that the first
+     * view of a group has been bound to the second position of the corresponding type. When the
+     * views are taken from the head of their group and appended to its tail after being bound,
+     * each position is therefore bound to a view, which has previously been bound to the next
+     * position of the same type, rather than to itself, if the type is used by multiple
+     * positions. This causes the titles of items and dividers, as well as the heights of dividers,
+     * to be rebound, as it would be done while scrolling.
+     *
+     * @param adapter
+     *         The adapter as an instance of the class {@link DividableGridAdapter}. The adapter
+     *         may not be null
+     * @param parent
+     *         The parent, the views should be inflated for, as an instance of the class {@link
+     *         DividableGridView}. The parent may not be null
+     * @return An array, which contains the views, which have been created, grouped by their type,
+     * as an array of the type {@link Deque}
+     */
+    @SuppressWarnings("unchecked")
+    private static Deque<View>[] createScrapViews(@NonNull final DividableGridAdapter adapter,
+                                                  @NonNull final DividableGridView parent) {
+        Deque<View>[] scrapViews = new Deque[adapter.getViewTypeCount()];
+
+        for (int i = 0; i < scrapViews.length; i++) {
+            scrapViews[i] = new ArrayDeque<>();
+        }
+
+        for (int i = 0; i < adapter.getCount(); i++) {
+            scrapViews[adapter.getItemViewType(i)].addLast(adapter.getView(i, null, parent));
+        }
+
+        for (Deque<View> views : scrapViews) {
+            if (views.size() > 1) {
+                views.addLast(views.removeFirst());
+            }
+        }
+
+        return scrapViews;
+    }
+
+    /**
+     * Measures the throughput of the <code>getView</code>-method for a specific cell. This method
+     * must be called on the UI thread.
+     *
+     * @param context
+     *         The context, which should be used by the adapter, as an instance of the class {@link
+     *         Context}. The context may not be null
+     * @param cell
+     *         The cell, the throughput should be measured for, as an instance of the class {@link
+     *         Cell}. The cell may not be null
+     * @return The result of the benchmark run as an instance of the class {@link Result}
+     */
+    private static Result run(@NonNull final Context context, @NonNull final Cell cell) {
+        int width = context.getResources().getDimensionPixelSize(R.dimen.default_width);
+        DividableGridAdapter adapter = new DividableGridAdapter(context, cell.getStyle(), width);
+        DividableGridView parent = new DividableGridView(context);
+        adapter.setItems(createItems(cell));
+        int viewTypeCount = adapter.getViewTypeCount();
+        Deque<View>[] scrapViews =
+                cell.getMode() == Mode.RECYCLED ? createScrapViews(adapter, parent) : null;
+        int[] counts = new int[viewTypeCount];
+        long[] durations = new long[viewTypeCount];
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (int j = 0; j < adapter.getCount(); j++) {
+                int viewType = adapter.getItemViewType(j);
+                View convertView = scrapViews != null ? scrapViews[viewType].removeFirst() : null;
+                long startTime = System.nanoTime();
+                View view = adapter.getView(j, convertView, parent);
+                durations[viewType] += System.nanoTime() - startTime;
+                counts[viewType]++;
+
+                if (scrapViews != null) {
+                    scrapViews[viewType].addLast(view);
+                }
+            }
+        }
+
+        return new Result(cell, counts, durations);
+    }
+
+    /**
+     * Reports the result of a specific cell by writing it to the log and sending it as a status
+     * of the instrumentation.
+     *
+     * @param instrumentation
+     *         The instrumentation, which runs the benchmark, as an instance of the class {@link
+     *         Instrumentation}. The instrumentation may not be null
+     * @param result
+     *         The result, which should be reported, as an instance of the class {@link Result}.
+     *         The result may not be null
+     */
+    private static void report(@NonNull final Instrumentation instrumentation,
+                               @NonNull final Result result) {
+        Log.i(TAG, result.toString());
+        Bundle status = new Bundle();
+        status.putString(Instrumentation.REPORT_KEY_STREAMRESULT, result + "\n");
+        instrumentation.sendStatus(0, status);
+    }
+
+    /**
+     * Measures the throughput of the <code>getView</code>-method for all cells, which can be
+     * created from the adapter's styles, icons, titles, divider intervals and modes, and reports
+     * the result of each cell.
+     */
+    @Test
+    public final void runAll() {
+        final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = new ContextThemeWrapper(
+                InstrumentationRegistry.getTargetContext(), R.style.BottomSheet_Light);
+
+        for (final int dividerInterval : DIVIDER_INTERVALS) {
+            for (final Style style : Style.values()) {
+                for (int i = 0; i < 4; i++) {
+                    for (final Mode mode : Mode.values()) {
+                        final Cell cell =
+                                new Cell(style, i % 2 == 1, i / 2 == 1, dividerInterval, mode);
+                        instrumentation.runOnMainSync(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                report(instrumentation, AdapterBenchmark.run(context, cell));
+                            }
+
+                        });
+                    }
+                }
+            }
+        }
+    }
+
+}
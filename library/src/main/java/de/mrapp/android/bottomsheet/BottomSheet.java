@@ -23,6 +23,8 @@ import android.content.Intent;
 import android.content.pm.ActivityInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
+import android.content.res.ColorStateList;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.drawable.BitmapDrawable;
@@ -30,6 +32,8 @@ import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.AttrRes;
 import android.support.annotation.ColorInt;
 import android.support.annotation.DrawableRes;
@@ -41,11 +45,13 @@ import android.support.annotation.StyleRes;
 import android.support.v4.content.ContextCompat;
 import android.text.TextUtils;
 import android.util.TypedValue;
+import android.view.FrameMetrics;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.Window;
 import android.view.WindowManager;
 import android.view.animation.AccelerateDecelerateInterpolator;
@@ -58,22 +64,30 @@ import android.widget.GridView;
 import android.widget.ListAdapter;
 import android.widget.TextView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import de.mrapp.android.bottomsheet.adapter.DividableGridAdapter;
+import de.mrapp.android.bottomsheet.metrics.AdapterStatistics;
+import de.mrapp.android.bottomsheet.metrics.FrameMetricsMonitor;
+import de.mrapp.android.bottomsheet.metrics.FrameMetricsReport;
+import de.mrapp.android.bottomsheet.metrics.FrameMetricsReport.Phase;
+import de.mrapp.android.bottomsheet.metrics.ShowMetrics;
+import de.mrapp.android.bottomsheet.metrics.TouchLatencyMonitor;
+import de.mrapp.android.bottomsheet.metrics.Tracing;
 import de.mrapp.android.bottomsheet.model.AbstractItem;
 import de.mrapp.android.bottomsheet.model.Divider;
 import de.mrapp.android.bottomsheet.model.Item;
+import de.mrapp.android.bottomsheet.model.ParcelableItemList;
+import de.mrapp.android.bottomsheet.util.BitmapCache;
 import de.mrapp.android.bottomsheet.view.DividableGridView;
 import de.mrapp.android.bottomsheet.view.DraggableView;
-import de.mrapp.android.util.DisplayUtil;
+import de.mrapp.android.bottomsheet.view.PerformanceOverlay;
 import de.mrapp.android.util.ViewUtil;
 
 import static de.mrapp.android.util.Condition.ensureAtLeast;
 import static de.mrapp.android.util.Condition.ensureAtMaximum;
 import static de.mrapp.android.util.Condition.ensureNotNull;
-import static de.mrapp.android.util.DisplayUtil.getDeviceType;
-import static de.mrapp.android.util.DisplayUtil.getOrientation;
 
 /**
  * A bottom sheet, which is designed according to the Android 5's Material Design guidelines even on
@@ -127,7 +141,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
             bottomSheet.setContentView(createContentView(),
                     new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
                             ViewGroup.LayoutParams.MATCH_PARENT));
-            obtainStyledAttributes(themeId);
+            bottomSheet.obtainStyledAttributes(themeId);
         }
 
         /**
@@ -142,126 +156,6 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
             return contentView;
         }
 
-        /**
-         * Obtains all relevant attributes from the current theme.
-         */
-        private void obtainStyledAttributes(@StyleRes final int themeResourceId) {
-            obtainBackground(themeResourceId);
-            obtainTitleColor(themeResourceId);
-            obtainItemColor(themeResourceId);
-            obtainDividerColor(themeResourceId);
-            obtainDimAmount(themeResourceId);
-            obtainDragSensitivity(themeResourceId);
-        }
-
-        /**
-         * Obtains the background from the current theme.
-         *
-         * @param themeResourceId
-         *         The resource id of the theme, the background should be obtained from, as an
-         *         {@link Integer} value
-         */
-        private void obtainBackground(@StyleRes final int themeResourceId) {
-            TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(themeResourceId,
-                    new int[]{R.attr.bottomSheetBackground});
-            int color = typedArray.getColor(0, -1);
-
-            if (color != -1) {
-                setBackgroundColor(color);
-            } else {
-                int resourceId = typedArray.getResourceId(0, 0);
-
-                if (resourceId != 0) {
-                    setBackground(resourceId);
-                }
-            }
-        }
-
-        /**
-         * Obtains the title color from the current theme.
-         *
-         * @param themeResourceId
-         *         The resource id of the theme, the title color should be obtained from, as an
-         *         {@link Integer} value
-         */
-        private void obtainTitleColor(@StyleRes final int themeResourceId) {
-            TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(themeResourceId,
-                    new int[]{R.attr.bottomSheetTitleColor});
-            int color = typedArray.getColor(0, -1);
-
-            if (color != -1) {
-                setTitleColor(color);
-            }
-        }
-
-        /**
-         * Obtains the divider color from the current theme.
-         *
-         * @param themeResourceId
-         *         The resource id of the theme, the divider color should be obtained from, as an
-         *         {@link Integer} value
-         */
-        private void obtainDividerColor(@StyleRes final int themeResourceId) {
-            TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(themeResourceId,
-                    new int[]{R.attr.bottomSheetDividerColor});
-            int color = typedArray.getColor(0, -1);
-
-            if (color != -1) {
-                setDividerColor(color);
-            }
-        }
-
-        /**
-         * Obtains the item color from the current theme.
-         *
-         * @param themeResourceId
-         *         The resource id of the theme, the item color should be obtained from, as an
-         *         {@link Integer} value
-         */
-        private void obtainItemColor(@StyleRes final int themeResourceId) {
-            TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(themeResourceId,
-                    new int[]{R.attr.bottomSheetItemColor});
-            int color = typedArray.getColor(0, -1);
-
-            if (color != -1) {
-                setItemColor(color);
-            }
-        }
-
-        /**
-         * Obtains the dim amount from the current theme.
-         *
-         * @param themeResourceId
-         *         The resource id of the theme, the dim amount should be obtained from, as an
-         *         {@link Integer} value
-         */
-        private void obtainDimAmount(@StyleRes final int themeResourceId) {
-            TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(themeResourceId,
-                    new int[]{R.attr.bottomSheetDimAmount});
-            float dimAmount = typedArray.getFraction(0, 1, 1, -1);
-
-            if (dimAmount != -1) {
-                setDimAmount(dimAmount);
-            }
-        }
-
-        /**
-         * Obtains the drag sensitivity from the current theme.
-         *
-         * @param themeResourceId
-         *         The resource id of the theme, the drag sensitivity should be obtained from, as an
-         *         {@link Integer} value
-         */
-        private void obtainDragSensitivity(@StyleRes final int themeResourceId) {
-            TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(themeResourceId,
-                    new int[]{R.attr.bottomSheetDragSensitivity});
-            float dragSensitivity = typedArray.getFraction(0, 1, 1, -1);
-
-            if (dragSensitivity != -1) {
-                setDragSensitivity(dragSensitivity);
-            }
-        }
-
         /**
          * Creates a new builder, which allows to create bottom sheets, which are designed according
          * to Android 5's Material Design guidelines even on pre-Lollipop devices.
@@ -374,6 +268,56 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
             return this;
         }
 
+        /**
+         * Sets the listener, which should be notified about the durations of the frames, which are
+         * drawn while the bottom sheet, which is created by the builder, is shown, dragged,
+         * maximized or hidden. Frame metrics are only available on devices with API level 16 or
+         * greater.
+         *
+         * @param listener
+         *         The listener, which should be set, as an instance of the type {@link
+         *         FrameMetricsListener} or null, if no listener should be notified
+         * @return The builder, the method has been called upon, as an instance of the class {@link
+         * Builder}
+         */
+        public final Builder setFrameMetricsListener(
+                @Nullable final FrameMetricsListener listener) {
+            bottomSheet.setFrameMetricsListener(listener);
+            return this;
+        }
+
+        /**
+         * Sets the listener, which should be notified about the latencies between touch events and
+         * the frames, which show the bottom sheet, which is created by the builder, at the
+         * corresponding position, while it is dragged.
+         *
+         * @param listener
+         *         The listener, which should be set, as an instance of the type {@link
+         *         TouchLatencyListener} or null, if no listener should be notified
+         * @return The builder, the method has been called upon, as an instance of the class {@link
+         * Builder}
+         */
+        public final Builder setTouchLatencyListener(
+                @Nullable final TouchLatencyListener listener) {
+            bottomSheet.setTouchLatencyListener(listener);
+            return this;
+        }
+
+        /**
+         * Sets the callback, which should be notified about the durations and counts, which are
+         * measured each time the bottom sheet, which is created by the builder, is shown.
+         *
+         * @param callback
+         *         The callback, which should be set, as an instance of the type {@link Metrics} or
+         *         null, if no callback should be notified
+         * @return The builder, the method has been called upon, as an instance of the class {@link
+         * Builder}
+         */
+        public final Builder setMetrics(@Nullable final Metrics callback) {
+            bottomSheet.setMetrics(callback);
+            return this;
+        }
+
         /**
          * Sets the listener, which should be notified, when the bottom sheet, which is created by
          * the builder, is canceled.
@@ -428,8 +372,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
          * Sets the color of the title of the bottom sheet, which is created by the builder.
          *
          * @param color
-         *         The color, which should be set, as an {@link Integer} value or -1, if no custom
-         *         color should be set
+         *         The color, which should be set, as an {@link Integer} value
          * @return The builder, the method has been called upon, as an instance of the class {@link
          * Builder}
          */
@@ -442,8 +385,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
          * Sets the color of the items of the bottom sheet, which is created by the builder.
          *
          * @param color
-         *         The color, which should be set, as an {@link Integer} value or -1, if no custom
-         *         color should be set
+         *         The color, which should be set, as an {@link Integer} value
          * @return The builder, the method has been called upon, as an instance of the class {@link
          * Builder}
          */
@@ -456,8 +398,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
          * Sets the color of the dividers of the bottom sheet, which is created by the builder.
          *
          * @param color
-         *         The color, which should be set, as an {@link Integer} value or -1, if no custom
-         *         color should be set
+         *         The color, which should be set, as an {@link Integer} value
          * @return The builder, the method has been called upon, as an instance of the class {@link
          * Builder}
          */
@@ -498,8 +439,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
          * Sets the background color of the bottom sheet, which is created by the builder.
          *
          * @param color
-         *         The background color, which should be set, as an {@link Integer} value or -1, if
-         *         no custom background color should be set
+         *         The background color, which should be set, as an {@link Integer} value
          * @return The builder, the method has been called upon, as an instance of the class {@link
          * Builder}
          */
@@ -683,6 +623,52 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
             return this;
         }
 
+        /**
+         * Sets, whether the items of the bottom sheet, which is created by the builder, should be
+         * stored in a compact manner, or not. This reduces the memory consumption of bottom sheets
+         * with a large number of items.
+         *
+         * @param compactStorage
+         *         True, if the items should be stored in a compact manner, false otherwise
+         * @return The builder, the method has been called upon, as an instance of the class {@link
+         * Builder}
+         */
+        public final Builder setCompactStorageEnabled(final boolean compactStorage) {
+            bottomSheet.setCompactStorageEnabled(compactStorage);
+            return this;
+        }
+
+        /**
+         * Sets, whether the bottom sheet, which is created by the builder, should be rendered into
+         * a hardware layer while it is dragged or animated, or not. By default, hardware layers
+         * are enabled.
+         *
+         * @param hardwareLayersEnabled
+         *         True, if the bottom sheet should be rendered into a hardware layer while it is
+         *         dragged or animated, false otherwise
+         * @return The builder, the method has been called upon, as an instance of the class {@link
+         * Builder}
+         */
+        public final Builder setHardwareLayersEnabled(final boolean hardwareLayersEnabled) {
+            bottomSheet.setHardwareLayersEnabled(hardwareLayersEnabled);
+            return this;
+        }
+
+        /**
+         * Sets, whether an overlay, which visualizes live performance counters, should be shown on
+         * top of the bottom sheet, which is created by the builder, or not. This is intended for
+         * debugging purposes only. By default, the overlay is not shown.
+         *
+         * @param debugOverlayEnabled
+         *         True, if the overlay should be shown, false otherwise
+         * @return The builder, the method has been called upon, as an instance of the class {@link
+         * Builder}
+         */
+        public final Builder setDebugOverlayEnabled(final boolean debugOverlayEnabled) {
+            bottomSheet.setDebugOverlayEnabled(debugOverlayEnabled);
+            return this;
+        }
+
         /**
          * Adds a new item to the bottom sheet, which is created by the builder.
          *
@@ -892,14 +878,35 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
 
     }
 
+    /**
+     * Defines the interface, a class, which should be notified about the durations and counts,
+     * which are measured each time a bottom sheet is shown, must implement.
+     */
+    public interface Metrics {
+
+        /**
+         * The method, which is invoked, when the first frame of a bottom sheet has been drawn
+         * after it has been shown.
+         *
+         * @param bottomSheet
+         *         The bottom sheet, which has been shown, as an instance of the class {@link
+         *         BottomSheet}
+         * @param metrics
+         *         The metrics, which have been measured while the bottom sheet has been shown, as
+         *         an instance of the class {@link ShowMetrics}
+         */
+        void onShown(BottomSheet bottomSheet, ShowMetrics metrics);
+
+    }
+
     /**
      * The name of the extra, which is used to store the title of the bottom sheet within a bundle.
      */
     private static final String TITLE_EXTRA = BottomSheet.class.getSimpleName() + "::title";
 
     /**
-     * The name of the extra, which is used to store the bitmap of the icon of the bottom sheet
-     * within a bundle.
+     * The name of the extra, which is used to store the cache key of the bitmap of the icon of the
+     * bottom sheet within a bundle.
      */
     private static final String ICON_BITMAP_EXTRA =
             BottomSheet.class.getSimpleName() + "::iconBitmap";
@@ -925,8 +932,8 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
             BottomSheet.class.getSimpleName() + "::titleColor";
 
     /**
-     * The name of the extra, which is used to store the bitmap of the background of the bottom
-     * sheet within a bundle.
+     * The name of the extra, which is used to store the cache key of the bitmap of the background
+     * of the bottom sheet within a bundle.
      */
     private static final String BACKGROUND_BITMAP_EXTRA =
             BottomSheet.class.getSimpleName() + "::backgroundBitmap";
@@ -976,6 +983,57 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     private static final String WIDTH_EXTRA = BottomSheet.class.getSimpleName() + "::width";
 
+    /**
+     * The name of the extra, which is used to store the items of the bottom sheet within a bundle.
+     */
+    private static final String ITEMS_EXTRA = BottomSheet.class.getSimpleName() + "::items";
+
+    /**
+     * The name of the extra, which is used to store the style of the bottom sheet within a bundle.
+     */
+    private static final String STYLE_EXTRA = BottomSheet.class.getSimpleName() + "::style";
+
+    /**
+     * The name of the extra, which is used to store the color of the items of the bottom sheet
+     * within a bundle.
+     */
+    private static final String ITEM_COLOR_EXTRA =
+            BottomSheet.class.getSimpleName() + "::itemColor";
+
+    /**
+     * The name of the extra, which is used to store the color of the dividers of the bottom sheet
+     * within a bundle.
+     */
+    private static final String DIVIDER_COLOR_EXTRA =
+            BottomSheet.class.getSimpleName() + "::dividerColor";
+
+    /**
+     * The name of the extra, which is used to store, whether the items of the bottom sheet are
+     * stored in a compact manner, or not, within a bundle.
+     */
+    private static final String COMPACT_STORAGE_EXTRA =
+            BottomSheet.class.getSimpleName() + "::compactStorage";
+
+    /**
+     * The name of the extra, which is used to store, whether the bottom sheet is maximized, or
+     * not, within a bundle.
+     */
+    private static final String MAXIMIZED_EXTRA =
+            BottomSheet.class.getSimpleName() + "::maximized";
+
+    /**
+     * The name of the extra, which is used to store the intent, whose apps are shown by the bottom
+     * sheet, within a bundle.
+     */
+    private static final String INTENT_EXTRA = BottomSheet.class.getSimpleName() + "::intent";
+
+    /**
+     * The name of the extra, which is used to store the components of the apps, which are shown by
+     * the bottom sheet, within a bundle.
+     */
+    private static final String INTENT_COMPONENTS_EXTRA =
+            BottomSheet.class.getSimpleName() + "::intentComponents";
+
     /**
      * The minimum value of the internal value range, which specifies after which distance dragging
      * has an effect on the bottom sheet.
@@ -1033,6 +1091,18 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     private Bitmap iconBitmap;
 
+    /**
+     * The cache key of the bitmap of the bottom sheet's icon, if the icon has been restored, but
+     * not loaded yet.
+     */
+    private String iconBitmapKey;
+
+    /**
+     * The cache key of the bitmap of the bottom sheet's icon, which is referred to by the most
+     * recently saved or restored instance state.
+     */
+    private String savedIconBitmapKey;
+
     /**
      * The resource id of the icon of the bottom sheet.
      */
@@ -1048,6 +1118,11 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     private int titleColor = -1;
 
+    /**
+     * True, if a custom color has been set for the title of the bottom sheet, false otherwise.
+     */
+    private boolean customTitleColor;
+
     /**
      * The background of the bottom sheet.
      */
@@ -1058,6 +1133,24 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     private Bitmap backgroundBitmap;
 
+    /**
+     * The cache key of the bitmap of the bottom sheet's background, if the background has been
+     * restored, but not loaded yet.
+     */
+    private String backgroundBitmapKey;
+
+    /**
+     * The cache key of the bitmap of the bottom sheet's background, which is referred to by the
+     * most recently saved or restored instance state.
+     */
+    private String savedBackgroundBitmapKey;
+
+    /**
+     * True, if the most recently saved instance state may still be restored, i.e. if the bottom
+     * sheet's window has not gained the focus since the state has been saved, false otherwise.
+     */
+    private boolean restorePending;
+
     /**
      * The resource id of the background of the bottom sheet.
      */
@@ -1068,6 +1161,12 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     private int backgroundColor = -1;
 
+    /**
+     * True, if the background of the bottom sheet has been set by specifying a color, false
+     * otherwise.
+     */
+    private boolean customBackgroundColor;
+
     /**
      * True, if the bottom sheet is cancelable, false otherwise.
      */
@@ -1134,18 +1233,139 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     private OnMaximizeListener maximizeListener;
 
+    /**
+     * The listener, which is notified about the durations of the frames, which are drawn while the
+     * bottom sheet is shown, dragged, maximized or hidden.
+     */
+    private FrameMetricsListener frameMetricsListener;
+
+    /**
+     * The monitor, which is used to measure the durations of the frames, which are drawn by the
+     * bottom sheet, or null, if no frame metrics are measured.
+     */
+    private FrameMetricsMonitor frameMetricsMonitor;
+
+    /**
+     * The listener, which is notified about the latencies between touch events and the frames,
+     * which show the bottom sheet at the corresponding position, while it is dragged.
+     */
+    private TouchLatencyListener touchLatencyListener;
+
+    /**
+     * The monitor, which is used to measure the latencies between touch events and the frames,
+     * which show the bottom sheet at the corresponding position, or null, if no latencies are
+     * measured.
+     */
+    private TouchLatencyMonitor touchLatencyMonitor;
+
+    /**
+     * The callback, which is notified about the durations and counts, which are measured each time
+     * the bottom sheet is shown.
+     */
+    private Metrics metrics;
+
+    /**
+     * The statistics, which are used to count the item views, which are bound and inflated while
+     * the bottom sheet is shown, or null, if no metrics are measured and no debug overlay is
+     * shown.
+     */
+    private AdapterStatistics adapterStatistics;
+
+    /**
+     * The time in nanoseconds, when the bottom sheet has been shown, or -1, if the bottom sheet is
+     * not about to be shown.
+     */
+    private long showTime;
+
+    /**
+     * The time in nanoseconds, when the bottom sheet has been shown most recently, in order to
+     * measure the duration until its first frame has been drawn.
+     */
+    private long firstFrameStartTime;
+
+    /**
+     * The time in nanoseconds, when the bottom sheet's first frame has been about to be drawn, or
+     * -1, if the first frame has not been drawn yet.
+     */
+    private long firstFramePreDrawTime = -1;
+
+    /**
+     * True, if the durations and counts, which have been measured while the bottom sheet has been
+     * shown, have not been reported yet, false otherwise.
+     */
+    private boolean firstFramePending;
+
+    /**
+     * The listener, which is used to obtain the frame metrics of the bottom sheet's first frame,
+     * or null, if no frame metrics are awaited.
+     */
+    private Window.OnFrameMetricsAvailableListener firstFrameMetricsListener;
+
+    /**
+     * The time in nanoseconds, which has been spent inflating the bottom sheet's root view.
+     */
+    private long rootInflationDuration;
+
+    /**
+     * The time in nanoseconds, which has been spent inflating the bottom sheet's title view.
+     */
+    private long titleInflationDuration;
+
+    /**
+     * The time in nanoseconds, which has been spent inflating the bottom sheet's content view.
+     */
+    private long contentInflationDuration;
+
+    /**
+     * The time in nanoseconds, which has been spent adapting the height of the bottom sheet's grid
+     * view to its children.
+     */
+    private long gridViewHeightDuration;
+
     /**
      * True, if the bottom sheet should be maximized immediately after it has been shown, false
      * otherwise.
      */
     private boolean maximize;
 
+    /**
+     * The intent, whose apps are shown by the bottom sheet, or null, if the bottom sheet does not
+     * show the apps, which are able to handle an intent.
+     */
+    private Intent intent;
+
+    /**
+     * A list, which contains the components of the apps, which are shown by the bottom sheet, or
+     * null, if the bottom sheet does not show the apps, which are able to handle an intent.
+     */
+    private ArrayList<ComponentName> intentComponents;
+
+    /**
+     * True, if the bottom sheet should be rendered into a hardware layer while it is dragged or
+     * animated, false otherwise.
+     */
+    private boolean hardwareLayersEnabled;
+
+    /**
+     * True, if an overlay, which visualizes live performance counters, is shown on top of the
+     * bottom sheet, false otherwise.
+     */
+    private boolean debugOverlayEnabled;
+
+    /**
+     * The overlay, which visualizes live performance counters on top of the bottom sheet, or null,
+     * if no overlay is shown.
+     */
+    private PerformanceOverlay performanceOverlay;
+
     /**
      * Initializes the bottom sheet.
      */
     private void initialize() {
         width = getContext().getResources().getDimensionPixelSize(R.dimen.default_width);
         maximize = false;
+        hardwareLayersEnabled = true;
+        showTime = -1;
         adapter = new DividableGridAdapter(getContext(), Style.LIST, width);
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.FROYO) {
@@ -1269,124 +1489,779 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
                 int paddingBottom = getContext().getResources()
                         .getDimensionPixelSize(R.dimen.bottom_sheet_grid_padding_bottom);
                 gridView.setPadding(horizontalPadding, 0, horizontalPadding, paddingBottom);
-                gridView.setNumColumns(GridView.AUTO_FIT);
-                gridView.setColumnWidth(getContext().getResources()
-                        .getDimensionPixelSize(R.dimen.bottom_sheet_grid_item_size));
             } else {
                 int paddingBottom = getContext().getResources()
                         .getDimensionPixelSize(R.dimen.bottom_sheet_list_padding_bottom);
                 gridView.setPadding(0, 0, 0, paddingBottom);
-                gridView.setNumColumns(getStyle() == Style.LIST_COLUMNS &&
-                        (getDeviceType(getContext()) == DisplayUtil.DeviceType.TABLET ||
-                                getOrientation(getContext()) == DisplayUtil.Orientation.LANDSCAPE) ?
-                        2 : 1);
             }
 
-            gridView.setOnItemClickListener(createItemClickListener());
-            gridView.setOnItemLongClickListener(createItemLongClickListener());
-            gridView.setAdapter(adapter);
-        }
+            gridView.setNumColumns(adapter.getColumnCount());
+
+            gridView.setOnItemClickListener(createItemClickListener());
+            gridView.setOnItemLongClickListener(createItemLongClickListener());
+            gridView.setAdapter(adapter);
+            adapter.setAdapterView(gridView);
+        }
+    }
+
+    /**
+     * Adapts the view, which is used to show the dialog's content.
+     */
+    private void adaptContentView() {
+        if (contentContainer != null) {
+            inflateContentView();
+        }
+    }
+
+    /**
+     * Adapts the root view.
+     */
+    private void adaptRootView() {
+        if (rootView != null) {
+            if (getStyle() == Style.LIST) {
+                int paddingTop = getContext().getResources()
+                        .getDimensionPixelSize(R.dimen.bottom_sheet_list_padding_top);
+                rootView.setPadding(0, paddingTop, 0, 0);
+            } else {
+                int paddingTop = getContext().getResources()
+                        .getDimensionPixelSize(R.dimen.bottom_sheet_grid_padding_top);
+                rootView.setPadding(0, paddingTop, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Adapts the view, which is used to show the dialog's title.
+     */
+    private void adaptTitleView() {
+        if (titleContainer != null) {
+            inflateTitleView();
+            adaptTitle();
+            adaptTitleColor();
+            adaptIcon();
+        }
+    }
+
+    /**
+     * Adapts the color of the bottom sheet's title.
+     */
+    private void adaptTitleColor() {
+        if (titleTextView != null && customTitleColor) {
+            titleTextView.setTextColor(titleColor);
+        }
+    }
+
+    /**
+     * Adapts the bottom sheet's title.
+     */
+    private void adaptTitle() {
+        if (titleTextView != null) {
+            titleTextView.setText(title);
+        }
+
+        adaptTitleContainerVisibility();
+    }
+
+    /**
+     * Adapts the bottom sheet's icon.
+     */
+    private void adaptIcon() {
+        if (titleTextView != null) {
+            titleTextView.setCompoundDrawablesWithIntrinsicBounds(icon, null, null, null);
+        }
+
+        adaptTitleContainerVisibility();
+    }
+
+    /**
+     * Adapts the visibility of the layout, which is used to show the bottom sheet's title.
+     */
+    private void adaptTitleContainerVisibility() {
+        if (titleContainer != null) {
+            if (customTitleView == null && customTitleViewId == -1) {
+                titleContainer.setVisibility(
+                        !TextUtils.isEmpty(title) || icon != null ? View.VISIBLE : View.GONE);
+            } else {
+                titleContainer.setVisibility(View.VISIBLE);
+            }
+        }
+    }
+
+    /**
+     * Obtains all relevant attributes from a specific theme.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the attributes should be obtained from, as an {@link
+     *         Integer} value
+     */
+    private void obtainStyledAttributes(@StyleRes final int themeResourceId) {
+        obtainBackground(themeResourceId);
+        obtainTitleColor(themeResourceId);
+        obtainItemColor(themeResourceId);
+        obtainDividerColor(themeResourceId);
+        obtainDimAmount(themeResourceId);
+        obtainDragSensitivity(themeResourceId);
+    }
+
+    /**
+     * Obtains the background from a specific theme. If the theme does not specify a background,
+     * the current background is retained.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the background should be obtained from, as an {@link
+     *         Integer} value
+     */
+    private void obtainBackground(@StyleRes final int themeResourceId) {
+        TypedArray typedArray =
+                obtainThemeAttributes(themeResourceId, R.attr.bottomSheetBackground);
+        TypedValue typedValue = typedArray.peekValue(0);
+
+        if (typedValue != null) {
+            if (typedValue.type >= TypedValue.TYPE_FIRST_COLOR_INT &&
+                    typedValue.type <= TypedValue.TYPE_LAST_COLOR_INT) {
+                setBackgroundColor(typedValue.data);
+            } else if (typedValue.resourceId != 0) {
+                setBackground(typedValue.resourceId);
+            }
+        }
+
+        typedArray.recycle();
+    }
+
+    /**
+     * Obtains the title color from a specific theme. If the theme does not specify a title color,
+     * the current color is retained.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the title color should be obtained from, as an {@link
+     *         Integer} value
+     */
+    private void obtainTitleColor(@StyleRes final int themeResourceId) {
+        TypedArray typedArray =
+                obtainThemeAttributes(themeResourceId, R.attr.bottomSheetTitleColor);
+
+        if (typedArray.hasValue(0)) {
+            setTitleColor(typedArray.getColor(0, 0));
+        }
+
+        typedArray.recycle();
+    }
+
+    /**
+     * Obtains the item color from a specific theme. The theme may either specify a single color
+     * or a color state list. If the theme does not specify an item color, the current colors are
+     * retained.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the item color should be obtained from, as an {@link
+     *         Integer} value
+     */
+    private void obtainItemColor(@StyleRes final int themeResourceId) {
+        TypedArray typedArray =
+                obtainThemeAttributes(themeResourceId, R.attr.bottomSheetItemColor);
+
+        if (typedArray.hasValue(0)) {
+            adapter.setItemColor(typedArray.getColorStateList(0));
+        }
+
+        typedArray.recycle();
+    }
+
+    /**
+     * Obtains the divider color from a specific theme. If the theme does not specify a divider
+     * color, the current color is retained.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the divider color should be obtained from, as an
+     *         {@link Integer} value
+     */
+    private void obtainDividerColor(@StyleRes final int themeResourceId) {
+        TypedArray typedArray =
+                obtainThemeAttributes(themeResourceId, R.attr.bottomSheetDividerColor);
+
+        if (typedArray.hasValue(0)) {
+            setDividerColor(typedArray.getColor(0, 0));
+        }
+
+        typedArray.recycle();
+    }
+
+    /**
+     * Obtains a specific attribute from a specific theme. The theme is applied to a new theme
+     * instead of the theme of the bottom sheet's context, so that references to other theme
+     * attributes, such as <code>?android:attr/colorBackground</code>, are resolved against the
+     * given theme, even if it differs from the theme, the bottom sheet has been created with.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the attribute should be obtained from, as an {@link
+     *         Integer} value
+     * @param attributeId
+     *         The resource id of the attribute, which should be obtained, as an {@link Integer}
+     *         value
+     * @return The typed array, which contains the attribute's value, as an instance of the class
+     * {@link TypedArray}. The typed array must be recycled after use
+     */
+    private TypedArray obtainThemeAttributes(@StyleRes final int themeResourceId,
+                                             @AttrRes final int attributeId) {
+        Resources.Theme theme = getContext().getResources().newTheme();
+        theme.applyStyle(themeResourceId, true);
+        return theme.obtainStyledAttributes(new int[]{attributeId});
+    }
+
+    /**
+     * Obtains the dim amount from a specific theme.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the dim amount should be obtained from, as an {@link
+     *         Integer} value
+     */
+    private void obtainDimAmount(@StyleRes final int themeResourceId) {
+        TypedArray typedArray = getContext().getTheme()
+                .obtainStyledAttributes(themeResourceId, new int[]{R.attr.bottomSheetDimAmount});
+
+        if (typedArray.hasValue(0)) {
+            setDimAmount(typedArray.getFraction(0, 1, 1, 0));
+        }
+
+        typedArray.recycle();
+    }
+
+    /**
+     * Obtains the drag sensitivity from a specific theme.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the drag sensitivity should be obtained from, as an
+     *         {@link Integer} value
+     */
+    private void obtainDragSensitivity(@StyleRes final int themeResourceId) {
+        TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(themeResourceId,
+                new int[]{R.attr.bottomSheetDragSensitivity});
+
+        if (typedArray.hasValue(0)) {
+            setDragSensitivity(typedArray.getFraction(0, 1, 1, 0));
+        }
+
+        typedArray.recycle();
+    }
+
+    /**
+     * Loads the bitmap of the bottom sheet's icon from the cache, if the icon has been restored.
+     * The bitmap is decoded in the background, if necessary, and the icon is adapted afterwards,
+     * unless another icon has been set in the meantime.
+     */
+    private void loadIconBitmap() {
+        if (iconBitmapKey != null) {
+            BitmapCache.load(getContext(), iconBitmapKey, new BitmapCache.Callback() {
+
+                @Override
+                public void onLoaded(@NonNull final String key, @Nullable final Bitmap bitmap) {
+                    if (key.equals(iconBitmapKey)) {
+                        iconBitmapKey = null;
+
+                        if (bitmap != null) {
+                            icon = new BitmapDrawable(getContext().getResources(), bitmap);
+                            iconBitmap = bitmap;
+                        }
+
+                        adaptIcon();
+                    }
+                }
+
+            });
+        }
+    }
+
+    /**
+     * Loads the bitmap of the bottom sheet's background from the cache, if the background has
+     * been restored. The bitmap is decoded in the background, if necessary, and the background is
+     * adapted afterwards, unless another background has been set in the meantime.
+     */
+    private void loadBackgroundBitmap() {
+        if (backgroundBitmapKey != null) {
+            BitmapCache.load(getContext(), backgroundBitmapKey, new BitmapCache.Callback() {
+
+                @Override
+                public void onLoaded(@NonNull final String key, @Nullable final Bitmap bitmap) {
+                    if (key.equals(backgroundBitmapKey)) {
+                        backgroundBitmapKey = null;
+
+                        if (bitmap != null) {
+                            background =
+                                    new BitmapDrawable(getContext().getResources(), bitmap);
+                            backgroundBitmap = bitmap;
+                        }
+
+                        adaptBackground();
+                    }
+                }
+
+            });
+        }
+    }
+
+    /**
+     * Replaces the cache key of a bitmap, which is referred to by the most recently saved
+     * instance state, with the key, which is referred to by a newly saved state. The new key is
+     * retained and the previous one is released, if they differ.
+     *
+     * @param previousKey
+     *         The key, which is referred to by the most recently saved instance state, as a {@link
+     *         String} or null
+     * @param key
+     *         The key, which is referred to by the newly saved instance state, as a {@link
+     *         String} or null
+     * @return The key, which is referred to by the newly saved instance state, as a {@link
+     * String} or null
+     */
+    private String replaceSavedBitmapKey(@Nullable final String previousKey,
+                                         @Nullable final String key) {
+        if (key != null ? !key.equals(previousKey) : previousKey != null) {
+            if (key != null) {
+                BitmapCache.retain(key);
+            }
+
+            if (previousKey != null) {
+                BitmapCache.release(getContext(), previousKey);
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * Replaces the cache key of a bitmap, which is referred to by the most recently saved
+     * instance state, with the key, which is referred to by a restored state. The reference of the
+     * restored state is taken over and the previous key is released, if they differ.
+     *
+     * @param previousKey
+     *         The key, which is referred to by the most recently saved instance state, as a {@link
+     *         String} or null
+     * @param key
+     *         The key, which is referred to by the restored instance state, as a {@link String}.
+     *         The key may not be null
+     * @return The key, which is referred to by the restored instance state, as a {@link String}
+     */
+    private String restoreSavedBitmapKey(@Nullable final String previousKey,
+                                         @NonNull final String key) {
+        BitmapCache.restore(key);
+
+        if (previousKey != null && !previousKey.equals(key)) {
+            BitmapCache.release(getContext(), previousKey);
+        }
+
+        return key;
+    }
+
+    /**
+     * Returns, whether the most recently saved instance state may still be restored, or not. This
+     * is the case, if the bottom sheet's window has not gained the focus since the state has
+     * been saved, e.g. because the owner activity is recreated, unless the owner activity is
+     * finishing.
+     *
+     * @return True, if the most recently saved instance state may still be restored, false
+     * otherwise
+     */
+    private boolean isRestorePending() {
+        Activity ownerActivity = getOwnerActivity();
+        return restorePending && (ownerActivity == null || !ownerActivity.isFinishing());
+    }
+
+    /**
+     * Releases the cache keys of the bitmaps, which are referred to by the most recently saved
+     * instance state, if the state will not be restored anymore.
+     */
+    private void releaseSavedBitmapKeys() {
+        if (!isRestorePending()) {
+            savedIconBitmapKey = replaceSavedBitmapKey(savedIconBitmapKey, null);
+            savedBackgroundBitmapKey = replaceSavedBitmapKey(savedBackgroundBitmapKey, null);
+        }
+    }
+
+    /**
+     * Adapts the bottom sheet's background.
+     */
+    private void adaptBackground() {
+        if (rootView != null && background != null) {
+            ViewUtil.setBackground(rootView, background);
+        }
+    }
+
+    /**
+     * Adapts the bottom sheet's drag sensitivity.
+     */
+    private void adaptDragSensitivity() {
+        if (rootView != null) {
+            rootView.setDragSensitivity(calculateDragSensitivity());
+        }
+    }
+
+    /**
+     * Adapts, whether the bottom sheet is rendered into a hardware layer while it is dragged or
+     * animated, or not.
+     */
+    private void adaptHardwareLayers() {
+        if (rootView != null) {
+            rootView.setHardwareLayersEnabled(hardwareLayersEnabled);
+        }
+    }
+
+    /**
+     * Adapts, whether the durations of the frames, which are drawn by the bottom sheet, are
+     * measured, or not.
+     */
+    private void adaptFrameMetrics() {
+        if (rootView != null) {
+            if (frameMetricsListener != null &&
+                    Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                if (frameMetricsMonitor == null) {
+                    frameMetricsMonitor = new FrameMetricsMonitor();
+                }
+
+                frameMetricsMonitor.attach(getWindow());
+                rootView.setMotionListener(createMotionListener());
+            } else {
+                rootView.setMotionListener(null);
+
+                if (frameMetricsMonitor != null) {
+                    frameMetricsMonitor.detach();
+                    frameMetricsMonitor = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adapts, whether an overlay, which visualizes live performance counters, is shown on top of
+     * the bottom sheet, or not.
+     */
+    private void adaptDebugOverlay() {
+        if (performanceOverlay != null) {
+            ViewGroup parent = (ViewGroup) performanceOverlay.getParent();
+
+            if (parent != null) {
+                parent.removeView(performanceOverlay);
+            }
+
+            performanceOverlay = null;
+        }
+
+        if (rootView != null) {
+            if (debugOverlayEnabled) {
+                performanceOverlay = new PerformanceOverlay(getContext());
+                performanceOverlay.setStatistics(adapterStatistics);
+                ViewGroup contentView = (ViewGroup) rootView.getParent();
+                contentView.addView(performanceOverlay,
+                        new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT,
+                                FrameLayout.LayoutParams.MATCH_PARENT));
+                rootView.setPerformanceOverlay(performanceOverlay);
+            } else {
+                rootView.setPerformanceOverlay(null);
+            }
+        }
+    }
+
+    /**
+     * Starts to count the item views, which are bound and inflated, if the durations and counts,
+     * which are measured while the bottom sheet is shown, should be reported or if the debug
+     * overlay is shown.
+     */
+    private void startAdapterStatistics() {
+        if (metrics != null || debugOverlayEnabled) {
+            if (adapterStatistics == null) {
+                adapterStatistics = new AdapterStatistics();
+            }
+
+            adapterStatistics.reset();
+            adapter.setStatistics(adapterStatistics);
+        } else {
+            adapter.setStatistics(null);
+        }
+    }
+
+    /**
+     * Observes the bottom sheet's first frame, in order to report the durations and counts, which
+     * have been measured while the bottom sheet has been shown, if necessary. On devices with API
+     * level 24 or greater, whose window is hardware accelerated, the time, when the first frame
+     * has been drawn, is obtained from the window's {@link FrameMetrics}. On older devices, the
+     * time, when the main thread has finished drawing the first frame, is used instead.
+     *
+     * @param startTime
+     *         The time in nanoseconds, when the bottom sheet has been shown, as a {@link Long}
+     *         value
+     */
+    private void observeFirstFrame(final long startTime) {
+        if (metrics != null) {
+            firstFrameStartTime = startTime;
+            firstFramePreDrawTime = -1;
+            firstFramePending = true;
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                registerFirstFrameMetricsListener();
+            }
+
+            rootView.getViewTreeObserver().addOnPreDrawListener(createFirstFrameListener());
+        }
+    }
+
+    /**
+     * Creates and returns a listener, which allows to observe, when the bottom sheet's first frame
+     * is about to be drawn. A runnable is posted at that time, which runs after the frame has been
+     * drawn.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * ViewTreeObserver.OnPreDrawListener}
+     */
+    private ViewTreeObserver.OnPreDrawListener createFirstFrameListener() {
+        return new ViewTreeObserver.OnPreDrawListener() {
+
+            @Override
+            public boolean onPreDraw() {
+                if (rootView != null) {
+                    firstFramePreDrawTime = System.nanoTime();
+                    rootView.getViewTreeObserver().removeOnPreDrawListener(this);
+                    rootView.post(createPostFirstFrameRunnable());
+                }
+
+                return true;
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a runnable, which allows to report the durations and counts, which have
+     * been measured while the bottom sheet has been shown, after its first frame has been drawn by
+     * the main thread, unless the frame metrics of the window are awaited instead.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}
+     */
+    private Runnable createPostFirstFrameRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                if (firstFrameMetricsListener == null || rootView == null ||
+                        !rootView.isHardwareAccelerated()) {
+                    reportFirstFrame(System.nanoTime() - firstFrameStartTime);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a listener, which allows to report the durations and counts, which have
+     * been measured while the bottom sheet has been shown, when the frame metrics of its first
+     * frame are available.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * Window.OnFrameMetricsAvailableListener}
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private Window.OnFrameMetricsAvailableListener createFirstFrameMetricsListener() {
+        return new Window.OnFrameMetricsAvailableListener() {
+
+            @Override
+            public void onFrameMetricsAvailable(final Window window,
+                                                final FrameMetrics frameMetrics,
+                                                final int dropCountSinceLastInvocation) {
+                if (firstFramePreDrawTime != -1 &&
+                        frameMetrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) {
+                    long drawDuration = frameMetrics.getMetric(FrameMetrics.DRAW_DURATION) +
+                            frameMetrics.getMetric(FrameMetrics.SYNC_DURATION) +
+                            frameMetrics.getMetric(FrameMetrics.COMMAND_ISSUE_DURATION) +
+                            frameMetrics.getMetric(FrameMetrics.SWAP_BUFFERS_DURATION);
+                    reportFirstFrame(
+                            firstFramePreDrawTime + drawDuration - firstFrameStartTime);
+                }
+            }
+
+        };
     }
 
     /**
-     * Adapts the view, which is used to show the dialog's content.
+     * Registers the listener, which is used to obtain the frame metrics of the bottom sheet's
+     * first frame. The listener is registered before the window's decor view is attached, as the
+     * metrics of frames, which have been drawn before, are not reported.
      */
-    private void adaptContentView() {
-        if (contentContainer != null) {
-            inflateContentView();
+    @TargetApi(Build.VERSION_CODES.N)
+    private void registerFirstFrameMetricsListener() {
+        unregisterFirstFrameMetricsListener();
+        Window window = getWindow();
+
+        if (window != null) {
+            firstFrameMetricsListener = createFirstFrameMetricsListener();
+            window.addOnFrameMetricsAvailableListener(firstFrameMetricsListener,
+                    new Handler(Looper.getMainLooper()));
         }
     }
 
     /**
-     * Adapts the root view.
+     * Unregisters the listener, which is used to obtain the frame metrics of the bottom sheet's
+     * first frame, if it has been registered.
      */
-    private void adaptRootView() {
-        if (rootView != null) {
-            if (getStyle() == Style.LIST) {
-                int paddingTop = getContext().getResources()
-                        .getDimensionPixelSize(R.dimen.bottom_sheet_list_padding_top);
-                rootView.setPadding(0, paddingTop, 0, 0);
-            } else {
-                int paddingTop = getContext().getResources()
-                        .getDimensionPixelSize(R.dimen.bottom_sheet_grid_padding_top);
-                rootView.setPadding(0, paddingTop, 0, 0);
+    @TargetApi(Build.VERSION_CODES.N)
+    private void unregisterFirstFrameMetricsListener() {
+        if (firstFrameMetricsListener != null) {
+            Window window = getWindow();
+
+            if (window != null) {
+                window.removeOnFrameMetricsAvailableListener(firstFrameMetricsListener);
             }
+
+            firstFrameMetricsListener = null;
         }
     }
 
     /**
-     * Adapts the view, which is used to show the dialog's title.
+     * Reports the durations and counts, which have been measured while the bottom sheet has been
+     * shown, unless they have already been reported.
+     *
+     * @param firstFrameDuration
+     *         The time between the bottom sheet being shown and its first frame being drawn in
+     *         nanoseconds as a {@link Long} value
      */
-    private void adaptTitleView() {
-        if (titleContainer != null) {
-            inflateTitleView();
-            adaptTitle();
-            adaptTitleColor();
-            adaptIcon();
+    private void reportFirstFrame(final long firstFrameDuration) {
+        if (firstFramePending) {
+            firstFramePending = false;
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                unregisterFirstFrameMetricsListener();
+            }
+
+            if (!debugOverlayEnabled) {
+                adapter.setStatistics(null);
+            }
+
+            if (metrics != null && adapterStatistics != null) {
+                metrics.onShown(BottomSheet.this,
+                        new ShowMetrics(firstFrameDuration, rootInflationDuration,
+                                titleInflationDuration, contentInflationDuration,
+                                gridViewHeightDuration, adapterStatistics));
+            }
         }
     }
 
     /**
-     * Adapts the color of the bottom sheet's title.
+     * Adapts, whether the latencies between touch events and the frames, which show the bottom
+     * sheet at the corresponding position, are measured, or not.
      */
-    private void adaptTitleColor() {
-        if (titleTextView != null && titleColor != -1) {
-            titleTextView.setTextColor(titleColor);
+    private void adaptTouchLatency() {
+        if (touchLatencyMonitor != null) {
+            touchLatencyMonitor.detach();
+            touchLatencyMonitor = null;
+        }
+
+        if (rootView != null) {
+            if (touchLatencyListener != null) {
+                touchLatencyMonitor = new TouchLatencyMonitor(this, touchLatencyListener);
+                touchLatencyMonitor.attach(getWindow());
+            }
+
+            rootView.setTouchLatencyMonitor(touchLatencyMonitor);
         }
     }
 
     /**
-     * Adapts the bottom sheet's title.
+     * Starts to measure the durations of the frames, which are drawn while the bottom sheet is
+     * shown. The phase is ended, once the window animation, which is used to show the bottom
+     * sheet, has been finished, or when the bottom sheet starts to move.
      */
-    private void adaptTitle() {
-        if (titleTextView != null) {
-            titleTextView.setText(title);
-        }
+    private void startShowPhase() {
+        if (frameMetricsMonitor != null) {
+            startFramePhase(Phase.SHOW);
+            rootView.postDelayed(new Runnable() {
 
-        adaptTitleContainerVisibility();
+                @Override
+                public void run() {
+                    endFramePhase(Phase.SHOW);
+                }
+
+            }, getContext().getResources().getInteger(R.integer.animation_duration));
+        }
     }
 
     /**
-     * Adapts the bottom sheet's icon.
+     * Starts to measure the durations of the frames, which are drawn during a specific phase. If
+     * another phase is currently measured, it is ended first.
+     *
+     * @param phase
+     *         The phase, which should be measured, as a value of the enum {@link Phase}. The phase
+     *         may not be null
      */
-    private void adaptIcon() {
-        if (titleTextView != null) {
-            titleTextView.setCompoundDrawablesWithIntrinsicBounds(icon, null, null, null);
-        }
+    private void startFramePhase(@NonNull final Phase phase) {
+        if (frameMetricsMonitor != null) {
+            Phase currentPhase = frameMetricsMonitor.getPhase();
 
-        adaptTitleContainerVisibility();
+            if (currentPhase != null) {
+                endFramePhase(currentPhase);
+            }
+
+            frameMetricsMonitor.startPhase(phase);
+        }
     }
 
     /**
-     * Adapts the visibility of the layout, which is used to show the bottom sheet's title.
+     * Ends a specific phase, if it is currently measured, and notifies the listener, which has
+     * been registered to be notified about the durations of frames, about the frames, which have
+     * been drawn during the phase.
+     *
+     * @param phase
+     *         The phase, which should be ended, as a value of the enum {@link Phase}. The phase may
+     *         not be null
      */
-    private void adaptTitleContainerVisibility() {
-        if (titleContainer != null) {
-            if (customTitleView == null && customTitleViewId == -1) {
-                titleContainer.setVisibility(
-                        !TextUtils.isEmpty(title) || icon != null ? View.VISIBLE : View.GONE);
-            } else {
-                titleContainer.setVisibility(View.VISIBLE);
+    private void endFramePhase(@NonNull final Phase phase) {
+        if (frameMetricsMonitor != null && frameMetricsMonitor.getPhase() == phase) {
+            FrameMetricsReport report =
+                    frameMetricsMonitor.endPhase(getStyle(), Math.max(getItemCount(), 0));
+
+            if (report != null && frameMetricsListener != null) {
+                frameMetricsListener.onFrameMetrics(this, report);
             }
         }
     }
 
     /**
-     * Adapts the bottom sheet's background.
+     * Returns the phase, which corresponds to a specific motion of the bottom sheet's root view.
+     *
+     * @param motion
+     *         The motion as a value of the enum {@link DraggableView.Motion}. The motion may not be
+     *         null
+     * @return The phase, which corresponds to the given motion, as a value of the enum {@link
+     * Phase}
      */
-    private void adaptBackground() {
-        if (rootView != null && background != null) {
-            ViewUtil.setBackground(rootView, background);
+    private Phase getPhase(@NonNull final DraggableView.Motion motion) {
+        switch (motion) {
+            case DRAG:
+                return Phase.DRAG;
+            case MAXIMIZE:
+                return Phase.MAXIMIZE;
+            default:
+                return Phase.HIDE;
         }
     }
 
     /**
-     * Adapts the bottom sheet's drag sensitivity.
+     * Creates and returns a listener, which allows to measure the durations of the frames, which
+     * are drawn while the bottom sheet's root view is moving.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * DraggableView.MotionListener}
      */
-    private void adaptDragSensitivity() {
-        if (rootView != null) {
-            rootView.setDragSensitivity(calculateDragSensitivity());
-        }
+    private DraggableView.MotionListener createMotionListener() {
+        return new DraggableView.MotionListener() {
+
+            @Override
+            public void onMotionStarted(@NonNull final DraggableView.Motion motion) {
+                startFramePhase(getPhase(motion));
+            }
+
+            @Override
+            public void onMotionEnded(@NonNull final DraggableView.Motion motion) {
+                endFramePhase(getPhase(motion));
+            }
+
+        };
     }
 
     /**
@@ -1395,6 +2270,10 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
     private void adaptWidth() {
         adapter.setWidth(width);
 
+        if (gridView != null) {
+            gridView.setNumColumns(adapter.getColumnCount());
+        }
+
         if (rootView != null) {
             rootView.setWidth(width);
             rootView.requestLayout();
@@ -1410,6 +2289,17 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         }
     }
 
+    /**
+     * Adapts the height of the bottom sheet's grid view on the next frame. This is used, when
+     * items are added, in order to adapt the height only once, when multiple items are added
+     * within the same frame.
+     */
+    private void adaptGridViewHeightOnNextFrame() {
+        if (gridView instanceof DividableGridView) {
+            ((DividableGridView) gridView).adaptHeightToChildrenOnNextFrame();
+        }
+    }
+
     /**
      * Creates and returns a listener, which allows to immediately maximize the bottom sheet after
      * it has been shown.
@@ -1487,18 +2377,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
                                     final int position, final long id) {
                 if (itemClickListener != null && !rootView.isDragging() &&
                         !rootView.isAnimationRunning()) {
-                    int index = position;
-
-                    if (adapter.containsDividers()) {
-                        for (int i = position; i >= 0; i--) {
-                            if (adapter.getItem(i) == null ||
-                                    (adapter.getItem(i) instanceof Divider &&
-                                            i % adapter.getColumnCount() > 0)) {
-                                index--;
-                            }
-                        }
-                    }
-
+                    int index = adapter.getIndex(position);
                     itemClickListener.onItemClick(parent, view, index, getId(position));
                 }
 
@@ -1524,18 +2403,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
 
                 if (!rootView.isDragging() && !rootView.isAnimationRunning() &&
                         itemLongClickListener != null) {
-                    int index = position;
-
-                    if (adapter.containsDividers()) {
-                        for (int i = position; i >= 0; i--) {
-                            if (adapter.getItem(i) == null ||
-                                    (adapter.getItem(i) instanceof Divider &&
-                                            i % adapter.getColumnCount() > 0)) {
-                                index--;
-                            }
-                        }
-                    }
-
+                    int index = adapter.getIndex(position);
                     return itemLongClickListener
                             .onItemLongClick(parent, view, index, getId(position));
                 }
@@ -1546,6 +2414,46 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         };
     }
 
+    /**
+     * Replaces the icons of restored items, which have been lost, because they were not contained
+     * by the {@link de.mrapp.android.bottomsheet.util.DrawableCache} anymore, e.g. after the
+     * process has been killed. The icons of items, which have been added by using the method
+     * {@link #setIntent(Activity, Intent)}, are loaded again from the corresponding app. All other
+     * lost icons are replaced by a placeholder.
+     *
+     * @param savedItems
+     *         The list, the items have been restored from, as an instance of the class {@link
+     *         ParcelableItemList}. The list may not be null
+     * @param items
+     *         A list, which contains the restored items, as an instance of the type {@link List}.
+     *         The list may not be null
+     * @param componentNames
+     *         A list, which contains the components of the apps, the items correspond to, as an
+     *         instance of the type {@link List} or null, if the items do not correspond to apps
+     */
+    private void restoreMissingIcons(@NonNull final ParcelableItemList savedItems,
+                                     @NonNull final List<AbstractItem> items,
+                                     @Nullable final List<ComponentName> componentNames) {
+        PackageManager packageManager = getContext().getPackageManager();
+
+        for (int i = 0; i < items.size(); i++) {
+            if (savedItems.isIconMissing(items, i)) {
+                Item item = (Item) items.get(i);
+                Drawable icon = null;
+
+                if (componentNames != null && i < componentNames.size()) {
+                    try {
+                        icon = packageManager.getActivityIcon(componentNames.get(i));
+                    } catch (PackageManager.NameNotFoundException e) {
+                        icon = null;
+                    }
+                }
+
+                item.setIcon(icon != null ? icon : packageManager.getDefaultActivityIcon());
+            }
+        }
+    }
+
     /**
      * Creates and returns a listener, which allows to start an app, when an item of the bottom
      * sheet has been clicked.
@@ -1556,25 +2464,22 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      * @param intent
      *         The intent, which should be passed to the started app, as an instance of the class
      *         {@link Intent}. The intent may not be null
-     * @param resolveInfos
-     *         A list, which contains the resolve infos, which correspond to the apps, which are
-     *         able to handle the intent, as an instance of the type {@link List} or an empty list,
-     *         if no apps are able to handle the intent
+     * @param componentNames
+     *         A list, which contains the components of the apps, which are able to handle the
+     *         intent, as an instance of the type {@link List} or an empty list, if no apps are able
+     *         to handle the intent
      * @return The listener, which has been created, as an instance of the type {@link
      * OnItemClickListener}
      */
     private OnItemClickListener createIntentClickListener(@NonNull final Activity activity,
                                                           @NonNull final Intent intent,
-                                                          @NonNull final List<ResolveInfo> resolveInfos) {
+                                                          @NonNull final List<ComponentName> componentNames) {
         return new OnItemClickListener() {
 
             @Override
             public void onItemClick(final AdapterView<?> parent, final View view,
                                     final int position, final long id) {
-                ActivityInfo activityInfo = resolveInfos.get(position).activityInfo;
-                ComponentName componentName =
-                        new ComponentName(activityInfo.applicationInfo.packageName,
-                                activityInfo.name);
+                ComponentName componentName = componentNames.get(adapter.getIndex(position));
                 intent.setFlags(
                         Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_RESET_TASK_IF_NEEDED);
                 intent.setComponent(componentName);
@@ -1621,6 +2526,8 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     public final void setOnItemClickListener(@Nullable final OnItemClickListener listener) {
         this.itemClickListener = listener;
+        this.intent = null;
+        this.intentComponents = null;
     }
 
     /**
@@ -1646,6 +2553,51 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         this.maximizeListener = listener;
     }
 
+    /**
+     * Sets the listener, which should be notified about the durations of the frames, which are
+     * drawn while the bottom sheet is shown, dragged, maximized or hidden. For each of these
+     * phases, the listener is notified about the number of frames, the number of slow and frozen
+     * frames, as well as about the percentiles of the frame durations. Frame metrics are only
+     * available on devices with API level 16 or greater.
+     *
+     * @param listener
+     *         The listener, which should be set, as an instance of the type {@link
+     *         FrameMetricsListener} or null, if no listener should be notified
+     */
+    public final void setFrameMetricsListener(@Nullable final FrameMetricsListener listener) {
+        this.frameMetricsListener = listener;
+        adaptFrameMetrics();
+    }
+
+    /**
+     * Sets the listener, which should be notified about the latencies between touch events and the
+     * frames, which show the bottom sheet at the corresponding position, while it is dragged. The
+     * latencies of a drag gesture are reported, once the gesture has been ended.
+     *
+     * @param listener
+     *         The listener, which should be set, as an instance of the type {@link
+     *         TouchLatencyListener} or null, if no listener should be notified
+     */
+    public final void setTouchLatencyListener(@Nullable final TouchLatencyListener listener) {
+        this.touchLatencyListener = listener;
+        adaptTouchLatency();
+    }
+
+    /**
+     * Sets the callback, which should be notified about the durations and counts, which are
+     * measured each time the bottom sheet is shown. This includes the time until the first frame
+     * has been drawn, the time, which is spent inflating the bottom sheet's views and adapting the
+     * height of its grid view, as well as the number of item views, which are bound and inflated,
+     * until the first frame has been drawn.
+     *
+     * @param callback
+     *         The callback, which should be set, as an instance of the type {@link Metrics} or
+     *         null, if no callback should be notified
+     */
+    public final void setMetrics(@Nullable final Metrics callback) {
+        this.metrics = callback;
+    }
+
     /**
      * Returns the grid view, which is contained by the bottom sheet.
      *
@@ -1668,7 +2620,8 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
     }
 
     /**
-     * Returns the icon of the bottom sheet.
+     * Returns the icon of the bottom sheet. If the icon has been restored from a saved instance
+     * state, it is loaded in the background and null is returned until it has been loaded.
      *
      * @return The icon of the bottom sheet, as an instance of the class {@link Drawable} or null,
      * if no icon has been set
@@ -1689,6 +2642,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         this.iconBitmap = icon;
         this.iconId = -1;
         this.iconAttributeId = -1;
+        this.iconBitmapKey = null;
         adaptIcon();
     }
 
@@ -1704,6 +2658,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         this.iconBitmap = null;
         this.iconId = resourceId;
         this.iconAttributeId = -1;
+        this.iconBitmapKey = null;
         adaptIcon();
     }
 
@@ -1721,6 +2676,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         this.iconBitmap = null;
         this.iconId = -1;
         this.iconAttributeId = attributeId;
+        this.iconBitmapKey = null;
         adaptIcon();
     }
 
@@ -1742,6 +2698,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     public final void setTitleColor(@ColorInt final int color) {
         titleColor = color;
+        customTitleColor = true;
         adaptTitleColor();
     }
 
@@ -1759,12 +2716,10 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      * Sets the color of the items of the bottom sheet.
      *
      * @param color
-     *         The color, which should be set, as an {@link Integer} value or -1, if no custom color
-     *         should be set
+     *         The color, which should be set, as an {@link Integer} value
      */
     public final void setItemColor(@ColorInt final int color) {
         adapter.setItemColor(color);
-        adapter.notifyDataSetChanged();
     }
 
     /**
@@ -1781,16 +2736,38 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      * Sets the color of the dividers of the bottom sheet.
      *
      * @param color
-     *         The color, which should be set, as an {@link Integer} value or -1, if no custom color
-     *         should be set
+     *         The color, which should be set, as an {@link Integer} value
      */
     public final void setDividerColor(@ColorInt final int color) {
         adapter.setDividerColor(color);
-        adapter.notifyDataSetChanged();
     }
 
     /**
-     * Returns the background of the bottom sheet.
+     * Applies the colors, which are specified by a specific theme, e.g. in order to switch between
+     * a light and dark appearance. The background, title color, item color and divider color are
+     * obtained from the theme attributes <code>bottomSheetBackground</code>,
+     * <code>bottomSheetTitleColor</code>, <code>bottomSheetItemColor</code> and
+     * <code>bottomSheetDividerColor</code>, which are specified by the bundled themes
+     * <code>BottomSheet</code> and <code>BottomSheet.Light</code>, which derive the background,
+     * title color and item color from the attributes <code>android:colorBackground</code> and
+     * <code>android:textColorPrimary</code> of the theme. Views, which are currently displayed,
+     * are updated in place. Colors, which are not specified by the theme, are retained.
+     *
+     * @param themeResourceId
+     *         The resource id of the theme, the colors should be obtained from, as an {@link
+     *         Integer} value. The resource id must correspond to a valid theme
+     */
+    public final void applyTheme(@StyleRes final int themeResourceId) {
+        obtainBackground(themeResourceId);
+        obtainTitleColor(themeResourceId);
+        obtainItemColor(themeResourceId);
+        obtainDividerColor(themeResourceId);
+    }
+
+    /**
+     * Returns the background of the bottom sheet. If the background has been restored from a
+     * saved instance state, it is loaded in the background and null is returned until it has been
+     * loaded.
      *
      * @return The background of the bottom sheet as an instance of the class {@link Drawable} or
      * null, if no custom background has been set
@@ -1811,6 +2788,8 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         this.backgroundBitmap = background;
         this.backgroundId = -1;
         this.backgroundColor = -1;
+        this.customBackgroundColor = false;
+        this.backgroundBitmapKey = null;
         adaptBackground();
     }
 
@@ -1824,8 +2803,10 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
     public final void setBackground(@DrawableRes final int resourceId) {
         this.background = ContextCompat.getDrawable(getContext(), resourceId);
         this.backgroundBitmap = null;
-        this.backgroundId = -1;
+        this.backgroundId = resourceId;
         this.backgroundColor = -1;
+        this.customBackgroundColor = false;
+        this.backgroundBitmapKey = null;
         adaptBackground();
     }
 
@@ -1833,14 +2814,15 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      * Sets the background color of the bottom sheet.
      *
      * @param color
-     *         The background color, which should be set, as an {@link Integer} value or -1, if no
-     *         custom background color should be set
+     *         The background color, which should be set, as an {@link Integer} value
      */
     public final void setBackgroundColor(@ColorInt final int color) {
         this.background = new ColorDrawable(color);
         this.backgroundBitmap = null;
         this.backgroundId = -1;
         this.backgroundColor = color;
+        this.customBackgroundColor = true;
+        this.backgroundBitmapKey = null;
         adaptBackground();
     }
 
@@ -1971,6 +2953,80 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         adaptWidth();
     }
 
+    /**
+     * Returns, whether the bottom sheet's items are stored in a compact manner, or not.
+     *
+     * @return True, if the bottom sheet's items are stored in a compact manner, false otherwise
+     */
+    public final boolean isCompactStorageEnabled() {
+        return adapter.isCompactStorageEnabled();
+    }
+
+    /**
+     * Sets, whether the bottom sheet's items should be stored in a compact manner, or not. Instead
+     * of retaining an object per item, the items' properties are then stored in primitive arrays
+     * and shared tables, which reduces the memory consumption of bottom sheets with a large number
+     * of items.
+     *
+     * @param compactStorage
+     *         True, if the bottom sheet's items should be stored in a compact manner, false
+     *         otherwise
+     */
+    public final void setCompactStorageEnabled(final boolean compactStorage) {
+        adapter.setCompactStorageEnabled(compactStorage);
+    }
+
+    /**
+     * Returns, whether the bottom sheet is rendered into a hardware layer while it is dragged or
+     * animated, or not.
+     *
+     * @return True, if the bottom sheet is rendered into a hardware layer while it is dragged or
+     * animated, false otherwise
+     */
+    public final boolean areHardwareLayersEnabled() {
+        return hardwareLayersEnabled;
+    }
+
+    /**
+     * Sets, whether the bottom sheet should be rendered into a hardware layer while it is dragged
+     * or animated, or not. This allows to move the bottom sheet by compositing a cached texture
+     * instead of redrawing all of its items on each frame, at the expense of the memory, which is
+     * required by the layer.
+     *
+     * @param hardwareLayersEnabled
+     *         True, if the bottom sheet should be rendered into a hardware layer while it is
+     *         dragged or animated, false otherwise
+     */
+    public final void setHardwareLayersEnabled(final boolean hardwareLayersEnabled) {
+        this.hardwareLayersEnabled = hardwareLayersEnabled;
+        adaptHardwareLayers();
+    }
+
+    /**
+     * Returns, whether an overlay, which visualizes live performance counters, is shown on top of
+     * the bottom sheet, or not.
+     *
+     * @return True, if the overlay is shown, false otherwise
+     */
+    public final boolean isDebugOverlayEnabled() {
+        return debugOverlayEnabled;
+    }
+
+    /**
+     * Sets, whether an overlay, which visualizes live performance counters, should be shown on top
+     * of the bottom sheet, or not. The overlay shows the number of item views, which have been
+     * bound and inflated since the bottom sheet has been shown, the rate of recycled item views,
+     * the number of layout passes per second and the time between the frames, which move the
+     * bottom sheet while it is dragged. This is intended for debugging purposes only. Changes
+     * take effect the next time the bottom sheet is shown.
+     *
+     * @param debugOverlayEnabled
+     *         True, if the overlay should be shown, false otherwise
+     */
+    public final void setDebugOverlayEnabled(final boolean debugOverlayEnabled) {
+        this.debugOverlayEnabled = debugOverlayEnabled;
+    }
+
     /**
      * Adds a new item to the bottom sheet.
      *
@@ -1984,7 +3040,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
     public final void addItem(final int id, @NonNull final CharSequence title) {
         Item item = new Item(id, title);
         adapter.add(item);
-        adaptGridViewHeight();
+        adaptGridViewHeightOnNextFrame();
     }
 
     /**
@@ -2005,7 +3061,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         Item item = new Item(id, title);
         item.setIcon(icon);
         adapter.add(item);
-        adaptGridViewHeight();
+        adaptGridViewHeightOnNextFrame();
     }
 
     /**
@@ -2021,7 +3077,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
     public final void addItem(final int id, @StringRes final int titleId) {
         Item item = new Item(getContext(), id, titleId);
         adapter.add(item);
-        adaptGridViewHeight();
+        adaptGridViewHeightOnNextFrame();
     }
 
     /**
@@ -2042,7 +3098,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         Item item = new Item(getContext(), id, titleId);
         item.setIcon(getContext(), iconId);
         adapter.add(item);
-        adaptGridViewHeight();
+        adaptGridViewHeightOnNextFrame();
     }
 
     /**
@@ -2132,7 +3188,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     public final void addDivider() {
         adapter.add(new Divider());
-        adaptGridViewHeight();
+        adaptGridViewHeightOnNextFrame();
     }
 
     /**
@@ -2146,7 +3202,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         Divider divider = new Divider();
         divider.setTitle(title);
         adapter.add(divider);
-        adaptGridViewHeight();
+        adaptGridViewHeightOnNextFrame();
     }
 
     /**
@@ -2160,7 +3216,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         Divider divider = new Divider();
         divider.setTitle(getContext(), titleId);
         adapter.add(divider);
-        adaptGridViewHeight();
+        adaptGridViewHeightOnNextFrame();
     }
 
     /**
@@ -2256,16 +3312,7 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
      */
     public final int indexOf(final int id) {
         ensureAtLeast(id, 0, "The id must be at least 0");
-
-        for (int i = 0; i < getItemCount(); i++) {
-            AbstractItem item = adapter.getItem(i);
-
-            if (item.getId() == id) {
-                return i;
-            }
-        }
-
-        return -1;
+        return adapter.indexOf(id);
     }
 
     /**
@@ -2303,6 +3350,30 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         adapter.setItemEnabled(index, enabled);
     }
 
+    /**
+     * Returns the query, which is used to filter the bottom sheet's items.
+     *
+     * @return The query, which is used to filter the bottom sheet's items, as an instance of the
+     * type {@link CharSequence} or null, if the items are not filtered
+     */
+    public final CharSequence getFilterQuery() {
+        return adapter.getFilterQuery();
+    }
+
+    /**
+     * Filters the bottom sheet's items by their titles. An item is shown, if each word of the query
+     * is a prefix of a word of its title, ignoring case. Dividers are only shown, if at least one
+     * item of their section is shown. The indices of the items are not affected by filtering.
+     *
+     * @param query
+     *         The query, which should be used to filter the items, as an instance of the type
+     *         {@link CharSequence} or null, if the items should not be filtered
+     */
+    public final void setFilterQuery(@Nullable final CharSequence query) {
+        adapter.setFilterQuery(query);
+        adaptGridViewHeight();
+    }
+
     /**
      * Adds the apps, which are able to handle a specific intent, as items to the bottom sheet. This
      * causes all previously added items to be removed. When an item is clicked, the corresponding
@@ -2320,14 +3391,20 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         removeAllItems();
         PackageManager packageManager = activity.getPackageManager();
         List<ResolveInfo> resolveInfos = packageManager.queryIntentActivities(intent, 0);
+        ArrayList<ComponentName> componentNames = new ArrayList<>(resolveInfos.size());
 
         for (int i = 0; i < resolveInfos.size(); i++) {
             ResolveInfo resolveInfo = resolveInfos.get(i);
+            ActivityInfo activityInfo = resolveInfo.activityInfo;
             addItem(i, resolveInfo.loadLabel(packageManager), resolveInfo.loadIcon(packageManager));
+            componentNames.add(new ComponentName(activityInfo.applicationInfo.packageName,
+                    activityInfo.name));
         }
 
-        setOnItemClickListener(
-                createIntentClickListener(activity, (Intent) intent.clone(), resolveInfos));
+        Intent clonedIntent = (Intent) intent.clone();
+        setOnItemClickListener(createIntentClickListener(activity, clonedIntent, componentNames));
+        this.intent = clonedIntent;
+        this.intentComponents = componentNames;
     }
 
     /**
@@ -2417,6 +3494,12 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         adaptTitle();
     }
 
+    @Override
+    public final void show() {
+        showTime = System.nanoTime();
+        super.show();
+    }
+
     @Override
     public final void dismiss() {
         if (isShowing()) {
@@ -2456,6 +3539,8 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
 
     @Override
     public final void onHidden(final boolean canceled) {
+        releaseSavedBitmapKeys();
+
         if (canceled) {
             super.cancel();
         } else {
@@ -2463,32 +3548,90 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         }
     }
 
+    @Override
+    public final void onWindowFocusChanged(final boolean hasFocus) {
+        super.onWindowFocusChanged(hasFocus);
+
+        if (hasFocus) {
+            restorePending = false;
+        }
+    }
+
     @Override
     public final void onStart() {
+        long startTime = showTime != -1 ? showTime : System.nanoTime();
+        showTime = -1;
+        Tracing.beginSection("BottomSheet.onStart");
         super.onStart();
+        startAdapterStatistics();
         getWindow().setAttributes(createLayoutParams());
         getWindow().getDecorView().setOnTouchListener(createCancelOnTouchListener());
+        Tracing.beginSection("BottomSheet.inflateRootView");
+        long time = System.nanoTime();
         inflateRootView();
+        rootInflationDuration = System.nanoTime() - time;
+        Tracing.endSection();
+        Tracing.beginSection("BottomSheet.adaptRootView");
         adaptRootView();
+        Tracing.endSection();
+        Tracing.beginSection("BottomSheet.inflateTitleView");
+        time = System.nanoTime();
         inflateTitleView();
+        titleInflationDuration = System.nanoTime() - time;
+        Tracing.endSection();
+        Tracing.beginSection("BottomSheet.inflateContentView");
+        time = System.nanoTime();
         inflateContentView();
+        contentInflationDuration = System.nanoTime() - time;
+        Tracing.endSection();
+        Tracing.beginSection("BottomSheet.adaptViews");
         adaptTitle();
         adaptTitleColor();
         adaptIcon();
         adaptBackground();
         adaptDragSensitivity();
+        adaptHardwareLayers();
         adaptWidth();
+        Tracing.endSection();
+        Tracing.beginSection("BottomSheet.adaptGridViewHeight");
+        time = System.nanoTime();
         adaptGridViewHeight();
+        gridViewHeightDuration = System.nanoTime() - time;
+        Tracing.endSection();
+        adaptFrameMetrics();
+        adaptTouchLatency();
+        adaptDebugOverlay();
+        startShowPhase();
+        observeFirstFrame(startTime);
+        Tracing.endSection();
     }
 
     @Override
     public final void onStop() {
         super.onStop();
+        releaseSavedBitmapKeys();
+        firstFramePending = false;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            unregisterFirstFrameMetricsListener();
+        }
+
+        if (frameMetricsMonitor != null) {
+            frameMetricsMonitor.detach();
+        }
+
+        if (touchLatencyMonitor != null) {
+            touchLatencyMonitor.detach();
+            touchLatencyMonitor = null;
+        }
+
         rootView = null;
+        performanceOverlay = null;
         titleContainer = null;
         titleTextView = null;
         contentContainer = null;
         gridView = null;
+        adapter.setAdapterView(null);
     }
 
     @Override
@@ -2496,34 +3639,69 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         Bundle outState = super.onSaveInstanceState();
 
         outState.putCharSequence(TITLE_EXTRA, title);
-        outState.putInt(TITLE_COLOR_EXTRA, titleColor);
+
+        if (customTitleColor) {
+            outState.putInt(TITLE_COLOR_EXTRA, titleColor);
+        }
+
         outState.putBoolean(CANCELABLE_EXTRA, cancelable);
         outState.putBoolean(CANCELED_ON_TOUCH_OUTSIDE_EXTRA, canceledOnTouchOutside);
         outState.putFloat(DRAG_SENSITIVITY_EXTRA, dragSensitivity);
         outState.putFloat(DIM_AMOUNT_EXTRA, dimAmount);
         outState.putInt(WIDTH_EXTRA, width);
+        outState.putString(STYLE_EXTRA, getStyle().name());
+        outState.putParcelable(ITEM_COLOR_EXTRA, adapter.getItemColors());
+
+        if (adapter.hasDividerColor()) {
+            outState.putInt(DIVIDER_COLOR_EXTRA, getDividerColor());
+        }
+
+        outState.putBoolean(COMPACT_STORAGE_EXTRA, isCompactStorageEnabled());
+        outState.putBoolean(MAXIMIZED_EXTRA, isMaximized());
+        outState.putParcelable(ITEMS_EXTRA, new ParcelableItemList(adapter.getItems()));
+
+        if (intent != null && intentComponents != null) {
+            outState.putParcelable(INTENT_EXTRA, intent);
+            outState.putParcelableArrayList(INTENT_COMPONENTS_EXTRA, intentComponents);
+        }
+
+        String iconKey =
+                iconBitmap != null ? BitmapCache.put(getContext(), iconBitmap) : iconBitmapKey;
+        savedIconBitmapKey = replaceSavedBitmapKey(savedIconBitmapKey, iconKey);
 
-        if (iconBitmap != null) {
-            outState.putParcelable(ICON_BITMAP_EXTRA, iconBitmap);
+        if (iconKey != null) {
+            outState.putString(ICON_BITMAP_EXTRA, iconKey);
         } else if (iconId != -1) {
             outState.putInt(ICON_ID_EXTRA, iconId);
+        } else if (iconAttributeId != -1) {
+            outState.putInt(ICON_ATTRIBUTE_ID_EXTRA, iconAttributeId);
         }
 
-        if (backgroundBitmap != null) {
-            outState.putParcelable(BACKGROUND_BITMAP_EXTRA, backgroundBitmap);
+        String backgroundKey = backgroundBitmap != null ?
+                BitmapCache.put(getContext(), backgroundBitmap) : backgroundBitmapKey;
+        savedBackgroundBitmapKey = replaceSavedBitmapKey(savedBackgroundBitmapKey, backgroundKey);
+
+        if (backgroundKey != null) {
+            outState.putString(BACKGROUND_BITMAP_EXTRA, backgroundKey);
         } else if (backgroundId != -1) {
             outState.putInt(BACKGROUND_ID_EXTRA, backgroundId);
-        } else if (backgroundColor != -1) {
+        } else if (customBackgroundColor) {
             outState.putInt(BACKGROUND_COLOR_EXTRA, backgroundColor);
         }
 
+        restorePending = true;
         return outState;
     }
 
     @Override
     public final void onRestoreInstanceState(final Bundle savedInstanceState) {
+        savedInstanceState.setClassLoader(getClass().getClassLoader());
         setTitle(savedInstanceState.getCharSequence(TITLE_EXTRA));
-        setTitleColor(savedInstanceState.getInt(TITLE_COLOR_EXTRA));
+
+        if (savedInstanceState.containsKey(TITLE_COLOR_EXTRA)) {
+            setTitleColor(savedInstanceState.getInt(TITLE_COLOR_EXTRA));
+        }
+
         setCancelable(savedInstanceState.getBoolean(CANCELABLE_EXTRA));
         setCanceledOnTouchOutside(savedInstanceState.getBoolean(CANCELED_ON_TOUCH_OUTSIDE_EXTRA));
         setDragSensitivity(savedInstanceState.getFloat(DRAG_SENSITIVITY_EXTRA));
@@ -2531,7 +3709,14 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         setWidth(savedInstanceState.getInt(WIDTH_EXTRA));
 
         if (savedInstanceState.containsKey(ICON_BITMAP_EXTRA)) {
-            setIcon((Bitmap) savedInstanceState.getParcelable(ICON_BITMAP_EXTRA));
+            icon = null;
+            iconBitmap = null;
+            iconId = -1;
+            iconAttributeId = -1;
+            iconBitmapKey = savedInstanceState.getString(ICON_BITMAP_EXTRA);
+            savedIconBitmapKey = restoreSavedBitmapKey(savedIconBitmapKey, iconBitmapKey);
+            adaptIcon();
+            loadIconBitmap();
         } else if (savedInstanceState.containsKey(ICON_ID_EXTRA)) {
             setIcon(savedInstanceState.getInt(ICON_ID_EXTRA));
         } else if (savedInstanceState.containsKey(ICON_ATTRIBUTE_ID_EXTRA)) {
@@ -2539,13 +3724,65 @@ public class BottomSheet extends Dialog implements DialogInterface, DraggableVie
         }
 
         if (savedInstanceState.containsKey(BACKGROUND_BITMAP_EXTRA)) {
-            setBackground((Bitmap) savedInstanceState.getParcelable(BACKGROUND_BITMAP_EXTRA));
+            background = null;
+            backgroundBitmap = null;
+            backgroundId = -1;
+            backgroundColor = -1;
+            customBackgroundColor = false;
+            backgroundBitmapKey = savedInstanceState.getString(BACKGROUND_BITMAP_EXTRA);
+            savedBackgroundBitmapKey =
+                    restoreSavedBitmapKey(savedBackgroundBitmapKey, backgroundBitmapKey);
+            adaptBackground();
+            loadBackgroundBitmap();
         } else if (savedInstanceState.containsKey(BACKGROUND_ID_EXTRA)) {
             setBackground(savedInstanceState.getInt(BACKGROUND_ID_EXTRA));
         } else if (savedInstanceState.containsKey(BACKGROUND_COLOR_EXTRA)) {
             setBackgroundColor(savedInstanceState.getInt(BACKGROUND_COLOR_EXTRA));
         }
 
+        if (savedInstanceState.containsKey(STYLE_EXTRA)) {
+            setStyle(Style.valueOf(savedInstanceState.getString(STYLE_EXTRA)));
+        }
+
+        adapter.setItemColor(
+                savedInstanceState.<ColorStateList>getParcelable(ITEM_COLOR_EXTRA));
+
+        if (savedInstanceState.containsKey(DIVIDER_COLOR_EXTRA)) {
+            adapter.setDividerColor(savedInstanceState.getInt(DIVIDER_COLOR_EXTRA));
+        } else {
+            adapter.resetDividerColor();
+        }
+
+        adapter.setCompactStorageEnabled(savedInstanceState.getBoolean(COMPACT_STORAGE_EXTRA));
+        ParcelableItemList items = savedInstanceState.getParcelable(ITEMS_EXTRA);
+        Intent savedIntent = savedInstanceState.getParcelable(INTENT_EXTRA);
+        ArrayList<ComponentName> savedComponents =
+                savedInstanceState.getParcelableArrayList(INTENT_COMPONENTS_EXTRA);
+
+        if (items != null) {
+            List<AbstractItem> restoredItems = items.createItems(getContext());
+            restoreMissingIcons(items, restoredItems, savedComponents);
+            adapter.setItems(restoredItems);
+            adaptGridViewHeight();
+        }
+
+        Activity activity = getOwnerActivity();
+
+        if (savedIntent != null && savedComponents != null && activity != null) {
+            setOnItemClickListener(
+                    createIntentClickListener(activity, savedIntent, savedComponents));
+            this.intent = savedIntent;
+            this.intentComponents = savedComponents;
+        }
+
+        if (savedInstanceState.getBoolean(MAXIMIZED_EXTRA)) {
+            if (isShowing()) {
+                maximize();
+            } else {
+                maximize = true;
+            }
+        }
+
         super.onRestoreInstanceState(savedInstanceState);
     }
 
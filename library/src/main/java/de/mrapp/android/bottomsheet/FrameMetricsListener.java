@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet;
+
+import de.mrapp.android.bottomsheet.metrics.FrameMetricsReport;
+
+/**
+ * Defines the interface, a class, which should be notified about the durations of the frames,
+ * which have been drawn while a bottom sheet has been shown, dragged, maximized or hidden, must
+ * implement.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public interface FrameMetricsListener {
+
+    /**
+     * The method, which is invoked, when a phase of a bottom sheet's lifecycle has been ended.
+     *
+     * @param bottomSheet
+     *         The bottom sheet, the phase corresponds to, as an instance of the class {@link
+     *         BottomSheet}
+     * @param report
+     *         A report, which summarizes the frames, which have been drawn during the phase, as an
+     *         instance of the class {@link FrameMetricsReport}
+     */
+    void onFrameMetrics(BottomSheet bottomSheet, FrameMetricsReport report);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet;
+
+import de.mrapp.android.bottomsheet.metrics.LatencyHistogram;
+
+/**
+ * Defines the interface, a class, which should be notified about the latencies between touch
+ * events and the frames, which show a bottom sheet at the position, which corresponds to the touch
+ * events, while it is dragged, must implement.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public interface TouchLatencyListener {
+
+    /**
+     * The method, which is invoked, when a drag gesture, which has moved a bottom sheet, has been
+     * ended.
+     *
+     * @param bottomSheet
+     *         The bottom sheet, which has been dragged, as an instance of the class {@link
+     *         BottomSheet}
+     * @param histogram
+     *         A histogram, which contains the latencies, which have been measured during the drag
+     *         gesture, as an instance of the class {@link LatencyHistogram}
+     */
+    void onTouchLatency(BottomSheet bottomSheet, LatencyHistogram histogram);
+
+}
@@ -0,0 +1,609 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.adapter;
+
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import de.mrapp.android.bottomsheet.model.AbstractItem;
+import de.mrapp.android.bottomsheet.model.Divider;
+import de.mrapp.android.bottomsheet.model.Item;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A list, which stores items of a bottom sheet in a compact manner. Instead of retaining the
+ * items themselves, their ids and the keys of their icons are stored in parallel arrays, their
+ * enabled flags are stored in a bit set and their titles and icons are stored in tables, which
+ * are shared among items with equal titles, respectively identical icons. The entries of these
+ * tables are reference counted, so that titles and icons, which are not used by any item anymore,
+ * are released, when items are replaced or removed. Items are only materialized, when they are
+ * retrieved from the list.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class CompactItemList extends AbstractList<AbstractItem> implements RandomAccess {
+
+    /**
+     * A table, which stores values, which are shared among multiple items. Each value is
+     * identified by a key and reference counted. When the reference count of a value reaches 0,
+     * the value is released and its key is reused for the next value, which is added.
+     *
+     * @param <ValueType>
+     *         The type of the values, which are stored by the table
+     */
+    private static class SharedTable<ValueType> {
+
+        /**
+         * A list, which contains the values, which are stored by the table. Released values are
+         * replaced with null.
+         */
+        private final List<ValueType> values;
+
+        /**
+         * A map, which maps the values, which are stored by the table, to their keys.
+         */
+        private final Map<ValueType, Integer> keys;
+
+        /**
+         * A stack, which contains the keys of the released values.
+         */
+        private final Deque<Integer> freeKeys;
+
+        /**
+         * An array, which contains the reference counts of the values.
+         */
+        private int[] referenceCounts;
+
+        /**
+         * Creates a new table, which stores values, which are shared among multiple items.
+         *
+         * @param keys
+         *         The map, which should be used to map values to their keys, as an instance of the
+         *         type {@link Map}. The map may not be null
+         */
+        SharedTable(@NonNull final Map<ValueType, Integer> keys) {
+            this.values = new ArrayList<>();
+            this.keys = keys;
+            this.freeKeys = new ArrayDeque<>();
+            this.referenceCounts = new int[INITIAL_CAPACITY];
+        }
+
+        /**
+         * Returns the key of a specific value and increments its reference count. If the value is
+         * not contained by the table yet, it is added.
+         *
+         * @param value
+         *         The value, whose key should be returned, or null
+         * @return The key of the given value as an {@link Integer} value or -1, if the value is
+         * null
+         */
+        int retain(@Nullable final ValueType value) {
+            if (value == null) {
+                return NO_KEY;
+            }
+
+            Integer key = keys.get(value);
+
+            if (key == null) {
+                if (freeKeys.isEmpty()) {
+                    key = values.size();
+                    values.add(value);
+
+                    if (key >= referenceCounts.length) {
+                        int[] newReferenceCounts = new int[referenceCounts.length * 2];
+                        System.arraycopy(referenceCounts, 0, newReferenceCounts, 0,
+                                referenceCounts.length);
+                        referenceCounts = newReferenceCounts;
+                    }
+                } else {
+                    key = freeKeys.pop();
+                    values.set(key, value);
+                }
+
+                keys.put(value, key);
+            }
+
+            referenceCounts[key]++;
+            return key;
+        }
+
+        /**
+         * Decrements the reference count of the value with a specific key. If the reference count
+         * reaches 0, the value is released.
+         *
+         * @param key
+         *         The key of the value as an {@link Integer} value or -1
+         */
+        void release(final int key) {
+            if (key != NO_KEY && --referenceCounts[key] == 0) {
+                ValueType value = values.set(key, null);
+                keys.remove(value);
+                freeKeys.push(key);
+            }
+        }
+
+        /**
+         * Returns the value with a specific key.
+         *
+         * @param key
+         *         The key of the value as an {@link Integer} value or -1
+         * @return The value with the given key or null, if the key is -1
+         */
+        ValueType get(final int key) {
+            return key != NO_KEY ? values.get(key) : null;
+        }
+
+        /**
+         * Returns the reference count of the value with a specific key.
+         *
+         * @param key
+         *         The key of the value as an {@link Integer} value
+         * @return The reference count of the value as an {@link Integer} value
+         */
+        int getReferenceCount(final int key) {
+            return referenceCounts[key];
+        }
+
+        /**
+         * Returns the number of values, which are currently stored by the table.
+         *
+         * @return The number of values, which are currently stored by the table, as an {@link
+         * Integer} value
+         */
+        int size() {
+            return keys.size();
+        }
+
+        /**
+         * Returns the number of slots of the table, including the slots of released values, which
+         * are reused for the next values, which are added.
+         *
+         * @return The number of slots of the table as an {@link Integer} value
+         */
+        int getSlotCount() {
+            return values.size();
+        }
+
+        /**
+         * Removes all values from the table.
+         */
+        void clear() {
+            values.clear();
+            keys.clear();
+            freeKeys.clear();
+            referenceCounts = new int[INITIAL_CAPACITY];
+        }
+
+    }
+
+    /**
+     * The key, which is used for items without a title or icon.
+     */
+    private static final int NO_KEY = -1;
+
+    /**
+     * The initial capacity of the list's arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The number of items, which are contained by the list.
+     */
+    private int size;
+
+    /**
+     * An array, which contains the ids of the items.
+     */
+    private int[] ids;
+
+    /**
+     * An array, which contains the keys of the items' titles.
+     */
+    private int[] titleKeys;
+
+    /**
+     * An array, which contains the keys of the items' icons.
+     */
+    private int[] iconKeys;
+
+    /**
+     * A bit set, which contains the enabled flags of the items.
+     */
+    private final BitSet enabledFlags;
+
+    /**
+     * The table, which contains the titles of the items.
+     */
+    private final SharedTable<CharSequence> titles;
+
+    /**
+     * The table, which contains the icons of the items.
+     */
+    private final SharedTable<Drawable> icons;
+
+    /**
+     * A list, which contains the resource ids of the icons, which are contained by the icon
+     * table, or -1, if an icon has not been loaded from a resource.
+     */
+    private final List<Integer> iconIds;
+
+    /**
+     * Returns the key of a specific icon and increments its reference count. If the icon is not
+     * contained by the icon table yet, it is added.
+     *
+     * @param icon
+     *         The icon, whose key should be returned, as an instance of the class {@link Drawable}
+     *         or null
+     * @param iconId
+     *         The resource id of the icon as an {@link Integer} value or -1, if the icon has not
+     *         been loaded from a resource
+     * @return The key of the given icon as an {@link Integer} value
+     */
+    private int retainIcon(@Nullable final Drawable icon, final int iconId) {
+        int key = icons.retain(icon);
+
+        if (key != NO_KEY && icons.getReferenceCount(key) == 1) {
+            if (key == iconIds.size()) {
+                iconIds.add(iconId);
+            } else {
+                iconIds.set(key, iconId);
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * Decrements the reference counts of the title and icon of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     */
+    private void release(final int index) {
+        titles.release(titleKeys[index]);
+        icons.release(iconKeys[index]);
+    }
+
+    /**
+     * Ensures, that the list's arrays are able to hold a specific number of items.
+     *
+     * @param capacity
+     *         The number of items, the arrays must be able to hold, as an {@link Integer} value
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > ids.length) {
+            int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+            int[] newIds = new int[newCapacity];
+            int[] newTitleKeys = new int[newCapacity];
+            int[] newIconKeys = new int[newCapacity];
+            System.arraycopy(ids, 0, newIds, 0, size);
+            System.arraycopy(titleKeys, 0, newTitleKeys, 0, size);
+            System.arraycopy(iconKeys, 0, newIconKeys, 0, size);
+            ids = newIds;
+            titleKeys = newTitleKeys;
+            iconKeys = newIconKeys;
+        }
+    }
+
+    /**
+     * Shifts the items, which are located at or after a specific index, by a specific distance.
+     *
+     * @param index
+     *         The index of the first item, which should be shifted, as an {@link Integer} value
+     * @param distance
+     *         The distance, the items should be shifted by, as an {@link Integer} value. The
+     *         distance must either be 1 or -1
+     */
+    private void shift(final int index, final int distance) {
+        int length = size - index;
+        System.arraycopy(ids, index, ids, index + distance, length);
+        System.arraycopy(titleKeys, index, titleKeys, index + distance, length);
+        System.arraycopy(iconKeys, index, iconKeys, index + distance, length);
+
+        if (distance > 0) {
+            for (int i = size - 1; i >= index; i--) {
+                enabledFlags.set(i + distance, enabledFlags.get(i));
+            }
+        } else {
+            for (int i = index; i < size; i++) {
+                enabledFlags.set(i + distance, enabledFlags.get(i));
+            }
+
+            enabledFlags.clear(size + distance, size);
+        }
+    }
+
+    /**
+     * Stores a specific item at a specific index. The reference counts of its title and icon are
+     * incremented.
+     *
+     * @param index
+     *         The index, the item should be stored at, as an {@link Integer} value
+     * @param item
+     *         The item, which should be stored, as an instance of the class {@link AbstractItem}.
+     *         The item may not be null
+     */
+    private void store(final int index, @NonNull final AbstractItem item) {
+        ids[index] = item.getId();
+        titleKeys[index] = titles.retain(item.getTitle());
+
+        if (item instanceof Item) {
+            Item storedItem = (Item) item;
+            iconKeys[index] = retainIcon(storedItem.getIcon(), storedItem.getIconId());
+            enabledFlags.set(index, ((Item) item).isEnabled());
+        } else {
+            iconKeys[index] = NO_KEY;
+            enabledFlags.clear(index);
+        }
+    }
+
+    /**
+     * Checks, whether a specific index is valid, and throws an exception, if not.
+     *
+     * @param index
+     *         The index, which should be checked, as an {@link Integer} value
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Creates a new, empty list, which stores items of a bottom sheet in a compact manner.
+     */
+    public CompactItemList() {
+        this.size = 0;
+        this.ids = new int[INITIAL_CAPACITY];
+        this.titleKeys = new int[INITIAL_CAPACITY];
+        this.iconKeys = new int[INITIAL_CAPACITY];
+        this.enabledFlags = new BitSet(INITIAL_CAPACITY);
+        this.titles = new SharedTable<>(new HashMap<CharSequence, Integer>());
+        this.icons = new SharedTable<>(new IdentityHashMap<Drawable, Integer>());
+        this.iconIds = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new list, which stores items of a bottom sheet in a compact manner and contains
+     * specific items.
+     *
+     * @param items
+     *         A collection, which contains the items, which should be added to the list, as an
+     *         instance of the type {@link Collection}. The collection may not be null
+     */
+    public CompactItemList(@NonNull final Collection<? extends AbstractItem> items) {
+        this();
+        ensureNotNull(items, "The collection may not be null");
+        ensureCapacity(items.size());
+
+        for (AbstractItem item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * Returns the id of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The id of the item as an {@link Integer} value
+     */
+    public final int getId(final int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * Returns the title of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The title of the item as an instance of the type {@link CharSequence} or null, if
+     * the item does not have a title
+     */
+    public final CharSequence getTitle(final int index) {
+        checkIndex(index);
+        return titles.get(titleKeys[index]);
+    }
+
+    /**
+     * Returns the icon of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The icon of the item as an instance of the class {@link Drawable} or null, if the
+     * item does not have an icon
+     */
+    public final Drawable getIcon(final int index) {
+        checkIndex(index);
+        return icons.get(iconKeys[index]);
+    }
+
+    /**
+     * Returns, whether the item at a specific index is a divider, or not.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return True, if the item is a divider, false otherwise
+     */
+    public final boolean isDivider(final int index) {
+        checkIndex(index);
+        return ids[index] == Divider.DIVIDER_ID;
+    }
+
+    /**
+     * Returns, whether the item at a specific index is enabled, or not.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return True, if the item is enabled, false otherwise. Dividers are never enabled
+     */
+    public final boolean isEnabled(final int index) {
+        checkIndex(index);
+        return enabledFlags.get(index);
+    }
+
+    /**
+     * Sets, whether the item at a specific index should be enabled, or not. Dividers cannot be
+     * enabled.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @param enabled
+     *         True, if the item should be enabled, false otherwise
+     */
+    public final void setEnabled(final int index, final boolean enabled) {
+        checkIndex(index);
+        enabledFlags.set(index, enabled && ids[index] != Divider.DIVIDER_ID);
+    }
+
+    /**
+     * Returns the number of distinct titles, which are currently retained by the list.
+     *
+     * @return The number of distinct titles, which are currently retained by the list, as an
+     * {@link Integer} value
+     */
+    public final int getTitleCount() {
+        return titles.size();
+    }
+
+    /**
+     * Returns the number of distinct icons, which are currently retained by the list.
+     *
+     * @return The number of distinct icons, which are currently retained by the list, as an
+     * {@link Integer} value
+     */
+    public final int getIconCount() {
+        return icons.size();
+    }
+
+    /**
+     * Returns the number of slots of the table, which contains the titles of the items, including
+     * the slots of released titles.
+     *
+     * @return The number of slots of the title table as an {@link Integer} value
+     */
+    final int getTitleSlotCount() {
+        return titles.getSlotCount();
+    }
+
+    /**
+     * Returns the number of slots of the table, which contains the icons of the items, including
+     * the slots of released icons.
+     *
+     * @return The number of slots of the icon table as an {@link Integer} value
+     */
+    final int getIconSlotCount() {
+        return icons.getSlotCount();
+    }
+
+    @Override
+    public final AbstractItem get(final int index) {
+        checkIndex(index);
+
+        if (ids[index] == Divider.DIVIDER_ID) {
+            Divider divider = new Divider();
+            divider.setTitle(getTitle(index));
+            return divider;
+        } else {
+            Item item = new Item(ids[index], getTitle(index));
+            int key = iconKeys[index];
+
+            if (key != NO_KEY) {
+                item.setIcon(icons.get(key), iconIds.get(key));
+            }
+
+            item.setEnabled(enabledFlags.get(index));
+            return item;
+        }
+    }
+
+    @Override
+    public final AbstractItem set(final int index, @NonNull final AbstractItem item) {
+        ensureNotNull(item, "The item may not be null");
+        AbstractItem replacedItem = get(index);
+        int titleKey = titleKeys[index];
+        int iconKey = iconKeys[index];
+        store(index, item);
+        titles.release(titleKey);
+        icons.release(iconKey);
+        return replacedItem;
+    }
+
+    @Override
+    public final void add(final int index, @NonNull final AbstractItem item) {
+        ensureNotNull(item, "The item may not be null");
+
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        ensureCapacity(size + 1);
+
+        if (index < size) {
+            shift(index, 1);
+        }
+
+        store(index, item);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public final AbstractItem remove(final int index) {
+        AbstractItem removedItem = get(index);
+        release(index);
+
+        if (index < size - 1) {
+            shift(index + 1, -1);
+        } else {
+            enabledFlags.clear(index);
+        }
+
+        size--;
+        modCount++;
+        return removedItem;
+    }
+
+    @Override
+    public final void clear() {
+        size = 0;
+        enabledFlags.clear();
+        titles.clear();
+        icons.clear();
+        iconIds.clear();
+        modCount++;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+}
@@ -14,32 +14,45 @@
 package de.mrapp.android.bottomsheet.adapter;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.StateListDrawable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
 import android.widget.BaseAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import de.mrapp.android.bottomsheet.BottomSheet;
 import de.mrapp.android.bottomsheet.BottomSheet.Style;
 import de.mrapp.android.bottomsheet.R;
+import de.mrapp.android.bottomsheet.layout.DividableGridLayout;
+import de.mrapp.android.bottomsheet.layout.ItemSequence;
+import de.mrapp.android.bottomsheet.metrics.AdapterStatistics;
+import de.mrapp.android.bottomsheet.metrics.Tracing;
 import de.mrapp.android.bottomsheet.model.AbstractItem;
 import de.mrapp.android.bottomsheet.model.Divider;
 import de.mrapp.android.bottomsheet.model.Item;
 import de.mrapp.android.util.DisplayUtil.DeviceType;
 import de.mrapp.android.util.DisplayUtil.Orientation;
+import de.mrapp.android.util.ViewUtil;
 
 import static de.mrapp.android.util.Condition.ensureNotNull;
 import static de.mrapp.android.util.DisplayUtil.getDeviceType;
@@ -69,6 +82,16 @@ public class DividableGridAdapter extends BaseAdapter {
          */
         private TextView titleTextView;
 
+        /**
+         * The text colors of the title, which are specified by the view's layout.
+         */
+        private ColorStateList defaultTitleColors;
+
+        /**
+         * The text colors, which are currently applied to the title.
+         */
+        private ColorStateList titleColors;
+
     }
 
     /**
@@ -91,47 +114,77 @@ public class DividableGridAdapter extends BaseAdapter {
          */
         private TextView titleTextView;
 
+        /**
+         * The text colors of the title, which are specified by the view's layout.
+         */
+        private ColorStateList defaultTitleColors;
+
+        /**
+         * The background of the left divider, which is specified by the view's layout.
+         */
+        private Drawable defaultLeftBackground;
+
+        /**
+         * The background of the right divider, which is specified by the view's layout.
+         */
+        private Drawable defaultRightBackground;
+
+        /**
+         * The colors, which are currently applied to the views, or null, if the colors, which are
+         * specified by the view's layout, are applied.
+         */
+        private ColorStateList colors;
+
     }
 
     /**
-     * The view type, which is used to visualize placeholders.
+     * The context, which is used by the adapter.
      */
-    private static final int PLACEHOLDER_VIEW_TYPE = 0;
+    private final Context context;
 
     /**
-     * The view type, which is used to visualize items.
+     * The style, which is used to display the adapter's items.
      */
-    private static final int ITEM_VIEW_TYPE = 1;
+    private Style style;
 
     /**
-     * The view type, which is used to visualize dividers.
+     * The width of the bottom sheet, the items, which are displayed by the adapter, belong to.
      */
-    private static final int SEPARATOR_VIEW_TYPE = 2;
+    private int width;
 
     /**
-     * The context, which is used by the adapter.
+     * The layout, which computes the positions of the adapter's items including placeholders.
      */
-    private final Context context;
+    private final DividableGridLayout layout;
 
     /**
-     * The style, which is used to display the adapter's items.
+     * A list, which contains the items of the adapter.
      */
-    private Style style;
+    private List<AbstractItem> items;
 
     /**
-     * The number of columns, which are displayed by the adapter.
+     * The list, which contains the items of the adapter, if they are stored in a compact manner,
+     * or null, if the items are stored as objects.
      */
-    private int columnCount;
+    private CompactItemList compactItems;
 
     /**
-     * A list, which contains the items of the adapter.
+     * The adapter view, which currently displays the adapter's items, or null, if the items are
+     * not displayed.
      */
-    private final List<AbstractItem> items;
+    private AdapterView<?> adapterView;
 
     /**
-     * A list, which contains the items of the adapter including placeholders.
+     * The statistics, which are used to count the views, which are bound and inflated by the
+     * adapter, or null, if no statistics are recorded.
      */
-    private List<AbstractItem> rawItems;
+    private AdapterStatistics statistics;
+
+    /**
+     * The divider, which is returned for the positions, which fill up the remaining columns of a
+     * divider's row.
+     */
+    private final Divider fillerDivider;
 
     /**
      * The number of items, which contain an icon.
@@ -139,9 +192,10 @@ public class DividableGridAdapter extends BaseAdapter {
     private int iconCount;
 
     /**
-     * The number of dividers, which are contained by the adapter.
+     * The sequence, which keeps track of the ids and types of the adapter's items, including the
+     * number of dividers.
      */
-    private int dividerCount;
+    private final ItemSequence itemSequence;
 
     /**
      * True, if the <code>notifyDataSetChange</code>-method is called automatically, when the
@@ -149,6 +203,18 @@ public class DividableGridAdapter extends BaseAdapter {
      */
     private boolean notifyOnChange;
 
+    /**
+     * The runnable, which notifies the observers about the data set being changed on the next
+     * frame.
+     */
+    private Runnable notifyDataSetChangedRunnable;
+
+    /**
+     * True, if notifying the observers about the data set being changed has been scheduled for
+     * the next frame, false otherwise.
+     */
+    private boolean dataSetChangePending;
+
     /**
      * The text color of the adapter's items.
      */
@@ -160,35 +226,380 @@ public class DividableGridAdapter extends BaseAdapter {
     private int dividerColor;
 
     /**
-     * Returns a list, which contains the items of the adapter including placeholders.
+     * The text colors, which are shared among the titles of the adapter's items, or null, if the
+     * colors, which are specified by the items' layout, should be used.
+     */
+    private ColorStateList itemColors;
+
+    /**
+     * The text colors, which are shared among the titles of the adapter's dividers, or null, if
+     * the colors, which are specified by the dividers' layout, should be used.
+     */
+    private ColorStateList dividerColors;
+
+    /**
+     * The prefix index, which is used to filter the adapter's items by their titles, or null, if
+     * the items have never been filtered.
+     */
+    private TitleIndex titleIndex;
+
+    /**
+     * The query, which is used to filter the adapter's items, or null, if the items are not
+     * filtered.
+     */
+    private CharSequence filterQuery;
+
+    /**
+     * The tokens of the query, which is used to filter the adapter's items, or null, if the items
+     * are not filtered.
+     */
+    private String[] filterTokens;
+
+    /**
+     * An array, which contains the indices of the items, which match the current filter query,
+     * including the dividers of non-empty sections, or null, if the indices must be computed.
+     */
+    private int[] filteredIndices;
+
+    /**
+     * The number of indices, which are contained by the array <code>filteredIndices</code>.
+     */
+    private int filteredCount;
+
+    /**
+     * Adds a specific item to the prefix index, which is used to filter the adapter's items, if
+     * the index has already been built.
      *
-     * @return A list, which contains the items of the adapter including placeholders, as an
-     * instance of the type {@link List} or an empty list, if the adapter contains no items
+     * @param item
+     *         The item, which should be added, as an instance of the class {@link AbstractItem}.
+     *         The item may not be null
      */
-    private List<AbstractItem> getRawItems() {
-        if (rawItems == null) {
-            rawItems = new ArrayList<>();
+    private void indexItem(@NonNull final AbstractItem item) {
+        if (titleIndex != null && item instanceof Item) {
+            titleIndex.add(item.getTitle());
+        }
 
-            for (int i = 0; i < items.size(); i++) {
-                AbstractItem item = items.get(i);
+        filteredIndices = null;
+    }
 
-                if (item instanceof Divider && columnCount > 1) {
-                    for (int j = 0; j < rawItems.size() % columnCount; j++) {
-                        rawItems.add(null);
-                    }
+    /**
+     * Removes a specific item from the prefix index, which is used to filter the adapter's items,
+     * if the index has already been built.
+     *
+     * @param item
+     *         The item, which should be removed, as an instance of the class {@link AbstractItem}.
+     *         The item may not be null
+     */
+    private void unindexItem(@NonNull final AbstractItem item) {
+        if (titleIndex != null && item instanceof Item) {
+            titleIndex.remove(item.getTitle());
+        }
 
-                    rawItems.add(item);
+        filteredIndices = null;
+    }
 
-                    for (int j = 0; j < columnCount - 1; j++) {
-                        rawItems.add(new Divider());
-                    }
-                } else {
-                    rawItems.add(item);
+    /**
+     * Returns, whether the result of a query is a subset of the result of another query, or not.
+     * This is the case, if each token of the previous query is a prefix of a token of the new
+     * query.
+     *
+     * @param previousTokens
+     *         The tokens of the previous query as a {@link String} array. The array may not be
+     *         null
+     * @param tokens
+     *         The tokens of the new query as a {@link String} array. The array may not be null
+     * @return True, if the new query narrows the previous one, false otherwise
+     */
+    private boolean isNarrowing(@NonNull final String[] previousTokens,
+                                @NonNull final String[] tokens) {
+        for (String previousToken : previousTokens) {
+            boolean found = false;
+
+            for (String token : tokens) {
+                if (token.startsWith(previousToken)) {
+                    found = true;
+                    break;
                 }
             }
+
+            if (!found) {
+                return false;
+            }
         }
 
-        return rawItems;
+        return true;
+    }
+
+    /**
+     * Filters the adapter's items in a single pass. Dividers are only retained, if at least one
+     * item of the section they introduce matches the filter query.
+     *
+     * @param source
+     *         An array, which contains the indices of the items, which should be filtered, or
+     *         null, if all items should be filtered
+     * @param sourceCount
+     *         The number of indices, which should be taken from the given array, or the number of
+     *         items, if all items should be filtered, as an {@link Integer} value
+     * @param matchingTitles
+     *         A set, which contains the titles, which match the filter query, as an instance of
+     *         the type {@link Set} or null, if the titles should be matched against the tokens of
+     *         the filter query individually
+     */
+    private void filter(@Nullable final int[] source, final int sourceCount,
+                        @Nullable final Set<String> matchingTitles) {
+        int[] result = new int[sourceCount];
+        int count = 0;
+        int pendingDivider = -1;
+
+        for (int i = 0; i < sourceCount; i++) {
+            int index = source != null ? source[i] : i;
+
+            if (isDivider(index)) {
+                pendingDivider = index;
+            } else if (matchingTitles != null ?
+                    matchingTitles.contains(getTitle(index).toString()) :
+                    titleIndex.matches(getTitle(index), filterTokens)) {
+                if (pendingDivider != -1) {
+                    result[count++] = pendingDivider;
+                    pendingDivider = -1;
+                }
+
+                result[count++] = index;
+            }
+        }
+
+        filteredIndices = result;
+        filteredCount = count;
+    }
+
+    /**
+     * Returns the number of items, which are currently visible, i.e. which match the current
+     * filter query, if any.
+     *
+     * @return The number of items, which are currently visible, as an {@link Integer} value
+     */
+    private int getVisibleItemCount() {
+        if (filterTokens != null) {
+            if (filteredIndices == null) {
+                filter(null, items.size(), titleIndex.query(filterTokens));
+            }
+
+            return filteredCount;
+        }
+
+        return items.size();
+    }
+
+    /**
+     * Returns the index of the item, which corresponds to a specific position among the items,
+     * which are currently visible.
+     *
+     * @param visibleIndex
+     *         The position of the item among the visible items as an {@link Integer} value
+     * @return The index of the item as an {@link Integer} value
+     */
+    private int getVisibleItemIndex(final int visibleIndex) {
+        return filterTokens != null ? filteredIndices[visibleIndex] : visibleIndex;
+    }
+
+    /**
+     * Returns, whether the item at a specific index is a divider, or not.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return True, if the item is a divider, false otherwise
+     */
+    private boolean isDivider(final int index) {
+        return itemSequence.isDivider(index);
+    }
+
+    /**
+     * Returns the type of a specific item, which is used to keep track of it within the sequence
+     * of the adapter's items.
+     *
+     * @param item
+     *         The item, whose type should be returned, as an instance of the class {@link
+     *         AbstractItem}. The item may not be null
+     * @return The type of the given item as a {@link Byte} value. The type may either be
+     * <code>ItemSequence.ITEM</code>, <code>ItemSequence.DIVIDER</code> or
+     * <code>ItemSequence.TITLED_DIVIDER</code>
+     */
+    private byte getType(@NonNull final AbstractItem item) {
+        if (item instanceof Divider) {
+            return TextUtils.isEmpty(item.getTitle()) ? ItemSequence.DIVIDER :
+                    ItemSequence.TITLED_DIVIDER;
+        }
+
+        return ItemSequence.ITEM;
+    }
+
+    /**
+     * Returns the title of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The title of the item as an instance of the type {@link CharSequence} or null, if
+     * the item does not have a title
+     */
+    private CharSequence getTitle(final int index) {
+        return compactItems != null ? compactItems.getTitle(index) : items.get(index).getTitle();
+    }
+
+    /**
+     * Returns the icon of the item at a specific index.
+     *
+     * @param index
+     *         The index of the item as an {@link Integer} value
+     * @return The icon of the item as an instance of the class {@link Drawable} or null, if the
+     * item does not have an icon
+     */
+    private Drawable getIcon(final int index) {
+        if (compactItems != null) {
+            return compactItems.getIcon(index);
+        }
+
+        AbstractItem item = items.get(index);
+        return item instanceof Item ? ((Item) item).getIcon() : null;
+    }
+
+    /**
+     * Returns the number of the adapter's items including placeholders. The layout of the items
+     * including placeholders is computed in a single pass, if necessary.
+     *
+     * @return The number of the adapter's items including placeholders as an {@link Integer}
+     * value
+     */
+    private int getRawItemCount() {
+        if (!layout.isValid()) {
+            Tracing.beginSection("DividableGridAdapter.getRawItems");
+            layout.compute();
+
+            if (statistics != null) {
+                statistics.recordLayout();
+            }
+
+            Tracing.endSection();
+        }
+
+        return layout.getCount();
+    }
+
+    /**
+     * Returns the index of the item, which is displayed at a specific position, including
+     * placeholders.
+     *
+     * @param position
+     *         The position as an {@link Integer} value
+     * @return The index of the item, which is displayed at the given position, as an {@link
+     * Integer} value or <code>DividableGridLayout.PLACEHOLDER_INDEX</code>, respectively
+     * <code>DividableGridLayout.FILLER_INDEX</code>, if a placeholder or a divider, which fills
+     * up a row, is displayed
+     */
+    private int getRawItem(final int position) {
+        getRawItemCount();
+        return layout.getIndex(position);
+    }
+
+    /**
+     * Computes the number of columns, which are displayed by the adapter, as well as the heights
+     * of the rows, depending on the adapter's style and the bottom sheet's width.
+     */
+    private void adaptLayout() {
+        Resources resources = context.getResources();
+        int columnCount;
+
+        if (style == Style.LIST_COLUMNS && (getDeviceType(context) == DeviceType.TABLET ||
+                getOrientation(context) == Orientation.LANDSCAPE)) {
+            columnCount = 2;
+        } else if (style == Style.GRID) {
+            int padding = resources
+                    .getDimensionPixelSize(R.dimen.bottom_sheet_grid_item_horizontal_padding);
+            int itemSize = resources.getDimensionPixelSize(R.dimen.bottom_sheet_grid_item_size);
+            int availableWidth = getDeviceType(context) != DeviceType.TABLET &&
+                    resources.getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT ?
+                    resources.getDisplayMetrics().widthPixels : width;
+            columnCount =
+                    DividableGridLayout.computeColumnCount(availableWidth - 2 * padding, itemSize);
+        } else {
+            columnCount = 1;
+        }
+
+        layout.setColumnCount(columnCount);
+        layout.setRowHeights(resources.getDimensionPixelSize(
+                style == Style.GRID ? R.dimen.bottom_sheet_grid_item_size :
+                        R.dimen.bottom_sheet_list_item_height),
+                resources.getDimensionPixelSize(R.dimen.bottom_sheet_divider_height),
+                resources.getDimensionPixelSize(R.dimen.bottom_sheet_divider_title_height));
+    }
+
+    /**
+     * Creates and returns a source, which allows to provide the adapter's items to the layout,
+     * which computes their positions.
+     *
+     * @return The source, which has been created, as an instance of the type {@link
+     * DividableGridLayout.Source}
+     */
+    private DividableGridLayout.Source createLayoutSource() {
+        return new DividableGridLayout.Source() {
+
+            @Override
+            public int getItemCount() {
+                return items.size();
+            }
+
+            @Override
+            public int getDividerCount() {
+                return itemSequence.getDividerCount();
+            }
+
+            @Override
+            public int getVisibleItemCount() {
+                return DividableGridAdapter.this.getVisibleItemCount();
+            }
+
+            @Override
+            public int getVisibleItemIndex(final int visibleIndex) {
+                return DividableGridAdapter.this.getVisibleItemIndex(visibleIndex);
+            }
+
+            @Override
+            public boolean isDivider(final int index) {
+                return DividableGridAdapter.this.isDivider(index);
+            }
+
+            @Override
+            public boolean hasTitle(final int index) {
+                return !TextUtils.isEmpty(getTitle(index));
+            }
+
+        };
+    }
+
+    /**
+     * Returns, whether replacing a specific item with another one affects the layout of the
+     * adapter's items, or not. This is the case, if an item is replaced by a divider or vice
+     * versa, if the title of a divider becomes empty or non-empty, or if the title of an item
+     * changes, while the items are filtered.
+     *
+     * @param replacedItem
+     *         The item, which is replaced, as an instance of the class {@link AbstractItem}. The
+     *         item may not be null
+     * @param item
+     *         The item, which replaces the other one, as an instance of the class {@link
+     *         AbstractItem}. The item may not be null
+     * @return True, if replacing the item affects the layout, false otherwise
+     */
+    private boolean affectsLayout(@NonNull final AbstractItem replacedItem,
+                                  @NonNull final AbstractItem item) {
+        if ((replacedItem instanceof Divider) != (item instanceof Divider)) {
+            return true;
+        } else if (item instanceof Divider) {
+            return TextUtils.isEmpty(replacedItem.getTitle()) !=
+                    TextUtils.isEmpty(item.getTitle());
+        } else {
+            return filterTokens != null &&
+                    !TextUtils.equals(replacedItem.getTitle(), item.getTitle());
+        }
     }
 
     /**
@@ -200,6 +611,46 @@ public class DividableGridAdapter extends BaseAdapter {
         }
     }
 
+    /**
+     * Notifies, that an item has been appended to the adapter's items. If the items are currently
+     * displayed by the adapter view, which has been set via the <code>setAdapterView</code>
+     * -method, the observers are notified once on the next frame, before the adapter view is laid
+     * out, regardless of how many items are appended meanwhile. As the positions of the existing
+     * items are not changed by appending items, the positions, which are known to the adapter
+     * view, remain valid until then.
+     */
+    private void notifyOnItemAppended() {
+        if (notifyOnChange) {
+            if (adapterView == null) {
+                notifyDataSetChanged();
+            } else if (!dataSetChangePending) {
+                if (notifyDataSetChangedRunnable == null) {
+                    notifyDataSetChangedRunnable = createNotifyDataSetChangedRunnable();
+                }
+
+                dataSetChangePending = true;
+                ViewCompat.postOnAnimation(adapterView, notifyDataSetChangedRunnable);
+            }
+        }
+    }
+
+    /**
+     * Creates and returns a runnable, which notifies the observers about the data set being
+     * changed.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}
+     */
+    private Runnable createNotifyDataSetChangedRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                notifyDataSetChanged();
+            }
+
+        };
+    }
+
     /**
      * Inflates the view, which is used to visualize a placeholder.
      *
@@ -231,28 +682,48 @@ public class DividableGridAdapter extends BaseAdapter {
         ItemViewHolder viewHolder = new ItemViewHolder();
         viewHolder.iconImageView = (ImageView) view.findViewById(android.R.id.icon);
         viewHolder.titleTextView = (TextView) view.findViewById(android.R.id.title);
+        viewHolder.defaultTitleColors = viewHolder.titleTextView.getTextColors();
+        viewHolder.titleColors = viewHolder.defaultTitleColors;
         view.setTag(viewHolder);
         return view;
     }
 
+    /**
+     * Applies the current item color to the views of a specific view holder, if it has been
+     * changed since it has been applied the last time.
+     *
+     * @param viewHolder
+     *         The view holder as an instance of the class {@link ItemViewHolder}. The view holder
+     *         may not be null
+     */
+    private void applyItemColor(@NonNull final ItemViewHolder viewHolder) {
+        ColorStateList colors = itemColors != null ? itemColors : viewHolder.defaultTitleColors;
+
+        if (viewHolder.titleColors != colors) {
+            viewHolder.titleTextView.setTextColor(colors);
+            viewHolder.titleColors = colors;
+        }
+    }
+
     /**
      * Visualizes a specific item.
      *
-     * @param item
-     *         The item, which should be visualized, as an instance of the class {@link Item}. The
-     *         item may not be null
+     * @param index
+     *         The index of the item, which should be visualized, as an {@link Integer} value
      * @param viewHolder
      *         The view holder, which contains the views, which should be used to visualize the
      *         item, as an instance of the class {@link ItemViewHolder}. The view holder may not be
      *         null
      */
     @SuppressWarnings("PrimitiveArrayArgumentToVariableArgMethod")
-    private void visualizeItem(@NonNull final Item item, @NonNull final ItemViewHolder viewHolder) {
+    private void visualizeItem(final int index, @NonNull final ItemViewHolder viewHolder) {
+        Drawable icon = getIcon(index);
+        boolean enabled = isItemEnabled(index);
         viewHolder.iconImageView.setVisibility(iconCount > 0 ? View.VISIBLE : View.GONE);
-        viewHolder.iconImageView.setEnabled(item.isEnabled());
+        viewHolder.iconImageView.setEnabled(enabled);
 
-        if (item.getIcon() != null && item.getIcon() instanceof StateListDrawable) {
-            StateListDrawable stateListDrawable = (StateListDrawable) item.getIcon();
+        if (icon != null && icon instanceof StateListDrawable) {
+            StateListDrawable stateListDrawable = (StateListDrawable) icon;
 
             try {
                 int[] currentState = viewHolder.iconImageView.getDrawableState();
@@ -260,22 +731,21 @@ public class DividableGridAdapter extends BaseAdapter {
                         StateListDrawable.class.getMethod("getStateDrawableIndex", int[].class);
                 Method getStateDrawable =
                         StateListDrawable.class.getMethod("getStateDrawable", int.class);
-                int index = (int) getStateDrawableIndex.invoke(stateListDrawable, currentState);
-                Drawable drawable = (Drawable) getStateDrawable.invoke(stateListDrawable, index);
+                int stateIndex =
+                        (int) getStateDrawableIndex.invoke(stateListDrawable, currentState);
+                Drawable drawable =
+                        (Drawable) getStateDrawable.invoke(stateListDrawable, stateIndex);
                 viewHolder.iconImageView.setImageDrawable(drawable);
             } catch (Exception e) {
-                viewHolder.iconImageView.setImageDrawable(item.getIcon());
+                viewHolder.iconImageView.setImageDrawable(icon);
             }
         } else {
-            viewHolder.iconImageView.setImageDrawable(item.getIcon());
+            viewHolder.iconImageView.setImageDrawable(icon);
         }
 
-        viewHolder.titleTextView.setText(item.getTitle());
-        viewHolder.titleTextView.setEnabled(item.isEnabled());
-
-        if (getItemColor() != -1) {
-            viewHolder.titleTextView.setTextColor(getItemColor());
-        }
+        viewHolder.titleTextView.setText(getTitle(index));
+        viewHolder.titleTextView.setEnabled(enabled);
+        applyItemColor(viewHolder);
     }
 
     /**
@@ -284,25 +754,25 @@ public class DividableGridAdapter extends BaseAdapter {
      * @param parent
      *         The parent of the view, which should be inflated, as an instance of the class {@link
      *         ViewGroup} or null, if no parent is available
-     * @param divider
-     *         The divider, which should be visualized, as an instance of the class {@link Divider}.
-     *         The divider may not be null
      * @param position
      *         The position of the divider, which should be visualized, as an {@link Integer} value
      * @return The view, which has been inflated, as an instance of the class {@link View}
      */
-    private View inflateDividerView(@Nullable final ViewGroup parent,
-                                    @NonNull final Divider divider, final int position) {
+    private View inflateDividerView(@Nullable final ViewGroup parent, final int position) {
         LayoutInflater layoutInflater = LayoutInflater.from(context);
         View view = layoutInflater.inflate(R.layout.divider, parent, false);
         DividerViewHolder viewHolder = new DividerViewHolder();
         viewHolder.leftDivider = view.findViewById(R.id.left_divider);
         viewHolder.rightDivider = view.findViewById(R.id.right_divider);
         viewHolder.titleTextView = (TextView) view.findViewById(android.R.id.title);
+        viewHolder.defaultTitleColors = viewHolder.titleTextView.getTextColors();
+        viewHolder.defaultLeftBackground = viewHolder.leftDivider.getBackground();
+        viewHolder.defaultRightBackground = viewHolder.rightDivider.getBackground();
         view.setTag(viewHolder);
 
-        if (!TextUtils.isEmpty(divider.getTitle()) || (position % columnCount > 0 && !TextUtils
-                .isEmpty(getRawItems().get(position - (position % columnCount)).getTitle()))) {
+        int index = getRawItem(position - (position % layout.getColumnCount()));
+
+        if (index >= 0 && !TextUtils.isEmpty(getTitle(index))) {
             view.getLayoutParams().height = context.getResources()
                     .getDimensionPixelSize(R.dimen.bottom_sheet_divider_title_height);
         }
@@ -313,18 +783,18 @@ public class DividableGridAdapter extends BaseAdapter {
     /**
      * Visualizes a specific divider.
      *
-     * @param divider
-     *         The divider, which should be visualized, as an instance of the class {@link Divider}.
-     *         The divider may not be null
+     * @param title
+     *         The title of the divider, which should be visualized, as an instance of the type
+     *         {@link CharSequence} or null, if the divider does not have a title
      * @param viewHolder
      *         The view holder, which contains the views, which should be used to visualize the
      *         divider, as an instance of the class {@link DividerViewHolder}. The view holder may
      *         not be null
      */
-    private void visualizeDivider(@NonNull final Divider divider,
+    private void visualizeDivider(@Nullable final CharSequence title,
                                   @NonNull final DividerViewHolder viewHolder) {
-        if (!TextUtils.isEmpty(divider.getTitle())) {
-            viewHolder.titleTextView.setText(divider.getTitle());
+        if (!TextUtils.isEmpty(title)) {
+            viewHolder.titleTextView.setText(title);
             viewHolder.titleTextView.setVisibility(View.VISIBLE);
             viewHolder.leftDivider.setVisibility(View.VISIBLE);
         } else {
@@ -332,10 +802,50 @@ public class DividableGridAdapter extends BaseAdapter {
             viewHolder.leftDivider.setVisibility(View.GONE);
         }
 
-        if (dividerColor != -1) {
-            viewHolder.titleTextView.setTextColor(dividerColor);
-            viewHolder.leftDivider.setBackgroundColor(dividerColor);
-            viewHolder.rightDivider.setBackgroundColor(dividerColor);
+        applyDividerColor(viewHolder);
+    }
+
+    /**
+     * Applies the current divider color to the views of a specific view holder, if it has been
+     * changed since it has been applied the last time.
+     *
+     * @param viewHolder
+     *         The view holder as an instance of the class {@link DividerViewHolder}. The view
+     *         holder may not be null
+     */
+    private void applyDividerColor(@NonNull final DividerViewHolder viewHolder) {
+        if (viewHolder.colors != dividerColors) {
+            if (dividerColors != null) {
+                viewHolder.titleTextView.setTextColor(dividerColors);
+                ViewUtil.setBackground(viewHolder.leftDivider, new ColorDrawable(dividerColor));
+                ViewUtil.setBackground(viewHolder.rightDivider, new ColorDrawable(dividerColor));
+            } else {
+                viewHolder.titleTextView.setTextColor(viewHolder.defaultTitleColors);
+                ViewUtil.setBackground(viewHolder.leftDivider, viewHolder.defaultLeftBackground);
+                ViewUtil.setBackground(viewHolder.rightDivider,
+                        viewHolder.defaultRightBackground);
+            }
+
+            viewHolder.colors = dividerColors;
+        }
+    }
+
+    /**
+     * Applies the current colors to the views, which are currently displayed by the adapter view,
+     * which has been set via the <code>setAdapterView</code>-method. Views, which are not
+     * displayed, are updated, when they are bound the next time.
+     */
+    private void applyColors() {
+        if (adapterView != null) {
+            for (int i = 0; i < adapterView.getChildCount(); i++) {
+                Object tag = adapterView.getChildAt(i).getTag();
+
+                if (tag instanceof ItemViewHolder) {
+                    applyItemColor((ItemViewHolder) tag);
+                } else if (tag instanceof DividerViewHolder) {
+                    applyDividerColor((DividerViewHolder) tag);
+                }
+            }
         }
     }
 
@@ -360,12 +870,16 @@ public class DividableGridAdapter extends BaseAdapter {
         this.context = context;
         this.style = style;
         this.items = new ArrayList<>();
-        this.rawItems = null;
+        this.compactItems = null;
+        this.layout = new DividableGridLayout(createLayoutSource());
+        this.fillerDivider = new Divider();
+        this.itemSequence = new ItemSequence();
         this.iconCount = 0;
-        this.dividerCount = 0;
         this.notifyOnChange = true;
         this.itemColor = -1;
         this.dividerColor = -1;
+        this.itemColors = null;
+        this.dividerColors = null;
         setWidth(width);
     }
 
@@ -390,7 +904,8 @@ public class DividableGridAdapter extends BaseAdapter {
     public final void setStyle(@NonNull final Style style) {
         ensureNotNull(style, "The style may not be null");
         this.style = style;
-        this.rawItems = null;
+        adaptLayout();
+        layout.invalidate();
         notifyDataSetChanged();
     }
 
@@ -402,24 +917,9 @@ public class DividableGridAdapter extends BaseAdapter {
      *         The width, which should be set, as an {@link Integer} value
      */
     public final void setWidth(final int width) {
-        if (style == Style.LIST_COLUMNS && (getDeviceType(context) == DeviceType.TABLET ||
-                getOrientation(context) == Orientation.LANDSCAPE)) {
-            columnCount = 2;
-        } else if (style == Style.GRID) {
-            int padding = context.getResources()
-                    .getDimensionPixelSize(R.dimen.bottom_sheet_grid_item_horizontal_padding);
-            int itemSize = context.getResources()
-                    .getDimensionPixelSize(R.dimen.bottom_sheet_grid_item_size);
-            columnCount = ((getDeviceType(context) != DeviceType.TABLET &&
-                    context.getResources().getConfiguration().orientation ==
-                            Configuration.ORIENTATION_PORTRAIT ?
-                    context.getResources().getDisplayMetrics().widthPixels : width) - 2 * padding) /
-                    itemSize;
-        } else {
-            columnCount = 1;
-        }
-
-        rawItems = null;
+        this.width = width;
+        adaptLayout();
+        layout.invalidate();
         notifyDataSetChanged();
     }
 
@@ -429,7 +929,7 @@ public class DividableGridAdapter extends BaseAdapter {
      * @return True, if the adapter contains dividers, false otherwise
      */
     public final boolean containsDividers() {
-        return dividerCount > 0;
+        return itemSequence.getDividerCount() > 0;
     }
 
     /**
@@ -438,49 +938,118 @@ public class DividableGridAdapter extends BaseAdapter {
      * @return The number of columns, which are displayed by the adapter
      */
     public final int getColumnCount() {
-        return columnCount;
+        return layout.getColumnCount();
+    }
+
+    /**
+     * Returns the total height of the rows, which are displayed by the adapter. The height of each
+     * row depends on whether it contains items or a divider.
+     *
+     * @return The total height of the rows, which are displayed by the adapter, in pixels as an
+     * {@link Integer} value
+     */
+    public final int getHeight() {
+        getRawItemCount();
+        return layout.getHeight();
     }
 
     /**
      * Returns the text color of the adapter's items.
      *
      * @return The text color of the adapter's items as an {@link Integer} value or -1, if no custom
-     * color has been set
+     * color has been set. As -1 also corresponds to white, the method <code>getItemColors</code>
+     * should be used to determine, whether a custom color has been set
      */
     public final int getItemColor() {
         return itemColor;
     }
 
     /**
-     * Sets the text color of the adapter's items.
+     * Returns the text colors of the adapter's items.
+     *
+     * @return The text colors of the adapter's items as an instance of the class {@link
+     * ColorStateList} or null, if no custom colors have been set
+     */
+    public final ColorStateList getItemColors() {
+        return itemColors;
+    }
+
+    /**
+     * Sets the text color of the adapter's items. The views, which are currently displayed, are
+     * updated in place.
      *
      * @param color
-     *         The text color, which should be set, as an {@link Integer} value or -1, if no custom
-     *         color should be set
+     *         The text color, which should be set, as an {@link Integer} value
      */
     public final void setItemColor(@ColorInt final int color) {
-        this.itemColor = color;
+        if (itemColors == null || itemColors.isStateful() || itemColor != color) {
+            setItemColor(ColorStateList.valueOf(color));
+        }
+    }
+
+    /**
+     * Sets the text colors of the adapter's items, e.g. in order to use different colors for
+     * enabled and disabled items. The views, which are currently displayed, are updated in
+     * place.
+     *
+     * @param colors
+     *         The text colors, which should be set, as an instance of the class {@link
+     *         ColorStateList} or null, if the colors, which are specified by the items' layout,
+     *         should be used
+     */
+    public final void setItemColor(@Nullable final ColorStateList colors) {
+        if (this.itemColors != colors) {
+            this.itemColor = colors != null ? colors.getDefaultColor() : -1;
+            this.itemColors = colors;
+            applyColors();
+        }
     }
 
     /**
      * Returns the color of the adapter's dividers.
      *
      * @return The color of the adapter's dividers as an {@link Integer} value or -1, if no custom
-     * color has been set
+     * color has been set. As -1 also corresponds to white, the method <code>hasDividerColor</code>
+     * should be used to determine, whether a custom color has been set
      */
     public final int getDividerColor() {
         return dividerColor;
     }
 
     /**
-     * Sets the color of the adapter's dividers.
+     * Returns, whether a custom color has been set for the adapter's dividers, or not.
+     *
+     * @return True, if a custom color has been set, false otherwise
+     */
+    public final boolean hasDividerColor() {
+        return dividerColors != null;
+    }
+
+    /**
+     * Sets the color of the adapter's dividers. The views, which are currently displayed, are
+     * updated in place.
      *
      * @param color
-     *         The color, which should be set, as an {@link Integer} value or -1, if no custom color
-     *         should be set
+     *         The color, which should be set, as an {@link Integer} value
      */
     public final void setDividerColor(@ColorInt final int color) {
-        this.dividerColor = color;
+        if (dividerColors == null || dividerColor != color) {
+            this.dividerColor = color;
+            this.dividerColors = ColorStateList.valueOf(color);
+            applyColors();
+        }
+    }
+
+    /**
+     * Resets the color of the adapter's dividers, so that the color, which is specified by the
+     * dividers' layout, is used. The views, which are currently displayed, are updated in place.
+     */
+    public final void resetDividerColor() {
+        if (dividerColors != null) {
+            this.dividerColor = -1;
+            this.dividerColors = null;
+            applyColors();
+        }
     }
 
     /**
@@ -493,15 +1062,15 @@ public class DividableGridAdapter extends BaseAdapter {
     public final void add(@NonNull final AbstractItem item) {
         ensureNotNull(item, "The item may not be null");
         items.add(item);
+        itemSequence.add(item.getId(), getType(item));
+        indexItem(item);
 
         if (item instanceof Item && ((Item) item).getIcon() != null) {
             iconCount++;
-        } else if (item instanceof Divider) {
-            dividerCount++;
         }
 
-        rawItems = null;
-        notifyOnDataSetChanged();
+        layout.invalidate();
+        notifyOnItemAppended();
     }
 
     /**
@@ -515,22 +1084,26 @@ public class DividableGridAdapter extends BaseAdapter {
      */
     public final void set(final int index, @NonNull final AbstractItem item) {
         ensureNotNull(item, "The item may not be null");
+        int previousIconCount = iconCount;
         AbstractItem replacedItem = items.set(index, item);
+        itemSequence.set(index, item.getId(), getType(item));
+        unindexItem(replacedItem);
+        indexItem(item);
 
         if (replacedItem instanceof Item && ((Item) replacedItem).getIcon() != null) {
             iconCount--;
-        } else if (replacedItem instanceof Divider) {
-            dividerCount--;
         }
 
         if (item instanceof Item && ((Item) item).getIcon() != null) {
             iconCount++;
-        } else if (item instanceof Divider) {
-            dividerCount++;
         }
 
-        rawItems = null;
-        notifyOnDataSetChanged();
+        if (affectsLayout(replacedItem, item) || (previousIconCount > 0) != (iconCount > 0)) {
+            layout.invalidate();
+            notifyOnDataSetChanged();
+        } else {
+            notifyItemChanged(index);
+        }
     }
 
     /**
@@ -541,14 +1114,14 @@ public class DividableGridAdapter extends BaseAdapter {
      */
     public final void remove(final int index) {
         AbstractItem removedItem = items.remove(index);
+        itemSequence.remove(index);
+        unindexItem(removedItem);
 
         if (removedItem instanceof Item && ((Item) removedItem).getIcon() != null) {
             iconCount--;
-        } else if (removedItem instanceof Divider) {
-            dividerCount--;
         }
 
-        rawItems = null;
+        layout.invalidate();
         notifyOnDataSetChanged();
     }
 
@@ -557,16 +1130,63 @@ public class DividableGridAdapter extends BaseAdapter {
      */
     public final void clear() {
         items.clear();
+        itemSequence.clear();
         iconCount = 0;
-        dividerCount = 0;
+        filteredIndices = null;
 
-        if (rawItems != null) {
-            rawItems.clear();
+        if (titleIndex != null) {
+            titleIndex.clear();
         }
 
+        layout.invalidate();
         notifyOnDataSetChanged();
     }
 
+    /**
+     * Replaces all items of the adapter with specific items. Unlike removing and adding the items
+     * individually, the adapter's layout is only invalidated once.
+     *
+     * @param items
+     *         A collection, which contains the items, which should be set, as an instance of the
+     *         type {@link Collection}. The collection may not be null
+     */
+    public final void setItems(@NonNull final Collection<? extends AbstractItem> items) {
+        ensureNotNull(items, "The collection may not be null");
+        this.items.clear();
+        itemSequence.clear();
+        iconCount = 0;
+
+        if (titleIndex != null) {
+            titleIndex.clear();
+        }
+
+        for (AbstractItem item : items) {
+            ensureNotNull(item, "The item may not be null");
+            this.items.add(item);
+            itemSequence.add(item.getId(), getType(item));
+            indexItem(item);
+
+            if (item instanceof Item && ((Item) item).getIcon() != null) {
+                iconCount++;
+            }
+        }
+
+        filteredIndices = null;
+        layout.invalidate();
+        notifyOnDataSetChanged();
+    }
+
+    /**
+     * Returns a list, which contains all items of the adapter.
+     *
+     * @return A list, which contains all items of the adapter, as an instance of the type {@link
+     * List}. The list is unmodifiable and may be empty, but not null
+     */
+    @NonNull
+    public final List<AbstractItem> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
     /**
      * Returns the number of items, which are contained by the adapter.
      */
@@ -574,6 +1194,103 @@ public class DividableGridAdapter extends BaseAdapter {
         return items.size();
     }
 
+    /**
+     * Returns the index of the item, which corresponds to a specific id.
+     *
+     * @param id
+     *         The id of the item, whose index should be returned, as an {@link Integer} value
+     * @return The index of the item, which corresponds to the given id, or -1, if no item, which
+     * corresponds to the given id, is contained by the adapter
+     */
+    public final int indexOf(final int id) {
+        return itemSequence.indexOf(id);
+    }
+
+    /**
+     * Returns the index of the item, which is displayed at a specific position. Placeholders and
+     * dividers, which are used to fill up rows, as well as items, which are hidden by the current
+     * filter query, are not taken into account.
+     *
+     * @param position
+     *         The position of the item, whose index should be returned, as an {@link Integer}
+     *         value
+     * @return The index of the item, which is displayed at the given position, as an {@link
+     * Integer} value or -1, if a placeholder is displayed at the given position
+     */
+    public final int getIndex(final int position) {
+        int index = getRawItem(position);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Returns the query, which is used to filter the adapter's items.
+     *
+     * @return The query, which is used to filter the adapter's items, as an instance of the type
+     * {@link CharSequence} or null, if the items are not filtered
+     */
+    public final CharSequence getFilterQuery() {
+        return filterQuery;
+    }
+
+    /**
+     * Returns, whether the adapter's items are currently filtered, or not.
+     *
+     * @return True, if the adapter's items are currently filtered, false otherwise
+     */
+    public final boolean isFiltered() {
+        return filterTokens != null;
+    }
+
+    /**
+     * Filters the adapter's items by their titles. An item is shown, if each word of the query is
+     * a prefix of a word of its title, ignoring case. Dividers are only shown, if at least one item
+     * of their section is shown. If the query extends the previous one, only the items, which have
+     * matched the previous query, are inspected.
+     *
+     * @param query
+     *         The query, which should be used to filter the items, as an instance of the type
+     *         {@link CharSequence} or null, if the items should not be filtered
+     */
+    public final void setFilterQuery(@Nullable final CharSequence query) {
+        String[] tokens = TitleIndex.tokenize(query);
+
+        if (tokens.length == 0) {
+            if (filterTokens != null) {
+                filterQuery = null;
+                filterTokens = null;
+                filteredIndices = null;
+                layout.invalidate();
+                notifyDataSetChanged();
+            }
+
+            return;
+        }
+
+        if (titleIndex == null) {
+            titleIndex = new TitleIndex();
+
+            for (AbstractItem item : items) {
+                if (item instanceof Item) {
+                    titleIndex.add(item.getTitle());
+                }
+            }
+        }
+
+        boolean narrowing = filterTokens != null && filteredIndices != null &&
+                isNarrowing(filterTokens, tokens);
+        filterQuery = query;
+        filterTokens = tokens;
+
+        if (narrowing) {
+            filter(filteredIndices, filteredCount, null);
+        } else {
+            filter(null, items.size(), titleIndex.query(tokens));
+        }
+
+        layout.invalidate();
+        notifyDataSetChanged();
+    }
+
     /**
      * Returns, whether the item at a specific index is enabled, or not.
      *
@@ -582,6 +1299,10 @@ public class DividableGridAdapter extends BaseAdapter {
      * @return True, if the item is enabled, false otherwise
      */
     public final boolean isItemEnabled(final int index) {
+        if (compactItems != null) {
+            return compactItems.isEnabled(index);
+        }
+
         AbstractItem item = items.get(index);
         return item instanceof Item && ((Item) item).isEnabled();
     }
@@ -595,12 +1316,113 @@ public class DividableGridAdapter extends BaseAdapter {
      *         True, if the item should be enabled, false otherwise
      */
     public final void setItemEnabled(final int index, final boolean enabled) {
-        AbstractItem item = items.get(index);
+        if (compactItems != null) {
+            if (!compactItems.isDivider(index)) {
+                compactItems.setEnabled(index, enabled);
+                notifyItemChanged(index);
+            }
+        } else {
+            AbstractItem item = items.get(index);
 
-        if (item instanceof Item) {
-            ((Item) item).setEnabled(enabled);
-            rawItems = null;
-            notifyOnDataSetChanged();
+            if (item instanceof Item) {
+                ((Item) item).setEnabled(enabled);
+                notifyItemChanged(index);
+            }
+        }
+    }
+
+    /**
+     * Sets the adapter view, which displays the adapter's items. This allows to rebind the views of
+     * single items, when they have been changed, instead of invalidating all views, and to notify
+     * about appended items once per frame. If a notification is pending, when the adapter view is
+     * replaced, the observers are notified immediately.
+     *
+     * @param adapterView
+     *         The adapter view, which should be set, as an instance of the class {@link
+     *         AdapterView} or null, if the adapter's items are currently not displayed
+     */
+    public final void setAdapterView(@Nullable final AdapterView<?> adapterView) {
+        if (dataSetChangePending && this.adapterView != adapterView) {
+            notifyDataSetChanged();
+        }
+
+        this.adapterView = adapterView;
+    }
+
+    /**
+     * Sets the statistics, which should be used to count the views, which are bound and inflated
+     * by the adapter.
+     *
+     * @param statistics
+     *         The statistics, which should be set, as an instance of the class {@link
+     *         AdapterStatistics} or null, if no statistics should be recorded
+     */
+    public final void setStatistics(@Nullable final AdapterStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Notifies, that the item at a specific index has been changed in a way, which does not affect
+     * the layout of the adapter's items, e.g. its title, icon or enabled state. If the item is
+     * currently displayed by the adapter view, which has been set via the
+     * <code>setAdapterView</code>-method, only the item's view is rebound. Otherwise, no views are
+     * updated. If the layout has not been computed yet, or no adapter view has been set, all views
+     * are invalidated.
+     *
+     * @param index
+     *         The index of the item, which has been changed, as an {@link Integer} value
+     */
+    public final void notifyItemChanged(final int index) {
+        if (index < 0 || index >= items.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + items.size());
+        }
+
+        if (notifyOnChange) {
+            if (!layout.isValid() || adapterView == null) {
+                notifyDataSetChanged();
+            } else {
+                int position = layout.getPosition(index);
+                int firstVisiblePosition = adapterView.getFirstVisiblePosition();
+
+                if (position != -1 && position >= firstVisiblePosition &&
+                        position <= adapterView.getLastVisiblePosition()) {
+                    View view = adapterView.getChildAt(position - firstVisiblePosition);
+
+                    if (view != null) {
+                        getView(position, view, adapterView);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns, whether the adapter's items are stored in a compact manner, or not.
+     *
+     * @return True, if the adapter's items are stored in a compact manner, false otherwise
+     */
+    public final boolean isCompactStorageEnabled() {
+        return compactItems != null;
+    }
+
+    /**
+     * Sets, whether the adapter's items should be stored in a compact manner, or not. When
+     * enabled, the items' ids, enabled flags, titles and icons are stored in primitive arrays and
+     * shared tables instead of individual objects, which reduces the memory consumption of large
+     * menus. Items, which are retrieved from the adapter, are then created on demand, i.e.
+     * modifying them does not affect the adapter. The items, which are already contained by the
+     * adapter, are retained.
+     *
+     * @param compactStorage
+     *         True, if the adapter's items should be stored in a compact manner, false otherwise
+     */
+    public final void setCompactStorageEnabled(final boolean compactStorage) {
+        if (compactStorage && compactItems == null) {
+            compactItems = new CompactItemList(items);
+            items = compactItems;
+        } else if (!compactStorage && compactItems != null) {
+            items = new ArrayList<>(compactItems);
+            compactItems = null;
         }
     }
 
@@ -616,20 +1438,42 @@ public class DividableGridAdapter extends BaseAdapter {
         this.notifyOnChange = notifyOnChange;
     }
 
+    @Override
+    public final void notifyDataSetChanged() {
+        if (dataSetChangePending) {
+            dataSetChangePending = false;
+            adapterView.removeCallbacks(notifyDataSetChangedRunnable);
+        }
+
+        if (statistics != null) {
+            statistics.recordDataSetChange();
+        }
+
+        super.notifyDataSetChanged();
+    }
+
     @Override
     public final boolean isEnabled(final int position) {
-        AbstractItem item = getItem(position);
-        return item instanceof Item && ((Item) item).isEnabled();
+        int index = getRawItem(position);
+        return index >= 0 && isItemEnabled(index);
     }
 
     @Override
     public final int getCount() {
-        return getRawItems().size();
+        return getRawItemCount();
     }
 
     @Override
     public final AbstractItem getItem(final int position) {
-        return getRawItems().get(position);
+        int index = getRawItem(position);
+
+        if (index == DividableGridLayout.PLACEHOLDER_INDEX) {
+            return null;
+        } else if (index == DividableGridLayout.FILLER_INDEX) {
+            return fillerDivider;
+        } else {
+            return items.get(index);
+        }
     }
 
     @Override
@@ -639,47 +1483,57 @@ public class DividableGridAdapter extends BaseAdapter {
 
     @Override
     public final View getView(final int position, final View convertView, final ViewGroup parent) {
+        Tracing.beginSection("DividableGridAdapter.getView");
         View view = convertView;
         int viewType = getItemViewType(position);
-        AbstractItem item = getItem(position);
+        int index = getRawItem(position);
+        long startTime = statistics != null ? System.nanoTime() : 0;
 
         if (view == null) {
-            if (viewType == PLACEHOLDER_VIEW_TYPE) {
+            if (viewType == DividableGridLayout.PLACEHOLDER_VIEW_TYPE) {
                 view = inflatePlaceholderView(parent);
-            } else if (viewType == ITEM_VIEW_TYPE) {
+            } else if (viewType == DividableGridLayout.ITEM_VIEW_TYPE) {
                 view = inflateItemView(parent);
             } else {
-                view = inflateDividerView(parent, (Divider) item, position);
+                view = inflateDividerView(parent, position);
             }
+
+            if (statistics != null) {
+                long inflationEndTime = System.nanoTime();
+                statistics.recordInflation(inflationEndTime - startTime);
+                startTime = inflationEndTime;
+            }
+        }
+
+        if (statistics != null) {
+            statistics.recordRecycle(convertView != null);
         }
 
-        if (viewType == ITEM_VIEW_TYPE) {
+        if (viewType == DividableGridLayout.ITEM_VIEW_TYPE) {
             ItemViewHolder viewHolder = (ItemViewHolder) view.getTag();
-            visualizeItem((Item) item, viewHolder);
-        } else if (viewType == SEPARATOR_VIEW_TYPE) {
+            visualizeItem(index, viewHolder);
+        } else if (viewType == DividableGridLayout.SEPARATOR_VIEW_TYPE) {
             DividerViewHolder viewHolder = (DividerViewHolder) view.getTag();
-            visualizeDivider((Divider) item, viewHolder);
+            visualizeDivider(index >= 0 ? getTitle(index) : null, viewHolder);
+        }
+
+        if (statistics != null) {
+            statistics.recordBind(System.nanoTime() - startTime);
         }
 
+        Tracing.endSection();
         return view;
     }
 
     @Override
     public final int getViewTypeCount() {
-        return 3;
+        return DividableGridLayout.VIEW_TYPE_COUNT;
     }
 
     @Override
     public final int getItemViewType(final int position) {
-        AbstractItem item = getItem(position);
-
-        if (item == null) {
-            return PLACEHOLDER_VIEW_TYPE;
-        } else if (item instanceof Item) {
-            return ITEM_VIEW_TYPE;
-        } else {
-            return SEPARATOR_VIEW_TYPE;
-        }
+        getRawItemCount();
+        return layout.getViewType(position);
     }
 
 }
\ No newline at end of file
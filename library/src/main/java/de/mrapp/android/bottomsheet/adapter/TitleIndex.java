@@ -0,0 +1,285 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.adapter;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A prefix index, which maps the tokens of item titles to the titles, which contain them. It
+ * allows to find all titles, which match a search query, without having to inspect each item.
+ * Titles are indexed by value, i.e. items with equal titles share a single entry.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class TitleIndex {
+
+    /**
+     * An entry of the index, which corresponds to a single title.
+     */
+    private static class Entry {
+
+        /**
+         * The tokens of the title.
+         */
+        private final String[] tokens;
+
+        /**
+         * The number of items, which use the title.
+         */
+        private int count;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param tokens
+         *         The tokens of the title as a {@link String} array. The array may not be null
+         */
+        private Entry(@NonNull final String[] tokens) {
+            this.tokens = tokens;
+            this.count = 0;
+        }
+
+    }
+
+    /**
+     * A map, which contains the indexed titles and their tokens.
+     */
+    private final Map<String, Entry> titles;
+
+    /**
+     * A sorted map, which maps tokens to the titles, which contain them.
+     */
+    private final TreeMap<String, Set<String>> tokens;
+
+    /**
+     * Splits a specific text into lower case tokens. Characters, which are neither letters, nor
+     * digits, are treated as separators.
+     *
+     * @param text
+     *         The text, which should be tokenized, as an instance of the type {@link CharSequence}
+     *         or null
+     * @return An array, which contains the tokens, as a {@link String} array. The array may be
+     * empty, but not null
+     */
+    @NonNull
+    public static String[] tokenize(@Nullable final CharSequence text) {
+        if (text == null) {
+            return new String[0];
+        }
+
+        String normalizedText = text.toString().toLowerCase(Locale.getDefault());
+        List<String> result = new ArrayList<>();
+        int start = -1;
+
+        for (int i = 0; i < normalizedText.length(); i++) {
+            if (Character.isLetterOrDigit(normalizedText.charAt(i))) {
+                if (start == -1) {
+                    start = i;
+                }
+            } else if (start != -1) {
+                result.add(normalizedText.substring(start, i));
+                start = -1;
+            }
+        }
+
+        if (start != -1) {
+            result.add(normalizedText.substring(start));
+        }
+
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Returns, whether all tokens of a query are prefixes of at least one token of a title, or
+     * not.
+     *
+     * @param titleTokens
+     *         The tokens of the title as a {@link String} array. The array may not be null
+     * @param queryTokens
+     *         The tokens of the query as a {@link String} array. The array may not be null
+     * @return True, if the title matches the query, false otherwise
+     */
+    private static boolean matches(@NonNull final String[] titleTokens,
+                                   @NonNull final String[] queryTokens) {
+        for (String queryToken : queryTokens) {
+            boolean found = false;
+
+            for (String titleToken : titleTokens) {
+                if (titleToken.startsWith(queryToken)) {
+                    found = true;
+                    break;
+                }
+            }
+
+            if (!found) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates a new, empty prefix index.
+     */
+    public TitleIndex() {
+        this.titles = new HashMap<>();
+        this.tokens = new TreeMap<>();
+    }
+
+    /**
+     * Adds a specific title to the index.
+     *
+     * @param title
+     *         The title, which should be added, as an instance of the type {@link CharSequence} or
+     *         null. Null or empty titles are ignored
+     */
+    public final void add(@Nullable final CharSequence title) {
+        if (title != null && title.length() > 0) {
+            String key = title.toString();
+            Entry entry = titles.get(key);
+
+            if (entry == null) {
+                entry = new Entry(tokenize(key));
+                titles.put(key, entry);
+
+                for (String token : entry.tokens) {
+                    Set<String> tokenTitles = tokens.get(token);
+
+                    if (tokenTitles == null) {
+                        tokenTitles = new HashSet<>();
+                        tokens.put(token, tokenTitles);
+                    }
+
+                    tokenTitles.add(key);
+                }
+            }
+
+            entry.count++;
+        }
+    }
+
+    /**
+     * Removes a specific title from the index. The title is only dropped from the index, when it
+     * has been removed as often as it has been added.
+     *
+     * @param title
+     *         The title, which should be removed, as an instance of the type {@link CharSequence}
+     *         or null. Null or empty titles are ignored
+     */
+    public final void remove(@Nullable final CharSequence title) {
+        if (title != null && title.length() > 0) {
+            String key = title.toString();
+            Entry entry = titles.get(key);
+
+            if (entry != null && --entry.count == 0) {
+                titles.remove(key);
+
+                for (String token : entry.tokens) {
+                    Set<String> tokenTitles = tokens.get(token);
+
+                    if (tokenTitles != null) {
+                        tokenTitles.remove(key);
+
+                        if (tokenTitles.isEmpty()) {
+                            tokens.remove(token);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all titles from the index.
+     */
+    public final void clear() {
+        titles.clear();
+        tokens.clear();
+    }
+
+    /**
+     * Returns all indexed titles, which match a specific query. A title matches, if each token of
+     * the query is a prefix of at least one of the title's tokens.
+     *
+     * @param queryTokens
+     *         The tokens of the query as a {@link String} array. The array may not be null
+     * @return A set, which contains the matching titles, as an instance of the type {@link Set}.
+     * The set may be empty, but not null
+     */
+    @NonNull
+    public final Set<String> query(@NonNull final String[] queryTokens) {
+        Set<String> result = null;
+
+        for (String queryToken : queryTokens) {
+            Set<String> matches = new HashSet<>();
+            Collection<Set<String>> tokenTitles = tokens.subMap(queryToken, true,
+                    queryToken + Character.MAX_VALUE, false).values();
+
+            for (Set<String> titleSet : tokenTitles) {
+                if (result == null) {
+                    matches.addAll(titleSet);
+                } else {
+                    for (String title : titleSet) {
+                        if (result.contains(title)) {
+                            matches.add(title);
+                        }
+                    }
+                }
+            }
+
+            result = matches;
+
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+
+        return result != null ? result : new HashSet<>(titles.keySet());
+    }
+
+    /**
+     * Returns, whether a specific title matches a query, or not. The title's tokens are taken
+     * from the index, if it has been indexed before.
+     *
+     * @param title
+     *         The title, which should be checked, as an instance of the type {@link CharSequence}
+     *         or null
+     * @param queryTokens
+     *         The tokens of the query as a {@link String} array. The array may not be null
+     * @return True, if the title matches the query, false otherwise
+     */
+    public final boolean matches(@Nullable final CharSequence title,
+                                 @NonNull final String[] queryTokens) {
+        if (title == null || title.length() == 0) {
+            return queryTokens.length == 0;
+        }
+
+        Entry entry = titles.get(title.toString());
+        return matches(entry != null ? entry.tokens : tokenize(title), queryTokens);
+    }
+
+}
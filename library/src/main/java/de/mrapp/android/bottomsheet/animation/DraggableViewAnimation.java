@@ -23,7 +23,9 @@ import de.mrapp.android.bottomsheet.view.DraggableView;
 import static de.mrapp.android.util.Condition.ensureNotNull;
 
 /**
- * An animation, which allows to show or hide a {@link DraggableView}.
+ * An animation, which allows to show or hide a {@link DraggableView} by animating its top margin.
+ * As this requires the view to be laid out on each frame, it is only used on devices, which do
+ * not support property animations.
  *
  * @author Michael Rapp
  * @since 1.0.0
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.animation;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import static de.mrapp.android.util.Condition.ensureAtLeast;
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * An animator, which moves a value towards a target by simulating a damped spring. The simulation
+ * is driven by the frame callbacks of the {@link Choreographer}, i.e. it advances by the actual
+ * time between two frames, regardless of the display's refresh rate. It starts with a specific
+ * velocity, which allows to continue the momentum of a fling gesture. The animation ends, when the
+ * value comes to rest or reaches the target, i.e. the value never overshoots the target. Once
+ * created, the animator does not allocate any objects.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class SpringAnimator implements Choreographer.FrameCallback {
+
+    /**
+     * Defines the interface, a class, which should be notified about the progress of a {@link
+     * SpringAnimator}, must implement.
+     */
+    public interface Listener {
+
+        /**
+         * The method, which is invoked, when the animated value has been updated.
+         *
+         * @param value
+         *         The updated value as a {@link Float} value
+         */
+        void onAnimationUpdate(float value);
+
+        /**
+         * The method, which is invoked, when the animation has ended, because the value has
+         * reached its target.
+         */
+        void onAnimationEnd();
+
+    }
+
+    /**
+     * The maximum time step of the simulation in seconds.
+     */
+    private static final float MAX_TIME_STEP = 1f / 240f;
+
+    /**
+     * The maximum time in seconds, the simulation is advanced by on a single frame. This prevents
+     * the value from jumping, if frames have been dropped.
+     */
+    private static final float MAX_FRAME_TIME = 1f / 15f;
+
+    /**
+     * The distance to the target, below which the value is considered to be at rest.
+     */
+    private static final float REST_DISTANCE = 0.5f;
+
+    /**
+     * The velocity per second, below which the value is considered to be at rest.
+     */
+    private static final float REST_VELOCITY = 10f;
+
+    /**
+     * The stiffness of the spring.
+     */
+    private final float stiffness;
+
+    /**
+     * The damping coefficient of the spring.
+     */
+    private final float damping;
+
+    /**
+     * The listener, which is notified about the animation's progress.
+     */
+    private Listener listener;
+
+    /**
+     * The current value.
+     */
+    private float value;
+
+    /**
+     * The current velocity per second.
+     */
+    private float velocity;
+
+    /**
+     * The target value.
+     */
+    private float target;
+
+    /**
+     * The time of the last frame in nanoseconds.
+     */
+    private long lastFrameTimeNanos;
+
+    /**
+     * True, if the animation is currently running, false otherwise.
+     */
+    private boolean running;
+
+    /**
+     * Creates a new animator, which moves a value towards a target by simulating a damped spring.
+     *
+     * @param stiffness
+     *         The stiffness of the spring as a {@link Float} value. The stiffness must be greater
+     *         than 0
+     * @param dampingRatio
+     *         The damping ratio of the spring as a {@link Float} value. A ratio of 1 results in a
+     *         critically damped spring. The ratio must be at least 0
+     */
+    public SpringAnimator(final float stiffness, final float dampingRatio) {
+        ensureAtLeast(stiffness, Float.MIN_VALUE, "The stiffness must be greater than 0");
+        ensureAtLeast(dampingRatio, 0, "The damping ratio must be at least 0");
+        this.stiffness = stiffness;
+        this.damping = 2 * dampingRatio * (float) Math.sqrt(stiffness);
+        this.running = false;
+    }
+
+    /**
+     * Starts to animate a value. If the animator is already running, the previous animation is
+     * replaced.
+     *
+     * @param startValue
+     *         The start value as a {@link Float} value
+     * @param startVelocity
+     *         The initial velocity of the value per second as a {@link Float} value
+     * @param targetValue
+     *         The target value as a {@link Float} value
+     * @param listener
+     *         The listener, which should be notified about the animation's progress, as an
+     *         instance of the type {@link Listener}. The listener may not be null
+     */
+    public final void start(final float startValue, final float startVelocity,
+                            final float targetValue, @NonNull final Listener listener) {
+        ensureNotNull(listener, "The listener may not be null");
+        this.value = startValue;
+        this.velocity = startVelocity;
+        this.target = targetValue;
+        this.listener = listener;
+        this.lastFrameTimeNanos = System.nanoTime();
+
+        if (!running) {
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Cancels the animation, if it is currently running. The listener is not notified.
+     */
+    public final void cancel() {
+        if (running) {
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    /**
+     * Returns, whether the animation is currently running, or not.
+     *
+     * @return True, if the animation is currently running, false otherwise
+     */
+    public final boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public final void doFrame(final long frameTimeNanos) {
+        if (running) {
+            float elapsedTime = (frameTimeNanos - lastFrameTimeNanos) / 1000000000f;
+            elapsedTime = Math.max(Math.min(elapsedTime, MAX_FRAME_TIME), 0);
+            lastFrameTimeNanos = Math.max(frameTimeNanos, lastFrameTimeNanos);
+            float startDistance = value - target;
+
+            while (elapsedTime > 0) {
+                float timeStep = Math.min(elapsedTime, MAX_TIME_STEP);
+                float acceleration = -stiffness * (value - target) - damping * velocity;
+                velocity += acceleration * timeStep;
+                value += velocity * timeStep;
+                elapsedTime -= timeStep;
+            }
+
+            float distance = value - target;
+            boolean crossed =
+                    startDistance != 0 && Math.signum(distance) != Math.signum(startDistance);
+
+            if (crossed || (Math.abs(distance) < REST_DISTANCE &&
+                    Math.abs(velocity) < REST_VELOCITY)) {
+                running = false;
+                value = target;
+                velocity = 0;
+                listener.onAnimationUpdate(value);
+                listener.onAnimationEnd();
+            } else {
+                listener.onAnimationUpdate(value);
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+
+}
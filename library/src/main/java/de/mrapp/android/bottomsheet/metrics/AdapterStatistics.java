@@ -0,0 +1,214 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import de.mrapp.android.bottomsheet.adapter.DividableGridAdapter;
+
+/**
+ * Counts the views, which are bound and inflated by a {@link DividableGridAdapter}, as well as the
+ * time, which is spent doing so. Furthermore, the number of layout computations and data set
+ * change notifications is counted, which allows to detect full rebinds. Recording does not
+ * allocate any objects.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class AdapterStatistics {
+
+    /**
+     * The number of views, which have been bound.
+     */
+    private int bindCount;
+
+    /**
+     * The total time in nanoseconds, which has been spent binding views.
+     */
+    private long bindDuration;
+
+    /**
+     * The number of views, which have been inflated.
+     */
+    private int inflationCount;
+
+    /**
+     * The total time in nanoseconds, which has been spent inflating views.
+     */
+    private long inflationDuration;
+
+    /**
+     * The number of views, which have been requested with a recycled view.
+     */
+    private int recycleHitCount;
+
+    /**
+     * The number of views, which have been requested without a recycled view.
+     */
+    private int recycleMissCount;
+
+    /**
+     * The number of times, the layout of the items including placeholders has been computed.
+     */
+    private int layoutCount;
+
+    /**
+     * The number of times, observers have been notified about the data set being changed.
+     */
+    private int dataSetChangeCount;
+
+    /**
+     * Records, that a view has been bound.
+     *
+     * @param duration
+     *         The time in nanoseconds, which has been spent binding the view, as a {@link Long}
+     *         value
+     */
+    public final void recordBind(final long duration) {
+        bindCount++;
+        bindDuration += duration;
+    }
+
+    /**
+     * Records, that a view has been inflated.
+     *
+     * @param duration
+     *         The time in nanoseconds, which has been spent inflating the view, as a {@link Long}
+     *         value
+     */
+    public final void recordInflation(final long duration) {
+        inflationCount++;
+        inflationDuration += duration;
+    }
+
+    /**
+     * Records, that a view has been requested with or without a recycled view.
+     *
+     * @param hit
+     *         True, if a recycled view has been available, false otherwise
+     */
+    public final void recordRecycle(final boolean hit) {
+        if (hit) {
+            recycleHitCount++;
+        } else {
+            recycleMissCount++;
+        }
+    }
+
+    /**
+     * Records, that the layout of the items including placeholders has been computed.
+     */
+    public final void recordLayout() {
+        layoutCount++;
+    }
+
+    /**
+     * Records, that observers have been notified about the data set being changed. This causes
+     * all views, which are currently displayed, to be bound again.
+     */
+    public final void recordDataSetChange() {
+        dataSetChangeCount++;
+    }
+
+    /**
+     * Resets all counters.
+     */
+    public final void reset() {
+        bindCount = 0;
+        bindDuration = 0;
+        inflationCount = 0;
+        inflationDuration = 0;
+        recycleHitCount = 0;
+        recycleMissCount = 0;
+        layoutCount = 0;
+        dataSetChangeCount = 0;
+    }
+
+    /**
+     * Returns the number of views, which have been bound.
+     *
+     * @return The number of views, which have been bound, as an {@link Integer} value
+     */
+    public final int getBindCount() {
+        return bindCount;
+    }
+
+    /**
+     * Returns the total time, which has been spent binding views.
+     *
+     * @return The total time, which has been spent binding views, in nanoseconds as a {@link Long}
+     * value
+     */
+    public final long getBindDuration() {
+        return bindDuration;
+    }
+
+    /**
+     * Returns the number of views, which have been inflated.
+     *
+     * @return The number of views, which have been inflated, as an {@link Integer} value
+     */
+    public final int getInflationCount() {
+        return inflationCount;
+    }
+
+    /**
+     * Returns the total time, which has been spent inflating views.
+     *
+     * @return The total time, which has been spent inflating views, in nanoseconds as a {@link
+     * Long} value
+     */
+    public final long getInflationDuration() {
+        return inflationDuration;
+    }
+
+    /**
+     * Returns the number of views, which have been requested with a recycled view.
+     *
+     * @return The number of views, which have been requested with a recycled view, as an {@link
+     * Integer} value
+     */
+    public final int getRecycleHitCount() {
+        return recycleHitCount;
+    }
+
+    /**
+     * Returns the number of views, which have been requested without a recycled view.
+     *
+     * @return The number of views, which have been requested without a recycled view, as an
+     * {@link Integer} value
+     */
+    public final int getRecycleMissCount() {
+        return recycleMissCount;
+    }
+
+    /**
+     * Returns the number of times, the layout of the items including placeholders has been
+     * computed.
+     *
+     * @return The number of times, the layout has been computed, as an {@link Integer} value
+     */
+    public final int getLayoutCount() {
+        return layoutCount;
+    }
+
+    /**
+     * Returns the number of times, observers have been notified about the data set being changed.
+     *
+     * @return The number of times, observers have been notified about the data set being changed,
+     * as an {@link Integer} value
+     */
+    public final int getDataSetChangeCount() {
+        return dataSetChangeCount;
+    }
+
+}
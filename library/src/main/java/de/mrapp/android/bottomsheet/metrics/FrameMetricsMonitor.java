@@ -0,0 +1,369 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import java.util.Arrays;
+
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+import de.mrapp.android.bottomsheet.metrics.FrameMetricsReport.Phase;
+
+import static de.mrapp.android.util.Condition.ensureAtLeast;
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A monitor, which measures the durations of the frames, which are drawn by a window during
+ * specific phases. On devices with API level 24 or greater, the durations are obtained from the
+ * window's {@link FrameMetrics}. On older devices, the time between two subsequent frame callbacks
+ * of the {@link Choreographer} is used instead. Frame durations are stored in arrays, which are
+ * only enlarged if necessary, i.e. no objects are allocated per frame by the monitor itself.
+ * Frames are considered as slow, if they exceed the frame budget of the window's display, which
+ * is derived from its refresh rate, e.g. 16.7 ms at 60 Hz or 8.3 ms at 120 Hz.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class FrameMetricsMonitor implements Choreographer.FrameCallback {
+
+    /**
+     * The refresh rate in Hz, which is assumed, if the refresh rate of the window's display cannot
+     * be determined.
+     */
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    /**
+     * The number of nanoseconds per second.
+     */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * The duration in nanoseconds, a frame must exceed in order to be considered as frozen.
+     */
+    private static final long FROZEN_FRAME_THRESHOLD = 700000000L;
+
+    /**
+     * The initial capacity of the array, which is used to store frame durations.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * An array, which contains the durations of the frames, which have been drawn during the
+     * current phase, in nanoseconds.
+     */
+    private long[] frameDurations = new long[INITIAL_CAPACITY];
+
+    /**
+     * An array, which is used to sort the frame durations in order to calculate percentiles.
+     */
+    private long[] sortedFrameDurations = new long[INITIAL_CAPACITY];
+
+    /**
+     * The number of frames, which have been drawn during the current phase.
+     */
+    private int frameCount;
+
+    /**
+     * The phase, which is currently monitored, or null, if no phase is monitored.
+     */
+    private Phase phase;
+
+    /**
+     * The time of the last frame callback of the {@link Choreographer} in nanoseconds or -1, if no
+     * frame callback has been received during the current phase.
+     */
+    private long lastFrameTimeNanos;
+
+    /**
+     * True, if a frame callback has been posted to the {@link Choreographer}, false otherwise.
+     */
+    private boolean frameCallbackPosted;
+
+    /**
+     * The window, which is monitored, or null, if no window is monitored.
+     */
+    private Window window;
+
+    /**
+     * The duration in nanoseconds, a frame must exceed in order to be considered as slow. It
+     * corresponds to the frame budget of the display of the window, which is monitored.
+     */
+    private long slowFrameThreshold = Math.round(NANOS_PER_SECOND / DEFAULT_REFRESH_RATE);
+
+    /**
+     * The listener, which is used to obtain the frame metrics of the window on devices with API
+     * level 24 or greater, or null, if the listener has not been created yet.
+     */
+    private Window.OnFrameMetricsAvailableListener frameMetricsListener;
+
+    /**
+     * Returns, whether the frame metrics of the window are used to obtain the durations of frames,
+     * or not.
+     *
+     * @return True, if the frame metrics of the window are used, false, if frame callbacks of the
+     * {@link Choreographer} are used
+     */
+    private boolean usesFrameMetrics() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.N;
+    }
+
+    /**
+     * Creates and returns a listener, which allows to obtain the durations of the frames, which
+     * are drawn by the window.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * Window.OnFrameMetricsAvailableListener}
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private Window.OnFrameMetricsAvailableListener createFrameMetricsListener() {
+        return new Window.OnFrameMetricsAvailableListener() {
+
+            @Override
+            public void onFrameMetricsAvailable(final Window window,
+                                                final FrameMetrics frameMetrics,
+                                                final int dropCountSinceLastInvocation) {
+                if (phase != null) {
+                    addFrame(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Registers the listener, which is used to obtain the frame metrics of the window.
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void registerFrameMetricsListener() {
+        if (frameMetricsListener == null) {
+            frameMetricsListener = createFrameMetricsListener();
+        }
+
+        window.addOnFrameMetricsAvailableListener(frameMetricsListener,
+                new Handler(Looper.getMainLooper()));
+    }
+
+    /**
+     * Unregisters the listener, which is used to obtain the frame metrics of the window.
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void unregisterFrameMetricsListener() {
+        window.removeOnFrameMetricsAvailableListener(frameMetricsListener);
+    }
+
+    /**
+     * Derives the duration, a frame must exceed in order to be considered as slow, from the
+     * refresh rate of the display of the window, which is monitored.
+     */
+    private void adaptSlowFrameThreshold() {
+        Display display = window.getWindowManager().getDefaultDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 0;
+        refreshRate = refreshRate >= 1 ? refreshRate : DEFAULT_REFRESH_RATE;
+        slowFrameThreshold = Math.round(NANOS_PER_SECOND / refreshRate);
+    }
+
+    /**
+     * Adds the duration of a frame, which has been drawn during the current phase.
+     *
+     * @param duration
+     *         The duration of the frame in nanoseconds as a {@link Long} value
+     */
+    private void addFrame(final long duration) {
+        if (frameCount == frameDurations.length) {
+            frameDurations = Arrays.copyOf(frameDurations, frameCount * 2);
+        }
+
+        frameDurations[frameCount++] = duration;
+    }
+
+    /**
+     * Returns a specific percentile of the frame durations, which have already been sorted.
+     *
+     * @param percentile
+     *         The percentile, which should be returned, as a {@link Float} value between 0 and 1
+     * @return The percentile of the frame durations in nanoseconds as a {@link Long} value or 0,
+     * if no frames have been drawn
+     */
+    private long getPercentile(final float percentile) {
+        if (frameCount == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile * frameCount) - 1;
+        return sortedFrameDurations[Math.max(Math.min(index, frameCount - 1), 0)];
+    }
+
+    /**
+     * Starts to monitor a specific window. If another window is already monitored, it is detached
+     * first.
+     *
+     * @param window
+     *         The window, which should be monitored, as an instance of the class {@link Window}.
+     *         The window may not be null
+     */
+    public final void attach(@NonNull final Window window) {
+        ensureNotNull(window, "The window may not be null");
+
+        if (this.window != window) {
+            detach();
+            this.window = window;
+            adaptSlowFrameThreshold();
+
+            if (usesFrameMetrics()) {
+                registerFrameMetricsListener();
+            }
+        }
+    }
+
+    /**
+     * Stops to monitor the window, which is currently monitored, if any. The phase, which is
+     * currently monitored, is discarded.
+     */
+    public final void detach() {
+        phase = null;
+
+        if (frameCallbackPosted) {
+            frameCallbackPosted = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        if (window != null) {
+            if (usesFrameMetrics()) {
+                unregisterFrameMetricsListener();
+            }
+
+            window = null;
+        }
+    }
+
+    /**
+     * Returns the duration, a frame must exceed in order to be considered as slow. It corresponds
+     * to the frame budget of the display of the window, which is monitored.
+     *
+     * @return The duration, a frame must exceed in order to be considered as slow, in
+     * nanoseconds as a {@link Long} value
+     */
+    public final long getSlowFrameThreshold() {
+        return slowFrameThreshold;
+    }
+
+    /**
+     * Returns the phase, which is currently monitored.
+     *
+     * @return The phase, which is currently monitored, as a value of the enum {@link Phase} or
+     * null, if no phase is monitored
+     */
+    @Nullable
+    public final Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Starts to monitor a specific phase. The frames, which have been drawn during the previous
+     * phase, if any, are discarded.
+     *
+     * @param phase
+     *         The phase, which should be monitored, as a value of the enum {@link Phase}. The phase
+     *         may not be null
+     */
+    public final void startPhase(@NonNull final Phase phase) {
+        ensureNotNull(phase, "The phase may not be null");
+        this.phase = phase;
+        this.frameCount = 0;
+        this.lastFrameTimeNanos = -1;
+
+        if (window != null && !usesFrameMetrics() && !frameCallbackPosted) {
+            frameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Ends the phase, which is currently monitored, and summarizes the frames, which have been
+     * drawn during the phase.
+     *
+     * @param style
+     *         The style of the bottom sheet, the report corresponds to, as a value of the enum
+     *         {@link Style}. The style may not be null
+     * @param itemCount
+     *         The number of items of the bottom sheet, the report corresponds to, as an {@link
+     *         Integer} value. The number must be at least 0
+     * @return A report, which summarizes the frames, which have been drawn during the phase, as
+     * an instance of the class {@link FrameMetricsReport} or null, if no phase is monitored
+     */
+    @Nullable
+    public final FrameMetricsReport endPhase(@NonNull final Style style, final int itemCount) {
+        ensureNotNull(style, "The style may not be null");
+        ensureAtLeast(itemCount, 0, "The item count must be at least 0");
+
+        if (phase == null) {
+            return null;
+        }
+
+        if (sortedFrameDurations.length < frameCount) {
+            sortedFrameDurations = new long[frameDurations.length];
+        }
+
+        int slowFrameCount = 0;
+        int frozenFrameCount = 0;
+
+        for (int i = 0; i < frameCount; i++) {
+            long duration = frameDurations[i];
+            sortedFrameDurations[i] = duration;
+
+            if (duration > FROZEN_FRAME_THRESHOLD) {
+                frozenFrameCount++;
+            }
+
+            if (duration > slowFrameThreshold) {
+                slowFrameCount++;
+            }
+        }
+
+        Arrays.sort(sortedFrameDurations, 0, frameCount);
+        FrameMetricsReport report =
+                new FrameMetricsReport(phase, style, itemCount, frameCount, slowFrameCount,
+                        frozenFrameCount, getPercentile(0.5f), getPercentile(0.95f),
+                        getPercentile(0.99f));
+        phase = null;
+        frameCount = 0;
+        return report;
+    }
+
+    @Override
+    public final void doFrame(final long frameTimeNanos) {
+        frameCallbackPosted = false;
+
+        if (phase != null) {
+            if (lastFrameTimeNanos != -1) {
+                addFrame(frameTimeNanos - lastFrameTimeNanos);
+            }
+
+            lastFrameTimeNanos = frameTimeNanos;
+            frameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+}
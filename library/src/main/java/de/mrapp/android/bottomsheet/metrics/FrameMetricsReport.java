@@ -0,0 +1,266 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import android.support.annotation.NonNull;
+
+import de.mrapp.android.bottomsheet.BottomSheet;
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+
+import static de.mrapp.android.util.Condition.ensureAtLeast;
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A report, which summarizes the durations of the frames, which have been drawn during a specific
+ * phase of a {@link BottomSheet}'s lifecycle, e.g. while it has been shown or dragged.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class FrameMetricsReport {
+
+    /**
+     * Contains all phases of a bottom sheet's lifecycle, frame metrics can be reported for.
+     */
+    public enum Phase {
+
+        /**
+         * When the bottom sheet is shown.
+         */
+        SHOW,
+
+        /**
+         * When the bottom sheet is dragged by the user, including the movement, which settles the
+         * bottom sheet once the drag gesture has been ended.
+         */
+        DRAG,
+
+        /**
+         * When the bottom sheet is maximized.
+         */
+        MAXIMIZE,
+
+        /**
+         * When the bottom sheet is hidden.
+         */
+        HIDE
+
+    }
+
+    /**
+     * The phase, the report corresponds to.
+     */
+    private final Phase phase;
+
+    /**
+     * The style of the bottom sheet, the report corresponds to.
+     */
+    private final Style style;
+
+    /**
+     * The number of items of the bottom sheet, the report corresponds to.
+     */
+    private final int itemCount;
+
+    /**
+     * The number of frames, which have been drawn during the phase.
+     */
+    private final int frameCount;
+
+    /**
+     * The number of slow frames, which have been drawn during the phase.
+     */
+    private final int slowFrameCount;
+
+    /**
+     * The number of frozen frames, which have been drawn during the phase.
+     */
+    private final int frozenFrameCount;
+
+    /**
+     * The median duration of the frames, which have been drawn during the phase, in nanoseconds.
+     */
+    private final long p50FrameDuration;
+
+    /**
+     * The 95th percentile of the durations of the frames, which have been drawn during the phase,
+     * in nanoseconds.
+     */
+    private final long p95FrameDuration;
+
+    /**
+     * The 99th percentile of the durations of the frames, which have been drawn during the phase,
+     * in nanoseconds.
+     */
+    private final long p99FrameDuration;
+
+    /**
+     * Creates a new report, which summarizes the durations of the frames, which have been drawn
+     * during a specific phase of a bottom sheet's lifecycle.
+     *
+     * @param phase
+     *         The phase, the report corresponds to, as a value of the enum {@link Phase}. The phase
+     *         may not be null
+     * @param style
+     *         The style of the bottom sheet, the report corresponds to, as a value of the enum
+     *         {@link Style}. The style may not be null
+     * @param itemCount
+     *         The number of items of the bottom sheet, the report corresponds to, as an {@link
+     *         Integer} value. The number must be at least 0
+     * @param frameCount
+     *         The number of frames, which have been drawn during the phase, as an {@link Integer}
+     *         value. The number must be at least 0
+     * @param slowFrameCount
+     *         The number of slow frames, which have been drawn during the phase, as an {@link
+     *         Integer} value. The number must be at least 0
+     * @param frozenFrameCount
+     *         The number of frozen frames, which have been drawn during the phase, as an {@link
+     *         Integer} value. The number must be at least 0
+     * @param p50FrameDuration
+     *         The median frame duration in nanoseconds as a {@link Long} value. The duration must
+     *         be at least 0
+     * @param p95FrameDuration
+     *         The 95th percentile of the frame durations in nanoseconds as a {@link Long} value.
+     *         The duration must be at least 0
+     * @param p99FrameDuration
+     *         The 99th percentile of the frame durations in nanoseconds as a {@link Long} value.
+     *         The duration must be at least 0
+     */
+    public FrameMetricsReport(@NonNull final Phase phase, @NonNull final Style style,
+                              final int itemCount, final int frameCount, final int slowFrameCount,
+                              final int frozenFrameCount, final long p50FrameDuration,
+                              final long p95FrameDuration, final long p99FrameDuration) {
+        ensureNotNull(phase, "The phase may not be null");
+        ensureNotNull(style, "The style may not be null");
+        ensureAtLeast(itemCount, 0, "The item count must be at least 0");
+        ensureAtLeast(frameCount, 0, "The frame count must be at least 0");
+        ensureAtLeast(slowFrameCount, 0, "The slow frame count must be at least 0");
+        ensureAtLeast(frozenFrameCount, 0, "The frozen frame count must be at least 0");
+        ensureAtLeast(p50FrameDuration, 0, "The duration must be at least 0");
+        ensureAtLeast(p95FrameDuration, 0, "The duration must be at least 0");
+        ensureAtLeast(p99FrameDuration, 0, "The duration must be at least 0");
+        this.phase = phase;
+        this.style = style;
+        this.itemCount = itemCount;
+        this.frameCount = frameCount;
+        this.slowFrameCount = slowFrameCount;
+        this.frozenFrameCount = frozenFrameCount;
+        this.p50FrameDuration = p50FrameDuration;
+        this.p95FrameDuration = p95FrameDuration;
+        this.p99FrameDuration = p99FrameDuration;
+    }
+
+    /**
+     * Returns the phase, the report corresponds to.
+     *
+     * @return The phase, the report corresponds to, as a value of the enum {@link Phase}
+     */
+    public final Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns the style of the bottom sheet, the report corresponds to.
+     *
+     * @return The style of the bottom sheet, the report corresponds to, as a value of the enum
+     * {@link Style}
+     */
+    public final Style getStyle() {
+        return style;
+    }
+
+    /**
+     * Returns the number of items of the bottom sheet, the report corresponds to.
+     *
+     * @return The number of items of the bottom sheet, the report corresponds to, as an {@link
+     * Integer} value
+     */
+    public final int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Returns the number of frames, which have been drawn during the phase.
+     *
+     * @return The number of frames, which have been drawn during the phase, as an {@link Integer}
+     * value
+     */
+    public final int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the number of slow frames, i.e. frames, which took longer than the frame budget of
+     * the display, e.g. 16.7 milliseconds at 60 Hz, which have been drawn during the phase.
+     *
+     * @return The number of slow frames, which have been drawn during the phase, as an {@link
+     * Integer} value
+     */
+    public final int getSlowFrameCount() {
+        return slowFrameCount;
+    }
+
+    /**
+     * Returns the number of frozen frames, i.e. frames, which took longer than 700 milliseconds,
+     * which have been drawn during the phase.
+     *
+     * @return The number of frozen frames, which have been drawn during the phase, as an {@link
+     * Integer} value
+     */
+    public final int getFrozenFrameCount() {
+        return frozenFrameCount;
+    }
+
+    /**
+     * Returns the median duration of the frames, which have been drawn during the phase.
+     *
+     * @return The median duration of the frames, which have been drawn during the phase, in
+     * nanoseconds as a {@link Long} value
+     */
+    public final long getP50FrameDuration() {
+        return p50FrameDuration;
+    }
+
+    /**
+     * Returns the 95th percentile of the durations of the frames, which have been drawn during the
+     * phase.
+     *
+     * @return The 95th percentile of the durations of the frames, which have been drawn during the
+     * phase, in nanoseconds as a {@link Long} value
+     */
+    public final long getP95FrameDuration() {
+        return p95FrameDuration;
+    }
+
+    /**
+     * Returns the 99th percentile of the durations of the frames, which have been drawn during the
+     * phase.
+     *
+     * @return The 99th percentile of the durations of the frames, which have been drawn during the
+     * phase, in nanoseconds as a {@link Long} value
+     */
+    public final long getP99FrameDuration() {
+        return p99FrameDuration;
+    }
+
+    @Override
+    public final String toString() {
+        return "FrameMetricsReport [phase=" + phase + ", style=" + style + ", itemCount=" +
+                itemCount + ", frameCount=" + frameCount + ", slowFrameCount=" + slowFrameCount +
+                ", frozenFrameCount=" + frozenFrameCount + ", p50FrameDuration=" +
+                p50FrameDuration + ", p95FrameDuration=" + p95FrameDuration +
+                ", p99FrameDuration=" + p99FrameDuration + "]";
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import android.support.annotation.NonNull;
+
+import static de.mrapp.android.util.Condition.ensureAtLeast;
+import static de.mrapp.android.util.Condition.ensureAtMaximum;
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A histogram, which counts latencies by using buckets of one millisecond each. Latencies, which
+ * exceed the range of the histogram, are counted by its last bucket. Adding latencies does not
+ * allocate any objects.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class LatencyHistogram {
+
+    /**
+     * The width of a bucket in nanoseconds.
+     */
+    public static final long BUCKET_WIDTH = 1000000L;
+
+    /**
+     * The number of buckets.
+     */
+    public static final int BUCKET_COUNT = 100;
+
+    /**
+     * An array, which contains the number of latencies, which have been counted by each bucket.
+     */
+    private final int[] buckets;
+
+    /**
+     * The total number of latencies, which have been added.
+     */
+    private int count;
+
+    /**
+     * The sum of all latencies, which have been added, in nanoseconds.
+     */
+    private long sum;
+
+    /**
+     * The maximum latency, which has been added, in nanoseconds.
+     */
+    private long max;
+
+    /**
+     * Creates a new, empty histogram, which counts latencies.
+     */
+    public LatencyHistogram() {
+        this.buckets = new int[BUCKET_COUNT];
+    }
+
+    /**
+     * Creates a new histogram, which counts latencies, by copying another histogram.
+     *
+     * @param histogram
+     *         The histogram, which should be copied, as an instance of the class {@link
+     *         LatencyHistogram}. The histogram may not be null
+     */
+    public LatencyHistogram(@NonNull final LatencyHistogram histogram) {
+        ensureNotNull(histogram, "The histogram may not be null");
+        this.buckets = histogram.buckets.clone();
+        this.count = histogram.count;
+        this.sum = histogram.sum;
+        this.max = histogram.max;
+    }
+
+    /**
+     * Adds a specific latency to the histogram. Negative latencies, which may result from
+     * imprecise timestamps, are counted as 0.
+     *
+     * @param latency
+     *         The latency, which should be added, in nanoseconds as a {@link Long} value
+     */
+    public final void add(final long latency) {
+        long value = Math.max(latency, 0);
+        int bucket = (int) Math.min(value / BUCKET_WIDTH, BUCKET_COUNT - 1);
+        buckets[bucket]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Removes all latencies from the histogram.
+     */
+    public final void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Returns the total number of latencies, which have been added to the histogram.
+     *
+     * @return The total number of latencies, which have been added to the histogram, as an {@link
+     * Integer} value
+     */
+    public final int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of latencies, which have been counted by a specific bucket. The bucket at
+     * index <code>i</code> counts latencies between <code>i</code> (inclusive) and <code>i +
+     * 1</code> (exclusive) milliseconds. The last bucket also counts all greater latencies.
+     *
+     * @param index
+     *         The index of the bucket as an {@link Integer} value. The index must be at least 0 and
+     *         less than {@link #BUCKET_COUNT}
+     * @return The number of latencies, which have been counted by the given bucket, as an {@link
+     * Integer} value
+     */
+    public final int getBucket(final int index) {
+        ensureAtLeast(index, 0, "The index must be at least 0");
+        ensureAtMaximum(index, BUCKET_COUNT - 1, "The index must be less than " + BUCKET_COUNT);
+        return buckets[index];
+    }
+
+    /**
+     * Returns the mean of the latencies, which have been added to the histogram.
+     *
+     * @return The mean of the latencies in nanoseconds as a {@link Long} value or 0, if no
+     * latencies have been added
+     */
+    public final long getMean() {
+        return count > 0 ? sum / count : 0;
+    }
+
+    /**
+     * Returns the maximum latency, which has been added to the histogram.
+     *
+     * @return The maximum latency in nanoseconds as a {@link Long} value or 0, if no latencies have
+     * been added
+     */
+    public final long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns a specific percentile of the latencies, which have been added to the histogram. The
+     * percentile is approximated by the upper bound of the bucket, which contains it.
+     *
+     * @param percentile
+     *         The percentile, which should be returned, as a {@link Float} value. The percentile
+     *         must be at least 0 and at maximum 1
+     * @return The percentile in nanoseconds as a {@link Long} value or 0, if no latencies have
+     * been added
+     */
+    public final long getPercentile(final float percentile) {
+        ensureAtLeast(percentile, 0, "The percentile must be at least 0");
+        ensureAtMaximum(percentile, 1, "The percentile must be at maximum 1");
+
+        if (count == 0) {
+            return 0;
+        }
+
+        int rank = Math.max((int) Math.ceil(percentile * count), 1);
+        int cumulativeCount = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            cumulativeCount += buckets[i];
+
+            if (cumulativeCount >= rank) {
+                return Math.min((i + 1) * BUCKET_WIDTH, max);
+            }
+        }
+
+        return max;
+    }
+
+    @Override
+    public final String toString() {
+        return "LatencyHistogram [count=" + count + ", mean=" + getMean() + ", p50=" +
+                getPercentile(0.5f) + ", p95=" + getPercentile(0.95f) + ", p99=" +
+                getPercentile(0.99f) + ", max=" + max + "]";
+    }
+
+}
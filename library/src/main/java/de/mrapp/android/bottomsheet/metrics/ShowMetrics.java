@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import android.support.annotation.NonNull;
+
+import de.mrapp.android.bottomsheet.BottomSheet;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * Contains the durations and counts, which have been measured while a {@link BottomSheet} has
+ * been shown, until its first frame has been drawn. All durations are specified in nanoseconds.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class ShowMetrics {
+
+    /**
+     * The time between the bottom sheet being shown and its first frame being drawn.
+     */
+    private final long firstFrameDuration;
+
+    /**
+     * The time, which has been spent inflating the bottom sheet's root view.
+     */
+    private final long rootInflationDuration;
+
+    /**
+     * The time, which has been spent inflating the bottom sheet's title view.
+     */
+    private final long titleInflationDuration;
+
+    /**
+     * The time, which has been spent inflating the bottom sheet's content view.
+     */
+    private final long contentInflationDuration;
+
+    /**
+     * The time, which has been spent adapting the height of the bottom sheet's grid view to its
+     * children.
+     */
+    private final long gridViewHeightDuration;
+
+    /**
+     * The number of item views, which have been bound.
+     */
+    private final int bindCount;
+
+    /**
+     * The time, which has been spent binding item views.
+     */
+    private final long bindDuration;
+
+    /**
+     * The number of item views, which have been inflated.
+     */
+    private final int inflationCount;
+
+    /**
+     * The time, which has been spent inflating item views.
+     */
+    private final long inflationDuration;
+
+    /**
+     * The number of item views, which have been requested with a recycled view.
+     */
+    private final int recycleHitCount;
+
+    /**
+     * The number of item views, which have been requested without a recycled view.
+     */
+    private final int recycleMissCount;
+
+    /**
+     * The number of times, the layout of the items including placeholders has been computed.
+     */
+    private final int layoutCount;
+
+    /**
+     * The number of times, observers of the adapter have been notified about the data set being
+     * changed.
+     */
+    private final int dataSetChangeCount;
+
+    /**
+     * Creates a new set of metrics, which have been measured while a bottom sheet has been shown.
+     *
+     * @param firstFrameDuration
+     *         The time between the bottom sheet being shown and its first frame being drawn in
+     *         nanoseconds as a {@link Long} value
+     * @param rootInflationDuration
+     *         The time, which has been spent inflating the bottom sheet's root view, in
+     *         nanoseconds as a {@link Long} value
+     * @param titleInflationDuration
+     *         The time, which has been spent inflating the bottom sheet's title view, in
+     *         nanoseconds as a {@link Long} value
+     * @param contentInflationDuration
+     *         The time, which has been spent inflating the bottom sheet's content view, in
+     *         nanoseconds as a {@link Long} value
+     * @param gridViewHeightDuration
+     *         The time, which has been spent adapting the height of the bottom sheet's grid view to
+     *         its children, in nanoseconds as a {@link Long} value
+     * @param statistics
+     *         The statistics, which contain the item views, which have been bound and inflated, as
+     *         an instance of the class {@link AdapterStatistics}. The statistics may not be null
+     */
+    public ShowMetrics(final long firstFrameDuration, final long rootInflationDuration,
+                       final long titleInflationDuration, final long contentInflationDuration,
+                       final long gridViewHeightDuration,
+                       @NonNull final AdapterStatistics statistics) {
+        ensureNotNull(statistics, "The statistics may not be null");
+        this.firstFrameDuration = firstFrameDuration;
+        this.rootInflationDuration = rootInflationDuration;
+        this.titleInflationDuration = titleInflationDuration;
+        this.contentInflationDuration = contentInflationDuration;
+        this.gridViewHeightDuration = gridViewHeightDuration;
+        this.bindCount = statistics.getBindCount();
+        this.bindDuration = statistics.getBindDuration();
+        this.inflationCount = statistics.getInflationCount();
+        this.inflationDuration = statistics.getInflationDuration();
+        this.recycleHitCount = statistics.getRecycleHitCount();
+        this.recycleMissCount = statistics.getRecycleMissCount();
+        this.layoutCount = statistics.getLayoutCount();
+        this.dataSetChangeCount = statistics.getDataSetChangeCount();
+    }
+
+    /**
+     * Returns the time between the bottom sheet being shown and its first frame being drawn.
+     *
+     * @return The time between the bottom sheet being shown and its first frame being drawn in
+     * nanoseconds as a {@link Long} value
+     */
+    public final long getFirstFrameDuration() {
+        return firstFrameDuration;
+    }
+
+    /**
+     * Returns the time, which has been spent inflating the bottom sheet's root view.
+     *
+     * @return The time, which has been spent inflating the bottom sheet's root view, in
+     * nanoseconds as a {@link Long} value
+     */
+    public final long getRootInflationDuration() {
+        return rootInflationDuration;
+    }
+
+    /**
+     * Returns the time, which has been spent inflating the bottom sheet's title view.
+     *
+     * @return The time, which has been spent inflating the bottom sheet's title view, in
+     * nanoseconds as a {@link Long} value
+     */
+    public final long getTitleInflationDuration() {
+        return titleInflationDuration;
+    }
+
+    /**
+     * Returns the time, which has been spent inflating the bottom sheet's content view.
+     *
+     * @return The time, which has been spent inflating the bottom sheet's content view, in
+     * nanoseconds as a {@link Long} value
+     */
+    public final long getContentInflationDuration() {
+        return contentInflationDuration;
+    }
+
+    /**
+     * Returns the time, which has been spent adapting the height of the bottom sheet's grid view
+     * to its children.
+     *
+     * @return The time, which has been spent adapting the height of the grid view, in nanoseconds
+     * as a {@link Long} value
+     */
+    public final long getGridViewHeightDuration() {
+        return gridViewHeightDuration;
+    }
+
+    /**
+     * Returns the number of item views, which have been bound.
+     *
+     * @return The number of item views, which have been bound, as an {@link Integer} value
+     */
+    public final int getBindCount() {
+        return bindCount;
+    }
+
+    /**
+     * Returns the time, which has been spent binding item views.
+     *
+     * @return The time, which has been spent binding item views, in nanoseconds as a {@link Long}
+     * value
+     */
+    public final long getBindDuration() {
+        return bindDuration;
+    }
+
+    /**
+     * Returns the number of item views, which have been inflated.
+     *
+     * @return The number of item views, which have been inflated, as an {@link Integer} value
+     */
+    public final int getInflationCount() {
+        return inflationCount;
+    }
+
+    /**
+     * Returns the time, which has been spent inflating item views.
+     *
+     * @return The time, which has been spent inflating item views, in nanoseconds as a {@link
+     * Long} value
+     */
+    public final long getInflationDuration() {
+        return inflationDuration;
+    }
+
+    /**
+     * Returns the number of item views, which have been requested with a recycled view.
+     *
+     * @return The number of item views, which have been requested with a recycled view, as an
+     * {@link Integer} value
+     */
+    public final int getRecycleHitCount() {
+        return recycleHitCount;
+    }
+
+    /**
+     * Returns the number of item views, which have been requested without a recycled view.
+     *
+     * @return The number of item views, which have been requested without a recycled view, as an
+     * {@link Integer} value
+     */
+    public final int getRecycleMissCount() {
+        return recycleMissCount;
+    }
+
+    /**
+     * Returns the number of times, the layout of the items including placeholders has been
+     * computed.
+     *
+     * @return The number of times, the layout has been computed, as an {@link Integer} value
+     */
+    public final int getLayoutCount() {
+        return layoutCount;
+    }
+
+    /**
+     * Returns the number of times, observers of the adapter have been notified about the data set
+     * being changed.
+     *
+     * @return The number of times, observers have been notified about the data set being changed,
+     * as an {@link Integer} value
+     */
+    public final int getDataSetChangeCount() {
+        return dataSetChangeCount;
+    }
+
+    @Override
+    public final String toString() {
+        return "ShowMetrics [firstFrameDuration=" + firstFrameDuration +
+                ", rootInflationDuration=" + rootInflationDuration + ", titleInflationDuration=" +
+                titleInflationDuration + ", contentInflationDuration=" + contentInflationDuration +
+                ", gridViewHeightDuration=" + gridViewHeightDuration + ", bindCount=" + bindCount +
+                ", bindDuration=" + bindDuration + ", inflationCount=" + inflationCount +
+                ", inflationDuration=" + inflationDuration + ", recycleHitCount=" +
+                recycleHitCount + ", recycleMissCount=" + recycleMissCount + ", layoutCount=" +
+                layoutCount + ", dataSetChangeCount=" + dataSetChangeCount + "]";
+    }
+
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import de.mrapp.android.bottomsheet.BottomSheet;
+import de.mrapp.android.bottomsheet.TouchLatencyListener;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A monitor, which measures the latencies between touch events and the frames, which show a
+ * bottom sheet at the position, which corresponds to the touch events, while it is dragged. A
+ * latency is measured from the time of the earliest touch event, which has been coalesced into a
+ * frame, until that frame has been committed. On devices with API level 24 or greater, whose
+ * window is hardware accelerated, the commit time is obtained from the window's {@link
+ * FrameMetrics} by adding the total duration of the frame to its vsync time. The frame metrics are
+ * assigned to the frames, the bottom sheet has been moved on, in the order, the frames have been
+ * drawn. On older devices, the time, when the main thread has finished drawing the frame, is used
+ * instead. The latencies of a drag gesture are reported, once the gesture has been ended and the
+ * metrics of all of its frames have been received.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class TouchLatencyMonitor {
+
+    /**
+     * The maximum number of drawn frames, whose metrics can be awaited at the same time.
+     */
+    private static final int QUEUE_CAPACITY = 16;
+
+    /**
+     * The number of nanoseconds per millisecond.
+     */
+    private static final long NANOS_PER_MILLISECOND = 1000000L;
+
+    /**
+     * The bottom sheet, whose latencies are measured.
+     */
+    private final BottomSheet bottomSheet;
+
+    /**
+     * The listener, which is notified about the latencies, which have been measured.
+     */
+    private final TouchLatencyListener listener;
+
+    /**
+     * The histogram, which is used to count the latencies of the current drag gesture.
+     */
+    private final LatencyHistogram histogram;
+
+    /**
+     * The handler, which is used to obtain the frame metrics of the window and to post the
+     * runnable, which records the time, when a frame has been drawn.
+     */
+    private final Handler handler;
+
+    /**
+     * A ring buffer, which contains the times of the touch events in milliseconds, which
+     * correspond to the drawn frames, whose metrics have not been received yet, or -1, if the
+     * bottom sheet has not been moved on a frame.
+     */
+    private final long[] queuedEventTimes;
+
+    /**
+     * A ring buffer, which contains the vsync times of the drawn frames in nanoseconds, whose
+     * metrics have not been received yet.
+     */
+    private final long[] queuedFrameTimes;
+
+    /**
+     * The runnable, which records the time, when a frame has been drawn, on devices, which do not
+     * provide frame metrics.
+     */
+    private final Runnable postDrawRunnable;
+
+    /**
+     * The index of the oldest frame within the ring buffers.
+     */
+    private int queueStart;
+
+    /**
+     * The number of frames, which are contained by the ring buffers.
+     */
+    private int queueSize;
+
+    /**
+     * The window, which is monitored, or null, if no window is monitored.
+     */
+    private Window window;
+
+    /**
+     * The listener, which is used to obtain the frame metrics of the window on devices with API
+     * level 24 or greater, or null, if the listener has not been created yet.
+     */
+    private Window.OnFrameMetricsAvailableListener frameMetricsListener;
+
+    /**
+     * The listener, which is notified, when the window is drawn on devices with API level 24 or
+     * greater, or null, if the listener has not been created yet.
+     */
+    private ViewTreeObserver.OnDrawListener drawListener;
+
+    /**
+     * True, if the runnable, which records the time, when a frame has been drawn, has been
+     * posted, false otherwise.
+     */
+    private boolean postDrawPending;
+
+    /**
+     * The time of the touch event in milliseconds, which corresponds to the frame, the bottom
+     * sheet has been moved on most recently, or -1, if that frame has already been drawn.
+     */
+    private long movedEventTime = -1;
+
+    /**
+     * The vsync time of the frame in nanoseconds, the bottom sheet has been moved on most
+     * recently.
+     */
+    private long movedFrameTime;
+
+    /**
+     * True, if a drag gesture is currently tracked, false otherwise.
+     */
+    private boolean tracking;
+
+    /**
+     * True, if the current drag gesture has been ended, but the metrics of some of its frames
+     * have not been received yet, false otherwise.
+     */
+    private boolean reportPending;
+
+    /**
+     * Returns, whether the frame metrics of the window are used to obtain the times, when frames
+     * have been committed, or not.
+     *
+     * @return True, if the frame metrics of the window are used, false, if the times, when frames
+     * have been drawn by the main thread, are used
+     */
+    private boolean usesFrameMetrics() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && window != null) {
+            View decorView = window.peekDecorView();
+            return decorView != null && decorView.isHardwareAccelerated();
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates and returns a listener, which allows to assign the frame metrics of the window to
+     * the frames, the bottom sheet has been moved on.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * Window.OnFrameMetricsAvailableListener}
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private Window.OnFrameMetricsAvailableListener createFrameMetricsListener() {
+        return new Window.OnFrameMetricsAvailableListener() {
+
+            @Override
+            public void onFrameMetricsAvailable(final Window window,
+                                                final FrameMetrics frameMetrics,
+                                                final int dropCountSinceLastInvocation) {
+                dequeue(dropCountSinceLastInvocation);
+
+                if (queueSize > 0) {
+                    long eventTime = queuedEventTimes[queueStart];
+                    long frameTime = queuedFrameTimes[queueStart];
+                    dequeue(1);
+
+                    if (eventTime != -1) {
+                        histogram.add(frameTime +
+                                frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION) -
+                                eventTime * NANOS_PER_MILLISECOND);
+                    }
+                }
+
+                if (reportPending && queueSize == 0) {
+                    report();
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a listener, which allows to enqueue the frames, which are drawn while a
+     * drag gesture is tracked, in order to assign the frame metrics of the window to them.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * ViewTreeObserver.OnDrawListener}
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private ViewTreeObserver.OnDrawListener createDrawListener() {
+        return new ViewTreeObserver.OnDrawListener() {
+
+            @Override
+            public void onDraw() {
+                if (tracking && usesFrameMetrics()) {
+                    enqueue(movedEventTime, movedFrameTime);
+                    movedEventTime = -1;
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a runnable, which allows to record the latency of the frame, which has
+     * been drawn most recently. The runnable is posted, when the bottom sheet has been moved, and
+     * therefore runs after the frame has been drawn.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}
+     */
+    private Runnable createPostDrawRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                postDrawPending = false;
+
+                if (movedEventTime != -1) {
+                    histogram.add(System.nanoTime() - movedEventTime * NANOS_PER_MILLISECOND);
+                    movedEventTime = -1;
+                }
+
+                if (reportPending) {
+                    report();
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Registers the listeners, which are used to obtain the frame metrics of the window.
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void registerFrameMetricsListener() {
+        if (frameMetricsListener == null) {
+            frameMetricsListener = createFrameMetricsListener();
+        }
+
+        if (drawListener == null) {
+            drawListener = createDrawListener();
+        }
+
+        window.addOnFrameMetricsAvailableListener(frameMetricsListener, handler);
+        window.getDecorView().getViewTreeObserver().addOnDrawListener(drawListener);
+    }
+
+    /**
+     * Unregisters the listeners, which are used to obtain the frame metrics of the window.
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void unregisterFrameMetricsListener() {
+        window.removeOnFrameMetricsAvailableListener(frameMetricsListener);
+        View decorView = window.peekDecorView();
+
+        if (decorView != null) {
+            ViewTreeObserver observer = decorView.getViewTreeObserver();
+
+            if (observer.isAlive()) {
+                observer.removeOnDrawListener(drawListener);
+            }
+        }
+    }
+
+    /**
+     * Adds a drawn frame to the ring buffers. If the ring buffers are full, the oldest frame is
+     * discarded.
+     *
+     * @param eventTime
+     *         The time of the touch event in milliseconds, which corresponds to the frame, as a
+     *         {@link Long} value or -1, if the bottom sheet has not been moved on the frame
+     * @param frameTime
+     *         The vsync time of the frame in nanoseconds as a {@link Long} value
+     */
+    private void enqueue(final long eventTime, final long frameTime) {
+        if (queueSize == QUEUE_CAPACITY) {
+            dequeue(1);
+        }
+
+        int index = (queueStart + queueSize) % QUEUE_CAPACITY;
+        queuedEventTimes[index] = eventTime;
+        queuedFrameTimes[index] = frameTime;
+        queueSize++;
+    }
+
+    /**
+     * Removes a specific number of the oldest frames from the ring buffers.
+     *
+     * @param count
+     *         The number of frames, which should be removed, as an {@link Integer} value
+     */
+    private void dequeue(final int count) {
+        int removed = Math.min(count, queueSize);
+        queueStart = (queueStart + removed) % QUEUE_CAPACITY;
+        queueSize -= removed;
+    }
+
+    /**
+     * Notifies the listener about the latencies, which have been measured during the current drag
+     * gesture, if any, and stops tracking the gesture.
+     */
+    private void report() {
+        tracking = false;
+        reportPending = false;
+        movedEventTime = -1;
+        dequeue(queueSize);
+
+        if (histogram.getCount() > 0) {
+            listener.onTouchLatency(bottomSheet, new LatencyHistogram(histogram));
+            histogram.clear();
+        }
+    }
+
+    /**
+     * Creates a new monitor, which measures the latencies between touch events and the frames,
+     * which show a bottom sheet at the corresponding position.
+     *
+     * @param bottomSheet
+     *         The bottom sheet, whose latencies should be measured, as an instance of the class
+     *         {@link BottomSheet}. The bottom sheet may not be null
+     * @param listener
+     *         The listener, which should be notified about the latencies, as an instance of the
+     *         type {@link TouchLatencyListener}. The listener may not be null
+     */
+    public TouchLatencyMonitor(@NonNull final BottomSheet bottomSheet,
+                               @NonNull final TouchLatencyListener listener) {
+        ensureNotNull(bottomSheet, "The bottom sheet may not be null");
+        ensureNotNull(listener, "The listener may not be null");
+        this.bottomSheet = bottomSheet;
+        this.listener = listener;
+        this.histogram = new LatencyHistogram();
+        this.handler = new Handler(Looper.getMainLooper());
+        this.queuedEventTimes = new long[QUEUE_CAPACITY];
+        this.queuedFrameTimes = new long[QUEUE_CAPACITY];
+        this.postDrawRunnable = createPostDrawRunnable();
+    }
+
+    /**
+     * Starts to monitor a specific window. If another window is already monitored, it is detached
+     * first. The window should be attached before its decor view is added to the window manager.
+     *
+     * @param window
+     *         The window, which should be monitored, as an instance of the class {@link Window}.
+     *         The window may not be null
+     */
+    public final void attach(@NonNull final Window window) {
+        ensureNotNull(window, "The window may not be null");
+
+        if (this.window != window) {
+            detach();
+            this.window = window;
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                registerFrameMetricsListener();
+            }
+        }
+    }
+
+    /**
+     * Stops to monitor the window, which is currently monitored, if any. The latencies of the
+     * current drag gesture are discarded.
+     */
+    public final void detach() {
+        tracking = false;
+        reportPending = false;
+        movedEventTime = -1;
+        dequeue(queueSize);
+        histogram.clear();
+
+        if (postDrawPending) {
+            postDrawPending = false;
+            handler.removeCallbacks(postDrawRunnable);
+        }
+
+        if (window != null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                unregisterFrameMetricsListener();
+            }
+
+            window = null;
+        }
+    }
+
+    /**
+     * The method, which must be invoked, when the bottom sheet has been moved on a frame while it
+     * is dragged.
+     *
+     * @param eventTime
+     *         The time of the earliest touch event in milliseconds, which has been coalesced into
+     *         the frame, as a {@link Long} value. The time must be based on {@link
+     *         android.os.SystemClock#uptimeMillis()}
+     * @param frameTimeNanos
+     *         The vsync time of the frame in nanoseconds as a {@link Long} value. The time must be
+     *         based on {@link System#nanoTime()}
+     */
+    public final void onFrameMoved(final long eventTime, final long frameTimeNanos) {
+        if (window != null) {
+            if (reportPending) {
+                report();
+            }
+
+            tracking = true;
+
+            if (movedEventTime == -1) {
+                movedEventTime = eventTime;
+            }
+
+            movedFrameTime = frameTimeNanos;
+
+            if (!usesFrameMetrics() && !postDrawPending) {
+                postDrawPending = true;
+                handler.post(postDrawRunnable);
+            }
+        }
+    }
+
+    /**
+     * The method, which must be invoked, when a drag gesture has been ended. The latencies of the
+     * gesture are reported, once the metrics of all of its frames have been received.
+     */
+    public final void onGestureEnded() {
+        if (tracking) {
+            if (queueSize == 0 && !postDrawPending) {
+                report();
+            } else {
+                tracking = false;
+                reportPending = true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A recorder, which captures the sections, which are traced by using the class {@link Tracing},
+ * in memory. The recorded sections can be exported in the Chrome trace event format, which can be
+ * opened by using <code>chrome://tracing</code> or similar tools. The recorder does not depend on
+ * any Android classes, which allows to use it in JVM tests.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class TraceRecorder {
+
+    /**
+     * A single event, which has been recorded.
+     */
+    private static final class Event {
+
+        /**
+         * True, if the event marks the beginning of a section, false, if it marks its end.
+         */
+        private final boolean begin;
+
+        /**
+         * The name of the section, the event corresponds to, or null, if the event marks the end
+         * of a section.
+         */
+        private final String name;
+
+        /**
+         * The time of the event in nanoseconds.
+         */
+        private final long timestamp;
+
+        /**
+         * The id of the thread, the event has been recorded on.
+         */
+        private final long threadId;
+
+        /**
+         * Creates a new event.
+         *
+         * @param begin
+         *         True, if the event marks the beginning of a section, false, if it marks its end
+         * @param name
+         *         The name of the section, the event corresponds to, as a {@link String} or null,
+         *         if the event marks the end of a section
+         * @param timestamp
+         *         The time of the event in nanoseconds as a {@link Long} value
+         * @param threadId
+         *         The id of the thread, the event has been recorded on, as a {@link Long} value
+         */
+        Event(final boolean begin, final String name, final long timestamp,
+              final long threadId) {
+            this.begin = begin;
+            this.name = name;
+            this.timestamp = timestamp;
+            this.threadId = threadId;
+        }
+
+    }
+
+    /**
+     * The id of the process, which is used when exporting events.
+     */
+    private static final int PROCESS_ID = 1;
+
+    /**
+     * A list, which contains the events, which have been recorded.
+     */
+    private final List<Event> events = new ArrayList<>();
+
+    /**
+     * A map, which contains the names of the threads, events have been recorded on, by their ids.
+     */
+    private final Map<Long, String> threadNames = new LinkedHashMap<>();
+
+    /**
+     * The time in nanoseconds, which is used as the origin of the timestamps of exported events.
+     */
+    private long origin;
+
+    /**
+     * Records an event on the current thread.
+     *
+     * @param begin
+     *         True, if the event marks the beginning of a section, false, if it marks its end
+     * @param name
+     *         The name of the section, the event corresponds to, as a {@link String} or null, if
+     *         the event marks the end of a section
+     */
+    private synchronized void record(final boolean begin, final String name) {
+        long timestamp = System.nanoTime();
+        Thread thread = Thread.currentThread();
+
+        if (events.isEmpty()) {
+            origin = timestamp;
+        }
+
+        if (!threadNames.containsKey(thread.getId())) {
+            threadNames.put(thread.getId(), thread.getName());
+        }
+
+        events.add(new Event(begin, name, timestamp, thread.getId()));
+    }
+
+    /**
+     * Writes a specific string as a JSON string literal to a writer.
+     *
+     * @param writer
+     *         The writer, the string should be written to, as an instance of the class {@link
+     *         Writer}
+     * @param string
+     *         The string, which should be written, as a {@link String}
+     * @throws IOException
+     *         The exception, which is thrown, if an error occurred while writing
+     */
+    private static void writeString(final Writer writer, final String string)
+            throws IOException {
+        writer.write('"');
+
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+
+        writer.write('"');
+    }
+
+    /**
+     * Writes a specific timestamp in microseconds, relative to the origin, to a writer.
+     *
+     * @param writer
+     *         The writer, the timestamp should be written to, as an instance of the class {@link
+     *         Writer}
+     * @param timestamp
+     *         The timestamp in nanoseconds as a {@link Long} value
+     * @throws IOException
+     *         The exception, which is thrown, if an error occurred while writing
+     */
+    private void writeTimestamp(final Writer writer, final long timestamp) throws IOException {
+        long nanos = timestamp - origin;
+        writer.write(Long.toString(nanos / 1000));
+        writer.write('.');
+        writer.write(String.format(Locale.US, "%03d", nanos % 1000));
+    }
+
+    /**
+     * Marks the beginning of a section on the current thread.
+     *
+     * @param name
+     *         The name of the section as a {@link String}. The name may not be null
+     */
+    public final void beginSection(final String name) {
+        ensureNotNull(name, "The name may not be null");
+        record(true, name);
+    }
+
+    /**
+     * Marks the end of the section, which has been begun most recently on the current thread.
+     */
+    public final void endSection() {
+        record(false, null);
+    }
+
+    /**
+     * Returns the number of events, which have been recorded. Each section consists of two events.
+     *
+     * @return The number of events, which have been recorded, as an {@link Integer} value
+     */
+    public final synchronized int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Removes all events, which have been recorded.
+     */
+    public final synchronized void clear() {
+        events.clear();
+        threadNames.clear();
+    }
+
+    /**
+     * Writes the events, which have been recorded, in the Chrome trace event format to a writer.
+     * Timestamps are specified in microseconds relative to the first recorded event.
+     *
+     * @param writer
+     *         The writer, the events should be written to, as an instance of the class {@link
+     *         Writer}. The writer may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if an error occurred while writing
+     */
+    public final synchronized void writeChromeTrace(final Writer writer) throws IOException {
+        ensureNotNull(writer, "The writer may not be null");
+        writer.write("{\"traceEvents\":[");
+        boolean first = true;
+
+        for (Map.Entry<Long, String> entry : threadNames.entrySet()) {
+            writer.write(first ? "\n" : ",\n");
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + PROCESS_ID +
+                    ",\"tid\":" + entry.getKey() + ",\"args\":{\"name\":");
+            writeString(writer, entry.getValue());
+            writer.write("}}");
+            first = false;
+        }
+
+        for (Event event : events) {
+            writer.write(first ? "\n" : ",\n");
+            writer.write("{");
+
+            if (event.begin) {
+                writer.write("\"name\":");
+                writeString(writer, event.name);
+                writer.write(",");
+            }
+
+            writer.write("\"ph\":\"" + (event.begin ? "B" : "E") + "\",\"ts\":");
+            writeTimestamp(writer, event.timestamp);
+            writer.write(",\"pid\":" + PROCESS_ID + ",\"tid\":" + event.threadId + "}");
+            first = false;
+        }
+
+        writer.write("\n],\"displayTimeUnit\":\"ns\"}\n");
+    }
+
+    /**
+     * Returns the events, which have been recorded, in the Chrome trace event format.
+     *
+     * @return The events, which have been recorded, as a {@link String} in the Chrome trace event
+     * format
+     */
+    public final String toChromeTrace() {
+        StringWriter writer = new StringWriter();
+
+        try {
+            writeChromeTrace(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write trace", e);
+        }
+
+        return writer.toString();
+    }
+
+}
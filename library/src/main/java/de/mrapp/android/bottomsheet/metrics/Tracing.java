@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Allows to mark sections of the library's code, which should be traced. Tracing is disabled by
+ * default. When enabled, sections are passed to the Android system trace on devices with API
+ * level 18 or greater, which allows to inspect them by using Systrace. Additionally, sections can
+ * be captured by a {@link TraceRecorder}.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public final class Tracing {
+
+    /**
+     * True, if tracing is enabled, false otherwise.
+     */
+    private static volatile boolean enabled;
+
+    /**
+     * The recorder, which captures the traced sections, or null, if no recorder is used.
+     */
+    private static volatile TraceRecorder recorder;
+
+    /**
+     * Creates a new class, which allows to mark sections of the library's code, which should be
+     * traced.
+     */
+    private Tracing() {
+
+    }
+
+    /**
+     * Returns, whether sections are passed to the Android system trace, or not.
+     *
+     * @return True, if sections are passed to the Android system trace, false otherwise
+     */
+    private static boolean usesSystemTrace() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    /**
+     * Marks the beginning of a section in the Android system trace.
+     *
+     * @param name
+     *         The name of the section as a {@link String}. The name may not be null
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void beginSystemTraceSection(@NonNull final String name) {
+        Trace.beginSection(name);
+    }
+
+    /**
+     * Marks the end of the section, which has been begun most recently, in the Android system
+     * trace.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void endSystemTraceSection() {
+        Trace.endSection();
+    }
+
+    /**
+     * Returns, whether tracing is enabled, or not.
+     *
+     * @return True, if tracing is enabled, false otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets, whether tracing should be enabled, or not. Sections, which have already been begun,
+     * must be ended before tracing is disabled.
+     *
+     * @param enabled
+     *         True, if tracing should be enabled, false otherwise
+     */
+    public static void setEnabled(final boolean enabled) {
+        Tracing.enabled = enabled;
+    }
+
+    /**
+     * Returns the recorder, which captures the traced sections.
+     *
+     * @return The recorder, which captures the traced sections, as an instance of the class {@link
+     * TraceRecorder} or null, if no recorder is used
+     */
+    @Nullable
+    public static TraceRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Sets the recorder, which should capture the traced sections. Sections are only captured, if
+     * tracing is enabled.
+     *
+     * @param recorder
+     *         The recorder, which should be set, as an instance of the class {@link TraceRecorder}
+     *         or null, if no recorder should be used
+     */
+    public static void setRecorder(@Nullable final TraceRecorder recorder) {
+        Tracing.recorder = recorder;
+    }
+
+    /**
+     * Marks the beginning of a section, if tracing is enabled. Each call of this method must be
+     * followed by a call of the method <code>endSection</code> on the same thread.
+     *
+     * @param name
+     *         The name of the section as a {@link String}. The name may not be null
+     */
+    public static void beginSection(@NonNull final String name) {
+        if (enabled) {
+            if (usesSystemTrace()) {
+                beginSystemTraceSection(name);
+            }
+
+            TraceRecorder currentRecorder = recorder;
+
+            if (currentRecorder != null) {
+                currentRecorder.beginSection(name);
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the section, which has been begun most recently on the current thread, if
+     * tracing is enabled.
+     */
+    public static void endSection() {
+        if (enabled) {
+            TraceRecorder currentRecorder = recorder;
+
+            if (currentRecorder != null) {
+                currentRecorder.endSection();
+            }
+
+            if (usesSystemTrace()) {
+                endSystemTraceSection();
+            }
+        }
+    }
+
+}
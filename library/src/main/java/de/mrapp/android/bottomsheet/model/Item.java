@@ -43,6 +43,11 @@ public class Item extends AbstractItem {
      */
     private Drawable icon;
 
+    /**
+     * The resource id of the item's icon or -1, if the icon has not been loaded from a resource.
+     */
+    private int iconId;
+
     /**
      * True, if the item is enabled, false otherwise.
      */
@@ -63,6 +68,7 @@ public class Item extends AbstractItem {
         ensureNotNull(title, "The title may not be null");
         ensureNotEmpty(title, "The title may not be empty");
         this.icon = null;
+        this.iconId = -1;
         this.enabled = true;
     }
 
@@ -99,7 +105,24 @@ public class Item extends AbstractItem {
      *         if no icon should be set
      */
     public final void setIcon(@Nullable final Drawable icon) {
+        setIcon(icon, -1);
+    }
+
+    /**
+     * Sets the item's icon, which has been loaded from a specific drawable resource. The resource
+     * id is retained in order to be able to restore the icon, e.g. when the item's state has been
+     * saved.
+     *
+     * @param icon
+     *         The icon, which should be set, as an instance of the class {@link Drawable}, or null,
+     *         if no icon should be set
+     * @param resourceId
+     *         The resource id of the icon as an {@link Integer} value or -1, if the icon has not
+     *         been loaded from a resource
+     */
+    public final void setIcon(@Nullable final Drawable icon, @DrawableRes final int resourceId) {
         this.icon = icon;
+        this.iconId = icon != null ? resourceId : -1;
     }
 
     /**
@@ -113,7 +136,17 @@ public class Item extends AbstractItem {
      *         resource id must correspond to a valid drawable resource
      */
     public final void setIcon(@NonNull final Context context, @DrawableRes final int resourceId) {
-        setIcon(ContextCompat.getDrawable(context, resourceId));
+        setIcon(ContextCompat.getDrawable(context, resourceId), resourceId);
+    }
+
+    /**
+     * Returns the resource id of the item's icon.
+     *
+     * @return The resource id of the item's icon as an {@link Integer} value or -1, if the item
+     * does not have an icon or if the icon has not been loaded from a resource
+     */
+    public final int getIconId() {
+        return iconId;
     }
 
     /**
@@ -161,7 +194,7 @@ public class Item extends AbstractItem {
     @Override
     public final Item clone() {
         Item clonedItem = new Item(getId(), getTitle());
-        clonedItem.setIcon(getIcon());
+        clonedItem.setIcon(getIcon(), getIconId());
         clonedItem.setEnabled(isEnabled());
         return clonedItem;
     }
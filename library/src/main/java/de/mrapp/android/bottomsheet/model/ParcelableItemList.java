@@ -0,0 +1,284 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.model;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.v4.content.ContextCompat;
+import android.text.TextUtils;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.mrapp.android.bottomsheet.util.DrawableCache;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A parcelable representation of the items of a bottom sheet, which allows to save and restore
+ * them in a compact manner. Titles are stored in a table, which is shared among items with equal
+ * titles, and the items' enabled flags are packed into bits. Icons are not stored as bitmaps, but
+ * as resource ids or, if they have not been loaded from a resource, as keys of the {@link
+ * DrawableCache}.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class ParcelableItemList implements Parcelable {
+
+    /**
+     * A creator, which allows to create instances of the class {@link ParcelableItemList} from
+     * parcels.
+     */
+    public static final Creator<ParcelableItemList> CREATOR = new Creator<ParcelableItemList>() {
+
+        @Override
+        public ParcelableItemList createFromParcel(final Parcel source) {
+            return new ParcelableItemList(source);
+        }
+
+        @Override
+        public ParcelableItemList[] newArray(final int size) {
+            return new ParcelableItemList[size];
+        }
+
+    };
+
+    /**
+     * The tag, which is used for logging.
+     */
+    private static final String TAG = ParcelableItemList.class.getSimpleName();
+
+    /**
+     * The key, which is used for items without a title.
+     */
+    private static final int NO_KEY = -1;
+
+    /**
+     * An array, which contains the ids of the items.
+     */
+    private final int[] ids;
+
+    /**
+     * An array, which contains the keys of the items' titles.
+     */
+    private final int[] titleKeys;
+
+    /**
+     * The table, which contains the titles of the items.
+     */
+    private final CharSequence[] titles;
+
+    /**
+     * An array, which contains the resource ids of the items' icons or -1, if an item's icon has
+     * not been loaded from a resource.
+     */
+    private final int[] iconIds;
+
+    /**
+     * An array, which contains the cache keys of the items' icons, which have not been loaded from
+     * a resource. Entries may be null.
+     */
+    private final String[] iconKeys;
+
+    /**
+     * An array, which contains the enabled flags of the items, packed into bits.
+     */
+    private final int[] enabledFlags;
+
+    /**
+     * Creates a new parcelable representation of the items of a bottom sheet from a parcel.
+     *
+     * @param source
+     *         The parcel, the items should be read from, as an instance of the class {@link
+     *         Parcel}. The parcel may not be null
+     */
+    private ParcelableItemList(@NonNull final Parcel source) {
+        this.ids = source.createIntArray();
+        this.titleKeys = source.createIntArray();
+        this.titles = new CharSequence[source.readInt()];
+
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = TextUtils.CHAR_SEQUENCE_CREATOR.createFromParcel(source);
+        }
+
+        this.iconIds = source.createIntArray();
+        this.iconKeys = source.createStringArray();
+        this.enabledFlags = source.createIntArray();
+    }
+
+    /**
+     * Creates a new parcelable representation of specific items of a bottom sheet.
+     *
+     * @param items
+     *         A list, which contains the items, as an instance of the type {@link List}. The list
+     *         may not be null
+     */
+    public ParcelableItemList(@NonNull final List<? extends AbstractItem> items) {
+        ensureNotNull(items, "The list may not be null");
+        int size = items.size();
+        this.ids = new int[size];
+        this.titleKeys = new int[size];
+        this.iconIds = new int[size];
+        this.iconKeys = new String[size];
+        this.enabledFlags = new int[(size + Integer.SIZE - 1) / Integer.SIZE];
+        List<CharSequence> titleTable = new ArrayList<>();
+        Map<CharSequence, Integer> titleKeyMap = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            AbstractItem item = items.get(i);
+            CharSequence title = item.getTitle();
+            ids[i] = item.getId();
+            iconIds[i] = -1;
+
+            if (title != null) {
+                Integer key = titleKeyMap.get(title);
+
+                if (key == null) {
+                    key = titleTable.size();
+                    titleTable.add(title);
+                    titleKeyMap.put(title, key);
+                }
+
+                titleKeys[i] = key;
+            } else {
+                titleKeys[i] = NO_KEY;
+            }
+
+            if (item instanceof Item) {
+                Item storedItem = (Item) item;
+                Drawable icon = storedItem.getIcon();
+
+                if (icon != null) {
+                    iconIds[i] = storedItem.getIconId();
+
+                    if (iconIds[i] == -1) {
+                        iconKeys[i] = DrawableCache.put(icon);
+                    }
+                }
+
+                if (storedItem.isEnabled()) {
+                    enabledFlags[i / Integer.SIZE] |= 1 << (i % Integer.SIZE);
+                }
+            }
+        }
+
+        this.titles = titleTable.toArray(new CharSequence[titleTable.size()]);
+    }
+
+    /**
+     * Returns the number of items, which are contained by the list.
+     *
+     * @return The number of items, which are contained by the list, as an {@link Integer} value
+     */
+    public final int size() {
+        return ids.length;
+    }
+
+    /**
+     * Creates and returns the items, which are contained by the list. Icons, which have been
+     * loaded from a resource, are loaded again, other icons are obtained from the {@link
+     * DrawableCache}. Icons, which are not contained by the cache anymore, are omitted and a
+     * warning is logged. Such icons can be identified by using the method {@link
+     * #isIconMissing(List, int)} in order to replace them.
+     *
+     * @param context
+     *         The context, which should be used to load the items' icons, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @return A list, which contains the items, which have been created, as an instance of the
+     * type {@link List}. The list may be empty, but not null
+     */
+    @NonNull
+    public final List<AbstractItem> createItems(@NonNull final Context context) {
+        ensureNotNull(context, "The context may not be null");
+        List<AbstractItem> items = new ArrayList<>(ids.length);
+
+        for (int i = 0; i < ids.length; i++) {
+            CharSequence title = titleKeys[i] != NO_KEY ? titles[titleKeys[i]] : null;
+
+            if (ids[i] == Divider.DIVIDER_ID) {
+                Divider divider = new Divider();
+                divider.setTitle(title);
+                items.add(divider);
+            } else {
+                Item item = new Item(ids[i], title);
+
+                if (iconIds[i] != -1) {
+                    item.setIcon(ContextCompat.getDrawable(context, iconIds[i]), iconIds[i]);
+                } else if (iconKeys[i] != null) {
+                    Drawable icon = DrawableCache.get(iconKeys[i], context.getResources());
+
+                    if (icon == null) {
+                        Log.w(TAG, "The icon of the item at index " + i +
+                                " is not contained by the cache anymore");
+                    }
+
+                    item.setIcon(icon);
+                }
+
+                item.setEnabled((enabledFlags[i / Integer.SIZE] & (1 << (i % Integer.SIZE))) != 0);
+                items.add(item);
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Returns, whether the icon of the item at a specific index has been lost, because it was not
+     * contained by the {@link DrawableCache} anymore, when the items have been created.
+     *
+     * @param items
+     *         A list, which contains the items, which have been created by using the method {@link
+     *         #createItems(Context)}, as an instance of the type {@link List}. The list may not be
+     *         null
+     * @param index
+     *         The index of the item, which should be checked, as an {@link Integer} value
+     * @return True, if the icon of the item at the given index has been lost, false otherwise
+     */
+    public final boolean isIconMissing(@NonNull final List<AbstractItem> items,
+                                       final int index) {
+        ensureNotNull(items, "The list may not be null");
+        AbstractItem item = items.get(index);
+        return iconKeys[index] != null && item instanceof Item &&
+                ((Item) item).getIcon() == null;
+    }
+
+    @Override
+    public final int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public final void writeToParcel(final Parcel dest, final int flags) {
+        dest.writeIntArray(ids);
+        dest.writeIntArray(titleKeys);
+        dest.writeInt(titles.length);
+
+        for (CharSequence title : titles) {
+            TextUtils.writeToParcel(title, dest, flags);
+        }
+
+        dest.writeIntArray(iconIds);
+        dest.writeStringArray(iconKeys);
+        dest.writeIntArray(enabledFlags);
+    }
+
+}
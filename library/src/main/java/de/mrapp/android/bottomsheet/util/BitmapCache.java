@@ -0,0 +1,505 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A cache, which allows to reference bitmaps by string keys instead of storing them within
+ * bundles. Bitmaps are kept in a process-wide memory cache and are additionally written to the
+ * app's cache directory in the background, which allows to restore them after the process has
+ * been killed. Bitmaps, which are not contained by the memory cache, are decoded in the
+ * background as well.
+ *
+ * Keys are reference counted by the saved instance states, which refer to them. When a key is not
+ * referred to anymore, the corresponding file is deleted. When the cache is used for the first
+ * time within a process, files, which are not referred to by the current process and have not
+ * been modified for a while, are deleted as well, as they have been left behind by a process,
+ * which has been killed.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public final class BitmapCache {
+
+    /**
+     * Defines the interface, a class, which should be notified, when a bitmap has been loaded,
+     * must implement.
+     */
+    public interface Callback {
+
+        /**
+         * The method, which is invoked, when a bitmap has been loaded. The method is invoked on
+         * the UI thread.
+         *
+         * @param key
+         *         The key of the bitmap as a {@link String}. The key may not be null
+         * @param bitmap
+         *         The bitmap, which has been loaded, as an instance of the class {@link Bitmap} or
+         *         null, if the bitmap is not available anymore
+         */
+        void onLoaded(@NonNull String key, @Nullable Bitmap bitmap);
+
+    }
+
+    /**
+     * The tag, which is used for logging.
+     */
+    private static final String TAG = BitmapCache.class.getSimpleName();
+
+    /**
+     * The name of the directory, the bitmaps are written to.
+     */
+    private static final String DIRECTORY_NAME = "bottom_sheet_bitmaps";
+
+    /**
+     * The suffix of the files, the bitmaps are written to.
+     */
+    private static final String FILE_SUFFIX = ".png";
+
+    /**
+     * The suffix of the temporary files, the bitmaps are written to, before they are renamed.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * The time in milliseconds, which must have passed since a file has been modified, before it
+     * is deleted by the sweep, if it is not referred to by the current process. This allows
+     * saved instance states, which have been saved by a previous process, to be restored.
+     */
+    private static final long SWEEP_AGE = 24 * 60 * 60 * 1000L;
+
+    /**
+     * The memory cache, which maps keys to bitmaps. Its size is measured in bytes.
+     */
+    private static final LruCache<String, Bitmap> CACHE =
+            new LruCache<String, Bitmap>((int) (Runtime.getRuntime().maxMemory() / 16)) {
+
+                @Override
+                protected int sizeOf(final String key, final Bitmap value) {
+                    return value.getRowBytes() * value.getHeight();
+                }
+
+            };
+
+    /**
+     * A map, which maps bitmaps to the keys, they have been cached with. Bitmaps are referenced
+     * weakly in order to not prevent them from being garbage collected.
+     */
+    private static final Map<Bitmap, String> KEYS = new WeakHashMap<>();
+
+    /**
+     * A map, which maps keys to the number of saved instance states, which refer to them.
+     */
+    private static final Map<String, Integer> REFERENCE_COUNTS = new HashMap<>();
+
+    /**
+     * The executor, which is used to write, read and delete the files within the cache
+     * directory.
+     */
+    private static ExecutorService executor;
+
+    /**
+     * The handler, which is used to notify callbacks on the UI thread.
+     */
+    private static Handler handler;
+
+    /**
+     * True, if the sweep, which deletes the files, which are not referred to anymore, has already
+     * been started within the current process, false otherwise.
+     */
+    private static boolean swept;
+
+    /**
+     * Creates a new cache, which allows to reference bitmaps by string keys.
+     */
+    private BitmapCache() {
+
+    }
+
+    /**
+     * Returns the directory, the bitmaps are written to.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @return The directory, the bitmaps are written to, as an instance of the class {@link File}
+     */
+    private static File getDirectory(@NonNull final Context context) {
+        return new File(context.getCacheDir(), DIRECTORY_NAME);
+    }
+
+    /**
+     * Returns the file, a specific bitmap is written to.
+     *
+     * @param directory
+     *         The directory, the bitmap is written to, as an instance of the class {@link File}.
+     *         The directory may not be null
+     * @param key
+     *         The key of the bitmap as a {@link String}. The key may not be null
+     * @return The file, the bitmap is written to, as an instance of the class {@link File}
+     */
+    private static File getFile(@NonNull final File directory, @NonNull final String key) {
+        return new File(directory, key + FILE_SUFFIX);
+    }
+
+    /**
+     * Returns the executor, which is used to write, read and delete the files within the cache
+     * directory. As the executor uses a single thread, all operations are performed in the order,
+     * they have been submitted.
+     *
+     * @return The executor as an instance of the type {@link ExecutorService}
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor();
+        }
+
+        return executor;
+    }
+
+    /**
+     * Returns the handler, which is used to notify callbacks on the UI thread.
+     *
+     * @return The handler as an instance of the class {@link Handler}
+     */
+    private static synchronized Handler getHandler() {
+        if (handler == null) {
+            handler = new Handler(Looper.getMainLooper());
+        }
+
+        return handler;
+    }
+
+    /**
+     * Writes a specific bitmap to the cache directory in the background.
+     *
+     * @param directory
+     *         The directory, the bitmap should be written to, as an instance of the class {@link
+     *         File}. The directory may not be null
+     * @param key
+     *         The key of the bitmap as a {@link String}. The key may not be null
+     * @param bitmap
+     *         The bitmap, which should be written, as an instance of the class {@link Bitmap}. The
+     *         bitmap may not be null
+     */
+    private static void write(@NonNull final File directory, @NonNull final String key,
+                              @NonNull final Bitmap bitmap) {
+        getExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                File file = getFile(directory, key);
+                File tempFile = new File(directory, key + TEMP_FILE_SUFFIX);
+                OutputStream outputStream = null;
+
+                try {
+                    if (!directory.isDirectory() && !directory.mkdirs()) {
+                        throw new IOException("Failed to create directory " + directory);
+                    }
+
+                    outputStream = new FileOutputStream(tempFile);
+                    bitmap.compress(Bitmap.CompressFormat.PNG, 100, outputStream);
+                    outputStream.close();
+                    outputStream = null;
+
+                    if (!tempFile.renameTo(file)) {
+                        throw new IOException("Failed to rename file " + tempFile);
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to write bitmap to cache", e);
+                    tempFile.delete();
+                } finally {
+                    if (outputStream != null) {
+                        try {
+                            outputStream.close();
+                        } catch (IOException e) {
+                            // No need to handle
+                        }
+                    }
+                }
+            }
+
+        });
+    }
+
+    /**
+     * Deletes the file of a specific bitmap from the cache directory in the background.
+     *
+     * @param directory
+     *         The directory, the bitmap has been written to, as an instance of the class {@link
+     *         File}. The directory may not be null
+     * @param key
+     *         The key of the bitmap as a {@link String}. The key may not be null
+     */
+    private static void delete(@NonNull final File directory, @NonNull final String key) {
+        getExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                File file = getFile(directory, key);
+
+                if (file.isFile() && !file.delete()) {
+                    Log.w(TAG, "Failed to delete file " + file);
+                }
+            }
+
+        });
+    }
+
+    /**
+     * Deletes the files within the cache directory, which are not referred to by the current
+     * process and have not been modified for a while, in the background. The sweep is only
+     * started once per process, when the cache is used for the first time.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     */
+    private static synchronized void sweep(@NonNull final Context context) {
+        if (!swept) {
+            swept = true;
+            final File directory = getDirectory(context);
+            getExecutor().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    File[] files = directory.listFiles();
+
+                    if (files != null) {
+                        long maxLastModified = System.currentTimeMillis() - SWEEP_AGE;
+
+                        for (File file : files) {
+                            if (file.lastModified() < maxLastModified && !isReferenced(file) &&
+                                    !file.delete()) {
+                                Log.w(TAG, "Failed to delete file " + file);
+                            }
+                        }
+                    }
+                }
+
+            });
+        }
+    }
+
+    /**
+     * Returns, whether a specific file within the cache directory is referred to by the current
+     * process, or not.
+     *
+     * @param file
+     *         The file as an instance of the class {@link File}. The file may not be null
+     * @return True, if the file is referred to by the current process, false otherwise
+     */
+    private static synchronized boolean isReferenced(@NonNull final File file) {
+        String name = file.getName();
+
+        if (name.endsWith(FILE_SUFFIX)) {
+            String key = name.substring(0, name.length() - FILE_SUFFIX.length());
+            return REFERENCE_COUNTS.containsKey(key) || KEYS.containsValue(key);
+        }
+
+        return !name.endsWith(TEMP_FILE_SUFFIX);
+    }
+
+    /**
+     * Adds a specific bitmap to the cache. If the bitmap has already been added, the existing key
+     * is reused. Otherwise, the bitmap is written to the cache directory in the background. The
+     * key must be retained by using the method <code>retain</code>, when it is stored within a
+     * saved instance state.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param bitmap
+     *         The bitmap, which should be added, as an instance of the class {@link Bitmap}. The
+     *         bitmap may not be null
+     * @return The key, the bitmap has been cached with, as a {@link String}. The key may not be
+     * null
+     */
+    @NonNull
+    public static synchronized String put(@NonNull final Context context,
+                                          @NonNull final Bitmap bitmap) {
+        ensureNotNull(context, "The context may not be null");
+        ensureNotNull(bitmap, "The bitmap may not be null");
+        sweep(context);
+        String key = KEYS.get(bitmap);
+
+        if (key == null) {
+            key = UUID.randomUUID().toString();
+            KEYS.put(bitmap, key);
+            write(getDirectory(context), key, bitmap);
+        }
+
+        CACHE.put(key, bitmap);
+        return key;
+    }
+
+    /**
+     * Increments the number of saved instance states, which refer to a specific key.
+     *
+     * @param key
+     *         The key as a {@link String}. The key may not be null
+     */
+    public static synchronized void retain(@NonNull final String key) {
+        ensureNotNull(key, "The key may not be null");
+        Integer referenceCount = REFERENCE_COUNTS.get(key);
+        REFERENCE_COUNTS.put(key, referenceCount != null ? referenceCount + 1 : 1);
+    }
+
+    /**
+     * Takes over the reference of a saved instance state, which refers to a specific key and has
+     * been restored. If the key is not known to the current process, e.g. because the process has
+     * been killed after the state has been saved, the key is retained. Otherwise, the reference of
+     * the saved instance state is taken over as it is.
+     *
+     * @param key
+     *         The key as a {@link String}. The key may not be null
+     */
+    public static synchronized void restore(@NonNull final String key) {
+        ensureNotNull(key, "The key may not be null");
+
+        if (!REFERENCE_COUNTS.containsKey(key)) {
+            REFERENCE_COUNTS.put(key, 1);
+        }
+    }
+
+    /**
+     * Decrements the number of saved instance states, which refer to a specific key. If no saved
+     * instance state refers to the key anymore, the bitmap is removed from the cache and its file
+     * is deleted in the background.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param key
+     *         The key as a {@link String}. The key may not be null
+     */
+    public static synchronized void release(@NonNull final Context context,
+                                            @NonNull final String key) {
+        ensureNotNull(context, "The context may not be null");
+        ensureNotNull(key, "The key may not be null");
+        Integer referenceCount = REFERENCE_COUNTS.get(key);
+
+        if (referenceCount != null && referenceCount > 1) {
+            REFERENCE_COUNTS.put(key, referenceCount - 1);
+        } else {
+            REFERENCE_COUNTS.remove(key);
+            CACHE.remove(key);
+            Iterator<String> iterator = KEYS.values().iterator();
+
+            while (iterator.hasNext()) {
+                if (key.equals(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+
+            delete(getDirectory(context), key);
+        }
+    }
+
+    /**
+     * Returns the bitmap, which corresponds to a specific key, if it is contained by the memory
+     * cache. The cache directory is not accessed.
+     *
+     * @param key
+     *         The key of the bitmap as a {@link String}. The key may not be null
+     * @return The bitmap, which corresponds to the given key, as an instance of the class {@link
+     * Bitmap} or null, if the bitmap is not contained by the memory cache
+     */
+    @Nullable
+    public static synchronized Bitmap peek(@NonNull final String key) {
+        ensureNotNull(key, "The key may not be null");
+        return CACHE.get(key);
+    }
+
+    /**
+     * Loads the bitmap, which corresponds to a specific key. If the bitmap is contained by the
+     * memory cache, the callback is notified immediately. Otherwise, the bitmap is decoded from
+     * the cache directory in the background and the callback is notified on the UI thread
+     * afterwards.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param key
+     *         The key of the bitmap as a {@link String}. The key may not be null
+     * @param callback
+     *         The callback, which should be notified, when the bitmap has been loaded, as an
+     *         instance of the type {@link Callback}. The callback may not be null
+     */
+    public static void load(@NonNull final Context context, @NonNull final String key,
+                            @NonNull final Callback callback) {
+        ensureNotNull(context, "The context may not be null");
+        ensureNotNull(key, "The key may not be null");
+        ensureNotNull(callback, "The callback may not be null");
+        sweep(context);
+        Bitmap cachedBitmap = peek(key);
+
+        if (cachedBitmap != null) {
+            callback.onLoaded(key, cachedBitmap);
+        } else {
+            final File file = getFile(getDirectory(context), key);
+            getExecutor().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    final Bitmap bitmap =
+                            file.isFile() ? BitmapFactory.decodeFile(file.getPath()) : null;
+
+                    if (bitmap != null) {
+                        synchronized (BitmapCache.class) {
+                            if (REFERENCE_COUNTS.containsKey(key)) {
+                                KEYS.put(bitmap, key);
+                                CACHE.put(key, bitmap);
+                            }
+                        }
+                    }
+
+                    getHandler().post(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            callback.onLoaded(key, bitmap);
+                        }
+
+                    });
+                }
+
+            });
+        }
+    }
+
+}
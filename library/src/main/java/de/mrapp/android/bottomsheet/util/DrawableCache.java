@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.util;
+
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Drawable.ConstantState;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A process-wide cache, which allows to reference drawables, which have not been loaded from a
+ * resource, e.g. the icons of apps, by string keys. Instead of the drawables themselves, their
+ * constant states are cached, which allows to create new drawables from them without retaining the
+ * views or contexts, the original drawables have been used by. The cache does not survive the
+ * death of the process, i.e. drawables, which have been evicted or lost, must be obtained by other
+ * means.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public final class DrawableCache {
+
+    /**
+     * The maximum number of constant states, which are retained by the cache.
+     */
+    private static final int MAX_SIZE = 128;
+
+    /**
+     * The cache, which maps keys to the constant states of drawables.
+     */
+    private static final LruCache<String, ConstantState> CACHE = new LruCache<>(MAX_SIZE);
+
+    /**
+     * A map, which maps drawables to the keys, they have been cached with. Drawables are
+     * referenced weakly in order to not prevent them from being garbage collected.
+     */
+    private static final Map<Drawable, String> KEYS = new WeakHashMap<>();
+
+    /**
+     * Creates a new cache, which allows to reference drawables by string keys.
+     */
+    private DrawableCache() {
+
+    }
+
+    /**
+     * Adds a specific drawable to the cache. If the drawable has already been added, the existing
+     * key is reused.
+     *
+     * @param drawable
+     *         The drawable, which should be added, as an instance of the class {@link Drawable}.
+     *         The drawable may not be null
+     * @return The key, the drawable has been cached with, as a {@link String} or null, if the
+     * drawable does not provide a constant state and therefore cannot be cached
+     */
+    @Nullable
+    public static synchronized String put(@NonNull final Drawable drawable) {
+        ensureNotNull(drawable, "The drawable may not be null");
+        ConstantState constantState = drawable.getConstantState();
+
+        if (constantState == null) {
+            return null;
+        }
+
+        String key = KEYS.get(drawable);
+
+        if (key == null) {
+            key = UUID.randomUUID().toString();
+            KEYS.put(drawable, key);
+        }
+
+        CACHE.put(key, constantState);
+        return key;
+    }
+
+    /**
+     * Creates a new drawable from the cache entry, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key of the drawable as a {@link String}. The key may not be null
+     * @param resources
+     *         The resources, which should be used to create the drawable, as an instance of the
+     *         class {@link Resources}. The resources may not be null
+     * @return The drawable, which has been created, as an instance of the class {@link Drawable}
+     * or null, if the cache does not contain an entry, which corresponds to the given key
+     */
+    @Nullable
+    public static synchronized Drawable get(@NonNull final String key,
+                                            @NonNull final Resources resources) {
+        ensureNotNull(key, "The key may not be null");
+        ensureNotNull(resources, "The resources may not be null");
+        ConstantState constantState = CACHE.get(key);
+        return constantState != null ? constantState.newDrawable(resources) : null;
+    }
+
+}
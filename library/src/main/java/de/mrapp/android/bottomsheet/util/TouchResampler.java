@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.util;
+
+import android.support.annotation.NonNull;
+import android.view.MotionEvent;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * A resampler, which keeps track of the vertical positions of a touch gesture, including the
+ * historical samples, which are batched into a single {@link MotionEvent}, together with their
+ * timestamps. This allows to interpolate, or extrapolate, the position of the gesture at the time
+ * of an upcoming frame. Positions are tracked by using screen coordinates. Once created, the
+ * resampler does not allocate any objects. The velocity of gestures is not estimated by the
+ * resampler, as the platform's {@link android.view.VelocityTracker} provides a strategy, which is
+ * tuned for the device.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class TouchResampler {
+
+    /**
+     * The maximum number of samples, which are retained.
+     */
+    private static final int CAPACITY = 32;
+
+    /**
+     * The minimum time in nanoseconds between two samples, which is required to extrapolate the
+     * position of the gesture.
+     */
+    private static final long MIN_EXTRAPOLATION_INTERVAL = 2000000L;
+
+    /**
+     * The maximum time in nanoseconds, the position of the gesture is extrapolated by.
+     */
+    private static final long MAX_EXTRAPOLATION_TIME = 8000000L;
+
+    /**
+     * The number of nanoseconds per millisecond.
+     */
+    private static final long NANOS_PER_MILLISECOND = 1000000L;
+
+    /**
+     * An array, which contains the timestamps of the samples in nanoseconds.
+     */
+    private final long[] times = new long[CAPACITY];
+
+    /**
+     * An array, which contains the vertical positions of the samples in pixels.
+     */
+    private final float[] positions = new float[CAPACITY];
+
+    /**
+     * The index of the latest sample.
+     */
+    private int latest;
+
+    /**
+     * The number of samples, which are currently retained.
+     */
+    private int count;
+
+    /**
+     * Returns the index of the sample, which precedes the sample at a specific index.
+     *
+     * @param index
+     *         The index of the sample as an {@link Integer} value
+     * @return The index of the preceding sample as an {@link Integer} value
+     */
+    private int previous(final int index) {
+        return (index + CAPACITY - 1) % CAPACITY;
+    }
+
+    /**
+     * Adds a specific sample. Samples, which are older than the latest one, are ignored. A sample,
+     * which has the same timestamp as the latest one, replaces it.
+     *
+     * @param time
+     *         The timestamp of the sample in nanoseconds as a {@link Long} value
+     * @param position
+     *         The vertical position of the sample in pixels as a {@link Float} value
+     */
+    private void addSample(final long time, final float position) {
+        if (count > 0 && time <= times[latest]) {
+            if (time == times[latest]) {
+                positions[latest] = position;
+            }
+
+            return;
+        }
+
+        latest = (latest + 1) % CAPACITY;
+        times[latest] = time;
+        positions[latest] = position;
+        count = Math.min(count + 1, CAPACITY);
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public final void clear() {
+        count = 0;
+    }
+
+    /**
+     * Returns, whether the resampler does not contain any samples, or not.
+     *
+     * @return True, if the resampler does not contain any samples, false otherwise
+     */
+    public final boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Adds the samples, which are contained by a specific touch event, including its historical
+     * samples.
+     *
+     * @param event
+     *         The touch event, whose samples should be added, as an instance of the class {@link
+     *         MotionEvent}. The touch event may not be null
+     */
+    public final void addMovement(@NonNull final MotionEvent event) {
+        ensureNotNull(event, "The touch event may not be null");
+        float offset = event.getRawY() - event.getY();
+
+        for (int i = 0; i < event.getHistorySize(); i++) {
+            addSample(event.getHistoricalEventTime(i) * NANOS_PER_MILLISECOND,
+                    event.getHistoricalY(i) + offset);
+        }
+
+        addSample(event.getEventTime() * NANOS_PER_MILLISECOND, event.getRawY());
+    }
+
+    /**
+     * Returns the vertical position of the latest sample.
+     *
+     * @return The vertical position of the latest sample in pixels as a {@link Float} value or 0,
+     * if the resampler does not contain any samples
+     */
+    public final float getLatestPosition() {
+        return count > 0 ? positions[latest] : 0;
+    }
+
+    /**
+     * Returns the vertical position of the gesture at the time of a specific frame. The position
+     * is interpolated between the two samples, which surround the time of the frame. If the frame
+     * is drawn after the latest sample, which is usually the case, the position is extrapolated
+     * by a limited amount of time. The position is never resampled before the time of the frame,
+     * as this would add latency on top of the resampling, which is performed by the platform.
+     *
+     * @param frameTimeNanos
+     *         The time of the frame in nanoseconds as a {@link Long} value. The time must be based
+     *         on the same time base as the timestamps of touch events
+     * @return The vertical position of the gesture at the time of the given frame in pixels as a
+     * {@link Float} value or 0, if the resampler does not contain any samples
+     */
+    public final float resample(final long frameTimeNanos) {
+        if (count < 2) {
+            return getLatestPosition();
+        }
+
+        int newer = latest;
+        int older = previous(newer);
+
+        if (frameTimeNanos >= times[newer]) {
+            long interval = times[newer] - times[older];
+
+            if (interval < MIN_EXTRAPOLATION_INTERVAL) {
+                return positions[newer];
+            }
+
+            long extrapolationTime = Math.min(frameTimeNanos - times[newer],
+                    Math.min(interval / 2, MAX_EXTRAPOLATION_TIME));
+            return positions[newer] +
+                    (positions[newer] - positions[older]) * extrapolationTime / interval;
+        }
+
+        for (int i = 1; i < count; i++) {
+            if (times[older] <= frameTimeNanos) {
+                float alpha =
+                        (float) (frameTimeNanos - times[older]) / (times[newer] - times[older]);
+                return positions[older] + (positions[newer] - positions[older]) * alpha;
+            }
+
+            newer = older;
+            older = previous(older);
+        }
+
+        return positions[newer];
+    }
+
+}
\ No newline at end of file
@@ -19,16 +19,13 @@ import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StyleRes;
-import android.text.TextUtils;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.view.ViewGroup;
 import android.widget.GridView;
 
 import de.mrapp.android.bottomsheet.BottomSheet;
-import de.mrapp.android.bottomsheet.R;
 import de.mrapp.android.bottomsheet.adapter.DividableGridAdapter;
-import de.mrapp.android.bottomsheet.model.AbstractItem;
-import de.mrapp.android.bottomsheet.model.Divider;
 
 /**
  * A grid view, which allows to display the items of a {@link BottomSheet}. Its height can be
@@ -39,6 +36,34 @@ import de.mrapp.android.bottomsheet.model.Divider;
  */
 public class DividableGridView extends GridView {
 
+    /**
+     * The runnable, which adapts the height of the grid view on the next frame.
+     */
+    private Runnable adaptHeightRunnable;
+
+    /**
+     * True, if adapting the height of the grid view has been scheduled for the next frame, false
+     * otherwise.
+     */
+    private boolean heightAdaptationPending;
+
+    /**
+     * Creates and returns a runnable, which adapts the height of the grid view.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}
+     */
+    private Runnable createAdaptHeightRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                heightAdaptationPending = false;
+                adaptHeightToChildren();
+            }
+
+        };
+    }
+
     /**
      * Creates a new grid view, which allows to display the items of a {@link BottomSheet}.
      *
@@ -116,32 +141,50 @@ public class DividableGridView extends GridView {
      * Adapts the height of the grid view to the height of its children.
      */
     public void adaptHeightToChildren() {
+        if (heightAdaptationPending) {
+            heightAdaptationPending = false;
+            removeCallbacks(adaptHeightRunnable);
+        }
+
         DividableGridAdapter adapter = (DividableGridAdapter) getAdapter();
 
         if (adapter != null) {
-            int height = getPaddingTop() + getPaddingBottom();
-
-            for (int i = 0; i < adapter.getCount(); i += adapter.getColumnCount()) {
-                AbstractItem item = adapter.getItem(i);
-
-                if (item instanceof Divider) {
-                    height += getResources().getDimensionPixelSize(
-                            TextUtils.isEmpty(item.getTitle()) ?
-                                    R.dimen.bottom_sheet_divider_height :
-                                    R.dimen.bottom_sheet_divider_title_height);
-                } else {
-                    height += getResources().getDimensionPixelSize(
-                            adapter.getStyle() == BottomSheet.Style.GRID ?
-                                    R.dimen.bottom_sheet_grid_item_size :
-                                    R.dimen.bottom_sheet_list_item_height);
-                }
+            int height = getPaddingTop() + getPaddingBottom() + adapter.getHeight();
+            ViewGroup.LayoutParams params = getLayoutParams();
+
+            if (params.height != height) {
+                params.height = height;
+                setLayoutParams(params);
+                requestLayout();
             }
+        }
+    }
 
-            ViewGroup.LayoutParams params = getLayoutParams();
-            params.height = height;
-            setLayoutParams(params);
-            requestLayout();
+    /**
+     * Adapts the height of the grid view to the height of its children on the next frame, before
+     * the grid view is laid out. Multiple calls of this method before the next frame result in
+     * the height being adapted only once, which prevents the layout of the adapter's items from
+     * being computed each time an item is added.
+     */
+    public void adaptHeightToChildrenOnNextFrame() {
+        if (!heightAdaptationPending) {
+            if (adaptHeightRunnable == null) {
+                adaptHeightRunnable = createAdaptHeightRunnable();
+            }
+
+            heightAdaptationPending = true;
+            ViewCompat.postOnAnimation(this, adaptHeightRunnable);
         }
     }
 
-}
\ No newline at end of file
+    @Override
+    protected void onDetachedFromWindow() {
+        if (heightAdaptationPending) {
+            heightAdaptationPending = false;
+            removeCallbacks(adaptHeightRunnable);
+        }
+
+        super.onDetachedFromWindow();
+    }
+
+}
@@ -20,10 +20,16 @@ import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StyleRes;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
 import android.support.v4.view.ViewCompat;
+import android.support.v4.view.ViewPropertyAnimatorListenerAdapter;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
 import android.view.animation.AccelerateDecelerateInterpolator;
@@ -34,9 +40,15 @@ import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
 
+import java.util.ArrayList;
+
 import de.mrapp.android.bottomsheet.BottomSheet;
 import de.mrapp.android.bottomsheet.R;
 import de.mrapp.android.bottomsheet.animation.DraggableViewAnimation;
+import de.mrapp.android.bottomsheet.animation.SpringAnimator;
+import de.mrapp.android.bottomsheet.metrics.TouchLatencyMonitor;
+import de.mrapp.android.bottomsheet.metrics.Tracing;
+import de.mrapp.android.bottomsheet.util.TouchResampler;
 import de.mrapp.android.util.DisplayUtil.DeviceType;
 import de.mrapp.android.util.gesture.DragHelper;
 
@@ -48,7 +60,8 @@ import static de.mrapp.android.util.DisplayUtil.getDeviceType;
  * @author Michael Rapp
  * @since 1.0.0
  */
-public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGlobalLayoutListener {
+public class DraggableView extends LinearLayout
+        implements ViewTreeObserver.OnGlobalLayoutListener, NestedScrollingParent {
 
     /**
      * Defines the interface, a class, which should be notified about the view's state, must
@@ -71,12 +84,71 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
 
     }
 
+    /**
+     * Contains all possible motions of the view.
+     */
+    public enum Motion {
+
+        /**
+         * When the view is dragged by the user, including the movement, which settles the view
+         * once the drag gesture has been ended.
+         */
+        DRAG,
+
+        /**
+         * When the view is maximized in an animated manner.
+         */
+        MAXIMIZE,
+
+        /**
+         * When the view is hidden in an animated manner.
+         */
+        HIDE
+
+    }
+
+    /**
+     * Defines the interface, a class, which should be notified, when the view starts or stops
+     * moving, must implement.
+     */
+    public interface MotionListener {
+
+        /**
+         * The method, which is invoked, when the view has started to move.
+         *
+         * @param motion
+         *         The motion, which has been started, as a value of the enum {@link Motion}
+         */
+        void onMotionStarted(@NonNull Motion motion);
+
+        /**
+         * The method, which is invoked, when the view has stopped moving.
+         *
+         * @param motion
+         *         The motion, which has been ended, as a value of the enum {@link Motion}
+         */
+        void onMotionEnded(@NonNull Motion motion);
+
+    }
+
     /**
      * The ratio between the view's height and the display's height, which is used to calculate the
      * initial height.
      */
     private static final float INITIAL_HEIGHT_RATIO = 9f / 16f;
 
+    /**
+     * The stiffness of the spring, which is used to settle the view, when a drag gesture has been
+     * ended.
+     */
+    private static final float SETTLE_STIFFNESS = 400f;
+
+    /**
+     * The damping ratio of the spring, which is used to settle the view, when a drag gesture has
+     * been ended.
+     */
+    private static final float SETTLE_DAMPING_RATIO = 1f;
+
     /**
      * The view group, which contains the view's title.
      */
@@ -92,6 +164,38 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
      */
     private Callback callback;
 
+    /**
+     * The listener, which should be notified, when the view starts or stops moving.
+     */
+    private MotionListener motionListener;
+
+    /**
+     * The motion, the view is currently performing, or null, if the view is not moving.
+     */
+    private Motion motion;
+
+    /**
+     * The monitor, which is used to measure the latencies between touch events and the frames,
+     * which show the view at the corresponding position, or null, if no latencies are measured.
+     */
+    private TouchLatencyMonitor touchLatencyMonitor;
+
+    /**
+     * The overlay, which visualizes live performance counters, or null, if no overlay is shown.
+     */
+    private PerformanceOverlay performanceOverlay;
+
+    /**
+     * The time of the latest touch event in milliseconds.
+     */
+    private long latestEventTime;
+
+    /**
+     * The time of the earliest touch event in milliseconds, which has been received since the view
+     * has been moved on the last frame.
+     */
+    private long pendingEventTime;
+
     /**
      * An instance of the class {@link DragHelper}, which is used to recognize drag gestures.
      */
@@ -128,6 +232,130 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
      */
     private int width;
 
+    /**
+     * True, if a property animation, which moves the view, is currently running, false otherwise.
+     */
+    private boolean animating;
+
+    /**
+     * True, if the view should be rendered into a hardware layer while it is dragged or animated,
+     * false otherwise.
+     */
+    private boolean hardwareLayersEnabled;
+
+    /**
+     * True, if the view is currently rendered into a hardware layer, because it is dragged or
+     * animated, false otherwise.
+     */
+    private boolean hardwareLayerPromoted;
+
+    /**
+     * The layer type, which has been used by the view, before it has been promoted to a hardware
+     * layer.
+     */
+    private int previousLayerType;
+
+    /**
+     * The resampler, which is used to keep track of the samples of the current touch gesture, in
+     * order to resample the view's position at the time of a frame.
+     */
+    private final TouchResampler touchResampler = new TouchResampler();
+
+    /**
+     * The velocity tracker, which is used to measure the velocity of drag gestures, or null, if no
+     * gesture is currently performed.
+     */
+    private VelocityTracker velocityTracker;
+
+    /**
+     * The vertical velocity of the last drag gesture in pixels per second, when it has been ended.
+     */
+    private float releaseVelocity;
+
+    /**
+     * The minimum velocity in pixels per second, a drag gesture must have when it is ended, in
+     * order to be treated as a fling.
+     */
+    private int minimumFlingVelocity;
+
+    /**
+     * The maximum velocity in pixels per second, which is used to settle the view.
+     */
+    private int maximumFlingVelocity;
+
+    /**
+     * The animator, which is used to settle the view, when a drag gesture has been ended, or
+     * null, if the animator has not been created yet.
+     */
+    private SpringAnimator settleAnimator;
+
+    /**
+     * The listener, which is notified about the progress of the animator, which is used to settle
+     * the view.
+     */
+    private SpringAnimator.Listener settleListener;
+
+    /**
+     * The top margin, the view is laid out at while it is settled.
+     */
+    private int settleLayoutMargin;
+
+    /**
+     * True, if the view is shown once it has been settled, false, if it is hidden.
+     */
+    private boolean settleShow;
+
+    /**
+     * The callback, which is used to move the view once per frame while it is dragged, or null,
+     * if the callback has not been created yet.
+     */
+    private Choreographer.FrameCallback dragFrameCallback;
+
+    /**
+     * True, if the view should be moved on the next frame, because it has been dragged, false
+     * otherwise.
+     */
+    private boolean dragFramePending;
+
+    /**
+     * The top margin in pixels, which corresponds to the latest touch event of the current drag
+     * gesture and which the view should be moved to on the next frame.
+     */
+    private int pendingDragMargin;
+
+    /**
+     * The helper, which is used to keep track of nested scrolling operations, which are performed
+     * by the view's descendants.
+     */
+    private NestedScrollingParentHelper nestedScrollingParentHelper;
+
+    /**
+     * True, if a nested scrolling operation is currently performed by one of the view's
+     * descendants, false otherwise.
+     */
+    private boolean nestedScrollInProgress;
+
+    /**
+     * True, if the view has been moved by the current nested scrolling operation, false otherwise.
+     */
+    private boolean nestedScrollMoved;
+
+    /**
+     * True, if the view has been settled by a nested fling, false otherwise.
+     */
+    private boolean nestedFlingHandled;
+
+    /**
+     * A list, which contains the views, which are targeted by the current touch gesture and can be
+     * scrolled vertically.
+     */
+    private final ArrayList<View> scrollTargets = new ArrayList<>();
+
+    /**
+     * An array, which is used to retrieve the location of views on the screen.
+     */
+    private final int[] location = new int[2];
+
     /**
      * Initializes the view.
      */
@@ -135,56 +363,165 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         getViewTreeObserver().addOnGlobalLayoutListener(this);
         dragHelper = new DragHelper(0);
         maximized = false;
+        animating = false;
+        hardwareLayersEnabled = true;
+        hardwareLayerPromoted = false;
+        dragFramePending = false;
+        nestedScrollingParentHelper = new NestedScrollingParentHelper(this);
+        nestedScrollInProgress = false;
+        ViewConfiguration viewConfiguration = ViewConfiguration.get(getContext());
+        minimumFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
+        maximumFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+    }
+
+    /**
+     * Renders the view into a hardware layer, if enabled, in order to allow moving it by
+     * compositing a cached texture instead of redrawing its children on each frame.
+     */
+    private void promoteToHardwareLayer() {
+        if (hardwareLayersEnabled && !hardwareLayerPromoted &&
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            hardwareLayerPromoted = true;
+            previousLayerType = ViewCompat.getLayerType(this);
+
+            if (previousLayerType != ViewCompat.LAYER_TYPE_HARDWARE) {
+                ViewCompat.setLayerType(this, ViewCompat.LAYER_TYPE_HARDWARE, null);
+            }
+        }
+    }
+
+    /**
+     * Restores the layer type, which has been used by the view, before it has been promoted to a
+     * hardware layer.
+     */
+    private void demoteFromHardwareLayer() {
+        if (hardwareLayerPromoted) {
+            hardwareLayerPromoted = false;
+
+            if (previousLayerType != ViewCompat.LAYER_TYPE_HARDWARE) {
+                ViewCompat.setLayerType(this, previousLayerType, null);
+            }
+        }
     }
 
     /**
-     * Returns, whether a touch event at a specific position targets a view, which can be scrolled
-     * up.
+     * Resolves the views, which are located at a specific position and can be scrolled
+     * vertically. This is done once, when a touch gesture starts, in order to not traverse the
+     * view hierarchy on each move event.
      *
      * @param x
      *         The horizontal position of the touch event in pixels as a {@link Float} value
      * @param y
      *         The vertical position of the touch event in pixels as a {@link Float} value
-     * @return True, if the touch event targets a view, which can be scrolled up, false otherwise
      */
-    private boolean isScrollUpEvent(final float x, final float y) {
-        return isScrollUpEvent(x, y, contentContainer);
+    private void resolveScrollTargets(final float x, final float y) {
+        scrollTargets.clear();
+
+        if (contentContainer != null && contentContainer.getVisibility() == View.VISIBLE &&
+                isTouchInside(x, y, contentContainer)) {
+            collectScrollTargets(x, y, contentContainer);
+        }
     }
 
     /**
-     * Returns, whether a touch event at a specific position targets a view, which can be scrolled
-     * up.
+     * Adds all descendants of a specific view group, which are located at a specific position and
+     * can be scrolled vertically, to the list <code>scrollTargets</code>. All children, which
+     * contain the position, are traversed, i.e. nested scrollable views are taken into account.
      *
      * @param x
      *         The horizontal position of the touch event in pixels as a {@link Float} value
      * @param y
      *         The vertical position of the touch event in pixels as a {@link Float} value
      * @param viewGroup
-     *         The view group, which should be used to search for scrollable child views, as an
-     *         instance of the class {@link ViewGroup}. The view group may not be null
-     * @return True, if the touch event targets a view, which can be scrolled up, false otherwise
-     */
-    private boolean isScrollUpEvent(final float x, final float y,
-                                    @NonNull final ViewGroup viewGroup) {
-        int location[] = new int[2];
-        viewGroup.getLocationOnScreen(location);
-
-        if (x >= location[0] && x <= location[0] + viewGroup.getWidth() && y >= location[1] &&
-                y <= location[1] + viewGroup.getHeight()) {
-            for (int i = 0; i < viewGroup.getChildCount(); i++) {
-                View view = viewGroup.getChildAt(i);
-
-                if (ViewCompat.canScrollVertically(view, -1)) {
-                    return true;
-                } else if (view instanceof ViewGroup) {
-                    return isScrollUpEvent(x, y, (ViewGroup) view);
+     *         The view group, whose descendants should be traversed, as an instance of the class
+     *         {@link ViewGroup}. The view group may not be null
+     */
+    private void collectScrollTargets(final float x, final float y,
+                                      @NonNull final ViewGroup viewGroup) {
+        for (int i = viewGroup.getChildCount() - 1; i >= 0; i--) {
+            View child = viewGroup.getChildAt(i);
+
+            if (child.getVisibility() == View.VISIBLE && isTouchInside(x, y, child)) {
+                if (ViewCompat.canScrollVertically(child, -1) ||
+                        ViewCompat.canScrollVertically(child, 1)) {
+                    scrollTargets.add(child);
                 }
+
+                if (child instanceof ViewGroup) {
+                    collectScrollTargets(x, y, (ViewGroup) child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns, whether a specific position is located inside the bounds of a specific view, or
+     * not.
+     *
+     * @param x
+     *         The horizontal position on the screen in pixels as a {@link Float} value
+     * @param y
+     *         The vertical position on the screen in pixels as a {@link Float} value
+     * @param view
+     *         The view as an instance of the class {@link View}. The view may not be null
+     * @return True, if the position is located inside the bounds of the view, false otherwise
+     */
+    private boolean isTouchInside(final float x, final float y, @NonNull final View view) {
+        view.getLocationOnScreen(location);
+        return x >= location[0] && x <= location[0] + view.getWidth() && y >= location[1] &&
+                y <= location[1] + view.getHeight();
+    }
+
+    /**
+     * Returns, whether the current touch gesture targets a view, which can be scrolled up. The
+     * views, which are targeted by the gesture, must have been resolved by using the
+     * <code>resolveScrollTargets</code>-method before.
+     *
+     * @return True, if the touch gesture targets a view, which can be scrolled up, false otherwise
+     */
+    private boolean isScrollUpEvent() {
+        for (int i = 0; i < scrollTargets.size(); i++) {
+            if (ViewCompat.canScrollVertically(scrollTargets.get(i), -1)) {
+                return true;
             }
         }
 
         return false;
     }
 
+    /**
+     * Starts a specific motion. If the view is already performing another motion, it is ended
+     * first.
+     *
+     * @param motion
+     *         The motion, which should be started, as a value of the enum {@link Motion}. The
+     *         motion may not be null
+     */
+    private void startMotion(@NonNull final Motion motion) {
+        if (this.motion != motion) {
+            endMotion();
+            this.motion = motion;
+
+            if (motionListener != null) {
+                motionListener.onMotionStarted(motion);
+            }
+        }
+    }
+
+    /**
+     * Ends the motion, the view is currently performing, if any.
+     */
+    private void endMotion() {
+        if (motion != null) {
+            Motion endedMotion = motion;
+            motion = null;
+
+            if (motionListener != null) {
+                motionListener.onMotionEnded(endedMotion);
+            }
+        }
+    }
+
     /**
      * Handles when a drag gesture is performed by the user.
      *
@@ -195,8 +532,9 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
             if (dragHelper.hasThresholdBeenReached()) {
                 int margin = Math.round(isMaximized() ? dragHelper.getDistance() :
                         initialMargin + dragHelper.getDistance());
-                margin = Math.max(Math.max(margin, minMargin), 0);
-                setTopMargin(margin);
+                startMotion(Motion.DRAG);
+                promoteToHardwareLayer();
+                scheduleMove(margin);
             }
 
             return true;
@@ -205,33 +543,297 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         return false;
     }
 
+    /**
+     * Restricts a specific top margin, which results from a drag gesture, to the range, the view
+     * may be dragged within.
+     *
+     * @param margin
+     *         The top margin in pixels as an {@link Integer} value
+     * @return The restricted top margin in pixels as an {@link Integer} value
+     */
+    private int clampDragMargin(final int margin) {
+        return Math.max(Math.max(margin, minMargin), 0);
+    }
+
+    /**
+     * Moves the view to a specific top margin on the next frame. All touch events, which are
+     * received until then, are coalesced, i.e. the view is moved at most once per frame,
+     * regardless of the rate, touch events are delivered at. When the frame is drawn, the given
+     * margin, which corresponds to the latest touch event, is corrected by resampling the gesture
+     * at the time of the frame. On devices with an API level below 16, the view is moved
+     * immediately.
+     *
+     * @param margin
+     *         The top margin, the view should be moved to, in pixels as an {@link Integer} value.
+     *         The margin is restricted to the range, the view may be dragged within, when the view
+     *         is moved
+     */
+    private void scheduleMove(final int margin) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            pendingDragMargin = margin;
+
+            if (!dragFramePending) {
+                pendingEventTime = latestEventTime;
+
+                if (dragFrameCallback == null) {
+                    dragFrameCallback = createDragFrameCallback();
+                }
+
+                dragFramePending = true;
+                Choreographer.getInstance().postFrameCallback(dragFrameCallback);
+            }
+        } else {
+            moveTo(clampDragMargin(margin));
+            notifyOnFrameMoved(latestEventTime, System.nanoTime());
+        }
+    }
+
+    /**
+     * Notifies the monitor, which is used to measure touch latencies, that the view has been moved
+     * on a frame, if latencies are measured.
+     *
+     * @param eventTime
+     *         The time of the earliest touch event in milliseconds, which has been coalesced into
+     *         the frame, as a {@link Long} value. The time must be based on {@link
+     *         android.os.SystemClock#uptimeMillis()}
+     * @param frameTimeNanos
+     *         The time of the frame in nanoseconds as a {@link Long} value
+     */
+    private void notifyOnFrameMoved(final long eventTime, final long frameTimeNanos) {
+        if (touchLatencyMonitor != null) {
+            touchLatencyMonitor.onFrameMoved(eventTime, frameTimeNanos);
+        }
+    }
+
+    /**
+     * Notifies the monitor, which is used to measure touch latencies, that the current drag
+     * gesture has been ended, if latencies are measured.
+     */
+    private void notifyOnGestureEnded() {
+        if (touchLatencyMonitor != null) {
+            touchLatencyMonitor.onGestureEnded();
+        }
+    }
+
+    /**
+     * Discards the movement of the view, which has been scheduled for the next frame, if any.
+     * The view remains at the position, it has been moved to on the last frame.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void cancelScheduledMove() {
+        if (dragFramePending) {
+            dragFramePending = false;
+            Choreographer.getInstance().removeFrameCallback(dragFrameCallback);
+        }
+    }
+
+    /**
+     * Creates and returns a callback, which allows to move the view to the top margin, which has
+     * been scheduled by the <code>scheduleMove</code>-method, once per frame.
+     *
+     * @return The callback, which has been created, as an instance of the type {@link
+     * Choreographer.FrameCallback}
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private Choreographer.FrameCallback createDragFrameCallback() {
+        return new Choreographer.FrameCallback() {
+
+            @Override
+            public void doFrame(final long frameTimeNanos) {
+                if (dragFramePending) {
+                    dragFramePending = false;
+
+                    if (performanceOverlay != null) {
+                        performanceOverlay.recordDragFrame(frameTimeNanos);
+                    }
+
+                    if (!isAnimationRunning()) {
+                        float correction = touchResampler.resample(frameTimeNanos) -
+                                touchResampler.getLatestPosition();
+                        moveTo(clampDragMargin(pendingDragMargin + Math.round(correction)));
+                        notifyOnFrameMoved(pendingEventTime, frameTimeNanos);
+                    }
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Moves the view by a specific distance on behalf of a nested scrolling operation. The view
+     * is not moved above its minimum top margin or below the bottom of its parent.
+     *
+     * @param distance
+     *         The distance, the view should be moved by, in pixels as an {@link Integer} value. A
+     *         positive distance moves the view down
+     * @return The distance, the view has actually been moved by, in pixels as an {@link Integer}
+     * value
+     */
+    private int moveByNestedScroll(final int distance) {
+        int currentMargin = getTopMargin();
+        int margin = Math.min(Math.max(Math.max(currentMargin + distance, minMargin), 0),
+                parentHeight);
+        int consumed = margin - currentMargin;
+
+        if (consumed != 0) {
+            nestedScrollMoved = true;
+            startMotion(Motion.DRAG);
+            promoteToHardwareLayer();
+            moveTo(margin);
+        }
+
+        return consumed;
+    }
+
     /**
      * Handles when a drag gesture has been ended by the user.
+     *
+     * @param velocity
+     *         The vertical velocity of the drag gesture in pixels per second as a {@link Float}
+     *         value. A positive velocity moves the view down
      */
-    private void handleRelease() {
-        float speed = Math.max(dragHelper.getDragSpeed(), animationSpeed);
+    private void handleRelease(final float velocity) {
+        Tracing.beginSection("DraggableView.handleRelease");
+        cancelScheduledMove();
+        boolean fling = Math.abs(velocity) > minimumFlingVelocity;
+        boolean hide;
+
+        if (fling) {
+            hide = velocity > 0;
+        } else {
+            hide = getTopMargin() > initialMargin ||
+                    (getDeviceType(getContext()) == DeviceType.TABLET && isMaximized() &&
+                            getTopMargin() > minMargin);
+        }
 
-        if (getTopMargin() > initialMargin ||
-                (dragHelper.getDragSpeed() > animationSpeed && dragHelper.getDistance() > 0) ||
-                (getDeviceType(getContext()) == DeviceType.TABLET && isMaximized() &&
-                        getTopMargin() > minMargin)) {
-            animateHideView(parentHeight - getTopMargin(), speed, new DecelerateInterpolator(),
-                    true);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            settleView(hide ? parentHeight : minMargin, velocity, !hide);
         } else {
-            animateShowView(-(getTopMargin() - minMargin), speed, new DecelerateInterpolator());
+            float speed = Math.max(Math.abs(velocity) / 1000f, animationSpeed);
+
+            if (hide) {
+                animateHideView(parentHeight - getTopMargin(), speed, new DecelerateInterpolator(),
+                        true);
+            } else {
+                animateShowView(-(getTopMargin() - minMargin), speed, new DecelerateInterpolator());
+            }
         }
+
+        Tracing.endSection();
     }
 
     /**
-     * Returns the top margin of the view.
+     * Adds the samples of a specific touch event to the resampler, which is used to keep track of
+     * the position of the current touch gesture, and to the velocity tracker, which is used to
+     * measure the velocity of drag gestures. As the view is moved while it is dragged, the event's
+     * raw coordinates are passed to the velocity tracker. When the gesture is ended, its velocity
+     * is measured.
+     *
+     * @param event
+     *         The touch event, which should be added, as an instance of the class {@link
+     *         MotionEvent}. The touch event may not be null
+     */
+    private void trackTouch(@NonNull final MotionEvent event) {
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+        latestEventTime = event.getEventTime();
+
+        if (action == MotionEvent.ACTION_DOWN) {
+            touchResampler.clear();
+            releaseVelocity = 0;
+
+            if (velocityTracker == null) {
+                velocityTracker = VelocityTracker.obtain();
+            } else {
+                velocityTracker.clear();
+            }
+        }
+
+        touchResampler.addMovement(event);
+
+        if (velocityTracker != null) {
+            float offsetX = event.getRawX() - event.getX();
+            float offsetY = event.getRawY() - event.getY();
+            event.offsetLocation(offsetX, offsetY);
+            velocityTracker.addMovement(event);
+            event.offsetLocation(-offsetX, -offsetY);
+
+            if (action == MotionEvent.ACTION_UP) {
+                velocityTracker.computeCurrentVelocity(1000, maximumFlingVelocity);
+                releaseVelocity = velocityTracker.getYVelocity();
+            }
+        }
+    }
+
+    /**
+     * Releases the velocity tracker, which is used to measure the velocity of drag gestures.
+     */
+    private void releaseVelocityTracker() {
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    /**
+     * Returns the top margin of the view, which is specified by its layout params. Unlike the
+     * <code>getTopMargin</code>-method, the view's current translation is not taken into account.
      *
      * @return The top margin of the view in pixels as an {@link Integer} value
      */
-    public final int getTopMargin() {
+    private int getLayoutMargin() {
         FrameLayout.LayoutParams layoutParams = (FrameLayout.LayoutParams) getLayoutParams();
         return layoutParams.topMargin;
     }
 
+    /**
+     * Moves the view to a specific top margin while a drag gesture is performed. On devices, which
+     * support view properties, the view is moved by using its vertical translation, which does
+     * not require to re-layout the view. A layout pass is only performed, if the view must be
+     * enlarged beyond its current height. In such case, the view is enlarged to its maximum height
+     * at once.
+     *
+     * @param margin
+     *         The top margin, the view should be moved to, in pixels as an {@link Integer} value
+     */
+    private void moveTo(final int margin) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            int layoutMargin = getLayoutMargin();
+
+            if (margin < layoutMargin) {
+                layoutMargin = Math.min(margin, Math.max(minMargin, 0));
+                setTopMargin(layoutMargin);
+            }
+
+            ViewCompat.setTranslationY(this, margin - layoutMargin);
+        } else {
+            setTopMargin(margin);
+        }
+    }
+
+    /**
+     * Commits the view's current vertical translation to its top margin. This causes the view to
+     * be laid out at its current position and its translation to be reset.
+     */
+    private void commitTopMargin() {
+        float translation = ViewCompat.getTranslationY(this);
+
+        if (translation != 0) {
+            int margin = getTopMargin();
+            ViewCompat.setTranslationY(this, 0);
+            setTopMargin(margin);
+        }
+    }
+
+    /**
+     * Returns the top margin of the view. While the view is dragged, its current vertical
+     * translation is taken into account.
+     *
+     * @return The top margin of the view in pixels as an {@link Integer} value
+     */
+    public final int getTopMargin() {
+        return getLayoutMargin() + Math.round(ViewCompat.getTranslationY(this));
+    }
+
     /**
      * Set the top margin of the view.
      *
@@ -257,7 +859,7 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
      */
     private void animateShowView(final int diff, final float animationSpeed,
                                  @NonNull final Interpolator interpolator) {
-        animateView(diff, animationSpeed, createAnimationListener(true, false), interpolator);
+        animateView(diff, animationSpeed, interpolator, true, false);
     }
 
     /**
@@ -275,35 +877,139 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
      */
     private void animateHideView(final int diff, final float animationSpeed,
                                  @NonNull final Interpolator interpolator, final boolean cancel) {
-        animateView(diff, animationSpeed, createAnimationListener(false, cancel), interpolator);
+        animateView(diff, animationSpeed, interpolator, false, cancel);
     }
 
     /**
-     * Animates the view to become shown or hidden.
+     * Animates the view to become shown or hidden. On devices, which support property animations,
+     * the view's vertical translation is animated, while the view is rendered into a hardware
+     * layer, if enabled. The view is only laid
+     * out before the animation, if it must be enlarged, and once the animation has ended, when
+     * the translation is committed to its top margin. On older devices, the view's top margin is
+     * animated instead.
      *
      * @param diff
      *         The distance the view has to be vertically moved by, as an {@link Integer} value
      * @param animationSpeed
      *         The speed of the animation in pixels per millisecond as a {@link Float} value
-     * @param animationListener
-     *         The listener, which should be notified about the animation's progress, as an instance
-     *         of the type {@link AnimationListener}. The listener may not be null
      * @param interpolator
      *         The interpolator, which should be used by the animation, as an instance of the type
      *         {@link Interpolator}. The interpolator may not be null
+     * @param show
+     *         True, if the view should be shown at the end of the animation, false otherwise
+     * @param cancel
+     *         True, if the view should be canceled, false otherwise
      */
     private void animateView(final int diff, final float animationSpeed,
-                             @NonNull final AnimationListener animationListener,
-                             @NonNull final Interpolator interpolator) {
+                             @NonNull final Interpolator interpolator, final boolean show,
+                             final boolean cancel) {
         if (!isDragging() && !isAnimationRunning()) {
             long duration = calculateAnimationDuration(diff, animationSpeed);
-            Animation animation =
-                    new DraggableViewAnimation(this, diff, duration, animationListener);
-            animation.setInterpolator(interpolator);
-            startAnimation(animation);
+
+            if (motion == null) {
+                startMotion(show ? Motion.MAXIMIZE : Motion.HIDE);
+            }
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+                int targetMargin = getTopMargin() + diff;
+                int layoutMargin = prepareTranslation(targetMargin);
+                animating = true;
+                promoteToHardwareLayer();
+                ViewCompat.animate(this).translationY(targetMargin - layoutMargin)
+                        .setDuration(duration).setInterpolator(interpolator)
+                        .setListener(createAnimationListener(show, cancel)).start();
+            } else {
+                demoteFromHardwareLayer();
+                commitTopMargin();
+                Animation animation = new DraggableViewAnimation(this, diff, duration,
+                        createLegacyAnimationListener(show, cancel));
+                animation.setInterpolator(interpolator);
+                startAnimation(animation);
+            }
+        }
+    }
+
+    /**
+     * Prepares the view to be moved to a specific top margin by using its vertical translation. If
+     * the view must be enlarged, it is laid out at the given margin and translated to keep its
+     * current position.
+     *
+     * @param targetMargin
+     *         The top margin, the view should be moved to, in pixels as an {@link Integer} value
+     * @return The top margin, the view is laid out at, in pixels as an {@link Integer} value
+     */
+    private int prepareTranslation(final int targetMargin) {
+        int startMargin = getTopMargin();
+        int layoutMargin = getLayoutMargin();
+
+        if (targetMargin < layoutMargin) {
+            layoutMargin = targetMargin;
+            setTopMargin(layoutMargin);
+            ViewCompat.setTranslationY(this, startMargin - layoutMargin);
+        }
+
+        return layoutMargin;
+    }
+
+    /**
+     * Settles the view at a specific top margin by using a spring, which continues the momentum of
+     * the drag gesture, which has been ended.
+     *
+     * @param targetMargin
+     *         The top margin, the view should be settled at, in pixels as an {@link Integer} value
+     * @param velocity
+     *         The vertical velocity of the drag gesture in pixels per second as a {@link Float}
+     *         value
+     * @param show
+     *         True, if the view should be shown, once it has been settled, false, if it should be
+     *         hidden
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void settleView(final int targetMargin, final float velocity, final boolean show) {
+        if (!isDragging() && !isAnimationRunning()) {
+            if (settleAnimator == null) {
+                settleAnimator = new SpringAnimator(SETTLE_STIFFNESS, SETTLE_DAMPING_RATIO);
+                settleListener = createSettleListener();
+            }
+
+            if (motion == null) {
+                startMotion(show ? Motion.MAXIMIZE : Motion.HIDE);
+            }
+
+            settleLayoutMargin = prepareTranslation(targetMargin);
+            settleShow = show;
+            animating = true;
+            promoteToHardwareLayer();
+            settleAnimator.start(getTopMargin(), velocity, targetMargin, settleListener);
         }
     }
 
+    /**
+     * Creates and returns a listener, which allows to move the view while it is settled and to
+     * handle the end of the settling.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * SpringAnimator.Listener}
+     */
+    private SpringAnimator.Listener createSettleListener() {
+        return new SpringAnimator.Listener() {
+
+            @Override
+            public void onAnimationUpdate(final float value) {
+                ViewCompat.setTranslationY(DraggableView.this, value - settleLayoutMargin);
+            }
+
+            @Override
+            public void onAnimationEnd() {
+                animating = false;
+                commitTopMargin();
+                demoteFromHardwareLayer();
+                handleAnimationEnd(settleShow, true);
+            }
+
+        };
+    }
+
     /**
      * Calculates the duration of the animation, which is used to hide or show the view, depending
      * on a specific distance and speed.
@@ -318,9 +1024,38 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         return Math.round(Math.abs(diff) / animationSpeed);
     }
 
+    /**
+     * Creates and returns a listener, which allows to handle the end of a property animation,
+     * which has been used to show or hide the view.
+     *
+     * @param show
+     *         True, if the view should be shown at the end of the animation, false otherwise
+     * @param cancel
+     *         True, if the view should be canceled, false otherwise
+     * @return The listener, which has been created, as an instance of the class {@link
+     * ViewPropertyAnimatorListenerAdapter}
+     */
+    private ViewPropertyAnimatorListenerAdapter createAnimationListener(final boolean show,
+                                                                        final boolean cancel) {
+        return new ViewPropertyAnimatorListenerAdapter() {
+
+            @Override
+            public void onAnimationEnd(final View view) {
+                if (animating) {
+                    animating = false;
+                    ViewCompat.animate(DraggableView.this).setListener(null);
+                    commitTopMargin();
+                    demoteFromHardwareLayer();
+                    handleAnimationEnd(show, cancel);
+                }
+            }
+
+        };
+    }
+
     /**
      * Creates and returns a listener, which allows to handle the end of an animation, which has
-     * been used to show or hide the view.
+     * been used to show or hide the view on devices, which do not support property animations.
      *
      * @param show
      *         True, if the view should be shown at the end of the animation, false otherwise
@@ -329,7 +1064,8 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
      * @return The listener, which has been created, as an instance of the type {@link
      * AnimationListener}
      */
-    private AnimationListener createAnimationListener(final boolean show, final boolean cancel) {
+    private AnimationListener createLegacyAnimationListener(final boolean show,
+                                                            final boolean cancel) {
         return new AnimationListener() {
 
             @Override
@@ -340,13 +1076,7 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
             @Override
             public void onAnimationEnd(final Animation animation) {
                 clearAnimation();
-                maximized = show;
-
-                if (maximized) {
-                    notifyOnMaximized();
-                } else {
-                    notifyOnHidden(cancel);
-                }
+                handleAnimationEnd(show, cancel);
             }
 
             @Override
@@ -357,6 +1087,25 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         };
     }
 
+    /**
+     * Handles the end of an animation, which has been used to show or hide the view.
+     *
+     * @param show
+     *         True, if the view has been shown, false otherwise
+     * @param cancel
+     *         True, if the view should be canceled, false otherwise
+     */
+    private void handleAnimationEnd(final boolean show, final boolean cancel) {
+        maximized = show;
+        endMotion();
+
+        if (maximized) {
+            notifyOnMaximized();
+        } else {
+            notifyOnHidden(cancel);
+        }
+    }
+
     /**
      * Notifies the callback, which should be notified about the view's state, that the view has
      * been maximized.
@@ -477,6 +1226,44 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         this.callback = callback;
     }
 
+    /**
+     * Sets the listener, which should be notified, when the view starts or stops moving.
+     *
+     * @param listener
+     *         The listener, which should be set, as an instance of the type {@link
+     *         MotionListener}, or null, if no listener should be notified
+     */
+    public final void setMotionListener(@Nullable final MotionListener listener) {
+        this.motionListener = listener;
+    }
+
+    /**
+     * Sets the monitor, which should be used to measure the latencies between touch events and the
+     * frames, which show the view at the position, which corresponds to the touch events. The
+     * monitor is notified about each frame, the view is moved on while it is dragged, as well as
+     * about the end of each drag gesture.
+     *
+     * @param monitor
+     *         The monitor, which should be set, as an instance of the class {@link
+     *         TouchLatencyMonitor}, or null, if no latencies should be measured
+     */
+    public final void setTouchLatencyMonitor(@Nullable final TouchLatencyMonitor monitor) {
+        this.touchLatencyMonitor = monitor;
+    }
+
+    /**
+     * Sets the overlay, which should visualize live performance counters of the view. The overlay
+     * is notified about the view's layout passes and drag frames. It must be added to the view
+     * hierarchy separately, as it is not drawn by the view itself.
+     *
+     * @param overlay
+     *         The overlay, which should be set, as an instance of the class {@link
+     *         PerformanceOverlay} or null, if no overlay should be shown
+     */
+    public final void setPerformanceOverlay(@Nullable final PerformanceOverlay overlay) {
+        this.performanceOverlay = overlay;
+    }
+
     /**
      * Sets the distance in pixels, a drag gesture must last until it is recognized.
      *
@@ -488,6 +1275,24 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         this.dragHelper = new DragHelper(dragSensitivity);
     }
 
+    /**
+     * Sets, whether the view should be rendered into a hardware layer while it is dragged or
+     * animated, or not. This allows to move the view by compositing a cached texture instead of
+     * redrawing all of its children on each frame, at the expense of the memory, which is required
+     * by the layer. Hardware layers are only supported on devices with API level 11 or greater.
+     *
+     * @param hardwareLayersEnabled
+     *         True, if the view should be rendered into a hardware layer while it is dragged or
+     *         animated, false otherwise
+     */
+    public final void setHardwareLayersEnabled(final boolean hardwareLayersEnabled) {
+        this.hardwareLayersEnabled = hardwareLayersEnabled;
+
+        if (!hardwareLayersEnabled) {
+            demoteFromHardwareLayer();
+        }
+    }
+
     /**
      * Sets the width of the view. The width is only used on tablet devices or in landscape mode.
      *
@@ -515,7 +1320,7 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
      * @return True, if an animation, which moves the view, is currently running, false otherwise
      */
     public final boolean isAnimationRunning() {
-        return getAnimation() != null;
+        return animating || getAnimation() != null;
     }
 
     /**
@@ -536,19 +1341,104 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         }
     }
 
+    @Override
+    public final boolean onStartNestedScroll(final View child, final View target,
+                                             final int nestedScrollAxes) {
+        return (nestedScrollAxes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0 && parentHeight != -1 &&
+                !isDragging() && !isAnimationRunning();
+    }
+
+    @Override
+    public final void onNestedScrollAccepted(final View child, final View target,
+                                             final int nestedScrollAxes) {
+        nestedScrollingParentHelper.onNestedScrollAccepted(child, target, nestedScrollAxes);
+        nestedScrollInProgress = true;
+        nestedScrollMoved = false;
+        nestedFlingHandled = false;
+        dragHelper.reset();
+        cancelScheduledMove();
+    }
+
+    @Override
+    public final void onNestedPreScroll(final View target, final int dx, final int dy,
+                                        final int[] consumed) {
+        if (dy > 0 && getTopMargin() > minMargin && !isAnimationRunning()) {
+            consumed[1] = -moveByNestedScroll(-dy);
+        }
+    }
+
+    @Override
+    public final void onNestedScroll(final View target, final int dxConsumed,
+                                     final int dyConsumed, final int dxUnconsumed,
+                                     final int dyUnconsumed) {
+        if (dyUnconsumed < 0 && !isAnimationRunning()) {
+            moveByNestedScroll(-dyUnconsumed);
+        }
+    }
+
+    @Override
+    public final boolean onNestedPreFling(final View target, final float velocityX,
+                                          final float velocityY) {
+        if (nestedScrollMoved && !isAnimationRunning()) {
+            nestedFlingHandled = true;
+            handleRelease(-velocityY);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public final boolean onNestedFling(final View target, final float velocityX,
+                                       final float velocityY, final boolean consumed) {
+        return false;
+    }
+
+    @Override
+    public final void onStopNestedScroll(final View target) {
+        nestedScrollingParentHelper.onStopNestedScroll(target);
+        nestedScrollInProgress = false;
+
+        if (nestedScrollMoved && !nestedFlingHandled && !isAnimationRunning()) {
+            handleRelease(0);
+        }
+
+        nestedScrollMoved = false;
+        nestedFlingHandled = false;
+    }
+
+    @Override
+    public final int getNestedScrollAxes() {
+        return nestedScrollingParentHelper.getNestedScrollAxes();
+    }
+
     @Override
     public final boolean dispatchTouchEvent(final MotionEvent event) {
         boolean handled = false;
+        trackTouch(event);
 
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
+                resolveScrollTargets(event.getRawX(), event.getRawY());
                 break;
             case MotionEvent.ACTION_MOVE:
+                if (nestedScrollInProgress) {
+                    dragHelper.reset();
+                    break;
+                }
+
                 dragHelper.update(event.getRawY());
 
                 if (isMaximized() && (event.getRawY() - dragHelper.getStartPosition() < 0 ||
-                        isScrollUpEvent(event.getRawX(), event.getRawY()))) {
+                        isScrollUpEvent())) {
                     dragHelper.reset();
+                    cancelScheduledMove();
+
+                    if (!isAnimationRunning()) {
+                        demoteFromHardwareLayer();
+                        endMotion();
+                    }
+
                     break;
                 }
 
@@ -557,8 +1447,22 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
             case MotionEvent.ACTION_UP:
                 dragHelper.reset();
 
-                if (dragHelper.hasThresholdBeenReached()) {
-                    handleRelease();
+                if (!nestedScrollInProgress && dragHelper.hasThresholdBeenReached()) {
+                    handleRelease(releaseVelocity);
+                }
+
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                dragHelper.reset();
+                cancelScheduledMove();
+
+                if (!nestedScrollInProgress) {
+                    if (dragHelper.hasThresholdBeenReached()) {
+                        handleRelease(0);
+                    } else if (!isAnimationRunning()) {
+                        demoteFromHardwareLayer();
+                        endMotion();
+                    }
                 }
 
                 break;
@@ -566,7 +1470,17 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
                 break;
         }
 
-        return handled || super.dispatchTouchEvent(event);
+        boolean result = handled || super.dispatchTouchEvent(event);
+        int action = event.getAction() & MotionEvent.ACTION_MASK;
+
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            touchResampler.clear();
+            releaseVelocityTracker();
+            scrollTargets.clear();
+            notifyOnGestureEnded();
+        }
+
+        return result;
     }
 
     @Override
@@ -582,7 +1496,7 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
                 dragHelper.reset();
 
                 if (dragHelper.hasThresholdBeenReached()) {
-                    handleRelease();
+                    handleRelease(releaseVelocity);
                 }
 
                 performClick();
@@ -602,6 +1516,8 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
 
     @Override
     public final void onGlobalLayout() {
+        Tracing.beginSection("DraggableView.onGlobalLayout");
+
         if (parentHeight == -1) {
             parentHeight = ((View) getParent()).getHeight();
             float initialHeight = parentHeight * INITIAL_HEIGHT_RATIO;
@@ -616,6 +1532,8 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
             animationSpeed = initialHeight / (float) animationDuration;
             setTopMargin(initialMargin);
         }
+
+        Tracing.endSection();
     }
 
     @Override
@@ -625,6 +1543,32 @@ public class DraggableView extends LinearLayout implements ViewTreeObserver.OnGl
         contentContainer = (ViewGroup) findViewById(R.id.content_container);
     }
 
+    @Override
+    protected final void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        touchResampler.clear();
+        releaseVelocityTracker();
+        cancelScheduledMove();
+
+        if (settleAnimator != null && settleAnimator.isRunning()) {
+            settleAnimator.cancel();
+            animating = false;
+            demoteFromHardwareLayer();
+        }
+
+        endMotion();
+    }
+
+    @Override
+    protected final void onLayout(final boolean changed, final int l, final int t, final int r,
+                                  final int b) {
+        super.onLayout(changed, l, t, r, b);
+
+        if (performanceOverlay != null) {
+            performanceOverlay.recordLayout();
+        }
+    }
+
     @Override
     protected final void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
         if (getDeviceType(getContext()) == DeviceType.TABLET ||
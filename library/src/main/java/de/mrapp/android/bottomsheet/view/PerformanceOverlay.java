@@ -0,0 +1,265 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.TypedValue;
+import android.view.View;
+
+import de.mrapp.android.bottomsheet.metrics.AdapterStatistics;
+
+import static de.mrapp.android.util.Condition.ensureNotNull;
+
+/**
+ * An overlay, which visualizes live performance counters of a {@link DraggableView} for debugging
+ * purposes. It shows the number of item views, which have been bound and inflated, the rate of
+ * recycled item views, the number of layout passes of the draggable view per second and the time
+ * between the frames, which move the view while it is dragged.
+ *
+ * The overlay is a view of its own, which must be added as a sibling on top of the draggable view.
+ * This prevents the draggable view from being invalidated, and its hardware layer from being
+ * redrawn, in order to update the overlay. While the overlay is attached to a window, it is
+ * redrawn periodically by a single handler tick, which is stopped, when the overlay is removed.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class PerformanceOverlay extends View {
+
+    /**
+     * The interval in milliseconds, the overlay is redrawn at.
+     */
+    private static final long UPDATE_INTERVAL = 250;
+
+    /**
+     * The text size of the overlay in scaled pixels.
+     */
+    private static final float TEXT_SIZE = 12;
+
+    /**
+     * The padding of the overlay in dp.
+     */
+    private static final float PADDING = 4;
+
+    /**
+     * The time in milliseconds, the number of layout passes is counted for.
+     */
+    private static final long LAYOUT_WINDOW = 1000;
+
+    /**
+     * The time in nanoseconds between two frames, above which a drag gesture is considered to
+     * have been ended before the latter frame.
+     */
+    private static final long MAX_DRAG_FRAME_INTERVAL = 250000000L;
+
+    /**
+     * The number of lines, which are shown by the overlay.
+     */
+    private static final int LINE_COUNT = 4;
+
+    /**
+     * The handler, which is used to redraw the overlay periodically.
+     */
+    private final Handler handler;
+
+    /**
+     * The runnable, which is used to redraw the overlay periodically.
+     */
+    private final Runnable updateRunnable;
+
+    /**
+     * The paint, which is used to draw the overlay's text.
+     */
+    private final Paint textPaint;
+
+    /**
+     * The paint, which is used to draw the overlay's background.
+     */
+    private final Paint backgroundPaint;
+
+    /**
+     * The padding of the overlay in pixels.
+     */
+    private final float padding;
+
+    /**
+     * The statistics, which contain the item views, which have been bound and inflated, or null,
+     * if no statistics are available.
+     */
+    private AdapterStatistics statistics;
+
+    /**
+     * The time in milliseconds, when the current window, layout passes are counted for, has been
+     * started.
+     */
+    private long layoutWindowStart;
+
+    /**
+     * The number of layout passes, which have been counted during the current window.
+     */
+    private int layoutCount;
+
+    /**
+     * The number of layout passes, which have been counted during the previous window.
+     */
+    private int layoutsPerSecond;
+
+    /**
+     * The time of the last frame, which has moved the view while it has been dragged, in
+     * nanoseconds or -1, if no such frame has been drawn yet.
+     */
+    private long lastDragFrameTime = -1;
+
+    /**
+     * The time between the last two frames, which have moved the view while it has been dragged,
+     * in nanoseconds.
+     */
+    private long dragFrameDuration;
+
+    /**
+     * Creates a new overlay, which visualizes live performance counters of a {@link
+     * DraggableView}.
+     *
+     * @param context
+     *         The context, which should be used by the overlay, as an instance of the class {@link
+     *         Context}. The context may not be null
+     */
+    public PerformanceOverlay(@NonNull final Context context) {
+        super(context);
+        ensureNotNull(context, "The context may not be null");
+        this.handler = new Handler(Looper.getMainLooper());
+        this.updateRunnable = createUpdateRunnable();
+        this.textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        this.textPaint.setColor(Color.WHITE);
+        this.textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE,
+                context.getResources().getDisplayMetrics()));
+        this.backgroundPaint = new Paint();
+        this.backgroundPaint.setColor(Color.argb(0xa0, 0, 0, 0));
+        this.padding = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, PADDING,
+                context.getResources().getDisplayMetrics());
+    }
+
+    /**
+     * Creates and returns a runnable, which allows to redraw the overlay and to schedule the next
+     * update afterwards.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}
+     */
+    private Runnable createUpdateRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                invalidate();
+                handler.postDelayed(this, UPDATE_INTERVAL);
+            }
+
+        };
+    }
+
+    /**
+     * Sets the statistics, which contain the item views, which have been bound and inflated.
+     *
+     * @param statistics
+     *         The statistics, which should be set, as an instance of the class {@link
+     *         AdapterStatistics} or null, if no statistics are available
+     */
+    public final void setStatistics(@Nullable final AdapterStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Records, that a layout pass of the draggable view has been performed. Layout passes of its
+     * children, e.g. of the grid view, which contains the items, are not counted, if they are laid
+     * out without their parent being laid out as well.
+     */
+    public final void recordLayout() {
+        long now = SystemClock.uptimeMillis();
+
+        if (now - layoutWindowStart >= LAYOUT_WINDOW) {
+            layoutsPerSecond = now - layoutWindowStart < 2 * LAYOUT_WINDOW ? layoutCount : 0;
+            layoutWindowStart = now;
+            layoutCount = 0;
+        }
+
+        layoutCount++;
+    }
+
+    /**
+     * Records, that a frame has moved the view while it has been dragged.
+     *
+     * @param frameTimeNanos
+     *         The time of the frame in nanoseconds as a {@link Long} value
+     */
+    public final void recordDragFrame(final long frameTimeNanos) {
+        if (lastDragFrameTime != -1 &&
+                frameTimeNanos - lastDragFrameTime <= MAX_DRAG_FRAME_INTERVAL) {
+            dragFrameDuration = frameTimeNanos - lastDragFrameTime;
+        }
+
+        lastDragFrameTime = frameTimeNanos;
+    }
+
+    @Override
+    protected final void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        handler.removeCallbacks(updateRunnable);
+        handler.postDelayed(updateRunnable, UPDATE_INTERVAL);
+    }
+
+    @Override
+    protected final void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        handler.removeCallbacks(updateRunnable);
+    }
+
+    @Override
+    protected final void onDraw(final Canvas canvas) {
+        super.onDraw(canvas);
+        int bindCount = statistics != null ? statistics.getBindCount() : 0;
+        int inflationCount = statistics != null ? statistics.getInflationCount() : 0;
+        int hitCount = statistics != null ? statistics.getRecycleHitCount() : 0;
+        int missCount = statistics != null ? statistics.getRecycleMissCount() : 0;
+        int hitRate = hitCount + missCount > 0 ? 100 * hitCount / (hitCount + missCount) : 0;
+        Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
+        float lineHeight = fontMetrics.descent - fontMetrics.ascent;
+        String[] lines = new String[LINE_COUNT];
+        lines[0] = "binds / inflations: " + bindCount + " / " + inflationCount;
+        lines[1] = "recycle hit rate: " + hitRate + " %";
+        lines[2] = "sheet layouts / s: " + layoutsPerSecond;
+        lines[3] = "drag frame: " + Math.round(dragFrameDuration / 100000f) / 10f + " ms";
+        float width = 0;
+
+        for (String line : lines) {
+            width = Math.max(width, textPaint.measureText(line));
+        }
+
+        canvas.drawRect(0, 0, width + 2 * padding, LINE_COUNT * lineHeight + 2 * padding,
+                backgroundPaint);
+
+        for (int i = 0; i < lines.length; i++) {
+            canvas.drawText(lines[i], padding, padding + i * lineHeight - fontMetrics.ascent,
+                    textPaint);
+        }
+    }
+
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.GridView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.internal.Shadow;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowView;
+
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+import de.mrapp.android.bottomsheet.adapter.DividableGridAdapter;
+import de.mrapp.android.bottomsheet.layout.DividableGridLayout;
+import de.mrapp.android.bottomsheet.metrics.AdapterStatistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests the exact number of views, which are inflated, bound and laid out, as well as the number
+ * of layout computations and data set changes of the adapter, when a bottom sheet is shown, items
+ * are added, an item is disabled, the style is changed or the device is rotated. The main looper
+ * is paused, i.e. the views are laid out once per scenario, as it would be done on the next
+ * frame.
+ *
+ * Inflated views are counted by a factory, which is set to the layout inflater of the activity
+ * and therefore to the layout inflaters of the bottom sheets, which are created afterwards. Layout
+ * requests and layout passes of the grid view are counted by a shadow of the class {@link View}.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.M,
+        shadows = BottomSheetBudgetTest.ShadowLayoutCountingView.class)
+public class BottomSheetBudgetTest {
+
+    /**
+     * A shadow of the class {@link View}, which counts the layout requests and layout passes of
+     * the grid views of bottom sheets.
+     */
+    @Implements(View.class)
+    public static class ShadowLayoutCountingView extends ShadowView {
+
+        /**
+         * The number of times, the layout of a grid view has been requested.
+         */
+        private static int layoutRequestCount;
+
+        /**
+         * The number of times, a grid view has been laid out, while its layout has been
+         * requested.
+         */
+        private static int layoutPassCount;
+
+        /**
+         * Resets the number of layout requests and layout passes.
+         */
+        static void reset() {
+            layoutRequestCount = 0;
+            layoutPassCount = 0;
+        }
+
+        /**
+         * Returns, whether the shadowed view is the grid view of a bottom sheet, or not.
+         *
+         * @return True, if the shadowed view is the grid view of a bottom sheet, false otherwise
+         */
+        private boolean isGridView() {
+            return realView.getId() == R.id.bottom_sheet_grid_view;
+        }
+
+        @Implementation
+        @Override
+        public void requestLayout() {
+            if (isGridView()) {
+                layoutRequestCount++;
+            }
+
+            super.requestLayout();
+        }
+
+        /**
+         * Lays out the shadowed view and counts the layout pass, if the view is the grid view of
+         * a bottom sheet, whose layout has been requested.
+         *
+         * @param left
+         *         The left position of the view relative to its parent as an {@link Integer}
+         *         value
+         * @param top
+         *         The top position of the view relative to its parent as an {@link Integer} value
+         * @param right
+         *         The right position of the view relative to its parent as an {@link Integer}
+         *         value
+         * @param bottom
+         *         The bottom position of the view relative to its parent as an {@link Integer}
+         *         value
+         */
+        @Implementation
+        public void layout(final int left, final int top, final int right, final int bottom) {
+            if (isGridView() && realView.isLayoutRequested()) {
+                layoutPassCount++;
+            }
+
+            Shadow.directlyOn(realView, View.class).layout(left, top, right, bottom);
+        }
+
+    }
+
+    /**
+     * A factory, which counts the views, which are inflated by a layout inflater. The views are
+     * created by the factory, which has been set to the layout inflater before, if any, or by the
+     * layout inflater itself.
+     */
+    private static class InflationCounter implements LayoutInflater.Factory2 {
+
+        /**
+         * The factory, which has been set to the layout inflater before, or null, if no factory
+         * has been set.
+         */
+        private final LayoutInflater.Factory2 factory;
+
+        /**
+         * The number of views, which have been inflated.
+         */
+        private int count;
+
+        /**
+         * Creates a new factory, which counts the views, which are inflated by a layout inflater.
+         *
+         * @param factory
+         *         The factory, which has been set to the layout inflater before, as an instance of
+         *         the type {@link LayoutInflater.Factory2} or null, if no factory has been set
+         */
+        InflationCounter(@Nullable final LayoutInflater.Factory2 factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * Returns the number of views, which have been inflated.
+         *
+         * @return The number of views, which have been inflated, as an {@link Integer} value
+         */
+        int getCount() {
+            return count;
+        }
+
+        /**
+         * Resets the number of views, which have been inflated.
+         */
+        void reset() {
+            count = 0;
+        }
+
+        @Override
+        public View onCreateView(final View parent, final String name, final Context context,
+                                 final AttributeSet attrs) {
+            count++;
+            return factory != null ? factory.onCreateView(parent, name, context, attrs) : null;
+        }
+
+        @Override
+        public View onCreateView(final String name, final Context context,
+                                 final AttributeSet attrs) {
+            count++;
+            return factory != null ? factory.onCreateView(name, context, attrs) : null;
+        }
+
+    }
+
+    /**
+     * The number of items, the bottom sheets are created with.
+     */
+    private static final int ITEM_COUNT = 10;
+
+    /**
+     * The number of items, which are added to a bottom sheet, once it has been shown.
+     */
+    private static final int ADDED_ITEM_COUNT = 100;
+
+    /**
+     * The number of views, which are contained by the layout of a bottom sheet's root view.
+     */
+    private static final int ROOT_VIEW_COUNT = 3;
+
+    /**
+     * The number of views, which are contained by the layout of a bottom sheet's title.
+     */
+    private static final int TITLE_VIEW_COUNT = 1;
+
+    /**
+     * The number of views, which are contained by the layout of a bottom sheet's grid view.
+     */
+    private static final int GRID_VIEW_COUNT = 1;
+
+    /**
+     * The number of views, which are contained by the layout of an item.
+     */
+    private static final int ITEM_VIEW_COUNT = 4;
+
+    /**
+     * The number of views, which are contained by the layout of a divider.
+     */
+    private static final int DIVIDER_VIEW_COUNT = 4;
+
+    /**
+     * The number of views, which are contained by the layout of a placeholder.
+     */
+    private static final int PLACEHOLDER_VIEW_COUNT = 1;
+
+    /**
+     * The activity, the bottom sheets are shown by.
+     */
+    private Activity activity;
+
+    /**
+     * The factory, which counts the views, which are inflated by the activity's layout inflater.
+     */
+    private InflationCounter inflationCounter;
+
+    /**
+     * The statistics, which are recorded by the adapter of the bottom sheet, which is tested.
+     */
+    private AdapterStatistics statistics;
+
+    /**
+     * Creates the activity, the bottom sheets are shown by, and sets a factory, which counts the
+     * inflated views, to its layout inflater. This must be done before any bottom sheet is created
+     * by using the activity.
+     */
+    private void createActivity() {
+        activity = Robolectric.setupActivity(Activity.class);
+        LayoutInflater layoutInflater = activity.getLayoutInflater();
+        inflationCounter = new InflationCounter(layoutInflater.getFactory2());
+        layoutInflater.setFactory2(inflationCounter);
+    }
+
+    /**
+     * Creates and shows a bottom sheet, which contains a specific number of items and uses a
+     * specific style, and lays it out. The views, which are inflated, when the bottom sheet is
+     * shown, are counted.
+     *
+     * @param style
+     *         The style of the bottom sheet as a value of the enum {@link Style}. The style may not
+     *         be null
+     * @return The bottom sheet, which has been shown, as an instance of the class {@link
+     * BottomSheet}
+     */
+    private BottomSheet showBottomSheet(@NonNull final Style style) {
+        BottomSheet.Builder builder = new BottomSheet.Builder(activity);
+        builder.setTitle("Title");
+        builder.setStyle(style);
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            builder.addItem(i, "Item " + i);
+        }
+
+        BottomSheet bottomSheet = builder.create();
+        inflationCounter.reset();
+        bottomSheet.show();
+        startStatistics(bottomSheet);
+        performTraversal(bottomSheet);
+        return bottomSheet;
+    }
+
+    /**
+     * Starts to record the statistics of the adapter of a specific bottom sheet. The statistics
+     * and layout counts, which have been recorded so far, are discarded. As a bottom sheet
+     * replaces the statistics of its adapter when it is shown, this method must be called after
+     * the bottom sheet has been shown. The number of inflated views is not reset.
+     *
+     * @param bottomSheet
+     *         The bottom sheet as an instance of the class {@link BottomSheet}. The bottom sheet
+     *         may not be null
+     */
+    private void startStatistics(@NonNull final BottomSheet bottomSheet) {
+        statistics.reset();
+        ShadowLayoutCountingView.reset();
+        ((DividableGridAdapter) bottomSheet.getListAdapter()).setStatistics(statistics);
+    }
+
+    /**
+     * Runs the tasks, which have been posted to the main looper, including the traversal of the
+     * bottom sheet's window. If the window has not been laid out by the traversal, it is measured
+     * and laid out explicitly to match the size of the display.
+     *
+     * @param bottomSheet
+     *         The bottom sheet as an instance of the class {@link BottomSheet}. The bottom sheet
+     *         may not be null
+     */
+    private void performTraversal(@NonNull final BottomSheet bottomSheet) {
+        ShadowLooper.runUiThreadTasks();
+        View decorView = bottomSheet.getWindow().getDecorView();
+
+        if (decorView.isLayoutRequested()) {
+            DisplayMetrics displayMetrics = activity.getResources().getDisplayMetrics();
+            decorView.measure(
+                    View.MeasureSpec.makeMeasureSpec(displayMetrics.widthPixels,
+                            View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(displayMetrics.heightPixels,
+                            View.MeasureSpec.EXACTLY));
+            decorView.layout(0, 0, displayMetrics.widthPixels, displayMetrics.heightPixels);
+        }
+    }
+
+    /**
+     * Returns the grid view of a specific bottom sheet.
+     *
+     * @param bottomSheet
+     *         The bottom sheet as an instance of the class {@link BottomSheet}. The bottom sheet
+     *         may not be null
+     * @return The grid view of the bottom sheet as an instance of the class {@link GridView}
+     */
+    private static GridView getGridView(@NonNull final BottomSheet bottomSheet) {
+        GridView gridView = bottomSheet.getGridView();
+        assertNotNull(gridView);
+        return gridView;
+    }
+
+    /**
+     * Returns the number of views, which must be inflated in order to display the children of the
+     * grid view of a specific bottom sheet from scratch, depending on their view types.
+     *
+     * @param bottomSheet
+     *         The bottom sheet as an instance of the class {@link BottomSheet}. The bottom sheet
+     *         may not be null
+     * @return The number of views as an {@link Integer} value
+     */
+    private static int getItemViewCount(@NonNull final BottomSheet bottomSheet) {
+        GridView gridView = getGridView(bottomSheet);
+        DividableGridAdapter adapter = (DividableGridAdapter) bottomSheet.getListAdapter();
+        int firstPosition = gridView.getFirstVisiblePosition();
+        int viewCount = 0;
+
+        for (int i = firstPosition; i < firstPosition + gridView.getChildCount(); i++) {
+            int viewType = adapter.getItemViewType(i);
+
+            if (viewType == DividableGridLayout.ITEM_VIEW_TYPE) {
+                viewCount += ITEM_VIEW_COUNT;
+            } else if (viewType == DividableGridLayout.SEPARATOR_VIEW_TYPE) {
+                viewCount += DIVIDER_VIEW_COUNT;
+            } else {
+                viewCount += PLACEHOLDER_VIEW_COUNT;
+            }
+        }
+
+        return viewCount;
+    }
+
+    /**
+     * Asserts, that specific numbers of views have been inflated, bound and laid out and that
+     * the layout of the adapter has been computed and the data set has been changed a specific
+     * number of times.
+     *
+     * @param inflatedViews
+     *         The number of views, which have been inflated by the layout inflater, as an {@link
+     *         Integer} value
+     * @param inflations
+     *         The number of views, which have been inflated by the adapter, as an {@link Integer}
+     *         value
+     * @param binds
+     *         The number of views, which have been bound by the adapter, as an {@link Integer}
+     *         value
+     * @param layoutRequests
+     *         The number of times, the layout of the grid view has been requested, as an {@link
+     *         Integer} value or -1, if the number should not be asserted
+     * @param layoutPasses
+     *         The number of times, the grid view has been laid out, as an {@link Integer} value
+     * @param layouts
+     *         The number of times, the layout of the adapter has been computed, as an {@link
+     *         Integer} value
+     * @param dataSetChanges
+     *         The number of data set changes as an {@link Integer} value
+     */
+    private void assertCounts(final int inflatedViews, final int inflations, final int binds,
+                              final int layoutRequests, final int layoutPasses,
+                              final int layouts, final int dataSetChanges) {
+        assertEquals("Inflated views", inflatedViews, inflationCounter.getCount());
+        assertEquals("Inflations", inflations, statistics.getInflationCount());
+        assertEquals("getView calls", binds, statistics.getBindCount());
+
+        if (layoutRequests != -1) {
+            assertEquals("Layout requests", layoutRequests,
+                    ShadowLayoutCountingView.layoutRequestCount);
+        }
+
+        assertEquals("Layout passes", layoutPasses, ShadowLayoutCountingView.layoutPassCount);
+        assertEquals("Layout computations", layouts, statistics.getLayoutCount());
+        assertEquals("Data set changes", dataSetChanges, statistics.getDataSetChangeCount());
+    }
+
+    /**
+     * Initializes the activity and the statistics and pauses the main looper.
+     */
+    @Before
+    public final void setUp() {
+        createActivity();
+        statistics = new AdapterStatistics();
+        ShadowLooper.pauseMainLooper();
+    }
+
+    /**
+     * Unpauses the main looper.
+     */
+    @After
+    public final void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    /**
+     * Tests the counts, when a bottom sheet is shown. The root view, the title, the grid view and
+     * the view of each item are inflated once, as the grid view is as high as its children. Each
+     * item is bound once. The layout has already been computed, when the bottom sheet has been
+     * started, and the data set is not changed.
+     */
+    @Test
+    public final void testShow() {
+        BottomSheet bottomSheet = showBottomSheet(Style.LIST);
+        assertEquals(ITEM_COUNT, getGridView(bottomSheet).getChildCount());
+        assertCounts(ROOT_VIEW_COUNT + TITLE_VIEW_COUNT + GRID_VIEW_COUNT +
+                ITEM_COUNT * ITEM_VIEW_COUNT, ITEM_COUNT, ITEM_COUNT, -1, 1, 0, 0);
+    }
+
+    /**
+     * Tests the counts, when items are added to a bottom sheet, which is shown. The data set is
+     * changed only once and the layout is only computed once, regardless of the number of items,
+     * which are added within the same frame. The views of the items, which have been displayed
+     * before, are recycled, only the views of the added items are inflated. The layout of the
+     * grid view is requested by the data set change and twice by adapting its height.
+     */
+    @Test
+    public final void testAddItems() {
+        BottomSheet bottomSheet = showBottomSheet(Style.LIST);
+        startStatistics(bottomSheet);
+        inflationCounter.reset();
+
+        for (int i = 0; i < ADDED_ITEM_COUNT; i++) {
+            bottomSheet.addItem(ITEM_COUNT + i, "Item " + (ITEM_COUNT + i));
+        }
+
+        assertCounts(0, 0, 0, 0, 0, 0, 0);
+        performTraversal(bottomSheet);
+        assertEquals(ITEM_COUNT + ADDED_ITEM_COUNT, getGridView(bottomSheet).getChildCount());
+        assertCounts(ADDED_ITEM_COUNT * ITEM_VIEW_COUNT, ADDED_ITEM_COUNT,
+                ITEM_COUNT + ADDED_ITEM_COUNT, 3, 1, 1, 1);
+    }
+
+    /**
+     * Tests the counts, when an item of a bottom sheet, which is shown, is disabled. Only the
+     * view of the item is rebound, without inflating any views, requesting the layout of the grid
+     * view, computing the layout or changing the data set.
+     */
+    @Test
+    public final void testSetItemEnabled() {
+        BottomSheet bottomSheet = showBottomSheet(Style.LIST);
+        startStatistics(bottomSheet);
+        inflationCounter.reset();
+        bottomSheet.setItemEnabled(0, false);
+        performTraversal(bottomSheet);
+        assertCounts(0, 0, 1, 0, 0, 0, 0);
+    }
+
+    /**
+     * Tests the counts, when the style of a bottom sheet, which is shown, is changed. Changing the
+     * style changes the data set and computes the layout once. The title and the grid view are
+     * inflated again and each of the grid view's children is inflated and bound once.
+     */
+    @Test
+    public final void testSetStyle() {
+        BottomSheet bottomSheet = showBottomSheet(Style.LIST);
+        startStatistics(bottomSheet);
+        inflationCounter.reset();
+        bottomSheet.setStyle(Style.GRID);
+        performTraversal(bottomSheet);
+        int childCount = getGridView(bottomSheet).getChildCount();
+        assertCounts(TITLE_VIEW_COUNT + GRID_VIEW_COUNT + getItemViewCount(bottomSheet),
+                childCount, childCount, -1, 1, 1, 1);
+    }
+
+    /**
+     * Tests the counts, when a bottom sheet is restored after the device has been rotated. The
+     * views are inflated from scratch, exactly as many as displayed. The layout has already been
+     * computed and the data set has already been changed, when the bottom sheet has been
+     * restored and shown.
+     */
+    @Test
+    public final void testRotation() {
+        BottomSheet bottomSheet = showBottomSheet(Style.LIST_COLUMNS);
+        Bundle savedInstanceState = bottomSheet.onSaveInstanceState();
+        bottomSheet.dismiss();
+        RuntimeEnvironment.setQualifiers("land");
+        createActivity();
+        BottomSheet restoredBottomSheet = new BottomSheet.Builder(activity).create();
+        inflationCounter.reset();
+        restoredBottomSheet.onRestoreInstanceState(savedInstanceState);
+
+        if (!restoredBottomSheet.isShowing()) {
+            restoredBottomSheet.show();
+        }
+
+        startStatistics(restoredBottomSheet);
+        performTraversal(restoredBottomSheet);
+        int childCount = getGridView(restoredBottomSheet).getChildCount();
+        assertEquals(ITEM_COUNT, childCount);
+        assertCounts(ROOT_VIEW_COUNT + TITLE_VIEW_COUNT + GRID_VIEW_COUNT +
+                getItemViewCount(restoredBottomSheet), childCount, childCount, -1, 1, 0, 0);
+    }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.adapter;
+
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import de.mrapp.android.bottomsheet.BuildConfig;
+import de.mrapp.android.bottomsheet.model.Divider;
+import de.mrapp.android.bottomsheet.model.Item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the reference counting of the class {@link CompactItemList}, i.e. that titles and icons,
+ * which are shared among items, are retained as long as they are used by any item, and that the
+ * slots of released titles and icons are reused, when items are replaced or removed.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.M)
+public class CompactItemListTest {
+
+    /**
+     * Creates and returns an item.
+     *
+     * @param id
+     *         The id of the item as an {@link Integer} value
+     * @param title
+     *         The title of the item as an instance of the type {@link CharSequence}. The title may
+     *         not be null
+     * @param icon
+     *         The icon of the item as an instance of the class {@link Drawable} or null, if the
+     *         item should not have an icon
+     * @param iconId
+     *         The resource id of the icon as an {@link Integer} value or -1, if the icon has not
+     *         been loaded from a resource
+     * @return The item, which has been created, as an instance of the class {@link Item}
+     */
+    private static Item createItem(final int id, @NonNull final CharSequence title,
+                                   @Nullable final Drawable icon, final int iconId) {
+        Item item = new Item(id, title);
+        item.setIcon(icon, iconId);
+        return item;
+    }
+
+    /**
+     * Tests, that items with equal titles share a single title.
+     */
+    @Test
+    public final void testEqualTitlesAreShared() {
+        CompactItemList list = new CompactItemList();
+        list.add(new Item(0, "Shared"));
+        list.add(new Item(1, "Shared"));
+        Divider divider = new Divider();
+        divider.setTitle("Shared");
+        list.add(divider);
+        list.add(new Item(2, "Unique"));
+        assertEquals(2, list.getTitleCount());
+        assertEquals(2, list.getTitleSlotCount());
+    }
+
+    /**
+     * Tests, that a shared title survives removing one of the items, which share it, and is
+     * released, when the last of these items is removed.
+     */
+    @Test
+    public final void testSharedTitleSurvivesRemove() {
+        CompactItemList list = new CompactItemList();
+        list.add(new Item(0, "Shared"));
+        list.add(new Item(1, "Unique"));
+        list.add(new Item(2, "Shared"));
+        list.remove(0);
+        assertEquals(2, list.getTitleCount());
+        assertEquals("Unique", list.getTitle(0));
+        assertEquals("Shared", list.getTitle(1));
+        assertEquals("Shared", list.get(1).getTitle());
+        assertEquals(2, list.get(1).getId());
+        list.remove(1);
+        assertEquals(1, list.getTitleCount());
+        assertEquals("Unique", list.getTitle(0));
+    }
+
+    /**
+     * Tests, that a shared title survives replacing one of the items, which share it.
+     */
+    @Test
+    public final void testSharedTitleSurvivesSet() {
+        CompactItemList list = new CompactItemList();
+        list.add(new Item(0, "Shared"));
+        list.add(new Item(1, "Shared"));
+        list.set(0, new Item(0, "Other"));
+        assertEquals(2, list.getTitleCount());
+        assertEquals("Other", list.getTitle(0));
+        assertEquals("Shared", list.getTitle(1));
+    }
+
+    /**
+     * Tests, that replacing an item by an item with the same title does not release the title.
+     */
+    @Test
+    public final void testSetWithSameTitle() {
+        CompactItemList list = new CompactItemList();
+        list.add(new Item(0, "Title"));
+        list.set(0, new Item(1, "Title"));
+        assertEquals(1, list.getTitleCount());
+        assertEquals(1, list.getTitleSlotCount());
+        assertEquals("Title", list.getTitle(0));
+        assertEquals(1, list.getId(0));
+    }
+
+    /**
+     * Tests, that replacing an item releases its title and that the freed slot is reused. As the
+     * title of the new item is retained before the title of the replaced item is released, one
+     * additional slot is used, but the number of slots does not grow, when the item is replaced
+     * repeatedly.
+     */
+    @Test
+    public final void testSetReusesTitleSlot() {
+        CompactItemList list = new CompactItemList();
+        list.add(new Item(0, "Old"));
+        list.add(new Item(1, "Kept"));
+
+        for (int i = 0; i < 10; i++) {
+            list.set(0, new Item(0, "New " + i));
+            assertEquals(2, list.getTitleCount());
+            assertEquals(3, list.getTitleSlotCount());
+            assertEquals("New " + i, list.getTitle(0));
+            assertEquals("Kept", list.getTitle(1));
+        }
+    }
+
+    /**
+     * Tests, that removing an item frees the slot of its title and that the slot is reused by the
+     * next item, which is added.
+     */
+    @Test
+    public final void testRemoveFreesTitleSlot() {
+        CompactItemList list = new CompactItemList();
+        list.add(new Item(0, "First"));
+        list.add(new Item(1, "Second"));
+        list.remove(0);
+        assertEquals(1, list.getTitleCount());
+        assertEquals(2, list.getTitleSlotCount());
+        list.add(new Item(2, "Third"));
+        assertEquals(2, list.getTitleCount());
+        assertEquals(2, list.getTitleSlotCount());
+        assertEquals("Second", list.getTitle(0));
+        assertEquals("Third", list.getTitle(1));
+    }
+
+    /**
+     * Tests, that an icon, which is shared among items, survives removing one of them, and is
+     * released, when the last of these items is removed.
+     */
+    @Test
+    public final void testSharedIconSurvivesRemove() {
+        Drawable icon = new ColorDrawable(Color.RED);
+        CompactItemList list = new CompactItemList();
+        list.add(createItem(0, "First", icon, 1));
+        list.add(createItem(1, "Second", icon, 1));
+        assertEquals(1, list.getIconCount());
+        list.remove(0);
+        assertEquals(1, list.getIconCount());
+        assertSame(icon, list.getIcon(0));
+        Item item = (Item) list.get(0);
+        assertSame(icon, item.getIcon());
+        assertEquals(1, item.getIconId());
+        list.remove(0);
+        assertEquals(0, list.getIconCount());
+    }
+
+    /**
+     * Tests, that equal, but not identical icons are not shared.
+     */
+    @Test
+    public final void testIconsAreSharedByIdentity() {
+        CompactItemList list = new CompactItemList();
+        list.add(createItem(0, "First", new ColorDrawable(Color.RED), -1));
+        list.add(createItem(1, "Second", new ColorDrawable(Color.RED), -1));
+        assertEquals(2, list.getIconCount());
+    }
+
+    /**
+     * Tests, that replacing an item releases its icon and that the freed slot, including the
+     * resource id of the icon, is reused by the next icon.
+     */
+    @Test
+    public final void testSetReusesIconSlot() {
+        CompactItemList list = new CompactItemList();
+        list.add(createItem(0, "Title", new ColorDrawable(Color.RED), -1));
+
+        for (int i = 0; i < 10; i++) {
+            Drawable icon = new ColorDrawable(Color.BLUE);
+            list.set(0, createItem(0, "Title", icon, i));
+            assertEquals(1, list.getIconCount());
+            assertEquals(2, list.getIconSlotCount());
+            Item item = (Item) list.get(0);
+            assertSame(icon, item.getIcon());
+            assertEquals(i, item.getIconId());
+        }
+    }
+
+    /**
+     * Tests, that removing an item frees the slot of its icon and that the slot is reused by the
+     * next item, which is added.
+     */
+    @Test
+    public final void testRemoveFreesIconSlot() {
+        Drawable firstIcon = new ColorDrawable(Color.RED);
+        Drawable secondIcon = new ColorDrawable(Color.GREEN);
+        Drawable thirdIcon = new ColorDrawable(Color.BLUE);
+        CompactItemList list = new CompactItemList();
+        list.add(createItem(0, "First", firstIcon, 1));
+        list.add(createItem(1, "Second", secondIcon, 2));
+        list.remove(0);
+        assertEquals(1, list.getIconCount());
+        assertEquals(2, list.getIconSlotCount());
+        list.add(createItem(2, "Third", thirdIcon, -1));
+        assertEquals(2, list.getIconCount());
+        assertEquals(2, list.getIconSlotCount());
+        assertSame(secondIcon, list.getIcon(0));
+        assertEquals(2, ((Item) list.get(0)).getIconId());
+        assertSame(thirdIcon, list.getIcon(1));
+        assertEquals(-1, ((Item) list.get(1)).getIconId());
+    }
+
+    /**
+     * Tests, that items without an icon do not occupy a slot of the icon table.
+     */
+    @Test
+    public final void testItemsWithoutIcon() {
+        CompactItemList list = new CompactItemList();
+        list.add(new Item(0, "Title"));
+        Divider divider = new Divider();
+        list.add(divider);
+        assertEquals(0, list.getIconCount());
+        assertEquals(0, list.getIconSlotCount());
+        assertNull(list.getIcon(0));
+        assertTrue(list.isDivider(1));
+        list.remove(1);
+        list.remove(0);
+        assertEquals(1, list.getTitleSlotCount());
+        assertEquals(0, list.getTitleCount());
+    }
+
+    /**
+     * Tests, that clearing the list releases all titles and icons.
+     */
+    @Test
+    public final void testClear() {
+        CompactItemList list = new CompactItemList();
+        list.add(createItem(0, "First", new ColorDrawable(Color.RED), -1));
+        list.add(new Item(1, "Second"));
+        list.clear();
+        assertEquals(0, list.size());
+        assertEquals(0, list.getTitleCount());
+        assertEquals(0, list.getTitleSlotCount());
+        assertEquals(0, list.getIconCount());
+        assertEquals(0, list.getIconSlotCount());
+    }
+
+}
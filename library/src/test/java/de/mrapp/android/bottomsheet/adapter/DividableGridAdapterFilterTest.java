@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.adapter;
+
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+import de.mrapp.android.bottomsheet.BuildConfig;
+import de.mrapp.android.bottomsheet.model.Divider;
+import de.mrapp.android.bottomsheet.model.Item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the filtering of the items of the class {@link DividableGridAdapter} by their titles,
+ * i.e. that the visible items and dividers are the same, regardless of whether a query has been
+ * applied to all items or has narrowed the result of a previous query.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.M)
+public class DividableGridAdapterFilterTest {
+
+    /**
+     * Creates and returns a divider.
+     *
+     * @param title
+     *         The title of the divider as an instance of the type {@link CharSequence} or null, if
+     *         the divider should not have a title
+     * @return The divider, which has been created, as an instance of the class {@link Divider}.
+     * The divider may not be null
+     */
+    @NonNull
+    private static Divider createDivider(@Nullable final CharSequence title) {
+        Divider divider = new Divider();
+        divider.setTitle(title);
+        return divider;
+    }
+
+    /**
+     * Creates and returns an adapter, which contains three sections of items. The items and
+     * dividers are located at the following indices:
+     *
+     * <pre>
+     * 0: Divider "Media"       4: Divider "Mail"         7: Divider
+     * 1: Item "Camera"         5: Item "Mail"            8: Item "Calendar"
+     * 2: Item "Google Camera"  6: Item "Google Mail"     9: Item "Calculator"
+     * 3: Item "Gallery"
+     * </pre>
+     *
+     * @return The adapter, which has been created, as an instance of the class {@link
+     * DividableGridAdapter}. The adapter may not be null
+     */
+    @NonNull
+    private static DividableGridAdapter createAdapter() {
+        DividableGridAdapter adapter =
+                new DividableGridAdapter(RuntimeEnvironment.application, Style.LIST, 0);
+        adapter.add(createDivider("Media"));
+        adapter.add(new Item(1, "Camera"));
+        adapter.add(new Item(2, "Google Camera"));
+        adapter.add(new Item(3, "Gallery"));
+        adapter.add(createDivider("Mail"));
+        adapter.add(new Item(4, "Mail"));
+        adapter.add(new Item(5, "Google Mail"));
+        adapter.add(createDivider(null));
+        adapter.add(new Item(6, "Calendar"));
+        adapter.add(new Item(7, "Calculator"));
+        return adapter;
+    }
+
+    /**
+     * Returns the indices of the items and dividers, which are currently visible.
+     *
+     * @param adapter
+     *         The adapter as an instance of the class {@link DividableGridAdapter}. The adapter
+     *         may not be null
+     * @return A list, which contains the indices of the visible items and dividers, as an
+     * instance of the type {@link List}. The list may not be null
+     */
+    @NonNull
+    private static List<Integer> getVisibleIndices(@NonNull final DividableGridAdapter adapter) {
+        List<Integer> result = new ArrayList<>();
+
+        for (int i = 0; i < adapter.getCount(); i++) {
+            int index = adapter.getIndex(i);
+
+            if (index != -1) {
+                result.add(index);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Applies a specific query to an adapter and asserts, that the expected items and dividers
+     * are visible afterwards. Furthermore, it is asserted, that the same items and dividers are
+     * visible, if the query is applied to a new adapter, which has not been filtered before.
+     *
+     * @param adapter
+     *         The adapter, the query should be applied to, as an instance of the class {@link
+     *         DividableGridAdapter}. The adapter may not be null
+     * @param query
+     *         The query, which should be applied, as a {@link String}. The query may not be null
+     * @param expectedIndices
+     *         The indices of the items and dividers, which are expected to be visible, as an
+     *         {@link Integer} array
+     */
+    private static void assertFilter(@NonNull final DividableGridAdapter adapter,
+                                     @NonNull final String query,
+                                     final Integer... expectedIndices) {
+        adapter.setFilterQuery(query);
+        DividableGridAdapter unfilteredAdapter = createAdapter();
+        unfilteredAdapter.setFilterQuery(query);
+        assertEquals(Arrays.asList(expectedIndices), getVisibleIndices(adapter));
+        assertEquals(getVisibleIndices(unfilteredAdapter), getVisibleIndices(adapter));
+    }
+
+    /**
+     * Tests, that a query, which consists of a single token, shows the items, whose titles
+     * contain a token, the query is a prefix of, and the dividers of their sections.
+     */
+    @Test
+    public final void testFilterSingleToken() {
+        DividableGridAdapter adapter = createAdapter();
+        assertFilter(adapter, "cam", 0, 1, 2);
+        assertTrue(adapter.isFiltered());
+        assertEquals("cam", adapter.getFilterQuery());
+        assertFilter(adapter, "mail", 4, 5, 6);
+        assertFilter(adapter, "calc", 7, 9);
+        assertFilter(adapter, "amera");
+        assertEquals(0, adapter.getCount());
+    }
+
+    /**
+     * Tests, that a query, which consists of multiple tokens, only shows the items, whose titles
+     * contain a token for each token of the query, regardless of their order.
+     */
+    @Test
+    public final void testFilterMultipleTokens() {
+        DividableGridAdapter adapter = createAdapter();
+        assertFilter(adapter, "goo ma", 4, 6);
+        assertFilter(adapter, "ma goo", 4, 6);
+        assertFilter(adapter, "ca goo", 0, 2);
+        assertFilter(adapter, "g", 0, 2, 3, 4, 6);
+        assertFilter(adapter, "ca cal", 7, 8, 9);
+        assertFilter(adapter, "goo cal");
+    }
+
+    /**
+     * Tests, that titles and queries are compared ignoring case.
+     */
+    @Test
+    public final void testFilterIgnoresCase() {
+        DividableGridAdapter adapter = createAdapter();
+        assertFilter(adapter, "GOO cAm", 0, 2);
+        assertFilter(adapter, "Mail", 4, 5, 6);
+        assertFilter(adapter, "CALENDAR", 7, 8);
+    }
+
+    /**
+     * Tests, that queries, which extend the previous query, only show a subset of the previously
+     * visible items.
+     */
+    @Test
+    public final void testNarrowingQueries() {
+        DividableGridAdapter adapter = createAdapter();
+        assertFilter(adapter, "c", 0, 1, 2, 7, 8, 9);
+        assertFilter(adapter, "ca", 0, 1, 2, 7, 8, 9);
+        assertFilter(adapter, "cal", 7, 8, 9);
+        assertFilter(adapter, "calc", 7, 9);
+        assertFilter(adapter, "calc g");
+        assertFilter(adapter, "calcx");
+    }
+
+    /**
+     * Tests, that queries, which shorten or replace the previous query, show items, which have
+     * not been visible before.
+     */
+    @Test
+    public final void testWideningQueries() {
+        DividableGridAdapter adapter = createAdapter();
+        assertFilter(adapter, "calcx");
+        assertFilter(adapter, "calc", 7, 9);
+        assertFilter(adapter, "ca", 0, 1, 2, 7, 8, 9);
+        assertFilter(adapter, "ca goo", 0, 2);
+        assertFilter(adapter, "goo", 0, 2, 4, 6);
+        assertFilter(adapter, "mail", 4, 5, 6);
+        assertFilter(adapter, "c", 0, 1, 2, 7, 8, 9);
+    }
+
+    /**
+     * Tests, that a narrowing query takes items into account, which have been added or replaced
+     * since the previous query has been applied.
+     */
+    @Test
+    public final void testNarrowingQueryAfterItemsChanged() {
+        DividableGridAdapter adapter = createAdapter();
+        adapter.setFilterQuery("ca");
+        adapter.add(new Item(8, "Camcorder"));
+        adapter.set(3, new Item(3, "Camera Roll"));
+        adapter.setFilterQuery("cam");
+        assertEquals(Arrays.asList(0, 1, 2, 3, 7, 10), getVisibleIndices(adapter));
+        adapter.remove(1);
+        adapter.setFilterQuery("came");
+        assertEquals(Arrays.asList(0, 1, 2), getVisibleIndices(adapter));
+    }
+
+    /**
+     * Tests, that all items are shown again, when the query is reset.
+     */
+    @Test
+    public final void testResetFilter() {
+        DividableGridAdapter adapter = createAdapter();
+        List<Integer> allIndices = getVisibleIndices(adapter);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), allIndices);
+        adapter.setFilterQuery("cam");
+        adapter.setFilterQuery(" - ");
+        assertFalse(adapter.isFiltered());
+        assertNull(adapter.getFilterQuery());
+        assertEquals(allIndices, getVisibleIndices(adapter));
+        adapter.setFilterQuery("cam");
+        adapter.setFilterQuery(null);
+        assertFalse(adapter.isFiltered());
+        assertEquals(allIndices, getVisibleIndices(adapter));
+    }
+
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.adapter;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the class {@link TitleIndex}, i.e. the tokenization of titles and queries, the lookup of
+ * titles by the prefixes of their tokens and the reference counting of equal titles.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+public class TitleIndexTest {
+
+    /**
+     * The highest character, which is a letter or digit and can therefore be contained by a
+     * token.
+     */
+    private static final char HIGHEST_LETTER = '\uFFDC';
+
+    /**
+     * Creates and returns a set, which contains specific titles.
+     *
+     * @param titles
+     *         The titles, which should be contained by the set, as a {@link String} array. The
+     *         array may not be null
+     * @return The set, which has been created, as an instance of the type {@link Set}. The set
+     * may not be null
+     */
+    @NonNull
+    private static Set<String> setOf(@NonNull final String... titles) {
+        return new HashSet<>(Arrays.asList(titles));
+    }
+
+    /**
+     * Creates and returns an index, which contains specific titles.
+     *
+     * @param titles
+     *         The titles, which should be added to the index, as a {@link String} array. The array
+     *         may not be null
+     * @return The index, which has been created, as an instance of the class {@link TitleIndex}.
+     * The index may not be null
+     */
+    @NonNull
+    private static TitleIndex createIndex(@NonNull final String... titles) {
+        TitleIndex index = new TitleIndex();
+
+        for (String title : titles) {
+            index.add(title);
+        }
+
+        return index;
+    }
+
+    /**
+     * Asserts, that the titles, which are returned by an index for a specific query, are equal to
+     * the titles, which match the query individually, and to the expected titles.
+     *
+     * @param index
+     *         The index, which should be queried, as an instance of the class {@link TitleIndex}.
+     *         The index may not be null
+     * @param titles
+     *         An array, which contains all titles of the index, as a {@link String} array. The
+     *         array may not be null
+     * @param query
+     *         The query as a {@link String}. The query may not be null
+     * @param expectedTitles
+     *         The titles, which are expected to match the query, as a {@link String} array. The
+     *         array may not be null
+     */
+    private static void assertQuery(@NonNull final TitleIndex index,
+                                    @NonNull final String[] titles, @NonNull final String query,
+                                    @NonNull final String... expectedTitles) {
+        String[] queryTokens = TitleIndex.tokenize(query);
+        Set<String> matchingTitles = new HashSet<>();
+
+        for (String title : titles) {
+            if (index.matches(title, queryTokens)) {
+                matchingTitles.add(title);
+            }
+        }
+
+        assertEquals(setOf(expectedTitles), index.query(queryTokens));
+        assertEquals(setOf(expectedTitles), matchingTitles);
+    }
+
+    /**
+     * Tests, that texts are split into lower case tokens at characters, which are neither letters,
+     * nor digits.
+     */
+    @Test
+    public final void testTokenize() {
+        assertArrayEquals(new String[]{"google", "maps", "2"},
+                TitleIndex.tokenize("  Google-MAPS, 2 "));
+        assertArrayEquals(new String[0], TitleIndex.tokenize(" - "));
+        assertArrayEquals(new String[0], TitleIndex.tokenize(""));
+        assertArrayEquals(new String[0], TitleIndex.tokenize(null));
+    }
+
+    /**
+     * Tests, that a query, which consists of a single token, matches all titles, which contain a
+     * token, the query is a prefix of.
+     */
+    @Test
+    public final void testQuerySingleToken() {
+        String[] titles = {"Camera", "Google Camera", "Calendar", "Mail"};
+        TitleIndex index = createIndex(titles);
+        assertQuery(index, titles, "cam", "Camera", "Google Camera");
+        assertQuery(index, titles, "ca", "Camera", "Google Camera", "Calendar");
+        assertQuery(index, titles, "camera", "Camera", "Google Camera");
+        assertQuery(index, titles, "cameras");
+        assertQuery(index, titles, "amera");
+    }
+
+    /**
+     * Tests, that a query, which consists of multiple tokens, only matches titles, which contain a
+     * token for each token of the query, regardless of their order.
+     */
+    @Test
+    public final void testQueryMultipleTokens() {
+        String[] titles = {"Google Camera", "Google Maps", "Open Camera", "Maps"};
+        TitleIndex index = createIndex(titles);
+        assertQuery(index, titles, "goo cam", "Google Camera");
+        assertQuery(index, titles, "cam goo", "Google Camera");
+        assertQuery(index, titles, "g m", "Google Maps");
+        assertQuery(index, titles, "o ca", "Open Camera");
+        assertQuery(index, titles, "goo cam maps");
+        assertQuery(index, titles, "cam cam", "Google Camera", "Open Camera");
+        assertQuery(index, titles, "ca camera", "Google Camera", "Open Camera");
+    }
+
+    /**
+     * Tests, that titles and queries are compared ignoring case.
+     */
+    @Test
+    public final void testQueryIgnoresCase() {
+        String[] titles = {"GOOGLE Camera", "camera"};
+        TitleIndex index = createIndex(titles);
+        assertQuery(index, titles, "Cam", "GOOGLE Camera", "camera");
+        assertQuery(index, titles, "gOoGlE CAMERA", "GOOGLE Camera");
+    }
+
+    /**
+     * Tests, that an empty query matches all titles.
+     */
+    @Test
+    public final void testEmptyQuery() {
+        String[] titles = {"Camera", "Mail"};
+        TitleIndex index = createIndex(titles);
+        assertQuery(index, titles, "", "Camera", "Mail");
+        assertQuery(index, titles, " , ", "Camera", "Mail");
+    }
+
+    /**
+     * Tests, that a query token, which is equal to a token of a title or which is a prefix of a
+     * token, which ends with the highest letter, matches the title, although such tokens are
+     * located at the bounds of the range of the index, which is inspected for the query token.
+     */
+    @Test
+    public final void testQueryTokenAtRangeBounds() {
+        String highestToken = "ab" + HIGHEST_LETTER;
+        String[] titles =
+                {"ab", highestToken, highestToken + HIGHEST_LETTER, "ac", "aa" + HIGHEST_LETTER};
+        TitleIndex index = createIndex(titles);
+        assertQuery(index, titles, "ab", "ab", highestToken, highestToken + HIGHEST_LETTER);
+        assertQuery(index, titles, highestToken, highestToken, highestToken + HIGHEST_LETTER);
+        assertQuery(index, titles, highestToken + HIGHEST_LETTER,
+                highestToken + HIGHEST_LETTER);
+        assertQuery(index, titles, "aa", "aa" + HIGHEST_LETTER);
+        assertQuery(index, titles, "ac", "ac");
+        assertEquals(setOf(), index.query(new String[]{"ab" + Character.MAX_VALUE}));
+    }
+
+    /**
+     * Tests, that a query, which extends a previous query, only matches a subset of the titles,
+     * which have been matched by the previous query, and that a shortened query matches a superset
+     * of them.
+     */
+    @Test
+    public final void testNarrowingAndWideningQueries() {
+        String[] titles = {"Camera", "Calendar", "Calculator", "Google Camera", "Mail"};
+        TitleIndex index = createIndex(titles);
+        String[] queries = {"c", "ca", "cal", "calc", "cal", "ca", "ca g", "ca", "c"};
+        Set<String> previousResult = null;
+        String previousQuery = null;
+
+        for (String query : queries) {
+            Set<String> result = index.query(TitleIndex.tokenize(query));
+
+            if (previousResult != null) {
+                if (query.startsWith(previousQuery)) {
+                    assertTrue(previousResult.containsAll(result));
+                } else {
+                    assertTrue(result.containsAll(previousResult));
+                }
+            }
+
+            previousResult = result;
+            previousQuery = query;
+        }
+
+        assertQuery(index, titles, "calc", "Calculator");
+        assertQuery(index, titles, "ca g", "Google Camera");
+        assertQuery(index, titles, "c", "Camera", "Calendar", "Calculator", "Google Camera");
+    }
+
+    /**
+     * Tests, that equal titles share a single entry, which is only removed, when the title has
+     * been removed as often as it has been added.
+     */
+    @Test
+    public final void testRemoveEqualTitles() {
+        TitleIndex index = createIndex("Camera", "Camera", "Google Camera");
+        String[] queryTokens = TitleIndex.tokenize("cam");
+        index.remove("Camera");
+        assertEquals(setOf("Camera", "Google Camera"), index.query(queryTokens));
+        index.remove("Camera");
+        assertEquals(setOf("Google Camera"), index.query(queryTokens));
+        index.remove("Camera");
+        index.remove("Google Camera");
+        assertEquals(setOf(), index.query(queryTokens));
+        assertEquals(setOf(), index.query(new String[0]));
+    }
+
+    /**
+     * Tests, that null and empty titles are ignored and only match an empty query.
+     */
+    @Test
+    public final void testNullAndEmptyTitles() {
+        TitleIndex index = createIndex("Camera");
+        index.add(null);
+        index.add("");
+        index.remove(null);
+        assertEquals(setOf("Camera"), index.query(new String[0]));
+        assertTrue(index.matches(null, new String[0]));
+        assertFalse(index.matches("", TitleIndex.tokenize("cam")));
+    }
+
+    /**
+     * Tests, that titles, which have not been indexed, are matched by tokenizing them.
+     */
+    @Test
+    public final void testMatchesTitleNotIndexed() {
+        TitleIndex index = createIndex("Camera");
+        assertTrue(index.matches("Google Maps", TitleIndex.tokenize("MA go")));
+        assertFalse(index.matches("Google Maps", TitleIndex.tokenize("cam")));
+    }
+
+    /**
+     * Tests, that clearing the index removes all titles.
+     */
+    @Test
+    public final void testClear() {
+        TitleIndex index = createIndex("Camera", "Mail");
+        index.clear();
+        assertEquals(setOf(), index.query(TitleIndex.tokenize("cam")));
+        assertEquals(setOf(), index.query(new String[0]));
+    }
+
+}
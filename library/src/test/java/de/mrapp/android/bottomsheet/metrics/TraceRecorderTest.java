@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.metrics;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.view.ContextThemeWrapper;
+import android.widget.GridView;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+import de.mrapp.android.bottomsheet.BuildConfig;
+import de.mrapp.android.bottomsheet.R;
+import de.mrapp.android.bottomsheet.adapter.DividableGridAdapter;
+import de.mrapp.android.bottomsheet.model.Divider;
+import de.mrapp.android.bottomsheet.model.Item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link TraceRecorder}, when the sections, which are traced
+ * by the adapter of a bottom sheet, are recorded by using the class {@link Tracing}. The
+ * recorded sections are exported in the Chrome trace event format and parsed again in order to
+ * verify the output.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.M)
+public class TraceRecorderTest {
+
+    /**
+     * The name of the section, which is traced, when the adapter computes its layout.
+     */
+    private static final String LAYOUT_SECTION = "DividableGridAdapter.getRawItems";
+
+    /**
+     * The name of the section, which is traced, when the adapter binds a view.
+     */
+    private static final String GET_VIEW_SECTION = "DividableGridAdapter.getView";
+
+    /**
+     * The recorder, which is tested.
+     */
+    private TraceRecorder recorder;
+
+    /**
+     * Creates and returns an adapter, which contains items and dividers.
+     *
+     * @param context
+     *         The context, which should be used by the adapter, as an instance of the class {@link
+     *         Context}. The context may not be null
+     * @return The adapter, which has been created, as an instance of the class {@link
+     * DividableGridAdapter}
+     */
+    private static DividableGridAdapter createAdapter(@NonNull final Context context) {
+        DividableGridAdapter adapter = new DividableGridAdapter(context, Style.GRID, 480);
+
+        for (int i = 0; i < 3; i++) {
+            adapter.add(new Item(i, "Item " + i));
+        }
+
+        Divider divider = new Divider();
+        divider.setTitle("Divider");
+        adapter.add(divider);
+        adapter.add(new Item(3, "Item 3"));
+        return adapter;
+    }
+
+    /**
+     * Parses the events, which have been recorded, from the Chrome trace event format.
+     *
+     * @return A list, which contains the parsed events, as an instance of the type {@link List}
+     * @throws JSONException
+     *         The exception, which is thrown, if the recorded events are not valid JSON
+     */
+    private List<JSONObject> parseEvents() throws JSONException {
+        JSONObject trace = new JSONObject(recorder.toChromeTrace());
+        assertEquals("ns", trace.getString("displayTimeUnit"));
+        JSONArray array = trace.getJSONArray("traceEvents");
+        List<JSONObject> events = new ArrayList<>();
+
+        for (int i = 0; i < array.length(); i++) {
+            events.add(array.getJSONObject(i));
+        }
+
+        return events;
+    }
+
+    /**
+     * Asserts, that specific events consist of a metadata event, which names the current thread,
+     * followed by properly nested begin and end events with non-decreasing timestamps, and
+     * returns the number of sections by their names.
+     *
+     * @param events
+     *         A list, which contains the events, as an instance of the type {@link List}
+     * @return A map, which contains the number of sections by their names, as an instance of the
+     * type {@link Map}
+     * @throws JSONException
+     *         The exception, which is thrown, if an event does not contain a mandatory property
+     */
+    private static Map<String, Integer> assertWellFormed(@NonNull final List<JSONObject> events)
+            throws JSONException {
+        Thread thread = Thread.currentThread();
+        JSONObject metadata = events.get(0);
+        assertEquals("M", metadata.getString("ph"));
+        assertEquals("thread_name", metadata.getString("name"));
+        assertEquals(thread.getId(), metadata.getLong("tid"));
+        assertEquals(thread.getName(), metadata.getJSONObject("args").getString("name"));
+        Map<String, Integer> sectionCounts = new HashMap<>();
+        Deque<String> openSections = new ArrayDeque<>();
+        double previousTimestamp = 0;
+
+        for (JSONObject event : events.subList(1, events.size())) {
+            assertEquals(thread.getId(), event.getLong("tid"));
+            assertEquals(metadata.getInt("pid"), event.getInt("pid"));
+            double timestamp = event.getDouble("ts");
+            assertTrue(timestamp >= previousTimestamp);
+            previousTimestamp = timestamp;
+            String phase = event.getString("ph");
+
+            if ("B".equals(phase)) {
+                String name = event.getString("name");
+                openSections.push(name);
+                Integer count = sectionCounts.get(name);
+                sectionCounts.put(name, count != null ? count + 1 : 1);
+            } else {
+                assertEquals("E", phase);
+                assertTrue("End event without a matching begin event",
+                        !openSections.isEmpty());
+                openSections.pop();
+            }
+        }
+
+        assertTrue("Sections have not been ended: " + openSections, openSections.isEmpty());
+        return sectionCounts;
+    }
+
+    /**
+     * Enables tracing and sets the recorder, which is tested.
+     */
+    @Before
+    public final void setUp() {
+        recorder = new TraceRecorder();
+        Tracing.setRecorder(recorder);
+        Tracing.setEnabled(true);
+    }
+
+    /**
+     * Disables tracing and removes the recorder, which is tested.
+     */
+    @After
+    public final void tearDown() {
+        Tracing.setEnabled(false);
+        Tracing.setRecorder(null);
+    }
+
+    /**
+     * Tests, that the sections, which are traced, while the adapter of a bottom sheet computes
+     * its layout and binds its views, are exported as valid Chrome trace events.
+     *
+     * @throws JSONException
+     *         The exception, which is thrown, if the recorded events are not valid JSON
+     */
+    @Test
+    public final void testAdapterSections() throws JSONException {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        Context context = new ContextThemeWrapper(activity, R.style.BottomSheet_Light);
+        DividableGridAdapter adapter = createAdapter(context);
+        GridView parent = new GridView(context);
+        recorder.clear();
+        int count = adapter.getCount();
+        assertTrue(count > 0);
+
+        for (int i = 0; i < count; i++) {
+            adapter.getView(i, null, parent);
+        }
+
+        Map<String, Integer> sectionCounts = assertWellFormed(parseEvents());
+        assertEquals(Integer.valueOf(1), sectionCounts.get(LAYOUT_SECTION));
+        assertEquals(Integer.valueOf(count), sectionCounts.get(GET_VIEW_SECTION));
+        assertEquals(2 * (count + 1), recorder.getEventCount());
+    }
+
+    /**
+     * Tests, that no sections are recorded, if tracing is disabled.
+     */
+    @Test
+    public final void testDisabled() {
+        Tracing.setEnabled(false);
+        Tracing.beginSection(LAYOUT_SECTION);
+        Tracing.endSection();
+        assertEquals(0, recorder.getEventCount());
+    }
+
+    /**
+     * Tests, that nested sections are exported in the order, they have been begun and ended.
+     *
+     * @throws JSONException
+     *         The exception, which is thrown, if the recorded events are not valid JSON
+     */
+    @Test
+    public final void testNestedSections() throws JSONException {
+        Tracing.beginSection("outer");
+        Tracing.beginSection("inner");
+        Tracing.endSection();
+        Tracing.endSection();
+        List<JSONObject> events = parseEvents();
+        assertWellFormed(events);
+        assertEquals(5, events.size());
+        assertEquals("outer", events.get(1).getString("name"));
+        assertEquals("inner", events.get(2).getString("name"));
+        assertEquals("E", events.get(3).getString("ph"));
+        assertEquals("E", events.get(4).getString("ph"));
+    }
+
+    /**
+     * Tests, that quotes, backslashes and control characters are escaped, when section names are
+     * exported.
+     *
+     * @throws JSONException
+     *         The exception, which is thrown, if the recorded events are not valid JSON
+     */
+    @Test
+    public final void testEscaping() throws JSONException {
+        String name = "\"quoted\" \\path\\\n\ttab";
+        Tracing.beginSection(name);
+        Tracing.endSection();
+        List<JSONObject> events = parseEvents();
+        assertWellFormed(events);
+        assertEquals(name, events.get(1).getString("name"));
+    }
+
+    /**
+     * Tests, that an empty, but valid trace is exported, after the recorded events have been
+     * removed.
+     *
+     * @throws JSONException
+     *         The exception, which is thrown, if the recorded events are not valid JSON
+     */
+    @Test
+    public final void testClear() throws JSONException {
+        Tracing.beginSection("section");
+        Tracing.endSection();
+        recorder.clear();
+        assertEquals(0, recorder.getEventCount());
+        assertTrue(parseEvents().isEmpty());
+    }
+
+}
@@ -0,0 +1,533 @@
+/*
+ * Copyright 2014 - 2016 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.bottomsheet.view;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.v4.view.ViewCompat;
+import android.util.DisplayMetrics;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.DecelerateInterpolator;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import de.mrapp.android.bottomsheet.BottomSheet;
+import de.mrapp.android.bottomsheet.BottomSheet.Style;
+import de.mrapp.android.bottomsheet.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Measures the time and the number of bytes, which are allocated, when synthetic touch events are
+ * dispatched to the {@link DraggableView} of a bottom sheet. The events simulate gestures on a
+ * touch screen, which reports touch events at 120 Hz, while frames are drawn at 60 Hz, i.e. two
+ * move events are coalesced into each frame. The main looper is paused and advanced by one frame
+ * interval after every second event, which runs the frame callbacks, which have been posted to
+ * the choreographer. Only the dispatch of the events is measured, the frames in between are not.
+ *
+ * Each iteration uses a new bottom sheet, whose show animation has ended. Once a gesture has been
+ * released, the animation, which settles the view, is run to its end and the bottom sheet is
+ * dismissed, so that gestures do not affect each other. The results of each gesture are written
+ * to a JSON file within the directory {@link #REPORT_DIRECTORY}.
+ *
+ * @author Michael Rapp
+ * @since 1.5.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = Build.VERSION_CODES.M)
+public class TouchBenchmarkTest {
+
+    /**
+     * Contains all gestures, which can be simulated.
+     */
+    private enum Scenario {
+
+        /**
+         * A slow drag gesture, which moves the view downwards and back up again.
+         */
+        DRAG,
+
+        /**
+         * A short, fast swipe gesture upwards, which is released with a high velocity.
+         */
+        FLING,
+
+        /**
+         * A drag gesture upwards, which is started after the view has been maximized and
+         * therefore scrolls its content instead of moving the view.
+         */
+        MAXIMIZE_THEN_SCROLL
+
+    }
+
+    /**
+     * The number of items, the bottom sheets are created with.
+     */
+    private static final int ITEM_COUNT = 100;
+
+    /**
+     * The number of times, each gesture is simulated.
+     */
+    private static final int ITERATIONS = 10;
+
+    /**
+     * The interval between two events in milliseconds, which corresponds to a rate of 120 Hz.
+     */
+    private static final long EVENT_INTERVAL = 8;
+
+    /**
+     * The number of events, which are coalesced into a single frame.
+     */
+    private static final int EVENTS_PER_FRAME = 2;
+
+    /**
+     * The interval between two frames in milliseconds.
+     */
+    private static final long FRAME_INTERVAL = EVENTS_PER_FRAME * EVENT_INTERVAL;
+
+    /**
+     * The maximum number of frames, an animation may take to end.
+     */
+    private static final int MAX_ANIMATION_FRAMES = 600;
+
+    /**
+     * The vertical offset in pixels between the top of the view and the position, where gestures
+     * are started.
+     */
+    private static final int START_OFFSET = 16;
+
+    /**
+     * The directory, the results are written to, relative to the module's directory.
+     */
+    private static final String REPORT_DIRECTORY = "build/reports/benchmarks";
+
+    /**
+     * The bean, which is used to measure the number of bytes, which are allocated by the current
+     * thread.
+     */
+    private com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * The activity, the bottom sheets are shown by.
+     */
+    private Activity activity;
+
+    /**
+     * An array, which is used to obtain the position of the view within its window.
+     */
+    private final int[] location = new int[2];
+
+    /**
+     * Returns the vertical distances between the move events, which simulate a specific gesture.
+     *
+     * @param scenario
+     *         The gesture as a value of the enum {@link Scenario}. The gesture may not be null
+     * @return An array, which contains the vertical distances in pixels between the move events,
+     * as a {@link Float} array
+     */
+    private static float[] getDistances(@NonNull final Scenario scenario) {
+        float[] distances;
+
+        switch (scenario) {
+            case DRAG:
+                distances = new float[120];
+
+                for (int i = 0; i < distances.length; i++) {
+                    distances[i] = i < distances.length / 2 ? 4 : -4;
+                }
+
+                return distances;
+            case FLING:
+                distances = new float[12];
+
+                for (int i = 0; i < distances.length; i++) {
+                    distances[i] = -40;
+                }
+
+                return distances;
+            default:
+                distances = new float[90];
+
+                for (int i = 0; i < distances.length; i++) {
+                    distances[i] = -20;
+                }
+
+                return distances;
+        }
+    }
+
+    /**
+     * Creates the events, which simulate a specific gesture on a specific view. The gesture
+     * consists of a down event, multiple move events, which are described by their vertical
+     * distances to the previous event, and an up event. The raw coordinates of the events
+     * correspond to the coordinates within the view's window, whereas their coordinates are
+     * local to the view, as if they had been dispatched by the view's parent.
+     *
+     * @param view
+     *         The view, the events should be dispatched to, as an instance of the class {@link
+     *         View}. The view may not be null
+     * @param distances
+     *         An array, which contains the vertical distances in pixels between the move events, as
+     *         a {@link Float} array. The array may not be null
+     * @return An array, which contains the events, which have been created, as an array of the
+     * type {@link MotionEvent}
+     */
+    private MotionEvent[] createEvents(@NonNull final View view,
+                                       @NonNull final float[] distances) {
+        view.getLocationInWindow(location);
+        float x = location[0] + view.getWidth() / 2f;
+        float y = location[1] + START_OFFSET;
+        long downTime = SystemClock.uptimeMillis();
+        MotionEvent[] events = new MotionEvent[distances.length + 2];
+        events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, y, 0);
+
+        for (int i = 0; i < distances.length; i++) {
+            y += distances[i];
+            events[i + 1] = MotionEvent.obtain(downTime, downTime + (i + 1) * EVENT_INTERVAL,
+                    MotionEvent.ACTION_MOVE, x, y, 0);
+        }
+
+        events[events.length - 1] = MotionEvent.obtain(downTime,
+                downTime + (events.length - 1) * EVENT_INTERVAL, MotionEvent.ACTION_UP, x, y, 0);
+
+        for (MotionEvent event : events) {
+            event.offsetLocation(-location[0], -location[1]);
+        }
+
+        return events;
+    }
+
+    /**
+     * Creates and shows a bottom sheet, lays it out and waits for its show animation to end.
+     *
+     * @return The bottom sheet, which has been shown, as an instance of the class {@link
+     * BottomSheet}
+     */
+    private BottomSheet showBottomSheet() {
+        BottomSheet.Builder builder = new BottomSheet.Builder(activity);
+        builder.setTitle("Title");
+        builder.setStyle(Style.LIST);
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            builder.addItem(i, "Item " + i);
+        }
+
+        BottomSheet bottomSheet = builder.create();
+        bottomSheet.show();
+        ShadowLooper.runUiThreadTasks();
+        View decorView = bottomSheet.getWindow().getDecorView();
+
+        if (decorView.isLayoutRequested()) {
+            DisplayMetrics displayMetrics = activity.getResources().getDisplayMetrics();
+            decorView.measure(
+                    View.MeasureSpec.makeMeasureSpec(displayMetrics.widthPixels,
+                            View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(displayMetrics.heightPixels,
+                            View.MeasureSpec.EXACTLY));
+            decorView.layout(0, 0, displayMetrics.widthPixels, displayMetrics.heightPixels);
+        }
+
+        runAnimation(getDraggableView(bottomSheet));
+        return bottomSheet;
+    }
+
+    /**
+     * Prepares a specific bottom sheet for simulating a specific gesture. If the gesture should
+     * be continued after the view has been maximized, the view is maximized and the animation,
+     * which maximizes it, is run to its end.
+     *
+     * @param bottomSheet
+     *         The bottom sheet as an instance of the class {@link BottomSheet}. The bottom sheet
+     *         may not be null
+     * @param scenario
+     *         The gesture as a value of the enum {@link Scenario}. The gesture may not be null
+     */
+    private static void prepare(@NonNull final BottomSheet bottomSheet,
+                                @NonNull final Scenario scenario) {
+        if (scenario == Scenario.MAXIMIZE_THEN_SCROLL) {
+            DraggableView view = getDraggableView(bottomSheet);
+            view.maximize(new DecelerateInterpolator());
+            runAnimation(view);
+            assertTrue("The view has not been maximized", view.isMaximized());
+        }
+    }
+
+    /**
+     * Returns, whether a specific gesture is expected to move the view, or not. Once the view has
+     * been maximized, gestures upwards are passed to its content instead.
+     *
+     * @param scenario
+     *         The gesture as a value of the enum {@link Scenario}. The gesture may not be null
+     * @return True, if the gesture is expected to move the view, false otherwise
+     */
+    private static boolean isMoving(@NonNull final Scenario scenario) {
+        return scenario != Scenario.MAXIMIZE_THEN_SCROLL;
+    }
+
+    /**
+     * Returns the root view of a specific bottom sheet.
+     *
+     * @param bottomSheet
+     *         The bottom sheet as an instance of the class {@link BottomSheet}. The bottom sheet
+     *         may not be null
+     * @return The root view of the bottom sheet as an instance of the class {@link
+     * DraggableView}
+     */
+    private static DraggableView getDraggableView(@NonNull final BottomSheet bottomSheet) {
+        ViewGroup contentView = (ViewGroup) bottomSheet.findViewById(android.R.id.content);
+        return (DraggableView) contentView.getChildAt(0);
+    }
+
+    /**
+     * Advances the main looper frame by frame, until the animation, which moves a specific view,
+     * has ended.
+     *
+     * @param view
+     *         The view as an instance of the class {@link DraggableView}. The view may not be null
+     */
+    private static void runAnimation(@NonNull final DraggableView view) {
+        for (int i = 0; i < MAX_ANIMATION_FRAMES && view.isAnimationRunning(); i++) {
+            ShadowLooper.idleMainLooper(FRAME_INTERVAL);
+        }
+
+        assertFalse("The animation has not ended", view.isAnimationRunning());
+    }
+
+    /**
+     * Resets a specific bottom sheet, after a gesture has been simulated. The animation, which
+     * has been started by releasing the gesture, is run to its end and the bottom sheet is
+     * dismissed, unless it has already been hidden by the gesture. Detaching the root view
+     * cancels any animation, which is still pending.
+     *
+     * @param bottomSheet
+     *         The bottom sheet as an instance of the class {@link BottomSheet}. The bottom sheet
+     *         may not be null
+     */
+    private static void reset(@NonNull final BottomSheet bottomSheet) {
+        DraggableView view = getDraggableView(bottomSheet);
+        runAnimation(view);
+
+        if (bottomSheet.isShowing()) {
+            bottomSheet.dismiss();
+            runAnimation(view);
+        }
+
+        ViewCompat.animate(view).cancel();
+        view.clearAnimation();
+        ShadowLooper.runUiThreadTasks();
+        assertFalse(bottomSheet.isShowing());
+    }
+
+    /**
+     * Returns the number of bytes, which have been allocated by the current thread so far.
+     *
+     * @return The number of bytes, which have been allocated by the current thread, as a {@link
+     * Long} value
+     */
+    private long getAllocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Writes the results of simulating a specific gesture to a JSON file.
+     *
+     * @param scenario
+     *         The gesture, which has been simulated, as a value of the enum {@link Scenario}. The
+     *         gesture may not be null
+     * @param result
+     *         The results as an instance of the class {@link JSONObject}. The results may not be
+     *         null
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be written
+     */
+    private static void report(@NonNull final Scenario scenario,
+                               @NonNull final JSONObject result) throws IOException {
+        File directory = new File(REPORT_DIRECTORY);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + directory);
+        }
+
+        File file = new File(directory,
+                TouchBenchmarkTest.class.getSimpleName() + "-" + scenario + ".json");
+        OutputStream outputStream = new FileOutputStream(file);
+
+        try {
+            outputStream.write(result.toString().getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Simulates a specific gesture multiple times, measures the time, which has been required to
+     * dispatch the corresponding events, and the number of bytes, which have been allocated
+     * meanwhile, and writes the results to a JSON file. Furthermore, it is asserted, that the
+     * view has been moved by the frame callbacks during each gesture, if the gesture is expected
+     * to move the view, or that it has not been moved otherwise.
+     *
+     * @param scenario
+     *         The gesture, which should be simulated, as a value of the enum {@link Scenario}. The
+     *         gesture may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the results could not be written
+     * @throws JSONException
+     *         The exception, which is thrown, if the results could not be converted to JSON
+     */
+    private void run(@NonNull final Scenario scenario) throws IOException, JSONException {
+        float[] distances = getDistances(scenario);
+        int eventCount = 0;
+        int movedFrameCount = 0;
+        long duration = 0;
+        long allocatedBytes = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            BottomSheet bottomSheet = showBottomSheet();
+            prepare(bottomSheet, scenario);
+            DraggableView view = getDraggableView(bottomSheet);
+            MotionEvent[] events = createEvents(view, distances);
+            int previousMargin = view.getTopMargin();
+            int movedFrames = 0;
+
+            for (int j = 0; j < events.length; j++) {
+                long bytes = getAllocatedBytes();
+                long startTime = System.nanoTime();
+                view.dispatchTouchEvent(events[j]);
+                duration += System.nanoTime() - startTime;
+                allocatedBytes += getAllocatedBytes() - bytes;
+
+                if ((j + 1) % EVENTS_PER_FRAME == 0 && j < events.length - 1) {
+                    ShadowLooper.idleMainLooper(FRAME_INTERVAL);
+                    int margin = view.getTopMargin();
+
+                    if (margin != previousMargin) {
+                        previousMargin = margin;
+                        movedFrames++;
+                    }
+                }
+            }
+
+            eventCount += events.length;
+            movedFrameCount += movedFrames;
+
+            if (isMoving(scenario)) {
+                assertTrue("The view has not been moved by " + scenario, movedFrames > 0);
+            } else {
+                assertEquals("The view has been moved by " + scenario, 0, movedFrames);
+                assertTrue("The view is not maximized anymore", view.isMaximized());
+            }
+
+            for (MotionEvent event : events) {
+                event.recycle();
+            }
+
+            reset(bottomSheet);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("scenario", scenario.name());
+        result.put("iterations", ITERATIONS);
+        result.put("eventCount", eventCount);
+        result.put("nanosPerEvent", (double) duration / eventCount);
+        result.put("bytesPerEvent", (double) allocatedBytes / eventCount);
+        result.put("movedFramesPerGesture", (double) movedFrameCount / ITERATIONS);
+        report(scenario, result);
+    }
+
+    /**
+     * Initializes the activity, enables the measurement of allocated bytes and pauses the main
+     * looper. The test is skipped, if the JVM does not support measuring the number of bytes,
+     * which are allocated by a thread.
+     */
+    @Before
+    public final void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        activity = Robolectric.setupActivity(Activity.class);
+        ShadowLooper.pauseMainLooper();
+    }
+
+    /**
+     * Unpauses the main looper.
+     */
+    @After
+    public final void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    /**
+     * Benchmarks a slow drag gesture, which moves the view downwards and back up again.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the results could not be written
+     * @throws JSONException
+     *         The exception, which is thrown, if the results could not be converted to JSON
+     */
+    @Test
+    public final void testDrag() throws IOException, JSONException {
+        run(Scenario.DRAG);
+    }
+
+    /**
+     * Benchmarks a short, fast swipe gesture upwards.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the results could not be written
+     * @throws JSONException
+     *         The exception, which is thrown, if the results could not be converted to JSON
+     */
+    @Test
+    public final void testFling() throws IOException, JSONException {
+        run(Scenario.FLING);
+    }
+
+    /**
+     * Benchmarks a drag gesture upwards, which scrolls the content of the view after the view has
+     * been maximized.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the results could not be written
+     * @throws JSONException
+     *         The exception, which is thrown, if the results could not be converted to JSON
+     */
+    @Test
+    public final void testMaximizeThenScroll() throws IOException, JSONException {
+        run(Scenario.MAXIMIZE_THEN_SCROLL);
+    }
+
+}